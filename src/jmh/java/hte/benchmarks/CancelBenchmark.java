@@ -0,0 +1,137 @@
+package hte.benchmarks;
+
+import static hte.benchmarks.EngineFixture.MID;
+import static hte.benchmarks.EngineFixture.ask;
+import static hte.benchmarks.EngineFixture.bid;
+
+import hte.matchingengine.MatchingEngine;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Cancel-heavy order flow: {@code removeOrder} mixed with placements, and {@code removeAll}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CancelBenchmark {
+
+    /**
+     * Random non-crossing placements and cancels of outstanding orders.
+     *
+     * <p>Each operation cancels with probability {@code cancelRatio}, otherwise places a one-lot
+     * order at a random level inside the book. Once {@link #MAX_OUTSTANDING} orders are resting,
+     * every operation cancels.
+     */
+    @State(Scope.Thread)
+    public static class Flow {
+        static final int MAX_OUTSTANDING = 1 << 16;
+
+        @Param({"FINITE", "INFINITE"})
+        EngineMode mode;
+
+        @Param({"100", "1000"})
+        int depth;
+
+        @Param({"10", "1000"})
+        int users;
+
+        @Param({"0.5", "0.9", "0.99"})
+        double cancelRatio;
+
+        MatchingEngine engine;
+        String[] traders;
+        final SplittableRandom random = new SplittableRandom(42);
+        final String[] owners = new String[MAX_OUTSTANDING];
+        final long[] ids = new long[MAX_OUTSTANDING];
+        int outstanding;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            engine = EngineFixture.engine(mode);
+            traders = EngineFixture.traders(engine, users);
+            EngineFixture.seedBook(engine, depth, 1);
+            outstanding = 0;
+        }
+    }
+
+    @Benchmark
+    public boolean mixedFlow(Flow flow) {
+        SplittableRandom random = flow.random;
+        boolean cancel =
+                flow.outstanding == Flow.MAX_OUTSTANDING
+                        || (flow.outstanding > 0 && random.nextDouble() < flow.cancelRatio);
+        if (cancel) {
+            // Swap-remove a random outstanding order.
+            int i = random.nextInt(flow.outstanding);
+            int last = --flow.outstanding;
+            boolean removed = flow.engine.removeOrder(flow.owners[i], flow.ids[i]);
+            flow.owners[i] = flow.owners[last];
+            flow.ids[i] = flow.ids[last];
+            return removed;
+        }
+        String user = flow.traders[random.nextInt(flow.traders.length)];
+        int level = 1 + random.nextInt(flow.depth);
+        Object orderId =
+                random.nextBoolean()
+                        ? flow.engine
+                                .bidLimitOrderHandler(user, bid(user, MID - level, 1))
+                                .get("orderId")
+                        : flow.engine
+                                .askLimitOrderHandler(user, ask(user, MID + level, 1))
+                                .get("orderId");
+        flow.owners[flow.outstanding] = user;
+        flow.ids[flow.outstanding] = (long) orderId;
+        flow.outstanding++;
+        return true;
+    }
+
+    /** One user with {@code ordersPerUser} resting orders spread over the book. */
+    @State(Scope.Thread)
+    public static class Crowded {
+        @Param({"FINITE", "INFINITE"})
+        EngineMode mode;
+
+        @Param({"10", "100", "1000"})
+        int ordersPerUser;
+
+        MatchingEngine engine;
+        String user;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            engine = EngineFixture.engine(mode);
+            user = EngineFixture.traders(engine, 1)[0];
+            EngineFixture.seedBook(engine, 100, 1);
+        }
+
+        @Setup(Level.Invocation)
+        public void place() {
+            for (int i = 0; i < ordersPerUser; i++) {
+                int level = 1 + i % 100;
+                if (i % 2 == 0) {
+                    engine.bidLimitOrderHandler(user, bid(user, MID - level, 1));
+                } else {
+                    engine.askLimitOrderHandler(user, ask(user, MID + level, 1));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void removeAll(Crowded crowded) {
+        crowded.engine.removeAll(crowded.user);
+    }
+}
@@ -0,0 +1,67 @@
+package hte.benchmarks;
+
+import hte.matchingengine.MatchingEngine;
+import hte.matchingengine.Order;
+import hte.matchingengine.Side;
+import hte.matchingengine.Status;
+
+/**
+ * Builds populated {@link MatchingEngine}s for the benchmarks.
+ *
+ * <p>Books are centred on {@link #MID}: asks rest at {@code MID + 1 .. MID + depth}, bids at {@code
+ * MID - depth .. MID - 1}, all posted by the {@link #MAKER} bot. Traders are regular users with
+ * enough cash (finite mode) or position limit (infinite mode) that benchmarks never hit a limit.
+ */
+final class EngineFixture {
+    static final String TICKER = "A";
+    static final String MAKER = "maker";
+    static final int MID = 5_000;
+
+    private static final int CASH = 1_000_000_000;
+    private static final int INVENTORY = 1_000_000_000;
+    private static final int POSITION_LIMIT = 1_000_000_000;
+
+    private EngineFixture() {}
+
+    /** An engine with one ticker, the maker bot, and no orders. */
+    static MatchingEngine engine(EngineMode mode) {
+        MatchingEngine engine =
+                mode == EngineMode.FINITE
+                        ? new MatchingEngine()
+                        : new MatchingEngine(POSITION_LIMIT);
+        engine.setPriceBand(0, 2 * MID);
+        engine.initializeTicker(TICKER);
+        engine.initializeBot(MAKER);
+        engine.initializeUserTickerVolume(MAKER, TICKER, INVENTORY);
+        return engine;
+    }
+
+    /** Initializes {@code count} traders and returns their names. */
+    static String[] traders(MatchingEngine engine, int count) {
+        String[] users = new String[count];
+        for (int i = 0; i < count; i++) {
+            users[i] = "trader" + i;
+            engine.initializeUserBalance(users[i], CASH);
+            engine.initializeUserTickerVolume(users[i], TICKER, INVENTORY);
+        }
+        return users;
+    }
+
+    /** Rests {@code ordersPerLevel} one-lot maker orders on each of {@code depth} levels a side. */
+    static void seedBook(MatchingEngine engine, int depth, int ordersPerLevel) {
+        for (int level = 1; level <= depth; level++) {
+            for (int i = 0; i < ordersPerLevel; i++) {
+                engine.askLimitOrderHandler(MAKER, ask(MAKER, MID + level, 1));
+                engine.bidLimitOrderHandler(MAKER, bid(MAKER, MID - level, 1));
+            }
+        }
+    }
+
+    static Order bid(String user, int price, int volume) {
+        return new Order(user, TICKER, price, volume, Side.BID, Status.ACTIVE);
+    }
+
+    static Order ask(String user, int price, int volume) {
+        return new Order(user, TICKER, price, volume, Side.ASK, Status.ACTIVE);
+    }
+}
@@ -0,0 +1,7 @@
+package hte.benchmarks;
+
+/** Engine configuration a benchmark runs under: cash-constrained or position-limited. */
+public enum EngineMode {
+    FINITE,
+    INFINITE
+}
@@ -0,0 +1,105 @@
+package hte.benchmarks;
+
+import static hte.benchmarks.EngineFixture.MAKER;
+import static hte.benchmarks.EngineFixture.MID;
+import static hte.benchmarks.EngineFixture.TICKER;
+import static hte.benchmarks.EngineFixture.ask;
+import static hte.benchmarks.EngineFixture.bid;
+
+import hte.matchingengine.MatchingEngine;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Limit and market orders against a book of steady depth.
+ *
+ * <p>Every benchmark leaves the book as it found it (the maker re-posts whatever was taken and
+ * resting orders are cancelled), so depth stays at {@code depth} levels for the whole run. The
+ * engine is rebuilt per iteration because filled orders stay in the engine's per-user order maps.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LimitOrderBenchmark {
+    @Param({"FINITE", "INFINITE"})
+    EngineMode mode;
+
+    @Param({"1", "100", "1000"})
+    int depth;
+
+    @Param({"10", "1000"})
+    int users;
+
+    private MatchingEngine engine;
+    private String[] traders;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        engine = EngineFixture.engine(mode);
+        traders = EngineFixture.traders(engine, users);
+        EngineFixture.seedBook(engine, depth, 4);
+    }
+
+    private String trader() {
+        next = next + 1 == traders.length ? 0 : next + 1;
+        return traders[next];
+    }
+
+    /** A non-crossing bid joins the back of a level inside the book, then is cancelled. */
+    @Benchmark
+    public boolean restingBidThenCancel() {
+        String user = trader();
+        int price = MID - 1 - (next % depth);
+        Map<String, Object> placed = engine.bidLimitOrderHandler(user, bid(user, price, 1));
+        return engine.removeOrder(user, (long) placed.get("orderId"));
+    }
+
+    /** A non-crossing ask joins the back of a level inside the book, then is cancelled. */
+    @Benchmark
+    public boolean restingAskThenCancel() {
+        String user = trader();
+        int price = MID + 1 + (next % depth);
+        Map<String, Object> placed = engine.askLimitOrderHandler(user, ask(user, price, 1));
+        return engine.removeOrder(user, (long) placed.get("orderId"));
+    }
+
+    /**
+     * One lot bought with a crossing limit bid and sold back with a crossing limit ask; the maker
+     * re-posts both lots. Four handler calls per operation.
+     */
+    @Benchmark
+    public void crossingRoundTrip(Blackhole blackhole) {
+        String user = trader();
+        blackhole.consume(engine.bidLimitOrderHandler(user, bid(user, MID + 1, 1)));
+        blackhole.consume(engine.askLimitOrderHandler(MAKER, ask(MAKER, MID + 1, 1)));
+        blackhole.consume(engine.askLimitOrderHandler(user, ask(user, MID - 1, 1)));
+        blackhole.consume(engine.bidLimitOrderHandler(MAKER, bid(MAKER, MID - 1, 1)));
+    }
+
+    /** As {@link #crossingRoundTrip} with market orders for the trader. */
+    @Benchmark
+    public void marketRoundTrip(Blackhole blackhole) {
+        String user = trader();
+        blackhole.consume(engine.bidMarketOrderHandler(user, TICKER, 1));
+        blackhole.consume(engine.askLimitOrderHandler(MAKER, ask(MAKER, MID + 1, 1)));
+        blackhole.consume(engine.askMarketOrderHandler(user, TICKER, 1));
+        blackhole.consume(engine.bidLimitOrderHandler(MAKER, bid(MAKER, MID - 1, 1)));
+    }
+}
@@ -0,0 +1,96 @@
+package hte.benchmarks;
+
+import static hte.benchmarks.EngineFixture.MID;
+import static hte.benchmarks.EngineFixture.ask;
+import static hte.benchmarks.EngineFixture.bid;
+
+import hte.matchingengine.LeaderboardEntry;
+import hte.matchingengine.MatchingEngine;
+import hte.matchingengine.UserList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Read paths that run on the engine thread: user details and the leaderboard. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+    private static final int TICKERS = 8;
+
+    @Param({"FINITE", "INFINITE"})
+    EngineMode mode;
+
+    @Param({"10", "1000"})
+    int users;
+
+    @Param({"0", "100"})
+    int ordersPerUser;
+
+    private MatchingEngine engine;
+    private String[] traders;
+    private int next;
+
+    private UserList userList;
+    private final Map<String, Integer> prices = new HashMap<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = EngineFixture.engine(mode);
+        traders = EngineFixture.traders(engine, users);
+        EngineFixture.seedBook(engine, 100, 1);
+        for (String user : traders) {
+            for (int i = 0; i < ordersPerUser; i++) {
+                int level = 1 + i % 100;
+                if (i % 2 == 0) {
+                    engine.bidLimitOrderHandler(user, bid(user, MID - level, 1));
+                } else {
+                    engine.askLimitOrderHandler(user, ask(user, MID + level, 1));
+                }
+            }
+        }
+
+        // A standalone user list with open positions in every ticker, so PnL is non-trivial.
+        userList = new UserList();
+        userList.setInfinite(mode == EngineMode.INFINITE);
+        userList.setPositionLimit(1_000_000);
+        for (int t = 0; t < TICKERS; t++) {
+            prices.put("T" + t, 100 + t);
+        }
+        for (int u = 0; u < users; u++) {
+            String user = "trader" + u;
+            userList.initializeUser(user, 1_000_000);
+            for (int t = 0; t < TICKERS; t++) {
+                userList.initializeUserQuantity(user, "T" + t, 0);
+                userList.adjustUserTickerBalance(user, "T" + t, 1 + (u + t) % 50, 90 + t);
+            }
+        }
+    }
+
+    @Benchmark
+    public String getUserDetails() {
+        next = next + 1 == traders.length ? 0 : next + 1;
+        return engine.getUserDetails(traders[next]);
+    }
+
+    @Benchmark
+    public ArrayList<LeaderboardEntry> leaderboard() {
+        return userList.getLeaderboard(prices);
+    }
+}
@@ -0,0 +1,89 @@
+package hte.benchmarks;
+
+import static hte.benchmarks.EngineFixture.MAKER;
+import static hte.benchmarks.EngineFixture.MID;
+import static hte.benchmarks.EngineFixture.TICKER;
+import static hte.benchmarks.EngineFixture.ask;
+import static hte.benchmarks.EngineFixture.bid;
+
+import hte.matchingengine.MatchingEngine;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * An aggressive order that takes every level on the ask side in one call.
+ *
+ * <p>The book is refilled outside the measurement before each invocation ({@link Level#Invocation}
+ * setup), which JMH only times accurately for operations well above a microsecond; the deeper
+ * params are the meaningful ones. The trader sells its lots back to the maker during that setup so
+ * finite-mode cash never runs out.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SweepBenchmark {
+    @Param({"FINITE", "INFINITE"})
+    EngineMode mode;
+
+    @Param({"10", "100", "1000"})
+    int depth;
+
+    @Param({"1", "8"})
+    int ordersPerLevel;
+
+    private MatchingEngine engine;
+    private String trader;
+    private boolean swept;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        engine = EngineFixture.engine(mode);
+        trader = EngineFixture.traders(engine, 1)[0];
+        swept = false;
+    }
+
+    @Setup(Level.Invocation)
+    public void refill() {
+        if (swept) {
+            // Sell the previous sweep back at the top of the band; the maker bot can always pay.
+            engine.bidLimitOrderHandler(MAKER, bid(MAKER, MID + depth, sweepVolume()));
+            engine.askLimitOrderHandler(trader, ask(trader, MID + depth, sweepVolume()));
+        }
+        for (int level = 1; level <= depth; level++) {
+            for (int i = 0; i < ordersPerLevel; i++) {
+                engine.askLimitOrderHandler(MAKER, ask(MAKER, MID + level, 1));
+            }
+        }
+        // Every invocation takes the whole side, so from here on there is a sweep to sell back.
+        swept = true;
+    }
+
+    private int sweepVolume() {
+        return depth * ordersPerLevel;
+    }
+
+    @Benchmark
+    public Map<String, Object> limitSweep() {
+        return engine.bidLimitOrderHandler(trader, bid(trader, MID + depth, sweepVolume()));
+    }
+
+    @Benchmark
+    public Map<String, Object> marketSweep() {
+        return engine.bidMarketOrderHandler(trader, TICKER, sweepVolume());
+    }
+}
@@ -0,0 +1,115 @@
+package hte.api;
+
+import hte.api.dtos.responses.BboResponse;
+import hte.matchingengine.MatchingEngine;
+import hte.matchingengine.TopOfBook;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pushes each ticker's best bid and ask to {@code /topic/bbo} as soon as the engine changes it.
+ *
+ * <p>A dedicated thread waits on {@link TopOfBook}, which the engine wakes at the end of any batch
+ * that moved a top of book, so a change goes out without waiting for a scheduler tick. Each ticker
+ * gets at most one message per {@code hte.bbo.min-interval-micros}; changes inside that window are
+ * coalesced and the message carries the latest quote.
+ */
+@Component
+public class BboPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(BboPublisher.class);
+
+    // Longest wait when nothing is pending, so stop() is noticed.
+    private static final long IDLE_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final TopOfBook topOfBook;
+    private final MarketDataBroadcaster broadcaster;
+    private final long minIntervalNanos;
+
+    // Publisher thread state: per ticker, the last version sent and when.
+    private final Map<String, long[]> sent = new HashMap<>();
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public BboPublisher(
+            MatchingEngine matchingEngine,
+            MarketDataBroadcaster broadcaster,
+            @Value("${hte.bbo.min-interval-micros:100}") long minIntervalMicros) {
+        this.topOfBook = matchingEngine.getTopOfBook();
+        this.broadcaster = broadcaster;
+        this.minIntervalNanos = TimeUnit.MICROSECONDS.toNanos(minIntervalMicros);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        thread = new Thread(this::publishLoop, "bbo-publisher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(TimeUnit.SECONDS.toMillis(1));
+        }
+    }
+
+    private void publishLoop() {
+        long waitNanos = IDLE_WAIT_NANOS;
+        while (running) {
+            topOfBook.await(waitNanos, TimeUnit.NANOSECONDS);
+            try {
+                long nextDue = publishDue(System.nanoTime());
+                waitNanos = nextDue == 0 ? IDLE_WAIT_NANOS : Math.max(1, nextDue);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to publish top of book", e);
+                waitNanos = IDLE_WAIT_NANOS;
+            }
+        }
+    }
+
+    /**
+     * Sends the quote of every ticker that changed since its last message and is past its interval.
+     *
+     * @return nanos until the earliest held-back ticker is due, or 0 if none is held back.
+     */
+    synchronized long publishDue(long nowNanos) {
+        long nextDue = 0;
+        for (TopOfBook.Slot slot : topOfBook.slots()) {
+            long[] last = sent.computeIfAbsent(slot.ticker(), t -> new long[2]);
+            if (slot.version() == last[0]) {
+                continue;
+            }
+            long due = last[1] + minIntervalNanos - nowNanos;
+            if (last[0] != 0 && due > 0) {
+                nextDue = nextDue == 0 ? due : Math.min(nextDue, due);
+                continue;
+            }
+            TopOfBook.Quote quote = slot.read();
+            last[0] = quote.version();
+            last[1] = nowNanos;
+            // Keyed by ticker: a session that falls behind only gets each ticker's latest quote.
+            broadcaster.publish(
+                    "/topic/bbo",
+                    new BboResponse(
+                            quote.ticker(),
+                            quote.version(),
+                            quote.bidPrice(),
+                            quote.bidVolume(),
+                            quote.askPrice(),
+                            quote.askVolume()),
+                    quote.ticker());
+        }
+        return nextDue;
+    }
+}
@@ -0,0 +1,38 @@
+package hte.api;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves request-side work off the engine thread.
+ *
+ * <p>The engine completes a command's future itself, and a {@link CompletableFuture} runs the
+ * stages chained onto it on the completing thread. Without a hop, every {@code thenApply} a service
+ * or controller adds would run inside the matching loop. Services hand back {@link #offEngine}
+ * views of their engine futures instead, so all the engine does is complete the future and hand one
+ * task to this executor.
+ */
+@Component
+public class EngineResponses {
+    // Continuations are short and may block on I/O (response writes, broadcasts).
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("engine-response-", 0).factory());
+
+    /**
+     * @return a future that completes like {@code future}, but on this executor, so stages chained
+     *     onto it never run on the engine thread.
+     */
+    public <T> CompletableFuture<T> offEngine(CompletableFuture<T> future) {
+        return future.thenApplyAsync(Function.identity(), executor);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+}
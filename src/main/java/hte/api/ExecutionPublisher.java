@@ -0,0 +1,116 @@
+package hte.api;
+
+import hte.api.dtos.responses.FillsResponse;
+import hte.api.dtos.responses.TradesResponse;
+import hte.matchingengine.MatchingEngine;
+import hte.matchingengine.Side;
+import hte.matchingengine.Trade;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the engine's fills: an anonymized trade tape on {@code /topic/trades} and each user's
+ * own fills on {@code /user/queue/fills}.
+ *
+ * <p>Each poll drains whatever the engine handed over since the last one and sends it as one
+ * message per destination. The tape's {@code seq} counts tape messages; each user's {@code seq}
+ * counts that user's fill messages, and advances even while the user is not connected, so a gap
+ * tells a reconnecting client it missed fills.
+ */
+@Component
+public class ExecutionPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionPublisher.class);
+
+    private final MatchingEngine matchingEngine;
+    private final SimpUserRegistry simpUserRegistry;
+    private final SimpMessagingTemplate template;
+    private final MarketDataBroadcaster broadcaster;
+
+    // Publisher thread state.
+    private long tapeSeq;
+    private final Map<String, Long> fillSeqs = new HashMap<>();
+
+    public ExecutionPublisher(
+            MatchingEngine matchingEngine,
+            SimpUserRegistry simpUserRegistry,
+            SimpMessagingTemplate template,
+            MarketDataBroadcaster broadcaster) {
+        this.matchingEngine = matchingEngine;
+        this.simpUserRegistry = simpUserRegistry;
+        this.template = template;
+        this.broadcaster = broadcaster;
+    }
+
+    @Scheduled(fixedRateString = "${hte.executions.poll-ms:50}")
+    public synchronized void poll() {
+        List<TradesResponse.TapeTrade> tape = new ArrayList<>();
+        Map<String, List<FillsResponse.Fill>> fills = new LinkedHashMap<>();
+        matchingEngine
+                .getExecutions()
+                .drain(
+                        trade -> {
+                            tape.add(
+                                    new TradesResponse.TapeTrade(
+                                            trade.getTradeId(),
+                                            trade.getTicker(),
+                                            trade.getPrice(),
+                                            trade.getVolume(),
+                                            trade.getSide().name(),
+                                            trade.getTimestamp()));
+                            Side makerSide = trade.getSide() == Side.BID ? Side.ASK : Side.BID;
+                            addFill(fills, trade.getMaker(), trade, makerSide, "MAKER");
+                            addFill(fills, trade.getTaker(), trade, trade.getSide(), "TAKER");
+                        });
+        if (tape.isEmpty()) {
+            return;
+        }
+
+        try {
+            broadcaster.publish("/topic/trades", new TradesResponse(++tapeSeq, tape));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to publish trade tape: seq={}", tapeSeq, e);
+        }
+        for (Map.Entry<String, List<FillsResponse.Fill>> entry : fills.entrySet()) {
+            String username = entry.getKey();
+            long seq = fillSeqs.merge(username, 1L, Long::sum);
+            if (simpUserRegistry.getUser(username) == null) {
+                continue;
+            }
+            try {
+                template.convertAndSendToUser(
+                        username, "/queue/fills", new FillsResponse(seq, entry.getValue()));
+            } catch (RuntimeException e) {
+                logger.warn("Failed to push fills: user={} seq={}", username, seq, e);
+            }
+        }
+    }
+
+    private static void addFill(
+            Map<String, List<FillsResponse.Fill>> fills,
+            String username,
+            Trade trade,
+            Side side,
+            String liquidity) {
+        fills.computeIfAbsent(username, k -> new ArrayList<>())
+                .add(
+                        new FillsResponse.Fill(
+                                trade.getTradeId(),
+                                trade.getTicker(),
+                                trade.getPrice(),
+                                trade.getVolume(),
+                                side.name(),
+                                liquidity,
+                                trade.getMakerOrderId(),
+                                trade.getTakerOrderId(),
+                                trade.getTimestamp()));
+    }
+}
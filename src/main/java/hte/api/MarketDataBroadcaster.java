@@ -0,0 +1,445 @@
+package hte.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hte.api.dtos.responses.SocketSessionsResponse;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+/**
+ * STOMP broker for {@code /topic/*}: fans market data out to WebSocket sessions through bounded
+ * per-session queues.
+ *
+ * <p>Each {@link #publish} serializes its payload once, and only if the destination has
+ * subscribers; every subscribed session then queues the same immutable body, and only the short
+ * STOMP header differs per session. Each session is drained by its own sender task, so a slow
+ * client only ever delays itself.
+ *
+ * <p>A message published with a conflation key replaces a message with the same key that is still
+ * queued for the subscription, so a client that falls behind on state messages (such as a ticker's
+ * top of book) gets the latest state instead of a backlog. Level updates are deltas and cannot be
+ * merged that way: a session whose queue reaches {@code hte.ws.queue-capacity} is closed with
+ * {@link #SLOW_CONSUMER}, whose reason tells the client to reconnect and resync.
+ *
+ * <p>Destinations are matched exactly. User destinations ({@code /user/queue/*}) stay on Spring's
+ * simple broker; both send through the same per-session lock, so their frames never interleave.
+ */
+@Component
+public class MarketDataBroadcaster {
+    private static final Logger logger = LoggerFactory.getLogger(MarketDataBroadcaster.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    static final String TOPIC_PREFIX = "/topic/";
+
+    /** Close status of a session that fell {@code hte.ws.queue-capacity} messages behind. */
+    public static final CloseStatus SLOW_CONSUMER =
+            CloseStatus.SESSION_NOT_RELIABLE.withReason(
+                    "Slow consumer: reconnect, resubscribe and resync from /snapshot");
+
+    private static final String JSON = "application/json";
+    private static final String TEXT = "text/plain;charset=UTF-8";
+    private static final String OCTET_STREAM = "application/octet-stream";
+
+    private final int queueCapacity;
+    private final Executor senders;
+
+    private final ConcurrentHashMap<String, Outbox> sessions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CopyOnWriteArrayList<Subscription>> subscribers =
+            new ConcurrentHashMap<>();
+    private final AtomicLong droppedSessions = new AtomicLong();
+
+    @Autowired
+    public MarketDataBroadcaster(@Value("${hte.ws.queue-capacity:1024}") int queueCapacity) {
+        // A blocked socket write parks a virtual thread, not a pool thread other sessions need.
+        this(
+                queueCapacity,
+                Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name("ws-sender-", 0).factory()));
+    }
+
+    MarketDataBroadcaster(int queueCapacity, Executor senders) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("queueCapacity must be > 0");
+        }
+        this.queueCapacity = queueCapacity;
+        this.senders = senders;
+    }
+
+    /** Wraps the STOMP endpoint's handler so every WebSocket session gets an outbox. */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                super.afterConnectionEstablished(connected(session));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus)
+                    throws Exception {
+                disconnected(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        subscribe(headers.getSessionId(), headers.getSubscriptionId(), headers.getDestination());
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        unsubscribe(headers.getSessionId(), headers.getSubscriptionId());
+    }
+
+    /**
+     * Sends {@code payload} to every subscriber of {@code destination}: a {@code byte[]} as a
+     * binary frame, a {@code String} as text, anything else as JSON.
+     *
+     * @return number of subscriptions it was queued for.
+     */
+    public int publish(String destination, Object payload) {
+        return publish(destination, payload, null);
+    }
+
+    /**
+     * Like {@link #publish(String, Object)}, but replaces a message with the same {@code
+     * conflationKey} that a subscriber has not been sent yet.
+     */
+    public int publish(String destination, Object payload, String conflationKey) {
+        List<Subscription> subs = subscribers.get(destination);
+        if (subs == null || subs.isEmpty()) {
+            return 0;
+        }
+        Frame frame = frameOf(payload, conflationKey);
+        long now = System.nanoTime();
+        int queued = 0;
+        for (Subscription sub : subs) {
+            if (sub.outbox.offer(sub, frame, now)) {
+                queued++;
+            }
+        }
+        return queued;
+    }
+
+    /**
+     * @return queue depth, lag and counters of every connected session.
+     */
+    public List<SocketSessionsResponse.Session> getSessions() {
+        long now = System.nanoTime();
+        List<SocketSessionsResponse.Session> result = new ArrayList<>();
+        for (Outbox outbox : sessions.values()) {
+            result.add(outbox.stats(now));
+        }
+        return result;
+    }
+
+    /**
+     * @return number of sessions closed for falling behind since startup.
+     */
+    public long getDroppedSessions() {
+        return droppedSessions.get();
+    }
+
+    WebSocketSession connected(WebSocketSession session) {
+        LockedSession locked = new LockedSession(session);
+        sessions.put(session.getId(), new Outbox(locked));
+        return locked;
+    }
+
+    void disconnected(String sessionId) {
+        Outbox outbox = sessions.remove(sessionId);
+        if (outbox == null) {
+            return;
+        }
+        for (Subscription sub : outbox.subscriptions.values()) {
+            removeSubscriber(sub);
+        }
+        outbox.close();
+    }
+
+    void subscribe(String sessionId, String subscriptionId, String destination) {
+        if (sessionId == null
+                || subscriptionId == null
+                || destination == null
+                || !destination.startsWith(TOPIC_PREFIX)) {
+            return;
+        }
+        Outbox outbox = sessions.get(sessionId);
+        if (outbox == null) {
+            return;
+        }
+        Subscription sub = new Subscription(outbox, subscriptionId, destination);
+        Subscription previous = outbox.subscriptions.put(subscriptionId, sub);
+        if (previous != null) {
+            removeSubscriber(previous);
+        }
+        subscribers.computeIfAbsent(destination, d -> new CopyOnWriteArrayList<>()).add(sub);
+    }
+
+    void unsubscribe(String sessionId, String subscriptionId) {
+        Outbox outbox = sessionId == null ? null : sessions.get(sessionId);
+        if (outbox == null || subscriptionId == null) {
+            return;
+        }
+        Subscription sub = outbox.subscriptions.remove(subscriptionId);
+        if (sub != null) {
+            removeSubscriber(sub);
+        }
+    }
+
+    private void removeSubscriber(Subscription sub) {
+        List<Subscription> subs = subscribers.get(sub.destination);
+        if (subs != null) {
+            subs.remove(sub);
+        }
+    }
+
+    private static Frame frameOf(Object payload, String conflationKey) {
+        if (payload instanceof byte[] bytes) {
+            return new Frame(bytes, OCTET_STREAM, true, conflationKey);
+        }
+        if (payload instanceof String text) {
+            return new Frame(text.getBytes(StandardCharsets.UTF_8), TEXT, false, conflationKey);
+        }
+        try {
+            return new Frame(objectMapper.writeValueAsBytes(payload), JSON, false, conflationKey);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize market data payload", e);
+        }
+    }
+
+    /** A serialized message body, shared by every session it is queued for. */
+    private record Frame(byte[] body, String contentType, boolean binary, String conflationKey) {}
+
+    /** A frame waiting in one session's queue; a newer conflated frame replaces {@code frame}. */
+    private static final class Pending {
+        final Subscription sub;
+        final long enqueuedNanos;
+        Frame frame;
+
+        Pending(Subscription sub, Frame frame, long enqueuedNanos) {
+            this.sub = sub;
+            this.frame = frame;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    private static final class Subscription {
+        final Outbox outbox;
+        final String destination;
+        // "MESSAGE", destination and subscription headers, encoded once.
+        final byte[] headers;
+        // Conflation key -> queued frame. Guarded by the outbox.
+        final Map<String, Pending> pending = new HashMap<>();
+
+        Subscription(Outbox outbox, String subscriptionId, String destination) {
+            this.outbox = outbox;
+            this.destination = destination;
+            this.headers =
+                    ("MESSAGE\ndestination:"
+                                    + escape(destination)
+                                    + "\nsubscription:"
+                                    + escape(subscriptionId)
+                                    + "\n")
+                            .getBytes(StandardCharsets.UTF_8);
+        }
+
+        private static String escape(String value) {
+            // STOMP 1.2 header escaping.
+            return value.replace("\\", "\\\\")
+                    .replace("\n", "\\n")
+                    .replace("\r", "\\r")
+                    .replace(":", "\\c");
+        }
+    }
+
+    private final class Outbox {
+        final LockedSession session;
+        final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+        // Guarded by this.
+        private final ArrayDeque<Pending> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+        private int maxQueued;
+        private long conflated;
+
+        // Sender task only, one at a time.
+        private long messageId;
+        private volatile long sent;
+
+        Outbox(LockedSession session) {
+            this.session = session;
+        }
+
+        synchronized boolean offer(Subscription sub, Frame frame, long now) {
+            if (closed) {
+                return false;
+            }
+            if (frame.conflationKey() != null) {
+                Pending pending = sub.pending.get(frame.conflationKey());
+                if (pending != null) {
+                    pending.frame = frame;
+                    conflated++;
+                    return true;
+                }
+            }
+            if (queue.size() >= queueCapacity) {
+                dropSlowConsumer();
+                return false;
+            }
+            Pending pending = new Pending(sub, frame, now);
+            queue.add(pending);
+            if (frame.conflationKey() != null) {
+                sub.pending.put(frame.conflationKey(), pending);
+            }
+            maxQueued = Math.max(maxQueued, queue.size());
+            if (!draining) {
+                draining = true;
+                senders.execute(this::drain);
+            }
+            return true;
+        }
+
+        synchronized void close() {
+            closed = true;
+            queue.clear();
+            for (Subscription sub : subscriptions.values()) {
+                sub.pending.clear();
+            }
+        }
+
+        synchronized SocketSessionsResponse.Session stats(long now) {
+            Pending oldest = queue.peek();
+            Principal user = session.getPrincipal();
+            return new SocketSessionsResponse.Session(
+                    session.getId(),
+                    user == null ? null : user.getName(),
+                    queue.size(),
+                    maxQueued,
+                    oldest == null ? 0 : now - oldest.enqueuedNanos,
+                    sent,
+                    conflated);
+        }
+
+        private void dropSlowConsumer() {
+            close();
+            droppedSessions.incrementAndGet();
+            logger.warn(
+                    "Closing slow WebSocket session {} with {} queued messages",
+                    session.getId(),
+                    queueCapacity);
+            senders.execute(
+                    () -> {
+                        try {
+                            session.getDelegate().close(SLOW_CONSUMER);
+                        } catch (IOException | RuntimeException e) {
+                            logger.debug("Failed to close session {}", session.getId(), e);
+                        }
+                    });
+        }
+
+        private void drain() {
+            while (true) {
+                Pending next;
+                synchronized (this) {
+                    next = queue.poll();
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                    String key = next.frame.conflationKey();
+                    if (key != null) {
+                        next.sub.pending.remove(key, next);
+                    }
+                }
+                try {
+                    session.sendMessage(encode(next.sub, next.frame));
+                    sent++;
+                } catch (IOException | RuntimeException e) {
+                    logger.debug("Failed to send to session {}", session.getId(), e);
+                    synchronized (this) {
+                        close();
+                        draining = false;
+                    }
+                    return;
+                }
+            }
+        }
+
+        private WebSocketMessage<?> encode(Subscription sub, Frame frame) {
+            byte[] tail =
+                    ("message-id:"
+                                    + messageId++
+                                    + "\ncontent-type:"
+                                    + frame.contentType()
+                                    + "\ncontent-length:"
+                                    + frame.body().length
+                                    + "\n\n")
+                            .getBytes(StandardCharsets.US_ASCII);
+            ByteBuffer buffer =
+                    ByteBuffer.allocate(sub.headers.length + tail.length + frame.body().length + 1);
+            buffer.put(sub.headers).put(tail).put(frame.body()).put((byte) 0).flip();
+            if (frame.binary()) {
+                return new BinaryMessage(buffer);
+            }
+            return new TextMessage(
+                    new String(buffer.array(), 0, buffer.limit(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Serializes sends to one session: Spring's own frames and this broadcaster's both go through
+     * it.
+     */
+    private static final class LockedSession extends WebSocketSessionDecorator {
+        private final ReentrantLock sendLock = new ReentrantLock();
+
+        LockedSession(WebSocketSession session) {
+            super(session);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            sendLock.lock();
+            try {
+                super.sendMessage(message);
+            } finally {
+                sendLock.unlock();
+            }
+        }
+    }
+}
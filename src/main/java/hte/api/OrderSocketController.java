@@ -0,0 +1,203 @@
+package hte.api;
+
+import hte.api.auth.BotAuthenticator;
+import hte.api.auth.PrivatePageAuthenticator;
+import hte.api.auth.RateLimiter;
+import hte.api.auth.RateLimiter.RequestClass;
+import hte.api.auth.RateLimiter.Role;
+import hte.api.dtos.requests.BasePrivateRequest;
+import hte.api.dtos.requests.Preprocessing;
+import hte.api.dtos.requests.SocketOrderRequest;
+import hte.api.dtos.responses.SocketOrderResponse;
+import hte.api.service.OrderService;
+import hte.common.Message;
+import jakarta.annotation.PreDestroy;
+import java.security.Principal;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+/**
+ * Order entry over the {@code /exchange-socket} session a client already holds.
+ *
+ * <p>The session was authenticated at handshake by {@link SocketInterceptor}, so commands carry no
+ * credentials: the user is the session's principal, and the rate limit is that of the role it
+ * logged in with. Each command checks the token the session logged in with again, as an HTTP order
+ * would, so after a teardown, a rebuildup or the token's expiry the session's commands are refused
+ * with {@link Message#AUTHENTICATION_FAILED}. Rate limiting, the trading-state check and input
+ * clamping are the same as in {@code OrderController}. Each command is answered on the sending
+ * session's {@code /user/queue/orders} with the client's {@code id}.
+ */
+@Controller
+public class OrderSocketController {
+    static final String DESTINATION = "/queue/orders";
+
+    private final OrderService orderService;
+    private final ServerApplication app;
+    private final RateLimiter rateLimiter;
+    private final PrivatePageAuthenticator privatePageAuthenticator;
+    private final BotAuthenticator botAuthenticator;
+
+    // Engine futures complete on the engine thread; responses are converted and sent from here.
+    private final ExecutorService responses =
+            Executors.newSingleThreadExecutor(
+                    r -> {
+                        Thread thread = new Thread(r, "socket-order-responses");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
+    public OrderSocketController(
+            OrderService orderService,
+            ServerApplication app,
+            RateLimiter rateLimiter,
+            PrivatePageAuthenticator privatePageAuthenticator,
+            BotAuthenticator botAuthenticator) {
+        this.orderService = orderService;
+        this.app = app;
+        this.rateLimiter = rateLimiter;
+        this.privatePageAuthenticator = privatePageAuthenticator;
+        this.botAuthenticator = botAuthenticator;
+    }
+
+    @PreDestroy
+    public void stop() {
+        responses.shutdown();
+    }
+
+    @MessageMapping("/limit_order")
+    @SendToUser(destinations = DESTINATION, broadcast = false)
+    public CompletableFuture<SocketOrderResponse> limitOrder(
+            SocketOrderRequest req, Principal principal, SimpMessageHeaderAccessor headers) {
+        Role role = role(headers);
+        Message rejected =
+                req.getTicker() == null
+                        ? Message.BAD_INPUT
+                        : admit(principal, headers, role, RequestClass.ORDER);
+        if (rejected != null) {
+            return reply(req, "limit_order", rejected.toString());
+        }
+        return reply(
+                req,
+                "limit_order",
+                orderService.placeLimitOrder(
+                        principal.getName(),
+                        req.getTicker(),
+                        Preprocessing.preprocessPrice(req.getPrice()),
+                        volume(role, req.getVolume()),
+                        req.getBid()));
+    }
+
+    @MessageMapping("/market_order")
+    @SendToUser(destinations = DESTINATION, broadcast = false)
+    public CompletableFuture<SocketOrderResponse> marketOrder(
+            SocketOrderRequest req, Principal principal, SimpMessageHeaderAccessor headers) {
+        Role role = role(headers);
+        Message rejected =
+                req.getTicker() == null
+                        ? Message.BAD_INPUT
+                        : admit(principal, headers, role, RequestClass.ORDER);
+        if (rejected != null) {
+            return reply(req, "market_order", rejected.toString());
+        }
+        return reply(
+                req,
+                "market_order",
+                orderService.placeMarketOrder(
+                        principal.getName(),
+                        req.getTicker(),
+                        volume(role, req.getVolume()),
+                        req.getBid()));
+    }
+
+    @MessageMapping("/remove")
+    @SendToUser(destinations = DESTINATION, broadcast = false)
+    public CompletableFuture<SocketOrderResponse> remove(
+            SocketOrderRequest req, Principal principal, SimpMessageHeaderAccessor headers) {
+        Message rejected = admit(principal, headers, role(headers), RequestClass.CANCEL);
+        if (rejected != null) {
+            return reply(req, "remove", rejected.toString());
+        }
+        return reply(
+                req, "remove", orderService.removeOrder(principal.getName(), req.getOrderId()));
+    }
+
+    @MessageMapping("/remove_all")
+    @SendToUser(destinations = DESTINATION, broadcast = false)
+    public CompletableFuture<SocketOrderResponse> removeAll(
+            SocketOrderRequest req, Principal principal, SimpMessageHeaderAccessor headers) {
+        Message rejected = admit(principal, headers, role(headers), RequestClass.CANCEL);
+        if (rejected != null) {
+            return reply(req, "remove_all", rejected.toString());
+        }
+        return reply(req, "remove_all", orderService.removeAll(principal.getName()));
+    }
+
+    private static Role role(SimpMessageHeaderAccessor headers) {
+        Object role = attribute(headers, SocketInterceptor.ROLE_ATTRIBUTE);
+        return role instanceof Role r ? r : Role.USER;
+    }
+
+    private static Object attribute(SimpMessageHeaderAccessor headers, String name) {
+        Map<String, Object> attributes = headers.getSessionAttributes();
+        return attributes == null ? null : attributes.get(name);
+    }
+
+    /**
+     * @return true if the token the session logged in with is still valid for its role.
+     */
+    private boolean authenticate(
+            Principal principal, SimpMessageHeaderAccessor headers, Role role) {
+        Object token = attribute(headers, SocketInterceptor.TOKEN_ATTRIBUTE);
+        if (!(token instanceof String sessionToken)) {
+            return false;
+        }
+        BasePrivateRequest request = new BasePrivateRequest(principal.getName(), sessionToken);
+        return role == Role.BOT
+                ? botAuthenticator.authenticate(request)
+                : privatePageAuthenticator.authenticate(request);
+    }
+
+    private static int volume(Role role, int volume) {
+        return role == Role.BOT
+                ? Preprocessing.botPreprocessVolume(volume)
+                : Preprocessing.preprocessVolume(volume);
+    }
+
+    /**
+     * @return why the command is refused before reaching the engine, or null to go ahead.
+     */
+    private Message admit(
+            Principal principal,
+            SimpMessageHeaderAccessor headers,
+            Role role,
+            RequestClass requestClass) {
+        if (principal == null || !authenticate(principal, headers, role)) {
+            return Message.AUTHENTICATION_FAILED;
+        }
+        if (!rateLimiter.tryAcquire(role, principal.getName(), requestClass)) {
+            return Message.RATE_LIMITED;
+        }
+        if (!app.getState().isTradingAllowed()) {
+            return Message.TRADE_LOCKED;
+        }
+        return null;
+    }
+
+    private static CompletableFuture<SocketOrderResponse> reply(
+            SocketOrderRequest req, String type, String message) {
+        return CompletableFuture.completedFuture(
+                new SocketOrderResponse(req.getId(), type, message));
+    }
+
+    private CompletableFuture<SocketOrderResponse> reply(
+            SocketOrderRequest req, String type, CompletableFuture<String> result) {
+        return result.thenApplyAsync(
+                message -> new SocketOrderResponse(req.getId(), type, message), responses);
+    }
+}
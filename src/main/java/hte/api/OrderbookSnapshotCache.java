@@ -0,0 +1,183 @@
+package hte.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hte.api.dtos.responses.SnapshotResponse;
+import hte.common.EngineSequencer;
+import hte.common.MarketDataCodec;
+import hte.common.Message;
+import hte.common.SeqGenerator;
+import hte.common.TickerStreams;
+import hte.matchingengine.MatchingEngine;
+import hte.matchingengine.OrderBookImage;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serialized order book snapshots, shared by every caller until the books change.
+ *
+ * <p>A snapshot is captured on the engine thread together with the market data seq at that moment,
+ * so it holds every update before {@link Snapshot#seq()}. Updates from that seq on may already be
+ * reflected, which is harmless because they carry absolute volumes. The images are serialized off
+ * the engine thread, once, both to JSON and in the {@link MarketDataCodec} encoding, so both forms
+ * of {@code /snapshot} share the seq, the epoch and the capture.
+ *
+ * <p>A snapshot stays current until another market data update is numbered or the set of books
+ * changes. Callers that arrive while a capture is in flight share it, so a burst of logins costs
+ * one capture.
+ *
+ * <p>Single-ticker snapshots work the same way against the ticker's own stream in {@link
+ * TickerStreams}: they are stamped with, and go stale on, that ticker's seqs only.
+ */
+@Component
+public class OrderbookSnapshotCache {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Books as of {@code seq}: the books JSON, a complete {@code /snapshot} response body and the
+     * same books in the {@link MarketDataCodec} encoding.
+     */
+    public record Snapshot(long seq, long epoch, String json, byte[] response, byte[] binary) {}
+
+    private final MatchingEngine matchingEngine;
+    private final EngineSequencer sequencer;
+    private final SeqGenerator seqGenerator;
+    private final TickerStreams tickerStreams;
+    private final MarketDataCodec marketDataCodec;
+
+    private final AtomicReference<CompletableFuture<Snapshot>> all = new AtomicReference<>();
+    private final ConcurrentHashMap<String, AtomicReference<CompletableFuture<Snapshot>>> tickers =
+            new ConcurrentHashMap<>();
+    private final AtomicLong captures = new AtomicLong();
+
+    public OrderbookSnapshotCache(
+            MatchingEngine matchingEngine,
+            EngineSequencer sequencer,
+            SeqGenerator seqGenerator,
+            TickerStreams tickerStreams,
+            MarketDataCodec marketDataCodec) {
+        this.matchingEngine = matchingEngine;
+        this.sequencer = sequencer;
+        this.seqGenerator = seqGenerator;
+        this.tickerStreams = tickerStreams;
+        this.marketDataCodec = marketDataCodec;
+    }
+
+    /**
+     * @return the current snapshot, capturing a new one if the books changed since the last.
+     */
+    public CompletableFuture<Snapshot> get() {
+        return get(all, null);
+    }
+
+    /**
+     * @return the current snapshot of {@code ticker}, stamped with the ticker's own seq; completes
+     *     with null if the engine has no such ticker.
+     */
+    public CompletableFuture<Snapshot> get(String ticker) {
+        AtomicReference<CompletableFuture<Snapshot>> current =
+                tickers.computeIfAbsent(ticker, t -> new AtomicReference<>());
+        return get(current, ticker);
+    }
+
+    private CompletableFuture<Snapshot> get(
+            AtomicReference<CompletableFuture<Snapshot>> current, String ticker) {
+        while (true) {
+            CompletableFuture<Snapshot> snapshot = current.get();
+            if (snapshot != null && isCurrent(snapshot, ticker)) {
+                return snapshot;
+            }
+            CompletableFuture<Snapshot> next = new CompletableFuture<>();
+            if (current.compareAndSet(snapshot, next)) {
+                capture(next, current, ticker);
+                return next;
+            }
+        }
+    }
+
+    /**
+     * @return number of captures since startup.
+     */
+    public long getCaptures() {
+        return captures.get();
+    }
+
+    private boolean isCurrent(CompletableFuture<Snapshot> snapshot, String ticker) {
+        if (!snapshot.isDone()) {
+            return true;
+        }
+        if (snapshot.isCompletedExceptionally()) {
+            return false;
+        }
+        Snapshot done = snapshot.join();
+        if (done == null || done.epoch() != matchingEngine.getBookEpoch()) {
+            return false;
+        }
+        if (ticker == null) {
+            return done.seq() == seqGenerator.get();
+        }
+        TickerStreams.Stream stream = tickerStreams.find(ticker);
+        return stream != null && done.seq() == stream.seqGenerator().get();
+    }
+
+    private void capture(
+            CompletableFuture<Snapshot> snapshot,
+            AtomicReference<CompletableFuture<Snapshot>> current,
+            String ticker) {
+        captures.incrementAndGet();
+        sequencer.submit(
+                () -> {
+                    try {
+                        long epoch = matchingEngine.getBookEpoch();
+                        Map<String, OrderBookImage> books;
+                        long seq;
+                        if (ticker == null) {
+                            seq = seqGenerator.get();
+                            books = matchingEngine.captureOrderBooks();
+                        } else {
+                            books = matchingEngine.captureOrderBook(ticker);
+                            if (books == null) {
+                                // Unknown ticker: do not keep an entry a client made up.
+                                tickers.remove(ticker, current);
+                                snapshot.complete(null);
+                                return;
+                            }
+                            seq = tickerStreams.stream(ticker).seqGenerator().get();
+                        }
+                        ForkJoinPool.commonPool()
+                                .execute(() -> serialize(snapshot, seq, epoch, books));
+                    } catch (RuntimeException e) {
+                        snapshot.completeExceptionally(e);
+                    }
+                });
+    }
+
+    private void serialize(
+            CompletableFuture<Snapshot> snapshot,
+            long seq,
+            long epoch,
+            Map<String, OrderBookImage> books) {
+        String json = MatchingEngine.serializeOrderBooks(books);
+        if (json == null) {
+            snapshot.completeExceptionally(
+                    new IllegalStateException("Failed to serialize order books"));
+            return;
+        }
+        try {
+            byte[] response =
+                    objectMapper.writeValueAsBytes(
+                            new SnapshotResponse(Message.SUCCESS.toString(), json, seq));
+            byte[] binary =
+                    marketDataCodec.encodeSnapshot(
+                            seq, books.keySet(), MatchingEngine.levelsOf(books));
+            snapshot.complete(new Snapshot(seq, epoch, json, response, binary));
+        } catch (JsonProcessingException | RuntimeException e) {
+            snapshot.completeExceptionally(e);
+        }
+    }
+}
@@ -5,20 +5,24 @@ import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class SocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final SocketInterceptor socketInterceptor;
+    private final MarketDataBroadcaster broadcaster;
 
-    public SocketConfig(SocketInterceptor socketInterceptor) {
+    public SocketConfig(SocketInterceptor socketInterceptor, MarketDataBroadcaster broadcaster) {
         this.socketInterceptor = socketInterceptor;
+        this.broadcaster = broadcaster;
     }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        // /topic/* is served by MarketDataBroadcaster; the simple broker keeps user queues.
+        config.enableSimpleBroker("/queue");
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
     }
@@ -30,4 +34,9 @@ public class SocketConfig implements WebSocketMessageBrokerConfigurer {
                 .addInterceptors(socketInterceptor)
                 .setHandshakeHandler(new HandshakeHandler());
     }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.addDecoratorFactory(broadcaster::decorate);
+    }
 }
@@ -5,13 +5,14 @@ import hte.api.auth.AdminPageAuthenticator;
 import hte.api.dtos.requests.StartSocketRequest;
 import hte.api.dtos.responses.SocketResponse;
 import hte.common.ChartTrackerSingleton;
+import hte.common.MarketDataCodec;
 import hte.common.OHLCData;
 import hte.common.OrderbookSeqLog;
 import hte.common.SeqGenerator;
-import hte.common.TaskQueue;
+import hte.common.TickerStreams;
 import hte.matchingengine.MatchingEngine;
 import hte.matchingengine.PriceChange;
-import hte.matchingengine.RecentTrades;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,27 +20,31 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.messaging.simp.user.SimpUser;
-import org.springframework.messaging.simp.user.SimpUserRegistry;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Controller;
 
 @Controller
 public class SocketController {
     private static final Logger logger = LoggerFactory.getLogger(SocketController.class);
-    @Autowired private SimpMessagingTemplate template;
-    @Autowired private SimpUserRegistry simpUserRegistry;
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired private MarketDataBroadcaster broadcaster;
     @Autowired private AdminPageAuthenticator adminPageAuthenticator;
     @Autowired private SeqGenerator seqGenerator;
     @Autowired private OrderbookSeqLog orderbookSeqLog;
+    @Autowired private MarketDataCodec marketDataCodec;
+    @Autowired private TickerStreams tickerStreams;
 
     @Autowired private MatchingEngine matchingEngine;
 
     private ChartTrackerSingleton chartTrackerSingleton = ChartTrackerSingleton.getInstance();
 
     public void sendMessage(SocketResponse resp) {
-        template.convertAndSend("/topic/orderbook", resp);
+        broadcaster.publish("/topic/orderbook", resp);
+    }
+
+    /** Same updates as {@code /topic/orderbook}, in the {@link MarketDataCodec} encoding. */
+    public void sendBinary(byte[] update) {
+        broadcaster.publish("/topic/orderbook.bin", update);
     }
 
     @MessageMapping("/start")
@@ -55,37 +60,63 @@ public class SocketController {
 
     @Scheduled(fixedRate = 200)
     public void sendRecentTrades() {
-        // get new trades that happened since last update
-        List<PriceChange> recentTrades = RecentTrades.getRecentTrades();
-        String recentTradesJson = RecentTrades.recentTradesToJson(recentTrades);
-
-        if (recentTrades != null
-                && !recentTrades.isEmpty()
-                && !recentTradesJson.isEmpty()
-                && !recentTradesJson.equals("[ ]")) {
+        // Levels the engine touched since the last hand-off, each once with its final volume.
+        List<PriceChange> recentTrades = new ArrayList<>();
+        matchingEngine
+                .getDirtyLevels()
+                .drain(
+                        (ticker, price, volume, side) ->
+                                recentTrades.add(new PriceChange(ticker, price, volume, side)));
+
+        if (!recentTrades.isEmpty()) {
+            String recentTradesJson;
+            try {
+                recentTradesJson = objectMapper.writeValueAsString(recentTrades);
+            } catch (Exception e) {
+                throw new RuntimeException("Error serializing trades to JSON", e);
+            }
             // Allocate seq and append to replay log in one step (only for real updates)
             Long seq = orderbookSeqLog.nextSeqAndAppend(seqGenerator, recentTrades);
             sendMessage(new SocketResponse(recentTradesJson, seq));
+            sendBinary(marketDataCodec.encodeUpdate(seq, recentTrades));
+            sendTickerUpdates(recentTrades);
         } else {
             // Heartbeat: do not allocate a seq. Use latest known seq (may repeat).
             long lastKnownSeq = seqGenerator.get() - 1;
             sendMessage(new SocketResponse("No recent trades", lastKnownSeq));
+            sendBinary(marketDataCodec.encodeUpdate(lastKnownSeq, List.of()));
         }
     }
 
-    @Scheduled(fixedRate = 200)
-    public void sendUserBalances() {
-        TaskQueue.addTask(
-                () -> {
-                    for (SimpUser user : simpUserRegistry.getUsers()) {
-                        String userDetailsJson = matchingEngine.getUserDetails(user.getName());
-                        sendUserInfo(user.getName(), userDetailsJson);
-                    }
-                });
-    }
-
-    public void sendUserInfo(String username, String resp) {
-        template.convertAndSendToUser(username, "/queue/private", resp);
+    /**
+     * Sends each ticker's part of an update to {@code /topic/orderbook/<ticker>} and {@code
+     * /topic/orderbook.bin/<ticker>}, numbered in the ticker's own stream. Quiet tickers get no
+     * heartbeat.
+     */
+    private void sendTickerUpdates(List<PriceChange> changes) {
+        // Drained levels arrive ticker by ticker; each run is one update of that ticker.
+        int start = 0;
+        while (start < changes.size()) {
+            String ticker = changes.get(start).getTicker();
+            int end = start + 1;
+            while (end < changes.size() && ticker.equals(changes.get(end).getTicker())) {
+                end++;
+            }
+            List<PriceChange> tickerChanges = changes.subList(start, end);
+            TickerStreams.Stream stream = tickerStreams.stream(ticker);
+            long seq = stream.log().nextSeqAndAppend(stream.seqGenerator(), tickerChanges);
+            String json;
+            try {
+                json = objectMapper.writeValueAsString(tickerChanges);
+            } catch (Exception e) {
+                throw new RuntimeException("Error serializing trades to JSON", e);
+            }
+            broadcaster.publish("/topic/orderbook/" + ticker, new SocketResponse(json, seq));
+            broadcaster.publish(
+                    "/topic/orderbook.bin/" + ticker,
+                    marketDataCodec.encodeUpdate(seq, tickerChanges));
+            start = end;
+        }
     }
 
     @Scheduled(fixedRate = 5000)
@@ -93,7 +124,6 @@ public class SocketController {
         Map<String, OHLCData> allCurrentOHLC = chartTrackerSingleton.getCurrentData();
         if (!allCurrentOHLC.isEmpty()) {
             try {
-                ObjectMapper objectMapper = new ObjectMapper();
                 Map<String, Map<String, Integer>> formattedChartData = new HashMap<>();
 
                 for (Map.Entry<String, OHLCData> entry : allCurrentOHLC.entrySet()) {
@@ -114,7 +144,7 @@ public class SocketController {
                 String jsonPayload = objectMapper.writeValueAsString(formattedChartData);
 
                 // Send the JSON-encoded OHLC data to all WebSocket subscribers
-                template.convertAndSend("/topic/chart", jsonPayload);
+                broadcaster.publish("/topic/chart", jsonPayload);
 
                 // Reset all OHLC data after sending updates
                 chartTrackerSingleton.resetAll();
@@ -1,6 +1,8 @@
 package hte.api;
 
+import hte.api.auth.BotAuthenticator;
 import hte.api.auth.PrivatePageAuthenticator;
+import hte.api.auth.RateLimiter;
 import hte.api.dtos.requests.BasePrivateRequest;
 import java.net.URI;
 import java.security.Principal;
@@ -15,10 +17,19 @@ import org.springframework.web.util.UriComponentsBuilder;
 @Component
 public class SocketInterceptor implements HandshakeInterceptor {
 
+    /** Session attribute holding the {@link RateLimiter.Role} the session logged in with. */
+    public static final String ROLE_ATTRIBUTE = "role";
+
+    /** Session attribute holding the session token the session logged in with. */
+    public static final String TOKEN_ATTRIBUTE = "sessionToken";
+
     private final PrivatePageAuthenticator privatePageAuthenticator;
+    private final BotAuthenticator botAuthenticator;
 
-    public SocketInterceptor(PrivatePageAuthenticator privatePageAuthenticator) {
+    public SocketInterceptor(
+            PrivatePageAuthenticator privatePageAuthenticator, BotAuthenticator botAuthenticator) {
         this.privatePageAuthenticator = privatePageAuthenticator;
+        this.botAuthenticator = botAuthenticator;
     }
 
     @Override
@@ -33,11 +44,20 @@ public class SocketInterceptor implements HandshakeInterceptor {
                 UriComponentsBuilder.fromUri(uri).build().getQueryParams().toSingleValueMap();
         String sessionId = queryParams.get("Session-ID");
         String username = queryParams.get("Username");
-        if (!privatePageAuthenticator.authenticate(new BasePrivateRequest(username, sessionId))) {
+        BasePrivateRequest session = new BasePrivateRequest(username, sessionId);
+        if (!privatePageAuthenticator.authenticate(session)) {
             return false;
         }
         Principal userPrincipal = new UserPrincipal(username);
         attributes.put("principal", userPrincipal);
+        // Orders sent over the socket check it again, so a teardown or rebuildup takes effect.
+        attributes.put(TOKEN_ATTRIBUTE, sessionId);
+        // Orders sent over the socket get the limits of whoever opened it.
+        attributes.put(
+                ROLE_ATTRIBUTE,
+                botAuthenticator.authenticate(session)
+                        ? RateLimiter.Role.BOT
+                        : RateLimiter.Role.USER);
         return true;
     }
 
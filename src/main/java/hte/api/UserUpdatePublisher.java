@@ -0,0 +1,174 @@
+package hte.api;
+
+import hte.common.EngineSequencer;
+import hte.matchingengine.MatchingEngine;
+import hte.matchingengine.UserState;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pushes user details to {@code /user/queue/private} when they change.
+ *
+ * <p>The engine marks users whose balance, positions or orders change. A poll queues a capture on
+ * the engine thread only when one is marked or a user newly connected; it copies the state of those
+ * connected users into {@link UserState}s, and the next poll renders and sends them from this
+ * thread. A user gets at most one push per {@code hte.user-updates.min-interval-ms}; a newer state
+ * replaces one still waiting. The last state captured for each connected user is kept: every {@code
+ * hte.user-updates.refresh-ms} the users holding a position in a ticker whose price moved since the
+ * previous refresh get that state re-rendered at the new prices, so PnL follows price moves without
+ * touching the engine.
+ */
+@Component
+public class UserUpdatePublisher {
+    private static final Logger logger = LoggerFactory.getLogger(UserUpdatePublisher.class);
+
+    private final MatchingEngine matchingEngine;
+    private final EngineSequencer sequencer;
+    private final SimpUserRegistry simpUserRegistry;
+    private final SimpMessagingTemplate template;
+    private final long minIntervalMillis;
+    private final long refreshMillis;
+
+    // Publisher thread state.
+    private CompletableFuture<List<UserState>> inFlight;
+    private Map<String, Integer> prices = Map.of();
+    // Prices at the last refresh, to tell which tickers moved since.
+    private Map<String, Integer> refreshedPrices = Map.of();
+    private final Map<String, UserState> pending = new HashMap<>();
+    private final Map<String, UserState> lastStates = new HashMap<>();
+    private final Map<String, Long> lastPushMillis = new HashMap<>();
+    private Set<String> subscribers = Set.of();
+    private long lastRefreshMillis;
+
+    public UserUpdatePublisher(
+            MatchingEngine matchingEngine,
+            EngineSequencer sequencer,
+            SimpUserRegistry simpUserRegistry,
+            SimpMessagingTemplate template,
+            @Value("${hte.user-updates.min-interval-ms:200}") long minIntervalMillis,
+            @Value("${hte.user-updates.refresh-ms:1000}") long refreshMillis) {
+        this.matchingEngine = matchingEngine;
+        this.sequencer = sequencer;
+        this.simpUserRegistry = simpUserRegistry;
+        this.template = template;
+        this.minIntervalMillis = minIntervalMillis;
+        this.refreshMillis = refreshMillis;
+    }
+
+    @Scheduled(fixedRateString = "${hte.user-updates.poll-ms:50}")
+    public synchronized void poll() {
+        long now = System.currentTimeMillis();
+        if (inFlight != null) {
+            if (!inFlight.isDone()) {
+                return;
+            }
+            CompletableFuture<List<UserState>> done = inFlight;
+            inFlight = null;
+            if (done.isCompletedExceptionally()) {
+                logger.warn("User state capture failed", done.exceptionNow());
+            } else {
+                for (UserState state : done.join()) {
+                    pending.put(state.username(), state);
+                    lastStates.put(state.username(), state);
+                }
+            }
+        }
+        prices = matchingEngine.getLatestPrices();
+        refresh(now);
+        push(now);
+        capture();
+    }
+
+    /** Queues the kept state of every user with a position in a ticker whose price moved. */
+    private void refresh(long now) {
+        if (refreshMillis <= 0 || now - lastRefreshMillis < refreshMillis) {
+            return;
+        }
+        lastRefreshMillis = now;
+        Set<String> moved = new HashSet<>();
+        for (Map.Entry<String, Integer> entry : prices.entrySet()) {
+            if (!entry.getValue().equals(refreshedPrices.get(entry.getKey()))) {
+                moved.add(entry.getKey());
+            }
+        }
+        refreshedPrices = prices;
+        if (moved.isEmpty()) {
+            return;
+        }
+        for (UserState state : lastStates.values()) {
+            for (String ticker : moved) {
+                UserState.Position position = state.positions().get(ticker);
+                if (position != null && position.quantity() != 0) {
+                    pending.putIfAbsent(state.username(), state);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void push(long now) {
+        Iterator<UserState> it = pending.values().iterator();
+        while (it.hasNext()) {
+            UserState state = it.next();
+            String username = state.username();
+            if (!subscribers.contains(username)) {
+                it.remove();
+                continue;
+            }
+            Long last = lastPushMillis.get(username);
+            if (last != null && now - last < minIntervalMillis) {
+                continue;
+            }
+            try {
+                template.convertAndSendToUser(username, "/queue/private", state.toJson(prices));
+            } catch (RuntimeException e) {
+                logger.warn("Failed to push user details: user={}", username, e);
+            }
+            lastPushMillis.put(username, now);
+            it.remove();
+        }
+    }
+
+    private void capture() {
+        Set<String> connected = new HashSet<>();
+        for (SimpUser user : simpUserRegistry.getUsers()) {
+            connected.add(user.getName());
+        }
+        Set<String> include = new HashSet<>();
+        for (String username : connected) {
+            if (!subscribers.contains(username)) {
+                include.add(username);
+            }
+        }
+        lastPushMillis.keySet().retainAll(connected);
+        lastStates.keySet().retainAll(connected);
+        subscribers = connected;
+        if (include.isEmpty() && !matchingEngine.hasChangedUsers()) {
+            return;
+        }
+
+        CompletableFuture<List<UserState>> capture = new CompletableFuture<>();
+        inFlight = capture;
+        sequencer.submit(
+                () -> {
+                    try {
+                        capture.complete(matchingEngine.captureUserStates(connected, include));
+                    } catch (RuntimeException e) {
+                        capture.completeExceptionally(e);
+                    }
+                });
+    }
+}
@@ -8,12 +8,17 @@ import org.springframework.stereotype.Component;
 @Component
 public class BotAuthenticator {
     private final BotSessionsRepository sessions;
+    private final SessionTokens tokens;
 
-    public BotAuthenticator(BotSessionsRepository sessions) {
+    public BotAuthenticator(BotSessionsRepository sessions, SessionTokens tokens) {
         this.sessions = sessions;
+        this.tokens = tokens;
     }
 
     public boolean authenticate(BasePrivateRequest req) {
+        if (tokens.isEnabled()) {
+            return tokens.verify(req.getUsername(), req.getSessionToken(), SessionTokens.Slot.BOT);
+        }
         // if username not found
         if (!sessions.exists(req.getUsername())) {
             return false;
@@ -8,12 +8,23 @@ import org.springframework.stereotype.Component;
 @Component
 public class PrivatePageAuthenticator {
     private final SessionsRepository sessions;
+    private final SessionTokens tokens;
 
-    public PrivatePageAuthenticator(SessionsRepository sessions) {
+    public PrivatePageAuthenticator(SessionsRepository sessions, SessionTokens tokens) {
         this.sessions = sessions;
+        this.tokens = tokens;
     }
 
     public boolean authenticate(BasePrivateRequest req) {
+        if (tokens.isEnabled()) {
+            // Bots also hold a user session, as with the sessions table.
+            return tokens.verify(
+                    req.getUsername(),
+                    req.getSessionToken(),
+                    SessionTokens.Slot.PRIMARY,
+                    SessionTokens.Slot.SECONDARY,
+                    SessionTokens.Slot.BOT);
+        }
         // if username not found
         if (!sessions.exists(req.getUsername())) {
             return false;
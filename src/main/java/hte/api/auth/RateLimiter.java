@@ -1,34 +1,165 @@
 package hte.api.auth;
 
 import hte.api.dtos.requests.BasePrivateRequest;
+import hte.common.CoarseClock;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * Per-user token buckets, one set per {@link Role}.
+ *
+ * <p>A bucket holds up to {@code burst} tokens and refills at {@code perSecond} tokens per second.
+ * Each request spends the cost of its {@link RequestClass}, so a cancel can be cheaper than a new
+ * order. A role with {@code perSecond <= 0} is not limited.
+ *
+ * <p>A bucket is one {@link AtomicLong}: milli-tokens in the high {@value #TOKEN_BITS} bits and the
+ * {@link CoarseClock} reading of its last refill in the low {@value #TIME_BITS}. Requests refill
+ * and spend with a single CAS, without locks or allocation.
+ */
 @Component
 public class RateLimiter {
 
-    private ConcurrentHashMap<String, ConcurrentLinkedDeque<Long>> rates;
-    private final long MAX_REQUESTS_PER_SECOND = 15;
+    /** Who is calling; each role has its own buckets and limits. */
+    public enum Role {
+        USER,
+        BOT,
+        ADMIN
+    }
+
+    /** What a request does; decides how many tokens it costs. */
+    public enum RequestClass {
+        ORDER,
+        CANCEL,
+        READ
+    }
+
+    /** Sustained rate and bucket size, in requests of cost 1. */
+    public record Limit(int perSecond, int burst) {}
+
+    static final int TOKEN_BITS = 24;
+    static final int TIME_BITS = Long.SIZE - TOKEN_BITS;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+    private static final long MAX_MILLI_TOKENS = (1L << TOKEN_BITS) - 1;
+
+    private final Map<Role, Limit> limits;
+    private final Map<Role, ConcurrentHashMap<String, AtomicLong>> buckets =
+            new EnumMap<>(Role.class);
+    private final long[] costs = new long[RequestClass.values().length];
+    private final LongSupplier clock;
 
+    /** 15 requests per second for users and 200 for bots; cancels cost half an order. */
     public RateLimiter() {
-        rates = new ConcurrentHashMap<>();
+        this(
+                Map.of(
+                        Role.USER, new Limit(15, 15),
+                        Role.BOT, new Limit(200, 200),
+                        Role.ADMIN, new Limit(0, 0)),
+                Map.of(
+                        RequestClass.ORDER, 1.0,
+                        RequestClass.CANCEL, 0.5,
+                        RequestClass.READ, 1.0),
+                CoarseClock.getInstance()::millis);
     }
 
-    public boolean processRequest(BasePrivateRequest req) {
-        ConcurrentLinkedDeque<Long> deque = rates.get(req.getUsername());
-        if (deque == null) {
-            deque = new ConcurrentLinkedDeque<>();
-            rates.put(req.getUsername(), deque);
+    @Autowired
+    public RateLimiter(
+            @Value("${hte.rate-limit.user.per-second:15}") int userPerSecond,
+            @Value("${hte.rate-limit.user.burst:15}") int userBurst,
+            @Value("${hte.rate-limit.bot.per-second:200}") int botPerSecond,
+            @Value("${hte.rate-limit.bot.burst:200}") int botBurst,
+            @Value("${hte.rate-limit.admin.per-second:0}") int adminPerSecond,
+            @Value("${hte.rate-limit.admin.burst:0}") int adminBurst,
+            @Value("${hte.rate-limit.cost.order:1.0}") double orderCost,
+            @Value("${hte.rate-limit.cost.cancel:0.5}") double cancelCost,
+            @Value("${hte.rate-limit.cost.read:1.0}") double readCost) {
+        this(
+                Map.of(
+                        Role.USER, new Limit(userPerSecond, userBurst),
+                        Role.BOT, new Limit(botPerSecond, botBurst),
+                        Role.ADMIN, new Limit(adminPerSecond, adminBurst)),
+                Map.of(
+                        RequestClass.ORDER, orderCost,
+                        RequestClass.CANCEL, cancelCost,
+                        RequestClass.READ, readCost),
+                CoarseClock.getInstance()::millis);
+    }
+
+    /**
+     * @param clock monotonic milliseconds.
+     */
+    public RateLimiter(
+            Map<Role, Limit> limits, Map<RequestClass, Double> costs, LongSupplier clock) {
+        for (Role role : Role.values()) {
+            Limit limit = limits.get(role);
+            if (limit == null) {
+                throw new IllegalArgumentException("No rate limit for role " + role);
+            }
+            if (limit.perSecond() > 0
+                    && (limit.burst() <= 0 || limit.burst() * 1000L > MAX_MILLI_TOKENS)) {
+                throw new IllegalArgumentException(
+                        "Burst for role " + role + " must be in 1.." + MAX_MILLI_TOKENS / 1000);
+            }
+            buckets.put(role, new ConcurrentHashMap<>());
         }
-        if (deque.size() < MAX_REQUESTS_PER_SECOND
-                || System.currentTimeMillis() - deque.getLast() > 1000) {
-            if (deque.size() == MAX_REQUESTS_PER_SECOND) {
-                deque.removeLast();
+        for (RequestClass requestClass : RequestClass.values()) {
+            Double cost = costs.get(requestClass);
+            if (cost == null || cost < 0) {
+                throw new IllegalArgumentException("Bad cost for request class " + requestClass);
             }
-            deque.addFirst(System.currentTimeMillis());
+            this.costs[requestClass.ordinal()] = Math.round(cost * 1000);
+        }
+        this.limits = new EnumMap<>(limits);
+        this.clock = clock;
+    }
+
+    /** Limits a user's order request. */
+    public boolean processRequest(BasePrivateRequest req) {
+        return processRequest(req, Role.USER, RequestClass.ORDER);
+    }
+
+    public boolean processRequest(BasePrivateRequest req, Role role, RequestClass requestClass) {
+        return tryAcquire(role, req.getUsername(), requestClass);
+    }
+
+    /**
+     * Spends the cost of {@code requestClass} from {@code key}'s bucket for {@code role}.
+     *
+     * @return false if the bucket does not hold enough tokens; nothing is spent then.
+     */
+    public boolean tryAcquire(Role role, String key, RequestClass requestClass) {
+        Limit limit = limits.get(role);
+        if (limit.perSecond() <= 0) {
             return true;
         }
-        return false;
+        long capacity = limit.burst() * 1000L;
+        long cost = costs[requestClass.ordinal()];
+        long now = clock.getAsLong() & TIME_MASK;
+        // A new bucket starts full; computeIfAbsent keeps two first requests from racing.
+        AtomicLong bucket =
+                buckets.get(role).computeIfAbsent(key, k -> new AtomicLong(pack(capacity, now)));
+        while (true) {
+            long state = bucket.get();
+            long last = state & TIME_MASK;
+            long elapsed = Math.max(0, now - last);
+            // perSecond tokens a second is perSecond milli-tokens a millisecond.
+            long tokens = Math.min(capacity, (state >>> TIME_BITS) + elapsed * limit.perSecond());
+            if (tokens < cost) {
+                return false;
+            }
+            long next = pack(tokens - cost, Math.max(now, last));
+            if (bucket.compareAndSet(state, next)) {
+                return true;
+            }
+        }
+    }
+
+    private static long pack(long milliTokens, long millis) {
+        return (milliTokens << TIME_BITS) | millis;
     }
 }
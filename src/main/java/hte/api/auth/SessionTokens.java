@@ -0,0 +1,198 @@
+package hte.api.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Signed, stateless session tokens, used instead of the sessions table when {@code
+ * hte.session.signing-key} is set.
+ *
+ * <p>A token is {@code <username>.<slot>.<issued>.<mac>}: the base64url username, the {@link Slot}
+ * it was issued for, its issue time in epoch millis, and an HMAC-SHA256 of those three under the
+ * signing key. Verifying one is a MAC computation and a constant-time compare; it stays valid until
+ * {@code hte.session.ttl-seconds} after issue.
+ *
+ * <p>A new buildup for a slot, and a teardown, revoke the earlier tokens of that user by recording
+ * the issue time they must beat. Entries are dropped once every token they could reject has
+ * expired, so the set only holds users who re-logged in within one TTL. Revocations are kept in
+ * memory: a restart with the same key accepts unexpired tokens again.
+ */
+@Component
+public class SessionTokens {
+
+    /** Which login a token belongs to; a user may hold one token per slot at a time. */
+    public enum Slot {
+        BOT,
+        PRIMARY,
+        SECONDARY
+    }
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long ttlMillis;
+    private final ThreadLocal<Mac> macs;
+
+    // username -> per-slot issue time a token must be at or after.
+    private final ConcurrentHashMap<String, long[]> revoked = new ConcurrentHashMap<>();
+    private final AtomicLong lastIssued = new AtomicLong();
+
+    public SessionTokens(
+            @Value("${hte.session.signing-key:}") String signingKey,
+            @Value("${hte.session.ttl-seconds:86400}") long ttlSeconds) {
+        this.key =
+                signingKey == null || signingKey.isEmpty()
+                        ? null
+                        : new SecretKeySpec(signingKey.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * @return true if tokens are signed; otherwise sessions are looked up in the sessions table.
+     */
+    public boolean isEnabled() {
+        return key != null;
+    }
+
+    /** Issues a token for {@code username} in {@code slot}, revoking that slot's earlier tokens. */
+    public String issue(String username, Slot slot) {
+        long issued = nextIssued();
+        revoke(username, slot, issued);
+        String payload =
+                ENCODER.encodeToString(username.getBytes(StandardCharsets.UTF_8))
+                        + '.'
+                        + slot.ordinal()
+                        + '.'
+                        + issued;
+        return payload + '.' + ENCODER.encodeToString(sign(payload));
+    }
+
+    /** Revokes every token {@code username} holds, in all slots. */
+    public void revokeAll(String username) {
+        long now = nextIssued();
+        for (Slot slot : Slot.values()) {
+            revoke(username, slot, now);
+        }
+    }
+
+    /**
+     * @return true if {@code token} was issued by this exchange to {@code username} in one of
+     *     {@code slots}, and is neither expired nor revoked.
+     */
+    public boolean verify(String username, String token, Slot... slots) {
+        if (username == null || token == null) {
+            return false;
+        }
+        int macStart = token.lastIndexOf('.');
+        int issuedStart = token.lastIndexOf('.', macStart - 1);
+        int slotStart = token.lastIndexOf('.', issuedStart - 1);
+        if (slotStart <= 0 || issuedStart != slotStart + 2) {
+            return false;
+        }
+        byte[] mac;
+        long issued;
+        byte[] name;
+        try {
+            mac = DECODER.decode(token.substring(macStart + 1));
+            issued = Long.parseLong(token, issuedStart + 1, macStart, 10);
+            name = DECODER.decode(token.substring(0, slotStart));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (!MessageDigest.isEqual(sign(token.substring(0, macStart)), mac)) {
+            return false;
+        }
+        if (!username.equals(new String(name, StandardCharsets.UTF_8))) {
+            return false;
+        }
+        int slot = token.charAt(slotStart + 1) - '0';
+        if (!allowed(slot, slots)) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (now - issued >= ttlMillis) {
+            return false;
+        }
+        long[] notBefore = revoked.get(username);
+        return notBefore == null || issued >= notBefore[slot];
+    }
+
+    /**
+     * @return number of users with revoked tokens that have not expired yet.
+     */
+    public int revokedUsers() {
+        return revoked.size();
+    }
+
+    private static boolean allowed(int slot, Slot[] slots) {
+        for (Slot s : slots) {
+            if (s.ordinal() == slot) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void revoke(String username, Slot slot, long before) {
+        revoked.compute(
+                username,
+                (u, current) -> {
+                    long[] next =
+                            current == null ? new long[Slot.values().length] : current.clone();
+                    next[slot.ordinal()] = Math.max(next[slot.ordinal()], before);
+                    return next;
+                });
+        prune(before);
+    }
+
+    private void prune(long now) {
+        // Tokens issued before now - ttl have expired, so a revocation older than that rejects
+        // nothing that would not be rejected anyway.
+        long horizon = now - ttlMillis;
+        revoked.values()
+                .removeIf(
+                        notBefore -> {
+                            for (long t : notBefore) {
+                                if (t > horizon) {
+                                    return false;
+                                }
+                            }
+                            return true;
+                        });
+    }
+
+    private long nextIssued() {
+        // Strictly increasing, so a token issued right after a revocation is not caught by it.
+        long now = System.currentTimeMillis();
+        return lastIssued.updateAndGet(last -> Math.max(now, last + 1));
+    }
+
+    private byte[] sign(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        if (key == null) {
+            throw new IllegalStateException("Session signing key is not configured");
+        }
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
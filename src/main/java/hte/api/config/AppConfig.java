@@ -9,8 +9,13 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class AppConfig {
     @Bean
-    MatchingEngine matchingEngine(@Value("${hte.config.path}") String configLocation) {
+    MatchingEngine matchingEngine(
+            @Value("${hte.config.path}") String configLocation,
+            @Value("${hte.order.min.price:0}") int minPrice,
+            @Value("${hte.order.max.price:1000}") int maxPrice) {
         MatchingEngine engine = new MatchingEngine(true, configLocation);
+        // Size per-ticker price ladders from the same band orders are clamped to.
+        engine.setPriceBand(minPrice, maxPrice);
         engine.initializeAllTickers();
         return engine;
     }
@@ -2,34 +2,33 @@ package hte.api.config;
 
 import hte.api.repository.BotsRepository;
 import hte.api.repository.UsersRepository;
-import hte.matchingengine.MatchingEngine;
+import hte.journal.EngineRecovery;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Component;
 
 @Component
 public class InitializationRunner implements ApplicationRunner {
-
-    private final MatchingEngine matchingEngine;
     private final UsersRepository users;
     private final BotsRepository bots;
+    private final EngineRecovery recovery;
 
     public InitializationRunner(
-            MatchingEngine matchingEngine, UsersRepository users, BotsRepository bots) {
-        this.matchingEngine = matchingEngine;
+            UsersRepository users, BotsRepository bots, EngineRecovery recovery) {
         this.users = users;
         this.bots = bots;
+        this.recovery = recovery;
     }
 
     @Override
     public void run(ApplicationArguments args) {
-        Iterable<String> userKeys = this.users.keys();
-        for (String user : userKeys) {
-            matchingEngine.initializeUser(user);
-        }
-        Iterable<String> botKeys = this.bots.keys();
-        for (String bot : botKeys) {
-            matchingEngine.initializeBot(bot);
+        // Runs before the engine thread starts consuming, so recovery has the engine to itself.
+        try {
+            recovery.recover(users.keys(), bots.keys());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover engine state", e);
         }
     }
 }
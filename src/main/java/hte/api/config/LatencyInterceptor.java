@@ -0,0 +1,84 @@
+package hte.api.config;
+
+import hte.common.LatencyHistograms;
+import hte.common.RequestKind;
+import hte.common.TaskFuture;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Times order-entry requests for {@link LatencyHistograms}.
+ *
+ * <p>The request is stamped when it reaches the handler chain. Services {@link #attach} the engine
+ * futures they create; once the response has been written, ingress is measured up to the first
+ * command's enqueue, egress from the last command's completion, and total end to end. Requests that
+ * never reach the engine (auth failures, validation errors, rate limiting) are not recorded.
+ */
+public class LatencyInterceptor implements HandlerInterceptor {
+    private static final String TIMING = LatencyInterceptor.class.getName() + ".timing";
+
+    private final LatencyHistograms histograms;
+    private final RequestKind kind;
+
+    public LatencyInterceptor(LatencyHistograms histograms, RequestKind kind) {
+        this.histograms = histograms;
+        this.kind = kind;
+    }
+
+    private static final class Timing {
+        final long receivedNanos;
+        TaskFuture<?> first;
+        TaskFuture<?> last;
+
+        Timing(long receivedNanos) {
+            this.receivedNanos = receivedNanos;
+        }
+    }
+
+    /** Associates an engine future with the current request, if it is being timed. */
+    public static void attach(TaskFuture<?> future) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+        Object timing = attributes.getAttribute(TIMING, RequestAttributes.SCOPE_REQUEST);
+        if (timing instanceof Timing t) {
+            if (t.first == null) {
+                t.first = future;
+            }
+            t.last = future;
+        }
+    }
+
+    @Override
+    public boolean preHandle(
+            HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Async results are dispatched back through the chain; keep the original stamp.
+        if (request.getAttribute(TIMING) == null) {
+            request.setAttribute(TIMING, new Timing(System.nanoTime()));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Object handler,
+            Exception ex) {
+        if (!(request.getAttribute(TIMING) instanceof Timing timing)
+                || timing.last == null
+                || timing.last.getCompletedNanos() == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        histograms.recordRequest(
+                kind,
+                timing.first.getEnqueuedNanos() - timing.receivedNanos,
+                now - timing.last.getCompletedNanos(),
+                now - timing.receivedNanos);
+    }
+}
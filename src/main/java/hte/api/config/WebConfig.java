@@ -0,0 +1,38 @@
+package hte.api.config;
+
+import hte.common.LatencyHistograms;
+import hte.common.RequestKind;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    // Optional so controller slice tests, which don't load the engine, still start.
+    private final ObjectProvider<LatencyHistograms> histograms;
+
+    public WebConfig(ObjectProvider<LatencyHistograms> histograms) {
+        this.histograms = histograms;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        LatencyHistograms latency = histograms.getIfAvailable();
+        if (latency == null) {
+            return;
+        }
+        registry.addInterceptor(new LatencyInterceptor(latency, RequestKind.LIMIT))
+                .addPathPatterns("/limit_order", "/bot_limit_order");
+        registry.addInterceptor(new LatencyInterceptor(latency, RequestKind.MARKET))
+                .addPathPatterns("/market_order", "/bot_market_order");
+        registry.addInterceptor(new LatencyInterceptor(latency, RequestKind.REMOVE))
+                .addPathPatterns("/remove", "/bot_remove");
+        registry.addInterceptor(new LatencyInterceptor(latency, RequestKind.REMOVE_ALL))
+                .addPathPatterns("/remove_all", "/bot_remove_all");
+        registry.addInterceptor(new LatencyInterceptor(latency, RequestKind.AMEND))
+                .addPathPatterns("/amend", "/bot_amend");
+        registry.addInterceptor(new LatencyInterceptor(latency, RequestKind.BATCH))
+                .addPathPatterns("/batch");
+    }
+}
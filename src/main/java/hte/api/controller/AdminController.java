@@ -1,5 +1,7 @@
 package hte.api.controller;
 
+import hte.api.MarketDataBroadcaster;
+import hte.api.OrderbookSnapshotCache;
 import hte.api.State;
 import hte.api.dtos.requests.AddBotRequest;
 import hte.api.dtos.requests.AddUserRequest;
@@ -22,13 +24,10 @@ import hte.api.entities.User;
 import hte.api.service.AdminService;
 import hte.api.service.AuthService;
 import hte.common.Message;
-import hte.common.SeqGenerator;
-import hte.matchingengine.LeaderboardEntry;
-import hte.matchingengine.MatchingEngine;
 import jakarta.validation.Valid;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -48,23 +47,23 @@ public class AdminController {
     private final AdminService adminService;
     private final AuthService authService;
     private final SimpMessagingTemplate messagingTemplate;
+    private final MarketDataBroadcaster broadcaster;
     private final SimpUserRegistry simpUserRegistry;
-    private final SeqGenerator seqGenerator;
-    private final MatchingEngine matchingEngine;
+    private final OrderbookSnapshotCache snapshotCache;
 
     public AdminController(
             AdminService adminService,
             AuthService authService,
             SimpMessagingTemplate messagingTemplate,
+            MarketDataBroadcaster broadcaster,
             SimpUserRegistry simpUserRegistry,
-            SeqGenerator seqGenerator,
-            MatchingEngine matchingEngine) {
+            OrderbookSnapshotCache snapshotCache) {
         this.adminService = adminService;
         this.authService = authService;
         this.messagingTemplate = messagingTemplate;
+        this.broadcaster = broadcaster;
         this.simpUserRegistry = simpUserRegistry;
-        this.seqGenerator = seqGenerator;
-        this.matchingEngine = matchingEngine;
+        this.snapshotCache = snapshotCache;
     }
 
     @CrossOrigin(origins = "*")
@@ -121,17 +120,22 @@ public class AdminController {
 
     @CrossOrigin(origins = "*")
     @PostMapping("/leaderboard")
-    public ResponseEntity<LeaderboardResponse> leaderboard(
+    public CompletableFuture<ResponseEntity<LeaderboardResponse>> leaderboard(
             @Valid @RequestBody LeaderboardRequest form) {
         if (!authService.authenticateAdmin(form)) {
-            return new ResponseEntity<>(
-                    new LeaderboardResponse(Message.AUTHENTICATION_FAILED.toString(), null),
-                    HttpStatus.UNAUTHORIZED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new LeaderboardResponse(Message.AUTHENTICATION_FAILED.toString(), null),
+                            HttpStatus.UNAUTHORIZED));
         }
 
-        ArrayList<LeaderboardEntry> data = adminService.getLeaderboard();
-        return new ResponseEntity<>(
-                new LeaderboardResponse(Message.SUCCESS.toString(), data), HttpStatus.OK);
+        return adminService
+                .getLeaderboard()
+                .thenApply(
+                        data ->
+                                new ResponseEntity<>(
+                                        new LeaderboardResponse(Message.SUCCESS.toString(), data),
+                                        HttpStatus.OK));
     }
 
     @CrossOrigin(origins = "*")
@@ -155,14 +159,19 @@ public class AdminController {
 
     @CrossOrigin(origins = "*")
     @PostMapping("/set_price")
-    public ResponseEntity<SetPriceResponse> setPrice(@Valid @RequestBody SetPriceRequest form) {
+    public CompletableFuture<ResponseEntity<SetPriceResponse>> setPrice(
+            @Valid @RequestBody SetPriceRequest form) {
         if (!authService.authenticateAdmin(form)) {
-            return new ResponseEntity<>(
-                    new SetPriceResponse(Message.AUTHENTICATION_FAILED.toString()),
-                    HttpStatus.UNAUTHORIZED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new SetPriceResponse(Message.AUTHENTICATION_FAILED.toString()),
+                            HttpStatus.UNAUTHORIZED));
         }
-        String message = adminService.setPrice(form.getPrices());
-        return new ResponseEntity<>(new SetPriceResponse(message), HttpStatus.OK);
+        return adminService
+                .setPrice(form.getPrices())
+                .thenApply(
+                        message ->
+                                new ResponseEntity<>(new SetPriceResponse(message), HttpStatus.OK));
     }
 
     @CrossOrigin(origins = "*")
@@ -189,41 +198,56 @@ public class AdminController {
 
     @CrossOrigin(origins = "*")
     @PostMapping("/set_tickers")
-    public ResponseEntity<SetTickersResponse> setTickers(
+    public CompletableFuture<ResponseEntity<SetTickersResponse>> setTickers(
             @Valid @RequestBody SetTickersRequest form) {
         if (!authService.authenticateAdmin(form)) {
-            return new ResponseEntity<>(
-                    new SetTickersResponse(Message.AUTHENTICATION_FAILED.toString(), null),
-                    HttpStatus.UNAUTHORIZED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new SetTickersResponse(Message.AUTHENTICATION_FAILED.toString(), null),
+                            HttpStatus.UNAUTHORIZED));
         }
 
-        String[] tickers = adminService.setTickers(form.getTickers());
+        return adminService.setTickers(form.getTickers()).thenCompose(this::tickersReplaced);
+    }
+
+    private CompletableFuture<ResponseEntity<SetTickersResponse>> tickersReplaced(
+            String[] tickers) {
         if (tickers == null) {
-            return new ResponseEntity<>(
-                    new SetTickersResponse(Message.BAD_INPUT.toString(), null),
-                    HttpStatus.BAD_REQUEST);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new SetTickersResponse(Message.BAD_INPUT.toString(), null),
+                            HttpStatus.BAD_REQUEST));
         }
 
         // Broadcast a snapshot reset event to all connected WebSocket clients so that
         // every user's UI immediately replaces old tickers with the new ones and resets
-        // the order book.
-        try {
-            String snapshotJson = matchingEngine.serializeOrderBooks();
-            long latestSeq = seqGenerator.get();
-
-            Map<String, Object> resetPayload = new HashMap<>();
-            resetPayload.put("type", "snapshot_reset");
-            resetPayload.put("snapshot", snapshotJson);
-            resetPayload.put("latestSeq", latestSeq);
-            resetPayload.put("tickers", tickers);
-
-            messagingTemplate.convertAndSend("/topic/orderbook", resetPayload);
-        } catch (Exception e) {
-            logger.warn("Failed to broadcast snapshot reset after set_tickers", e);
-        }
+        // the order book. The snapshot is captured on the engine thread with its seq and
+        // serialized off it; the new tickers changed the book epoch, so it is a fresh one.
+        return snapshotCache
+                .get()
+                .handle(
+                        (snapshot, e) -> {
+                            if (e != null) {
+                                logger.error(
+                                        "Failed to capture snapshot reset after set_tickers", e);
+                            } else {
+                                broadcaster.publish(
+                                        "/topic/orderbook", snapshotReset(snapshot, tickers));
+                            }
+                            return new ResponseEntity<>(
+                                    new SetTickersResponse(Message.SUCCESS.toString(), tickers),
+                                    HttpStatus.OK);
+                        });
+    }
 
-        return new ResponseEntity<>(
-                new SetTickersResponse(Message.SUCCESS.toString(), tickers), HttpStatus.OK);
+    private static Map<String, Object> snapshotReset(
+            OrderbookSnapshotCache.Snapshot snapshot, String[] tickers) {
+        Map<String, Object> resetPayload = new HashMap<>();
+        resetPayload.put("type", "snapshot_reset");
+        resetPayload.put("snapshot", snapshot.json());
+        resetPayload.put("latestSeq", snapshot.seq());
+        resetPayload.put("tickers", tickers);
+        return resetPayload;
     }
 
     @CrossOrigin(origins = "*")
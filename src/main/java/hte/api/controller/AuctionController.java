@@ -11,6 +11,7 @@ import hte.api.service.AuctionService;
 import hte.api.service.AuthService;
 import hte.common.Message;
 import jakarta.validation.Valid;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -39,38 +40,46 @@ public class AuctionController {
 
     @CrossOrigin(origins = "*")
     @PostMapping("/get_leading_auction_bid")
-    public ResponseEntity<GetLeadingAuctionBidResponse> getLeadingAuctionBid(
+    public CompletableFuture<ResponseEntity<GetLeadingAuctionBidResponse>> getLeadingAuctionBid(
             @Valid @RequestBody BaseAdminRequest form) {
         if (!authService.authenticateAdmin(form)) {
-            return new ResponseEntity<>(
-                    new GetLeadingAuctionBidResponse(Message.AUTHENTICATION_FAILED.toString()),
-                    HttpStatus.UNAUTHORIZED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new GetLeadingAuctionBidResponse(
+                                    Message.AUTHENTICATION_FAILED.toString()),
+                            HttpStatus.UNAUTHORIZED));
         }
 
-        GetLeadingAuctionBidResponse message = auctionService.getLeadingAuctionBid();
-        return new ResponseEntity<>(message, HttpStatus.OK);
+        return auctionService
+                .getLeadingAuctionBid()
+                .thenApply(message -> new ResponseEntity<>(message, HttpStatus.OK));
     }
 
     @CrossOrigin(origins = "*")
     @PostMapping("/terminate_auction")
-    public ResponseEntity<GetLeadingAuctionBidResponse> terminateAuction(
+    public CompletableFuture<ResponseEntity<GetLeadingAuctionBidResponse>> terminateAuction(
             @Valid @RequestBody BaseAdminRequest form) {
         if (!authService.authenticateAdmin(form)) {
-            return new ResponseEntity<>(
-                    new GetLeadingAuctionBidResponse(Message.AUTHENTICATION_FAILED.toString()),
-                    HttpStatus.UNAUTHORIZED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new GetLeadingAuctionBidResponse(
+                                    Message.AUTHENTICATION_FAILED.toString()),
+                            HttpStatus.UNAUTHORIZED));
         }
 
         if (!app.getState().isAuctionAllowed()) {
-            return new ResponseEntity<>(
-                    new GetLeadingAuctionBidResponse(Message.AUTHENTICATION_FAILED.toString()),
-                    HttpStatus.LOCKED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new GetLeadingAuctionBidResponse(
+                                    Message.AUTHENTICATION_FAILED.toString()),
+                            HttpStatus.LOCKED));
         }
 
         State nextState = app.getState() == State.TRADE_WITH_AUCTION ? State.TRADE : State.STOP;
         app.setStateInternal(nextState);
-        GetLeadingAuctionBidResponse message = auctionService.terminateAuction();
-        return new ResponseEntity<>(message, HttpStatus.OK);
+        return auctionService
+                .terminateAuction()
+                .thenApply(message -> new ResponseEntity<>(message, HttpStatus.OK));
     }
 
     @CrossOrigin(origins = "*")
@@ -1,6 +1,8 @@
 package hte.api.controller;
 
 import hte.api.auth.RateLimiter;
+import hte.api.auth.RateLimiter.RequestClass;
+import hte.api.auth.RateLimiter.Role;
 import hte.api.dtos.requests.AdminDashboardRequest;
 import hte.api.dtos.requests.PrivatePageRequest;
 import hte.api.dtos.responses.AdminDashboardResponse;
@@ -35,6 +37,11 @@ public class AuthController {
                     new AdminDashboardResponse(Message.AUTHENTICATION_FAILED.toString(), ""),
                     HttpStatus.UNAUTHORIZED);
         }
+        if (!rateLimiter.tryAcquire(Role.ADMIN, form.getAdminUsername(), RequestClass.READ)) {
+            return new ResponseEntity<>(
+                    new AdminDashboardResponse(Message.RATE_LIMITED.toString(), ""),
+                    HttpStatus.TOO_MANY_REQUESTS);
+        }
 
         return new ResponseEntity<>(
                 new AdminDashboardResponse(Message.SUCCESS.toString(), ""), HttpStatus.OK);
@@ -49,7 +56,7 @@ public class AuthController {
                     new PrivatePageResponse(Message.AUTHENTICATION_FAILED.toString()),
                     HttpStatus.UNAUTHORIZED);
         }
-        if (!rateLimiter.processRequest(form)) {
+        if (!rateLimiter.processRequest(form, Role.USER, RequestClass.READ)) {
             return new ResponseEntity<>(
                     new PrivatePageResponse(Message.RATE_LIMITED.toString()),
                     HttpStatus.TOO_MANY_REQUESTS);
@@ -4,12 +4,12 @@ import hte.api.ServerApplication;
 import hte.api.dtos.operations.Operation;
 import hte.api.dtos.requests.BatchRequest;
 import hte.api.dtos.responses.BatchResponse;
-import hte.api.dtos.responses.OperationResponse;
 import hte.api.service.AuthService;
 import hte.api.service.BatchService;
 import hte.common.Message;
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -33,30 +33,38 @@ public class BatchController {
 
     @CrossOrigin(origins = "*")
     @PostMapping("/batch")
-    public ResponseEntity<BatchResponse> processBatch(@Valid @RequestBody BatchRequest form) {
+    public CompletableFuture<ResponseEntity<BatchResponse>> processBatch(
+            @Valid @RequestBody BatchRequest form) {
         if (!authService.authenticateBot(form)) {
-            return new ResponseEntity<>(
-                    new BatchResponse(Message.AUTHENTICATION_FAILED.toString(), null),
-                    HttpStatus.UNAUTHORIZED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new BatchResponse(Message.AUTHENTICATION_FAILED.toString(), null),
+                            HttpStatus.UNAUTHORIZED));
         }
         if (!app.getState().isTradingAllowed()) {
-            return new ResponseEntity<>(
-                    new BatchResponse(Message.TRADE_LOCKED.toString(), null), HttpStatus.LOCKED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new BatchResponse(Message.TRADE_LOCKED.toString(), null),
+                            HttpStatus.LOCKED));
         }
 
         if (form.getOperations().size() > batchService.getMaxOperations()) {
-            return new ResponseEntity<>(
-                    new BatchResponse("EXCEEDED_OPERATION_LIMIT", null), HttpStatus.BAD_REQUEST);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new BatchResponse("EXCEEDED_OPERATION_LIMIT", null),
+                            HttpStatus.BAD_REQUEST));
         }
 
         List<Operation> ops = form.getOperations();
-        List<OperationResponse> responses = batchService.processBatch(form.getUsername(), ops);
+        CompletableFuture<BatchResponse> response =
+                batchService.processBatch(form.getUsername(), ops, form.getAtomic());
 
-        if (responses == null) {
-            return new ResponseEntity<>(
-                    new BatchResponse("UNKNOWN OPERATION", null), HttpStatus.BAD_REQUEST);
+        if (response == null) {
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new BatchResponse("UNKNOWN OPERATION", null), HttpStatus.BAD_REQUEST));
         }
 
-        return new ResponseEntity<>(new BatchResponse("SUCCESS", responses), HttpStatus.OK);
+        return response.thenApply(body -> new ResponseEntity<>(body, HttpStatus.OK));
     }
 }
@@ -4,7 +4,11 @@ import hte.api.ServerApplication;
 import hte.api.auth.BotAuthenticator;
 import hte.api.auth.PrivatePageAuthenticator;
 import hte.api.auth.RateLimiter;
+import hte.api.auth.RateLimiter.RequestClass;
+import hte.api.auth.RateLimiter.Role;
+import hte.api.dtos.requests.AmendRequest;
 import hte.api.dtos.requests.BasePrivateRequest;
+import hte.api.dtos.requests.BotAmendRequest;
 import hte.api.dtos.requests.BotLimitOrderRequest;
 import hte.api.dtos.requests.BotMarketOrderRequest;
 import hte.api.dtos.requests.LimitOrderRequest;
@@ -17,6 +21,7 @@ import hte.api.dtos.responses.RemoveAllResponse;
 import hte.api.service.OrderService;
 import hte.common.Message;
 import jakarta.validation.Valid;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -46,196 +51,342 @@ public class OrderController {
         this.botAuthenticator = botAuthenticator;
     }
 
-    private boolean rateLimit(BasePrivateRequest form) {
-        return rateLimiter.processRequest(form);
+    private boolean rateLimit(BasePrivateRequest form, Role role, RequestClass requestClass) {
+        return rateLimiter.processRequest(form, role, requestClass);
     }
 
     @CrossOrigin(origins = "*")
     @PostMapping("/limit_order")
-    public ResponseEntity<LimitOrderResponse> limitOrder(
+    public CompletableFuture<ResponseEntity<LimitOrderResponse>> limitOrder(
             @Valid @RequestBody LimitOrderRequest form) {
         if (!privatePageAuthenticator.authenticate(form)) {
-            return new ResponseEntity<>(
-                    new LimitOrderResponse(Message.AUTHENTICATION_FAILED.toString()),
-                    HttpStatus.UNAUTHORIZED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new LimitOrderResponse(Message.AUTHENTICATION_FAILED.toString()),
+                            HttpStatus.UNAUTHORIZED));
         }
-        if (!rateLimit(form)) {
-            return new ResponseEntity<>(
-                    new LimitOrderResponse(Message.RATE_LIMITED.toString()),
-                    HttpStatus.TOO_MANY_REQUESTS);
+        if (!rateLimit(form, Role.USER, RequestClass.ORDER)) {
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new LimitOrderResponse(Message.RATE_LIMITED.toString()),
+                            HttpStatus.TOO_MANY_REQUESTS));
         }
         if (!app.getState().isTradingAllowed()) {
-            return new ResponseEntity<>(
-                    new LimitOrderResponse(Message.TRADE_LOCKED.toString()), HttpStatus.LOCKED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new LimitOrderResponse(Message.TRADE_LOCKED.toString()),
+                            HttpStatus.LOCKED));
         }
-        String message =
-                orderService.placeLimitOrder(
+        return orderService
+                .placeLimitOrder(
                         form.getUsername(),
                         form.getTicker(),
                         form.getPrice(),
                         form.getVolume(),
-                        form.getBid());
-        return new ResponseEntity<>(new LimitOrderResponse(message), HttpStatus.OK);
+                        form.getBid(),
+                        form.getTimeInForce())
+                .thenApply(
+                        message ->
+                                new ResponseEntity<>(
+                                        new LimitOrderResponse(message), HttpStatus.OK));
     }
 
     @CrossOrigin(origins = "*")
     @PostMapping("/bot_limit_order")
-    public ResponseEntity<LimitOrderResponse> botLimitOrder(
+    public CompletableFuture<ResponseEntity<LimitOrderResponse>> botLimitOrder(
             @Valid @RequestBody BotLimitOrderRequest form) {
         if (!botAuthenticator.authenticate(form)) {
-            return new ResponseEntity<>(
-                    new LimitOrderResponse(Message.AUTHENTICATION_FAILED.toString()),
-                    HttpStatus.UNAUTHORIZED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new LimitOrderResponse(Message.AUTHENTICATION_FAILED.toString()),
+                            HttpStatus.UNAUTHORIZED));
+        }
+        if (!rateLimit(form, Role.BOT, RequestClass.ORDER)) {
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new LimitOrderResponse(Message.RATE_LIMITED.toString()),
+                            HttpStatus.TOO_MANY_REQUESTS));
         }
         if (!app.getState().isTradingAllowed()) {
-            return new ResponseEntity<>(
-                    new LimitOrderResponse(Message.TRADE_LOCKED.toString()), HttpStatus.LOCKED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new LimitOrderResponse(Message.TRADE_LOCKED.toString()),
+                            HttpStatus.LOCKED));
         }
-        String message =
-                orderService.placeLimitOrder(
+        return orderService
+                .placeLimitOrder(
                         form.getUsername(),
                         form.getTicker(),
                         form.getPrice(),
                         form.getVolume(),
-                        form.getBid());
-        return new ResponseEntity<>(new LimitOrderResponse(message), HttpStatus.OK);
+                        form.getBid(),
+                        form.getTimeInForce())
+                .thenApply(
+                        message ->
+                                new ResponseEntity<>(
+                                        new LimitOrderResponse(message), HttpStatus.OK));
     }
 
     @CrossOrigin(origins = "*")
     @PostMapping("/remove_all")
-    public ResponseEntity<RemoveAllResponse> removeAll(@Valid @RequestBody RemoveAllRequest form) {
+    public CompletableFuture<ResponseEntity<RemoveAllResponse>> removeAll(
+            @Valid @RequestBody RemoveAllRequest form) {
         if (!privatePageAuthenticator.authenticate(form)) {
-            return new ResponseEntity<>(
-                    new RemoveAllResponse(Message.AUTHENTICATION_FAILED.toString()),
-                    HttpStatus.UNAUTHORIZED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new RemoveAllResponse(Message.AUTHENTICATION_FAILED.toString()),
+                            HttpStatus.UNAUTHORIZED));
         }
-        if (!rateLimit(form)) {
-            return new ResponseEntity<>(
-                    new RemoveAllResponse(Message.RATE_LIMITED.toString()),
-                    HttpStatus.TOO_MANY_REQUESTS);
+        if (!rateLimit(form, Role.USER, RequestClass.CANCEL)) {
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new RemoveAllResponse(Message.RATE_LIMITED.toString()),
+                            HttpStatus.TOO_MANY_REQUESTS));
         }
         if (!app.getState().isTradingAllowed()) {
-            return new ResponseEntity<>(
-                    new RemoveAllResponse(Message.TRADE_LOCKED.toString()), HttpStatus.LOCKED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new RemoveAllResponse(Message.TRADE_LOCKED.toString()),
+                            HttpStatus.LOCKED));
         }
         if (form.getUsername() == null)
-            return new ResponseEntity<>(
-                    new RemoveAllResponse(Message.AUTHENTICATION_FAILED.toString()),
-                    HttpStatus.UNAUTHORIZED);
-        String message = orderService.removeAll(form.getUsername());
-        return new ResponseEntity<>(new RemoveAllResponse(message), HttpStatus.OK);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new RemoveAllResponse(Message.AUTHENTICATION_FAILED.toString()),
+                            HttpStatus.UNAUTHORIZED));
+        return orderService
+                .removeAll(form.getUsername(), form.toFilter())
+                .thenApply(
+                        message ->
+                                new ResponseEntity<>(
+                                        new RemoveAllResponse(message), HttpStatus.OK));
     }
 
     @PostMapping("/bot_remove_all")
-    public ResponseEntity<RemoveAllResponse> botRemoveAll(
+    public CompletableFuture<ResponseEntity<RemoveAllResponse>> botRemoveAll(
             @Valid @RequestBody RemoveAllRequest form) {
         if (!botAuthenticator.authenticate(form)) {
-            return new ResponseEntity<>(
-                    new RemoveAllResponse(Message.AUTHENTICATION_FAILED.toString()),
-                    HttpStatus.UNAUTHORIZED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new RemoveAllResponse(Message.AUTHENTICATION_FAILED.toString()),
+                            HttpStatus.UNAUTHORIZED));
         }
-        if (!rateLimit(form)) {
-            return new ResponseEntity<>(
-                    new RemoveAllResponse(Message.RATE_LIMITED.toString()),
-                    HttpStatus.TOO_MANY_REQUESTS);
+        if (!rateLimit(form, Role.BOT, RequestClass.CANCEL)) {
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new RemoveAllResponse(Message.RATE_LIMITED.toString()),
+                            HttpStatus.TOO_MANY_REQUESTS));
         }
         if (!app.getState().isTradingAllowed()) {
-            return new ResponseEntity<>(
-                    new RemoveAllResponse(Message.TRADE_LOCKED.toString()), HttpStatus.LOCKED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new RemoveAllResponse(Message.TRADE_LOCKED.toString()),
+                            HttpStatus.LOCKED));
         }
         if (form.getUsername() == null)
-            return new ResponseEntity<>(
-                    new RemoveAllResponse(Message.AUTHENTICATION_FAILED.toString()),
-                    HttpStatus.UNAUTHORIZED);
-        String message = orderService.removeAll(form.getUsername());
-        return new ResponseEntity<>(new RemoveAllResponse(message), HttpStatus.OK);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new RemoveAllResponse(Message.AUTHENTICATION_FAILED.toString()),
+                            HttpStatus.UNAUTHORIZED));
+        return orderService
+                .removeAll(form.getUsername(), form.toFilter())
+                .thenApply(
+                        message ->
+                                new ResponseEntity<>(
+                                        new RemoveAllResponse(message), HttpStatus.OK));
     }
 
     @CrossOrigin(origins = "*")
     @PostMapping("/remove")
-    public ResponseEntity<RemoveAllResponse> remove(@Valid @RequestBody RemoveRequest form) {
+    public CompletableFuture<ResponseEntity<RemoveAllResponse>> remove(
+            @Valid @RequestBody RemoveRequest form) {
         if (!privatePageAuthenticator.authenticate(form)) {
-            return new ResponseEntity<>(
-                    new RemoveAllResponse(Message.AUTHENTICATION_FAILED.toString()),
-                    HttpStatus.UNAUTHORIZED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new RemoveAllResponse(Message.AUTHENTICATION_FAILED.toString()),
+                            HttpStatus.UNAUTHORIZED));
         }
-        if (!rateLimit(form)) {
-            return new ResponseEntity<>(
-                    new RemoveAllResponse(Message.RATE_LIMITED.toString()),
-                    HttpStatus.TOO_MANY_REQUESTS);
+        if (!rateLimit(form, Role.USER, RequestClass.CANCEL)) {
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new RemoveAllResponse(Message.RATE_LIMITED.toString()),
+                            HttpStatus.TOO_MANY_REQUESTS));
         }
         if (!app.getState().isTradingAllowed()) {
-            return new ResponseEntity<>(
-                    new RemoveAllResponse(Message.TRADE_LOCKED.toString()), HttpStatus.LOCKED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new RemoveAllResponse(Message.TRADE_LOCKED.toString()),
+                            HttpStatus.LOCKED));
         }
         if (form.getUsername() == null)
-            return new ResponseEntity<>(
-                    new RemoveAllResponse(Message.AUTHENTICATION_FAILED.toString()),
-                    HttpStatus.UNAUTHORIZED);
-        String message = orderService.removeOrder(form.getUsername(), form.getOrderID());
-        return new ResponseEntity<>(new RemoveAllResponse(message), HttpStatus.OK);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new RemoveAllResponse(Message.AUTHENTICATION_FAILED.toString()),
+                            HttpStatus.UNAUTHORIZED));
+        return orderService
+                .removeOrder(form.getUsername(), form.getOrderID())
+                .thenApply(
+                        message ->
+                                new ResponseEntity<>(
+                                        new RemoveAllResponse(message), HttpStatus.OK));
     }
 
     @CrossOrigin(origins = "*")
     @PostMapping("/bot_remove")
-    public ResponseEntity<RemoveAllResponse> botRemove(@Valid @RequestBody RemoveRequest form) {
+    public CompletableFuture<ResponseEntity<RemoveAllResponse>> botRemove(
+            @Valid @RequestBody RemoveRequest form) {
         if (!botAuthenticator.authenticate(form)) {
-            return new ResponseEntity<>(
-                    new RemoveAllResponse(Message.AUTHENTICATION_FAILED.toString()),
-                    HttpStatus.UNAUTHORIZED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new RemoveAllResponse(Message.AUTHENTICATION_FAILED.toString()),
+                            HttpStatus.UNAUTHORIZED));
+        }
+        if (!rateLimit(form, Role.BOT, RequestClass.CANCEL)) {
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new RemoveAllResponse(Message.RATE_LIMITED.toString()),
+                            HttpStatus.TOO_MANY_REQUESTS));
         }
         if (!app.getState().isTradingAllowed()) {
-            return new ResponseEntity<>(
-                    new RemoveAllResponse(Message.TRADE_LOCKED.toString()), HttpStatus.LOCKED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new RemoveAllResponse(Message.TRADE_LOCKED.toString()),
+                            HttpStatus.LOCKED));
         }
         if (form.getUsername() == null)
-            return new ResponseEntity<>(
-                    new RemoveAllResponse(Message.AUTHENTICATION_FAILED.toString()),
-                    HttpStatus.UNAUTHORIZED);
-        String message = orderService.removeOrder(form.getUsername(), form.getOrderID());
-        return new ResponseEntity<>(new RemoveAllResponse(message), HttpStatus.OK);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new RemoveAllResponse(Message.AUTHENTICATION_FAILED.toString()),
+                            HttpStatus.UNAUTHORIZED));
+        return orderService
+                .removeOrder(form.getUsername(), form.getOrderID())
+                .thenApply(
+                        message ->
+                                new ResponseEntity<>(
+                                        new RemoveAllResponse(message), HttpStatus.OK));
+    }
+
+    @CrossOrigin(origins = "*")
+    @PostMapping("/amend")
+    public CompletableFuture<ResponseEntity<LimitOrderResponse>> amend(
+            @Valid @RequestBody AmendRequest form) {
+        if (!privatePageAuthenticator.authenticate(form)) {
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new LimitOrderResponse(Message.AUTHENTICATION_FAILED.toString()),
+                            HttpStatus.UNAUTHORIZED));
+        }
+        if (!rateLimit(form, Role.USER, RequestClass.ORDER)) {
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new LimitOrderResponse(Message.RATE_LIMITED.toString()),
+                            HttpStatus.TOO_MANY_REQUESTS));
+        }
+        if (!app.getState().isTradingAllowed()) {
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new LimitOrderResponse(Message.TRADE_LOCKED.toString()),
+                            HttpStatus.LOCKED));
+        }
+        return orderService
+                .amendOrder(
+                        form.getUsername(), form.getOrderId(), form.getPrice(), form.getVolume())
+                .thenApply(
+                        message ->
+                                new ResponseEntity<>(
+                                        new LimitOrderResponse(message), HttpStatus.OK));
+    }
+
+    @CrossOrigin(origins = "*")
+    @PostMapping("/bot_amend")
+    public CompletableFuture<ResponseEntity<LimitOrderResponse>> botAmend(
+            @Valid @RequestBody BotAmendRequest form) {
+        if (!botAuthenticator.authenticate(form)) {
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new LimitOrderResponse(Message.AUTHENTICATION_FAILED.toString()),
+                            HttpStatus.UNAUTHORIZED));
+        }
+        if (!rateLimit(form, Role.BOT, RequestClass.ORDER)) {
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new LimitOrderResponse(Message.RATE_LIMITED.toString()),
+                            HttpStatus.TOO_MANY_REQUESTS));
+        }
+        if (!app.getState().isTradingAllowed()) {
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new LimitOrderResponse(Message.TRADE_LOCKED.toString()),
+                            HttpStatus.LOCKED));
+        }
+        return orderService
+                .amendOrder(
+                        form.getUsername(), form.getOrderId(), form.getPrice(), form.getVolume())
+                .thenApply(
+                        message ->
+                                new ResponseEntity<>(
+                                        new LimitOrderResponse(message), HttpStatus.OK));
     }
 
     @CrossOrigin(origins = "*")
     @PostMapping("/market_order")
-    public ResponseEntity<MarketOrderResponse> marketOrderResponse(
+    public CompletableFuture<ResponseEntity<MarketOrderResponse>> marketOrderResponse(
             @Valid @RequestBody MarketOrderRequest form) {
         if (!privatePageAuthenticator.authenticate(form)) {
-            return new ResponseEntity<>(
-                    new MarketOrderResponse(Message.AUTHENTICATION_FAILED.toString()),
-                    HttpStatus.UNAUTHORIZED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new MarketOrderResponse(Message.AUTHENTICATION_FAILED.toString()),
+                            HttpStatus.UNAUTHORIZED));
         }
-        if (!rateLimit(form)) {
-            return new ResponseEntity<>(
-                    new MarketOrderResponse(Message.RATE_LIMITED.toString()),
-                    HttpStatus.TOO_MANY_REQUESTS);
+        if (!rateLimit(form, Role.USER, RequestClass.ORDER)) {
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new MarketOrderResponse(Message.RATE_LIMITED.toString()),
+                            HttpStatus.TOO_MANY_REQUESTS));
         }
         if (!app.getState().isTradingAllowed()) {
-            return new ResponseEntity<>(
-                    new MarketOrderResponse(Message.TRADE_LOCKED.toString()), HttpStatus.LOCKED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new MarketOrderResponse(Message.TRADE_LOCKED.toString()),
+                            HttpStatus.LOCKED));
         }
-        String message =
-                orderService.placeMarketOrder(
-                        form.getUsername(), form.getTicker(), form.getVolume(), form.getBid());
-        return new ResponseEntity<>(new MarketOrderResponse(message), HttpStatus.OK);
+        return orderService
+                .placeMarketOrder(
+                        form.getUsername(), form.getTicker(), form.getVolume(), form.getBid())
+                .thenApply(
+                        message ->
+                                new ResponseEntity<>(
+                                        new MarketOrderResponse(message), HttpStatus.OK));
     }
 
     @CrossOrigin(origins = "*")
     @PostMapping("/bot_market_order")
-    public ResponseEntity<MarketOrderResponse> botMarketOrderResponse(
+    public CompletableFuture<ResponseEntity<MarketOrderResponse>> botMarketOrderResponse(
             @Valid @RequestBody BotMarketOrderRequest form) {
         if (!botAuthenticator.authenticate(form)) {
-            return new ResponseEntity<>(
-                    new MarketOrderResponse(Message.AUTHENTICATION_FAILED.toString()),
-                    HttpStatus.UNAUTHORIZED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new MarketOrderResponse(Message.AUTHENTICATION_FAILED.toString()),
+                            HttpStatus.UNAUTHORIZED));
+        }
+        if (!rateLimit(form, Role.BOT, RequestClass.ORDER)) {
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new MarketOrderResponse(Message.RATE_LIMITED.toString()),
+                            HttpStatus.TOO_MANY_REQUESTS));
         }
         if (!app.getState().isTradingAllowed()) {
-            return new ResponseEntity<>(
-                    new MarketOrderResponse(Message.TRADE_LOCKED.toString()), HttpStatus.LOCKED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(
+                            new MarketOrderResponse(Message.TRADE_LOCKED.toString()),
+                            HttpStatus.LOCKED));
         }
-        String message =
-                orderService.placeMarketOrder(
-                        form.getUsername(), form.getTicker(), form.getVolume(), form.getBid());
-        return new ResponseEntity<>(new MarketOrderResponse(message), HttpStatus.OK);
+        return orderService
+                .placeMarketOrder(
+                        form.getUsername(), form.getTicker(), form.getVolume(), form.getBid())
+                .thenApply(
+                        message ->
+                                new ResponseEntity<>(
+                                        new MarketOrderResponse(message), HttpStatus.OK));
     }
 }
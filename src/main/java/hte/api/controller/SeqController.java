@@ -1,48 +1,91 @@
 package hte.api.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hte.api.OrderbookSnapshotCache;
 import hte.api.dtos.responses.GetLatestSeqResponse;
 import hte.api.dtos.responses.GetUpdateResponse;
 import hte.api.dtos.responses.SnapshotResponse;
+import hte.common.MarketDataCodec;
 import hte.common.Message;
 import hte.common.OrderbookSeqLog;
 import hte.common.OrderbookUpdate;
 import hte.common.SeqGenerator;
-import hte.matchingengine.MatchingEngine;
+import hte.common.TickerStreams;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 public class SeqController {
+    /** Most updates one {@code /updates?from=} response carries. */
+    static final int MAX_RANGE = 1000;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
     private final SeqGenerator seqGenerator;
-    private final MatchingEngine matchingEngine;
     private final OrderbookSeqLog orderbookSeqLog;
+    private final OrderbookSnapshotCache snapshotCache;
+    private final TickerStreams tickerStreams;
 
     public SeqController(
             SeqGenerator seqGenerator,
-            MatchingEngine matchingEngine,
-            OrderbookSeqLog orderbookSeqLog) {
+            OrderbookSeqLog orderbookSeqLog,
+            OrderbookSnapshotCache snapshotCache,
+            TickerStreams tickerStreams) {
         this.seqGenerator = seqGenerator;
-        this.matchingEngine = matchingEngine;
         this.orderbookSeqLog = orderbookSeqLog;
+        this.snapshotCache = snapshotCache;
+        this.tickerStreams = tickerStreams;
+    }
+
+    /**
+     * @return the replay log of {@code ticker}'s stream, the global log if {@code ticker} is null,
+     *     or null if nothing has been numbered for the ticker yet.
+     */
+    private OrderbookSeqLog logFor(String ticker) {
+        if (ticker == null) {
+            return orderbookSeqLog;
+        }
+        TickerStreams.Stream stream = tickerStreams.find(ticker);
+        return stream == null ? null : stream.log();
     }
 
     @CrossOrigin(origins = "*")
     @GetMapping("/latestSeq")
-    public ResponseEntity<GetLatestSeqResponse> getLatestSeq() {
+    public ResponseEntity<GetLatestSeqResponse> getLatestSeq(
+            @RequestParam(required = false) String ticker) {
+        if (ticker == null) {
+            return new ResponseEntity<>(
+                    new GetLatestSeqResponse(Message.SUCCESS.toString(), seqGenerator.get()),
+                    HttpStatus.OK);
+        }
+        TickerStreams.Stream stream = tickerStreams.find(ticker);
+        if (stream == null) {
+            return new ResponseEntity<>(
+                    new GetLatestSeqResponse(Message.UNKNOWN_TICKER.toString(), -1),
+                    HttpStatus.BAD_REQUEST);
+        }
         return new ResponseEntity<>(
-                new GetLatestSeqResponse(Message.SUCCESS.toString(), seqGenerator.get()),
+                new GetLatestSeqResponse(Message.SUCCESS.toString(), stream.seqGenerator().get()),
                 HttpStatus.OK);
     }
 
     @CrossOrigin(origins = "*")
     @GetMapping("/updates")
-    public ResponseEntity<GetUpdateResponse> getUpdate(@RequestParam long seq) {
-        Optional<OrderbookUpdate> update = orderbookSeqLog.getBySeq(seq);
+    public ResponseEntity<GetUpdateResponse> getUpdate(
+            @RequestParam long seq, @RequestParam(required = false) String ticker) {
+        OrderbookSeqLog log = logFor(ticker);
+        Optional<OrderbookUpdate> update = log == null ? Optional.empty() : log.getBySeq(seq);
         if (update.isEmpty()) {
             return new ResponseEntity<>(
                     new GetUpdateResponse(Message.INVALID_SEQ_NUM.toString()),
@@ -54,20 +97,113 @@ public class SeqController {
                 HttpStatus.OK);
     }
 
+    /**
+     * Streams the contiguous updates {@code from..to} (at most {@link #MAX_RANGE}) as {@code
+     * {"message", "from", "updates": [...], "to"}}, where {@code to} is the last seq sent. The
+     * response stops early at the newest update, or if the window moves past the range mid-stream.
+     */
+    @CrossOrigin(origins = "*")
+    @GetMapping(value = "/updates", params = "from")
+    public ResponseEntity<StreamingResponseBody> getUpdates(
+            @RequestParam long from,
+            @RequestParam(required = false) Long to,
+            @RequestParam(required = false) String ticker) {
+        if (to != null && to < from) {
+            return streamError(Message.BAD_INPUT);
+        }
+        OrderbookSeqLog log = logFor(ticker);
+        if (log == null || log.getBySeq(from).isEmpty()) {
+            return streamError(Message.INVALID_SEQ_NUM);
+        }
+        long last = Math.min(to == null ? Long.MAX_VALUE : to, from + MAX_RANGE - 1);
+        StreamingResponseBody body =
+                out -> {
+                    JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+                    json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    json.writeStartObject();
+                    json.writeFieldName("message");
+                    json.writeRawValue(Message.SUCCESS.toString());
+                    json.writeNumberField("from", from);
+                    json.writeArrayFieldStart("updates");
+                    long sent;
+                    try {
+                        sent =
+                                log.replay(
+                                        from,
+                                        last,
+                                        update -> {
+                                            try {
+                                                objectMapper.writeValue(json, update);
+                                            } catch (IOException e) {
+                                                throw new UncheckedIOException(e);
+                                            }
+                                        });
+                    } catch (UncheckedIOException e) {
+                        throw e.getCause();
+                    }
+                    json.writeEndArray();
+                    json.writeNumberField("to", sent);
+                    json.writeEndObject();
+                    json.close();
+                };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> streamError(Message message) {
+        GetUpdateResponse response = new GetUpdateResponse(message.toString());
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, response));
+    }
+
+    /**
+     * Order books JSON with the seq it is consistent with, served from {@link
+     * OrderbookSnapshotCache} until the books change.
+     */
     @CrossOrigin(origins = "*")
     @GetMapping("/snapshot")
-    public ResponseEntity<SnapshotResponse> snapshot() {
-        long latestSeq = seqGenerator.get();
-        String snapshot = matchingEngine.serializeOrderBooks();
+    public CompletableFuture<ResponseEntity<byte[]>> snapshot(
+            @RequestParam(required = false) String ticker) {
+        return (ticker == null ? snapshotCache.get() : snapshotCache.get(ticker))
+                .handle(
+                        (snapshot, error) -> {
+                            if (error != null) {
+                                return ResponseEntity.internalServerError()
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .body(snapshotError(Message.INTERNAL_ERROR));
+                            }
+                            if (snapshot == null) {
+                                return ResponseEntity.badRequest()
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .body(snapshotError(Message.UNKNOWN_TICKER));
+                            }
+                            return ResponseEntity.ok()
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .body(snapshot.response());
+                        });
+    }
 
-        if (snapshot == null) {
-            return new ResponseEntity<>(
-                    new SnapshotResponse(Message.BAD_INPUT.toString()),
-                    HttpStatus.INTERNAL_SERVER_ERROR);
+    private static byte[] snapshotError(Message message) {
+        try {
+            return objectMapper.writeValueAsBytes(new SnapshotResponse(message.toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+    }
 
-        return new ResponseEntity<>(
-                new SnapshotResponse(Message.SUCCESS.toString(), snapshot, latestSeq),
-                HttpStatus.OK);
+    /**
+     * {@code /snapshot} in the {@link MarketDataCodec} encoding, for clients that ask for it;
+     * served from the same {@link OrderbookSnapshotCache} entry as the JSON form.
+     */
+    @CrossOrigin(origins = "*")
+    @GetMapping(value = "/snapshot", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public CompletableFuture<ResponseEntity<byte[]>> binarySnapshot(
+            @RequestParam(required = false) String ticker) {
+        return (ticker == null ? snapshotCache.get() : snapshotCache.get(ticker))
+                .thenApply(
+                        snapshot ->
+                                snapshot == null
+                                        ? ResponseEntity.badRequest().<byte[]>build()
+                                        : new ResponseEntity<>(snapshot.binary(), HttpStatus.OK));
     }
 }
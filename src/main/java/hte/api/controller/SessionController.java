@@ -8,6 +8,7 @@ import hte.api.dtos.responses.TeardownResponse;
 import hte.api.service.SessionService;
 import hte.common.Message;
 import jakarta.validation.Valid;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -29,18 +30,23 @@ public class SessionController {
 
     @CrossOrigin(origins = "*")
     @PostMapping("/buildup")
-    public ResponseEntity<BuildupResponse> buildup(@Valid @RequestBody BuildupRequest form) {
-        BuildupResponse resp = sessionService.buildup(form.getUsername(), form.getApiKey());
-        if (!Message.SUCCESS.toString().equals(resp.getMessage())) {
-            return new ResponseEntity<>(resp, HttpStatus.UNAUTHORIZED);
-        }
-        return new ResponseEntity<>(resp, HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<BuildupResponse>> buildup(
+            @Valid @RequestBody BuildupRequest form) {
+        return sessionService
+                .buildup(form.getUsername(), form.getApiKey())
+                .thenApply(SessionController::buildupResponse);
     }
 
     @CrossOrigin(origins = "*")
     @PostMapping("/bot_buildup")
-    public ResponseEntity<BuildupResponse> botBuildup(@Valid @RequestBody BuildupRequest form) {
-        BuildupResponse resp = sessionService.botBuildup(form.getUsername(), form.getApiKey());
+    public CompletableFuture<ResponseEntity<BuildupResponse>> botBuildup(
+            @Valid @RequestBody BuildupRequest form) {
+        return sessionService
+                .botBuildup(form.getUsername(), form.getApiKey())
+                .thenApply(SessionController::buildupResponse);
+    }
+
+    private static ResponseEntity<BuildupResponse> buildupResponse(BuildupResponse resp) {
         if (!Message.SUCCESS.toString().equals(resp.getMessage())) {
             return new ResponseEntity<>(resp, HttpStatus.UNAUTHORIZED);
         }
@@ -2,8 +2,14 @@ package hte.api.controller;
 
 import hte.api.ServerApplication;
 import hte.api.auth.RateLimiter;
+import hte.api.auth.RateLimiter.RequestClass;
+import hte.api.auth.RateLimiter.Role;
 import hte.api.dtos.requests.PrivatePageRequest;
+import hte.api.dtos.requests.SystemStatsRequest;
+import hte.api.dtos.responses.EngineLatencyResponse;
+import hte.api.dtos.responses.EngineStatsResponse;
 import hte.api.dtos.responses.GetDetailsResponse;
+import hte.api.dtos.responses.SocketSessionsResponse;
 import hte.api.service.AuthService;
 import hte.api.service.SystemService;
 import hte.common.Message;
@@ -41,6 +47,42 @@ public class SystemController {
                 String.format("{\"state\": %d}", app.getState().ordinal()), HttpStatus.OK);
     }
 
+    @CrossOrigin(origins = "*")
+    @PostMapping("/engine_stats")
+    public ResponseEntity<EngineStatsResponse> engineStats(
+            @Valid @RequestBody SystemStatsRequest form) {
+        if (!authService.authenticateAdmin(form)) {
+            return new ResponseEntity<>(
+                    new EngineStatsResponse(Message.AUTHENTICATION_FAILED.toString()),
+                    HttpStatus.UNAUTHORIZED);
+        }
+        return new ResponseEntity<>(systemService.getEngineStats(), HttpStatus.OK);
+    }
+
+    @CrossOrigin(origins = "*")
+    @PostMapping("/engine_latency")
+    public ResponseEntity<EngineLatencyResponse> engineLatency(
+            @Valid @RequestBody SystemStatsRequest form) {
+        if (!authService.authenticateAdmin(form)) {
+            return new ResponseEntity<>(
+                    new EngineLatencyResponse(Message.AUTHENTICATION_FAILED.toString()),
+                    HttpStatus.UNAUTHORIZED);
+        }
+        return new ResponseEntity<>(systemService.getEngineLatency(), HttpStatus.OK);
+    }
+
+    @CrossOrigin(origins = "*")
+    @PostMapping("/ws_sessions")
+    public ResponseEntity<SocketSessionsResponse> socketSessions(
+            @Valid @RequestBody SystemStatsRequest form) {
+        if (!authService.authenticateAdmin(form)) {
+            return new ResponseEntity<>(
+                    new SocketSessionsResponse(Message.AUTHENTICATION_FAILED.toString()),
+                    HttpStatus.UNAUTHORIZED);
+        }
+        return new ResponseEntity<>(systemService.getSocketSessions(), HttpStatus.OK);
+    }
+
     @CrossOrigin(origins = "*")
     @PostMapping("/get_details")
     public ResponseEntity<GetDetailsResponse> getDetails(
@@ -51,7 +93,7 @@ public class SystemController {
                     HttpStatus.UNAUTHORIZED);
         }
 
-        if (!rateLimiter.processRequest(form)) {
+        if (!rateLimiter.processRequest(form, Role.USER, RequestClass.READ)) {
             return new ResponseEntity<>(
                     new GetDetailsResponse(Message.RATE_LIMITED.toString(), ""),
                     HttpStatus.TOO_MANY_REQUESTS);
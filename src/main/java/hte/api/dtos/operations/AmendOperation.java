@@ -0,0 +1,41 @@
+package hte.api.dtos.operations;
+
+import hte.api.dtos.requests.Preprocessing;
+import jakarta.validation.constraints.NotNull;
+
+public class AmendOperation extends Operation {
+    @NotNull private long orderId;
+    @NotNull private int price;
+    @NotNull private int volume;
+
+    public AmendOperation(long orderId, int price, int volume) {
+        super("amend");
+        this.orderId = orderId;
+        this.price = Preprocessing.preprocessPrice(price);
+        this.volume = Preprocessing.botPreprocessVolume(volume);
+    }
+
+    public long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(long orderId) {
+        this.orderId = orderId;
+    }
+
+    public int getPrice() {
+        return price;
+    }
+
+    public void setPrice(int price) {
+        this.price = price;
+    }
+
+    public int getVolume() {
+        return volume;
+    }
+
+    public void setVolume(int volume) {
+        this.volume = volume;
+    }
+}
@@ -1,6 +1,7 @@
 package hte.api.dtos.operations;
 
 import hte.api.dtos.requests.Preprocessing;
+import hte.matchingengine.TimeInForce;
 import jakarta.validation.constraints.NotNull;
 
 public class LimitOrderOperation extends Operation {
@@ -8,6 +9,7 @@ public class LimitOrderOperation extends Operation {
     @NotNull private int price;
     @NotNull private int volume;
     @NotNull private boolean isBid;
+    private TimeInForce timeInForce = TimeInForce.GTC;
 
     public LimitOrderOperation(String ticker, int price, int volume, boolean isBid) {
         super("limit_order");
@@ -48,4 +50,12 @@ public class LimitOrderOperation extends Operation {
     public void setBid(boolean isBid) {
         this.isBid = isBid;
     }
+
+    public TimeInForce getTimeInForce() {
+        return timeInForce;
+    }
+
+    public void setTimeInForce(TimeInForce timeInForce) {
+        this.timeInForce = timeInForce == null ? TimeInForce.GTC : timeInForce;
+    }
 }
@@ -9,7 +9,8 @@ import jakarta.validation.constraints.NotNull;
     @JsonSubTypes.Type(value = LimitOrderOperation.class, name = "limit_order"),
     @JsonSubTypes.Type(value = MarketOrderOperation.class, name = "market_order"),
     @JsonSubTypes.Type(value = RemoveOperation.class, name = "remove"),
-    @JsonSubTypes.Type(value = RemoveAllOperation.class, name = "remove_all")
+    @JsonSubTypes.Type(value = RemoveAllOperation.class, name = "remove_all"),
+    @JsonSubTypes.Type(value = AmendOperation.class, name = "amend")
 })
 public abstract class Operation {
     @NotNull private String type;
@@ -1,7 +1,52 @@
 package hte.api.dtos.operations;
 
+import hte.matchingengine.OrderFilter;
+import hte.matchingengine.Side;
+
 public class RemoveAllOperation extends Operation {
+    // Optional; each one that is set narrows which resting orders are cancelled.
+    private String ticker;
+    private Side side;
+    private Integer minPrice;
+    private Integer maxPrice;
+
     public RemoveAllOperation() {
         super("remove_all");
     }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public void setTicker(String ticker) {
+        this.ticker = ticker;
+    }
+
+    public Side getSide() {
+        return side;
+    }
+
+    public void setSide(Side side) {
+        this.side = side;
+    }
+
+    public Integer getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Integer minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Integer getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Integer maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public OrderFilter toFilter() {
+        return OrderFilter.of(ticker, side, minPrice, maxPrice);
+    }
 }
@@ -0,0 +1,51 @@
+package hte.api.dtos.requests;
+
+import jakarta.validation.constraints.NotNull;
+import java.util.function.IntUnaryOperator;
+
+/** Base class for requests that change the price and/or volume of a resting order. */
+public abstract class AbstractAmendRequest extends BasePrivateRequest {
+    @NotNull private long orderId;
+    @NotNull private int price;
+    @NotNull private int volume;
+
+    private final IntUnaryOperator volumeProcessor;
+
+    protected AbstractAmendRequest(
+            String username,
+            String sessionToken,
+            long orderId,
+            int price,
+            int volume,
+            IntUnaryOperator volumeProcessor) {
+        super(username, sessionToken);
+        this.orderId = orderId;
+        this.volumeProcessor = volumeProcessor;
+        this.price = Preprocessing.preprocessPrice(price);
+        this.volume = volumeProcessor.applyAsInt(volume);
+    }
+
+    public long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(long orderId) {
+        this.orderId = orderId;
+    }
+
+    public int getPrice() {
+        return price;
+    }
+
+    public void setPrice(int price) {
+        this.price = Preprocessing.preprocessPrice(price);
+    }
+
+    public int getVolume() {
+        return volume;
+    }
+
+    public void setVolume(int volume) {
+        this.volume = volumeProcessor.applyAsInt(volume);
+    }
+}
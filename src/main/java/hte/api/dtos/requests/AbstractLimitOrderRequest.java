@@ -1,11 +1,14 @@
 package hte.api.dtos.requests;
 
+import hte.matchingengine.TimeInForce;
 import jakarta.validation.constraints.NotNull;
 import java.util.function.IntUnaryOperator;
 
 /** Base class for limit order requests that layers price handling on top of core order data. */
 public abstract class AbstractLimitOrderRequest extends AbstractOrderRequest {
     @NotNull private int price;
+    // Optional; orders without one are good till cancelled.
+    private TimeInForce timeInForce = TimeInForce.GTC;
 
     private final IntUnaryOperator priceProcessor;
 
@@ -34,4 +37,12 @@ public abstract class AbstractLimitOrderRequest extends AbstractOrderRequest {
     public void setPrice(int price) {
         this.price = applyPriceProcessor(price);
     }
+
+    public TimeInForce getTimeInForce() {
+        return timeInForce;
+    }
+
+    public void setTimeInForce(TimeInForce timeInForce) {
+        this.timeInForce = timeInForce == null ? TimeInForce.GTC : timeInForce;
+    }
 }
@@ -0,0 +1,8 @@
+package hte.api.dtos.requests;
+
+public class AmendRequest extends AbstractAmendRequest {
+
+    public AmendRequest(String username, String sessionToken, long orderId, int price, int volume) {
+        super(username, sessionToken, orderId, price, volume, Preprocessing::preprocessVolume);
+    }
+}
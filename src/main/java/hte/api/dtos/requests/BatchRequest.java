@@ -7,6 +7,8 @@ import java.util.List;
 
 public class BatchRequest extends BasePrivateRequest {
     @NotNull @Valid private List<Operation> operations;
+    // All-or-nothing: apply no operation unless every one passes the engine's checks.
+    private boolean atomic;
 
     BatchRequest(String username, String sessionToken, List<Operation> operations) {
         super(username, sessionToken);
@@ -20,4 +22,12 @@ public class BatchRequest extends BasePrivateRequest {
     public List<Operation> getOperations() {
         return operations;
     }
+
+    public boolean getAtomic() {
+        return atomic;
+    }
+
+    public void setAtomic(boolean atomic) {
+        this.atomic = atomic;
+    }
 }
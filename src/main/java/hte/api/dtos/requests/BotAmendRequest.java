@@ -0,0 +1,9 @@
+package hte.api.dtos.requests;
+
+public class BotAmendRequest extends AbstractAmendRequest {
+
+    public BotAmendRequest(
+            String username, String sessionToken, long orderId, int price, int volume) {
+        super(username, sessionToken, orderId, price, volume, Preprocessing::botPreprocessVolume);
+    }
+}
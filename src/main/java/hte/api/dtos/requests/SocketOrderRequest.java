@@ -0,0 +1,76 @@
+package hte.api.dtos.requests;
+
+/**
+ * An order command sent over the WebSocket session, which already identifies the user.
+ *
+ * <p>{@code id} is chosen by the client and echoed in the response. The other fields are those of
+ * the matching HTTP request: ticker, price, volume and isBid for {@code /app/limit_order}; ticker,
+ * volume and isBid for {@code /app/market_order}; orderId for {@code /app/remove}; none for {@code
+ * /app/remove_all}.
+ */
+public class SocketOrderRequest {
+    private String id;
+    private String ticker;
+    private int price;
+    private int volume;
+    private boolean isBid;
+    private long orderId;
+
+    public SocketOrderRequest(
+            String id, String ticker, int price, int volume, boolean isBid, long orderId) {
+        this.id = id;
+        this.ticker = ticker;
+        this.price = price;
+        this.volume = volume;
+        this.isBid = isBid;
+        this.orderId = orderId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public void setTicker(String ticker) {
+        this.ticker = ticker;
+    }
+
+    public int getPrice() {
+        return price;
+    }
+
+    public void setPrice(int price) {
+        this.price = price;
+    }
+
+    public int getVolume() {
+        return volume;
+    }
+
+    public void setVolume(int volume) {
+        this.volume = volume;
+    }
+
+    public boolean getBid() {
+        return isBid;
+    }
+
+    public void setBid(boolean bid) {
+        this.isBid = bid;
+    }
+
+    public long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(long orderId) {
+        this.orderId = orderId;
+    }
+}
@@ -0,0 +1,8 @@
+package hte.api.dtos.requests;
+
+/** Admin credentials for reading the engine and connection statistics endpoints. */
+public class SystemStatsRequest extends BaseAdminRequest {
+    public SystemStatsRequest(String adminUsername, String adminPassword) {
+        super(adminUsername, adminPassword);
+    }
+}
@@ -0,0 +1,48 @@
+package hte.api.dtos.responses;
+
+/**
+ * One ticker's best bid and ask with their sizes. An empty side has price and volume 0; {@code seq}
+ * counts the ticker's top of book changes and skips the ones coalesced away.
+ */
+public class BboResponse {
+    private final String ticker;
+    private final long seq;
+    private final int bidPrice;
+    private final int bidVolume;
+    private final int askPrice;
+    private final int askVolume;
+
+    public BboResponse(
+            String ticker, long seq, int bidPrice, int bidVolume, int askPrice, int askVolume) {
+        this.ticker = ticker;
+        this.seq = seq;
+        this.bidPrice = bidPrice;
+        this.bidVolume = bidVolume;
+        this.askPrice = askPrice;
+        this.askVolume = askVolume;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public int getBidPrice() {
+        return bidPrice;
+    }
+
+    public int getBidVolume() {
+        return bidVolume;
+    }
+
+    public int getAskPrice() {
+        return askPrice;
+    }
+
+    public int getAskVolume() {
+        return askVolume;
+    }
+}
@@ -0,0 +1,22 @@
+package hte.api.dtos.responses;
+
+import hte.common.LatencySummary;
+import java.util.Map;
+
+public class EngineLatencyResponse extends AbstractMessageResponse {
+    // request kind -> stage -> percentiles in nanoseconds
+    private Map<String, Map<String, LatencySummary>> latency;
+
+    public EngineLatencyResponse(String message) {
+        this(message, Map.of());
+    }
+
+    public EngineLatencyResponse(String message, Map<String, Map<String, LatencySummary>> latency) {
+        super(message);
+        this.latency = latency;
+    }
+
+    public Map<String, Map<String, LatencySummary>> getLatency() {
+        return latency;
+    }
+}
@@ -0,0 +1,76 @@
+package hte.api.dtos.responses;
+
+public class EngineStatsResponse extends AbstractMessageResponse {
+    private long queueDepth;
+    private long consumerLagNanos;
+    private long maxConsumerLagNanos;
+    private long processedCommands;
+    private long batches;
+    private int maxBatchSize;
+    private long recoveryMillis;
+    private long replayedJournalRecords;
+    private long lastSnapshotCaptureNanos;
+
+    public EngineStatsResponse(String message) {
+        this(message, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    public EngineStatsResponse(
+            String message,
+            long queueDepth,
+            long consumerLagNanos,
+            long maxConsumerLagNanos,
+            long processedCommands,
+            long batches,
+            int maxBatchSize,
+            long recoveryMillis,
+            long replayedJournalRecords,
+            long lastSnapshotCaptureNanos) {
+        super(message);
+        this.queueDepth = queueDepth;
+        this.consumerLagNanos = consumerLagNanos;
+        this.maxConsumerLagNanos = maxConsumerLagNanos;
+        this.processedCommands = processedCommands;
+        this.batches = batches;
+        this.maxBatchSize = maxBatchSize;
+        this.recoveryMillis = recoveryMillis;
+        this.replayedJournalRecords = replayedJournalRecords;
+        this.lastSnapshotCaptureNanos = lastSnapshotCaptureNanos;
+    }
+
+    public long getQueueDepth() {
+        return queueDepth;
+    }
+
+    public long getConsumerLagNanos() {
+        return consumerLagNanos;
+    }
+
+    public long getMaxConsumerLagNanos() {
+        return maxConsumerLagNanos;
+    }
+
+    public long getProcessedCommands() {
+        return processedCommands;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public long getRecoveryMillis() {
+        return recoveryMillis;
+    }
+
+    public long getReplayedJournalRecords() {
+        return replayedJournalRecords;
+    }
+
+    public long getLastSnapshotCaptureNanos() {
+        return lastSnapshotCaptureNanos;
+    }
+}
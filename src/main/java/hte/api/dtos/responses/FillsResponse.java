@@ -0,0 +1,37 @@
+package hte.api.dtos.responses;
+
+import java.util.List;
+
+/** One publish cycle of a user's fills; {@code seq} increases by one per message to that user. */
+public class FillsResponse {
+    private final long seq;
+    private final List<Fill> fills;
+
+    /**
+     * One side of a trade as seen by its owner: {@code side} is the user's side and {@code
+     * liquidity} is {@code MAKER} or {@code TAKER}.
+     */
+    public record Fill(
+            long tradeId,
+            String ticker,
+            int price,
+            int volume,
+            String side,
+            String liquidity,
+            long makerOrderId,
+            long takerOrderId,
+            long timestamp) {}
+
+    public FillsResponse(long seq, List<Fill> fills) {
+        this.seq = seq;
+        this.fills = fills;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public List<Fill> getFills() {
+        return fills;
+    }
+}
@@ -0,0 +1,32 @@
+package hte.api.dtos.responses;
+
+/**
+ * Answer to a WebSocket order command: the client's {@code id}, the command's {@code type} and the
+ * same {@code message} the HTTP endpoint would have returned.
+ */
+public class SocketOrderResponse extends AbstractMessageResponse {
+    private String id;
+    private String type;
+
+    public SocketOrderResponse(String id, String type, String message) {
+        super(message);
+        this.id = id;
+        this.type = type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+}
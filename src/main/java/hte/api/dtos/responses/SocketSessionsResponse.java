@@ -0,0 +1,39 @@
+package hte.api.dtos.responses;
+
+import java.util.List;
+
+public class SocketSessionsResponse extends AbstractMessageResponse {
+    private List<Session> sessions;
+    private long droppedSessions;
+
+    /**
+     * Market data outbox of one WebSocket session; {@code lagNanos} is how long its oldest queued
+     * message has been waiting.
+     */
+    public record Session(
+            String sessionId,
+            String username,
+            int queued,
+            int maxQueued,
+            long lagNanos,
+            long sent,
+            long conflated) {}
+
+    public SocketSessionsResponse(String message) {
+        this(message, List.of(), 0);
+    }
+
+    public SocketSessionsResponse(String message, List<Session> sessions, long droppedSessions) {
+        super(message);
+        this.sessions = sessions;
+        this.droppedSessions = droppedSessions;
+    }
+
+    public List<Session> getSessions() {
+        return sessions;
+    }
+
+    public long getDroppedSessions() {
+        return droppedSessions;
+    }
+}
@@ -0,0 +1,26 @@
+package hte.api.dtos.responses;
+
+import java.util.List;
+
+/** One publish cycle of the public trade tape; {@code seq} increases by one per message. */
+public class TradesResponse {
+    private final long seq;
+    private final List<TapeTrade> trades;
+
+    /** A trade without the counterparties or their order ids. {@code side} is the taker's. */
+    public record TapeTrade(
+            long tradeId, String ticker, int price, int volume, String side, long timestamp) {}
+
+    public TradesResponse(long seq, List<TapeTrade> trades) {
+        this.seq = seq;
+        this.trades = trades;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public List<TapeTrade> getTrades() {
+        return trades;
+    }
+}
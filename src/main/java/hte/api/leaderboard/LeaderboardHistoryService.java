@@ -52,7 +52,7 @@ public class LeaderboardHistoryService {
     }
 
     public synchronized RoundResult saveRound(String roundName, double c) {
-        ArrayList<LeaderboardEntry> entries = adminService.getLeaderboard();
+        ArrayList<LeaderboardEntry> entries = adminService.getLeaderboard().join();
         List<TeamPnl> results = new ArrayList<>();
         for (LeaderboardEntry entry : entries) {
             long pnl = (long) entry.getBalance();
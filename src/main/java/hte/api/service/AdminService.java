@@ -1,5 +1,6 @@
 package hte.api.service;
 
+import hte.api.EngineResponses;
 import hte.api.ServerApplication;
 import hte.api.State;
 import hte.api.dtos.requests.Preprocessing;
@@ -7,13 +8,15 @@ import hte.api.entities.User;
 import hte.api.repository.BotsRepository;
 import hte.api.repository.DbLifecycleRepository;
 import hte.api.repository.UsersRepository;
+import hte.common.EngineSequencer;
 import hte.common.TaskFuture;
-import hte.common.TaskQueue;
 import hte.database.exceptions.AlreadyExistsException;
+import hte.journal.CommandJournal;
 import hte.matchingengine.LeaderboardEntry;
 import hte.matchingengine.MatchingEngine;
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -26,18 +29,27 @@ public class AdminService {
     private final MatchingEngine matchingEngine;
     private final BotsRepository bots;
     private final ServerApplication app;
+    private final EngineSequencer sequencer;
+    private final EngineResponses responses;
+    private final CommandJournal journal;
 
     public AdminService(
             DbLifecycleRepository dbLifecycle,
             UsersRepository users,
             BotsRepository bots,
             MatchingEngine matchingEngine,
-            ServerApplication app) {
+            ServerApplication app,
+            EngineSequencer sequencer,
+            EngineResponses responses,
+            CommandJournal journal) {
         this.dbLifecycle = dbLifecycle;
         this.users = users;
         this.bots = bots;
         this.matchingEngine = matchingEngine;
         this.app = app;
+        this.sequencer = sequencer;
+        this.responses = responses;
+        this.journal = journal;
     }
 
     public boolean usernameExists(String username) {
@@ -53,7 +65,11 @@ public class AdminService {
         } catch (AlreadyExistsException e) {
             throw new RuntimeException(e);
         }
-        TaskQueue.addTask(() -> matchingEngine.initializeUser(username));
+        sequencer.submit(
+                () -> {
+                    journal.initUser(username);
+                    matchingEngine.initializeUser(username);
+                });
         return user;
     }
 
@@ -65,7 +81,11 @@ public class AdminService {
         } catch (AlreadyExistsException e) {
             throw new RuntimeException(e);
         }
-        TaskQueue.addTask(() -> matchingEngine.initializeBot(username));
+        sequencer.submit(
+                () -> {
+                    journal.initBot(username);
+                    matchingEngine.initializeBot(username);
+                });
         return key;
     }
 
@@ -77,22 +97,31 @@ public class AdminService {
         }
     }
 
-    public ArrayList<LeaderboardEntry> getLeaderboard() {
+    public CompletableFuture<ArrayList<LeaderboardEntry>> getLeaderboard() {
         TaskFuture<ArrayList<LeaderboardEntry>> future = new TaskFuture<>();
-        TaskQueue.addTask(() -> matchingEngine.getLeaderboard(future));
-        future.waitForCompletion();
-        return future.getData();
+        sequencer.submit(
+                () -> {
+                    try {
+                        matchingEngine.getLeaderboard(future);
+                    } finally {
+                        future.markAsComplete();
+                    }
+                });
+        return responses.offEngine(future);
     }
 
-    public String setPrice(Map<String, Integer> prices) {
+    public CompletableFuture<String> setPrice(Map<String, Integer> prices) {
         TaskFuture<String> future = new TaskFuture<>();
-        TaskQueue.addTask(
+        sequencer.submit(
                 () -> {
-                    matchingEngine.setPriceClearOrderBook(prices, future);
-                    future.markAsComplete();
+                    try {
+                        journal.setPrices(prices);
+                        matchingEngine.setPriceClearOrderBook(prices, future);
+                    } finally {
+                        future.markAsComplete();
+                    }
                 });
-        future.waitForCompletion();
-        return future.getData();
+        return responses.offEngine(future);
     }
 
     /**
@@ -100,27 +129,31 @@ public class AdminService {
      *
      * <p>This clears all existing order books and active orders.
      *
-     * @return the canonical new ticker map (or {@code null} if input is invalid).
+     * @return a future of the canonical new ticker map (completing with {@code null} if input is
+     *     invalid).
      */
-    public String[] setTickers(String[] tickers) {
+    public CompletableFuture<String[]> setTickers(String[] tickers) {
         if (tickers == null || tickers.length == 0) {
-            return null;
+            return CompletableFuture.completedFuture(null);
         }
 
         for (String ticker : tickers) {
             if (ticker == null || ticker.isBlank()) {
-                return null;
+                return CompletableFuture.completedFuture(null);
             }
         }
 
         TaskFuture<String[]> future = new TaskFuture<>();
-        TaskQueue.addTask(
+        sequencer.submit(
                 () -> {
-                    matchingEngine.replaceTickersClearOrderBooks(tickers, future);
-                    future.markAsComplete();
+                    try {
+                        journal.setTickers(tickers);
+                        matchingEngine.replaceTickersClearOrderBooks(tickers, future);
+                    } finally {
+                        future.markAsComplete();
+                    }
                 });
-        future.waitForCompletion();
-        return future.getData();
+        return responses.offEngine(future);
     }
 
     public int applyState(int targetState) {
@@ -1,50 +1,70 @@
 package hte.api.service;
 
+import hte.api.EngineResponses;
 import hte.api.dtos.requests.BidAuctionRequest;
 import hte.api.dtos.responses.BidAuctionResponse;
 import hte.api.dtos.responses.GetLeadingAuctionBidResponse;
 import hte.auction.Auction;
 import hte.auction.AuctionResult;
+import hte.common.EngineSequencer;
 import hte.common.Message;
 import hte.common.TaskFuture;
-import hte.common.TaskQueue;
+import hte.journal.CommandJournal;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.stereotype.Service;
 
 @Service
 public class AuctionService {
     private final Auction auction;
-
-    public AuctionService(Auction auction) {
+    private final EngineSequencer sequencer;
+    private final CommandJournal journal;
+    private final EngineResponses responses;
+
+    public AuctionService(
+            Auction auction,
+            EngineSequencer sequencer,
+            CommandJournal journal,
+            EngineResponses responses) {
         this.auction = auction;
+        this.sequencer = sequencer;
+        this.journal = journal;
+        this.responses = responses;
     }
 
-    public GetLeadingAuctionBidResponse getLeadingAuctionBid() {
+    public CompletableFuture<GetLeadingAuctionBidResponse> getLeadingAuctionBid() {
         TaskFuture<GetLeadingAuctionBidResponse> future = new TaskFuture<>();
         future.setData(new GetLeadingAuctionBidResponse(Message.SUCCESS.toString()));
-        TaskQueue.addTask(
+        sequencer.submit(
                 () -> {
-                    AuctionResult result = this.getAuctionResult();
-                    applyResultToResponse(result, future.getData());
-                    future.markAsComplete();
+                    try {
+                        AuctionResult result = this.getAuctionResult();
+                        applyResultToResponse(result, future.getData());
+                    } finally {
+                        future.markAsComplete();
+                    }
                 });
-        future.waitForCompletion();
-        return future.getData();
+        return responses.offEngine(future);
     }
 
-    public GetLeadingAuctionBidResponse terminateAuction() {
+    public CompletableFuture<GetLeadingAuctionBidResponse> terminateAuction() {
         TaskFuture<GetLeadingAuctionBidResponse> future = new TaskFuture<>();
         future.setData(new GetLeadingAuctionBidResponse(Message.SUCCESS.toString()));
 
-        TaskQueue.addTask(
+        sequencer.submit(
                 () -> {
-                    AuctionResult result = this.getAuctionResult();
-                    applyResultToResponse(result, future.getData());
-                    this.executeAuction();
-                    this.resetAuction();
-                    future.markAsComplete();
+                    try {
+                        AuctionResult result = this.getAuctionResult();
+                        applyResultToResponse(result, future.getData());
+                        // Journal the settled charge rather than the bids, which never reach the
+                        // engine.
+                        journal.auctionExecuted(result.getFirstUser(), result.getSecondBid());
+                        this.executeAuction();
+                        this.resetAuction();
+                    } finally {
+                        future.markAsComplete();
+                    }
                 });
-        future.waitForCompletion();
-        return future.getData();
+        return responses.offEngine(future);
     }
 
     public BidAuctionResponse bidAuctionInvalid() {
@@ -57,7 +77,7 @@ public class AuctionService {
     }
 
     public BidAuctionResponse bidAuction(BidAuctionRequest form) {
-        TaskQueue.addTask(() -> this.placeBid(form.getUsername(), form.getBid()));
+        sequencer.submit(() -> this.placeBid(form.getUsername(), form.getBid()));
 
         return new BidAuctionResponse(
                 String.format(
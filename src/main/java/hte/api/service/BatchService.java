@@ -1,132 +1,119 @@
 package hte.api.service;
 
+import hte.api.EngineResponses;
+import hte.api.config.LatencyInterceptor;
+import hte.api.dtos.operations.AmendOperation;
 import hte.api.dtos.operations.LimitOrderOperation;
 import hte.api.dtos.operations.MarketOrderOperation;
 import hte.api.dtos.operations.Operation;
+import hte.api.dtos.operations.RemoveAllOperation;
+import hte.api.dtos.operations.RemoveOperation;
+import hte.api.dtos.responses.BatchResponse;
 import hte.api.dtos.responses.OperationResponse;
+import hte.common.EngineBatch;
+import hte.common.EngineSequencer;
+import hte.common.Message;
 import hte.common.TaskFuture;
-import hte.common.TaskQueue;
-import hte.matchingengine.MatchingEngine;
-import hte.matchingengine.Order;
-import hte.matchingengine.Side;
-import hte.matchingengine.Status;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
 public class BatchService {
 
-    private static final int MAX_OPERATIONS = 20;
-    private final MatchingEngine matchingEngine;
+    private final EngineSequencer sequencer;
+    private final EngineResponses responses;
+    private final int maxOperations;
 
-    public BatchService(MatchingEngine matchingEngine) {
-        this.matchingEngine = matchingEngine;
+    public BatchService(
+            EngineSequencer sequencer,
+            EngineResponses responses,
+            @Value("${hte.batch.max-operations:256}") int maxOperations) {
+        this.sequencer = sequencer;
+        this.responses = responses;
+        this.maxOperations = maxOperations;
     }
 
     public int getMaxOperations() {
-        return MAX_OPERATIONS;
+        return maxOperations;
     }
 
-    public List<OperationResponse> processBatch(String username, List<Operation> operations) {
-        List<Runnable> temporaryTaskQueue = new ArrayList<>();
-        List<OperationResponse> responses = new ArrayList<>();
-        List<TaskFuture<String>> futures = new ArrayList<>();
-        boolean success = true;
-
+    /**
+     * Submits the operations to the engine as one command, run in order with nothing from other
+     * users in between. If {@code atomic}, every operation is checked before any is applied, and
+     * none are applied if one fails (see {@link EngineBatch}).
+     *
+     * @return a future of the response, completed once the engine has run the batch, or {@code
+     *     null} if any operation type is unknown.
+     */
+    public CompletableFuture<BatchResponse> processBatch(
+            String username, List<Operation> operations, boolean atomic) {
+        // Reject unknown operation types before anything reaches the engine.
         for (Operation operation : operations) {
-            TaskFuture<String> future = new TaskFuture<>();
-            futures.add(future);
-            responses.add(new OperationResponse(operation.getType(), null));
             switch (operation.getType()) {
-                case "limit_order":
-                    {
-                        LimitOrderOperation limitOrderOperation = (LimitOrderOperation) operation;
-                        temporaryTaskQueue.add(
-                                () -> {
-                                    Order order =
-                                            new Order(
-                                                    username,
-                                                    limitOrderOperation.getTicker(),
-                                                    limitOrderOperation.getPrice(),
-                                                    limitOrderOperation.getVolume(),
-                                                    limitOrderOperation.getBid()
-                                                            ? Side.BID
-                                                            : Side.ASK,
-                                                    Status.ACTIVE);
-                                    if (limitOrderOperation.getBid())
-                                        matchingEngine.bidLimitOrder(username, order, future);
-                                    else matchingEngine.askLimitOrder(username, order, future);
-                                    future.markAsComplete();
-                                });
-                        break;
-                    }
-                case "market_order":
-                    {
-                        MarketOrderOperation marketOrderOperation =
-                                (MarketOrderOperation) operation;
-                        temporaryTaskQueue.add(
-                                () -> {
-                                    if (marketOrderOperation.getBid()) {
-                                        matchingEngine.bidMarketOrder(
-                                                username,
-                                                marketOrderOperation.getTicker(),
-                                                marketOrderOperation.getVolume(),
-                                                future);
-                                    } else
-                                        matchingEngine.askMarketOrder(
-                                                username,
-                                                marketOrderOperation.getTicker(),
-                                                marketOrderOperation.getVolume(),
-                                                future);
-                                    future.markAsComplete();
-                                });
-                        break;
-                    }
-                case "remove":
-                    {
-                        hte.api.dtos.operations.RemoveOperation removeOperation =
-                                (hte.api.dtos.operations.RemoveOperation) operation;
-                        temporaryTaskQueue.add(
-                                () -> {
-                                    matchingEngine.removeOrder(
-                                            username, removeOperation.getOrderId(), future);
-                                    future.markAsComplete();
-                                });
-                        break;
-                    }
-                case "remove_all":
-                    {
-                        temporaryTaskQueue.add(
-                                () -> {
-                                    matchingEngine.removeAll(username, future);
-                                    future.markAsComplete();
-                                });
-                        break;
-                    }
-                default:
-                    {
-                        success = false;
-                        break;
-                    }
+                case "limit_order", "market_order", "remove", "remove_all", "amend" -> {}
+                default -> {
+                    return null;
+                }
             }
         }
 
-        if (!success) {
-            return null;
-        }
-
-        for (Runnable task : temporaryTaskQueue) {
-            TaskQueue.addTask(task);
-        }
-
-        for (int i = 0; i < futures.size(); i++) {
-            TaskFuture<String> future = futures.get(i);
-            future.waitForCompletion();
-            OperationResponse response = responses.get(i);
-            response.setMessage(future.getData());
+        EngineBatch batch = new EngineBatch(username, operations.size(), atomic);
+        for (Operation operation : operations) {
+            switch (operation.getType()) {
+                case "limit_order" -> {
+                    LimitOrderOperation limitOrderOperation = (LimitOrderOperation) operation;
+                    batch.limitOrder(
+                            limitOrderOperation.getTicker(),
+                            limitOrderOperation.getPrice(),
+                            limitOrderOperation.getVolume(),
+                            limitOrderOperation.getBid(),
+                            limitOrderOperation.getTimeInForce());
+                }
+                case "market_order" -> {
+                    MarketOrderOperation marketOrderOperation = (MarketOrderOperation) operation;
+                    batch.marketOrder(
+                            marketOrderOperation.getTicker(),
+                            marketOrderOperation.getVolume(),
+                            marketOrderOperation.getBid());
+                }
+                case "remove" -> batch.cancel(((RemoveOperation) operation).getOrderId());
+                case "amend" -> {
+                    AmendOperation amendOperation = (AmendOperation) operation;
+                    batch.amend(
+                            amendOperation.getOrderId(),
+                            amendOperation.getPrice(),
+                            amendOperation.getVolume());
+                }
+                default -> batch.cancelAll(((RemoveAllOperation) operation).toFilter());
+            }
         }
 
-        return responses;
+        TaskFuture<String> future = new TaskFuture<>();
+        LatencyInterceptor.attach(future);
+        sequencer.submitBatch(batch, future);
+        // Building the per-operation responses is request-side work: keep it off the engine thread.
+        return responses
+                .offEngine(future)
+                .thenApply(
+                        failure -> {
+                            List<OperationResponse> results = new ArrayList<>(batch.size());
+                            for (int i = 0; i < batch.size(); i++) {
+                                String result = batch.getResult(i);
+                                // Set only if the engine failed partway through the batch.
+                                if (result == null) {
+                                    result =
+                                            failure != null
+                                                    ? failure
+                                                    : Message.INTERNAL_ERROR.toString();
+                                }
+                                results.add(
+                                        new OperationResponse(operations.get(i).getType(), result));
+                            }
+                            return new BatchResponse(
+                                    batch.isRejected() ? "REJECTED" : "SUCCESS", results);
+                        });
     }
 }
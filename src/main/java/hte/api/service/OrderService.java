@@ -1,80 +1,74 @@
 package hte.api.service;
 
+import hte.api.EngineResponses;
+import hte.api.config.LatencyInterceptor;
+import hte.common.EngineSequencer;
 import hte.common.TaskFuture;
-import hte.common.TaskQueue;
-import hte.matchingengine.MatchingEngine;
-import hte.matchingengine.Order;
-import hte.matchingengine.Side;
-import hte.matchingengine.Status;
+import hte.matchingengine.OrderFilter;
+import hte.matchingengine.TimeInForce;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.stereotype.Service;
 
 @Service
 public class OrderService {
 
-    private final MatchingEngine matchingEngine;
+    private final EngineSequencer sequencer;
+    private final EngineResponses responses;
 
-    public OrderService(MatchingEngine matchingEngine) {
-        this.matchingEngine = matchingEngine;
+    public OrderService(EngineSequencer sequencer, EngineResponses responses) {
+        this.sequencer = sequencer;
+        this.responses = responses;
     }
 
-    public String placeLimitOrder(
+    public CompletableFuture<String> placeLimitOrder(
             String username, String ticker, int price, int volume, boolean bid) {
+        return placeLimitOrder(username, ticker, price, volume, bid, TimeInForce.GTC);
+    }
+
+    public CompletableFuture<String> placeLimitOrder(
+            String username,
+            String ticker,
+            int price,
+            int volume,
+            boolean bid,
+            TimeInForce timeInForce) {
         TaskFuture<String> future = new TaskFuture<>();
-        TaskQueue.addTask(
-                () -> {
-                    Order order =
-                            new Order(
-                                    username,
-                                    ticker,
-                                    price,
-                                    volume,
-                                    bid ? Side.BID : Side.ASK,
-                                    Status.ACTIVE);
-                    if (bid) {
-                        matchingEngine.bidLimitOrder(username, order, future);
-                    } else {
-                        matchingEngine.askLimitOrder(username, order, future);
-                    }
-                    future.markAsComplete();
-                });
-        future.waitForCompletion();
-        return future.getData();
+        LatencyInterceptor.attach(future);
+        sequencer.submitLimitOrder(username, ticker, price, volume, bid, timeInForce, future);
+        return responses.offEngine(future);
     }
 
-    public String placeMarketOrder(String username, String ticker, int volume, boolean bid) {
+    public CompletableFuture<String> placeMarketOrder(
+            String username, String ticker, int volume, boolean bid) {
         TaskFuture<String> future = new TaskFuture<>();
-        TaskQueue.addTask(
-                () -> {
-                    if (bid) {
-                        matchingEngine.bidMarketOrder(username, ticker, volume, future);
-                    } else {
-                        matchingEngine.askMarketOrder(username, ticker, volume, future);
-                    }
-                    future.markAsComplete();
-                });
-        future.waitForCompletion();
-        return future.getData();
+        LatencyInterceptor.attach(future);
+        sequencer.submitMarketOrder(username, ticker, volume, bid, future);
+        return responses.offEngine(future);
     }
 
-    public String removeOrder(String username, long orderId) {
+    public CompletableFuture<String> removeOrder(String username, long orderId) {
         TaskFuture<String> future = new TaskFuture<>();
-        TaskQueue.addTask(
-                () -> {
-                    matchingEngine.removeOrder(username, orderId, future);
-                    future.markAsComplete();
-                });
-        future.waitForCompletion();
-        return future.getData();
+        LatencyInterceptor.attach(future);
+        sequencer.submitCancel(username, orderId, future);
+        return responses.offEngine(future);
+    }
+
+    public CompletableFuture<String> amendOrder(
+            String username, long orderId, int price, int volume) {
+        TaskFuture<String> future = new TaskFuture<>();
+        LatencyInterceptor.attach(future);
+        sequencer.submitAmend(username, orderId, price, volume, future);
+        return responses.offEngine(future);
+    }
+
+    public CompletableFuture<String> removeAll(String username) {
+        return removeAll(username, OrderFilter.ALL);
     }
 
-    public String removeAll(String username) {
+    public CompletableFuture<String> removeAll(String username, OrderFilter filter) {
         TaskFuture<String> future = new TaskFuture<>();
-        TaskQueue.addTask(
-                () -> {
-                    matchingEngine.removeAll(username, future);
-                    future.markAsComplete();
-                });
-        future.waitForCompletion();
-        return future.getData();
+        LatencyInterceptor.attach(future);
+        sequencer.submitCancelAll(username, filter, future);
+        return responses.offEngine(future);
     }
 }
@@ -1,5 +1,7 @@
 package hte.api.service;
 
+import hte.api.OrderbookSnapshotCache;
+import hte.api.auth.SessionTokens;
 import hte.api.dtos.responses.BuildupResponse;
 import hte.api.dtos.responses.TeardownResponse;
 import hte.api.entities.Session;
@@ -10,7 +12,7 @@ import hte.api.repository.SessionsRepository;
 import hte.api.repository.UsersRepository;
 import hte.common.Message;
 import hte.database.exceptions.AlreadyExistsException;
-import hte.matchingengine.MatchingEngine;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -20,19 +22,22 @@ public class SessionService {
     private final BotsRepository bots;
     private final SessionsRepository sessions;
     private final BotSessionsRepository botSessions;
-    private final MatchingEngine matchingEngine;
+    private final OrderbookSnapshotCache snapshotCache;
+    private final SessionTokens tokens;
 
     public SessionService(
             UsersRepository users,
             BotsRepository bots,
             SessionsRepository sessions,
             BotSessionsRepository botSessions,
-            MatchingEngine matchingEngine) {
+            OrderbookSnapshotCache snapshotCache,
+            SessionTokens tokens) {
         this.users = users;
         this.bots = bots;
         this.sessions = sessions;
         this.botSessions = botSessions;
-        this.matchingEngine = matchingEngine;
+        this.snapshotCache = snapshotCache;
+        this.tokens = tokens;
     }
 
     private static final int KEY_LENGTH = 16;
@@ -49,19 +54,45 @@ public class SessionService {
         return output.toString();
     }
 
-    public BuildupResponse buildup(String username, String apiKey) {
+    /** A signed token if signing is enabled, otherwise a random key for the sessions table. */
+    private String newSessionToken(String username, SessionTokens.Slot slot) {
+        return tokens.isEnabled() ? tokens.issue(username, slot) : generateKey();
+    }
+
+    private static CompletableFuture<BuildupResponse> authenticationFailed() {
+        return CompletableFuture.completedFuture(
+                new BuildupResponse(Message.AUTHENTICATION_FAILED.toString(), "", ""));
+    }
+
+    /** Completes with the session token and the cached order books JSON (null if unavailable). */
+    private CompletableFuture<BuildupResponse> withOrderBooks(String sessionToken) {
+        return snapshotCache
+                .get()
+                .handle(
+                        (snapshot, error) ->
+                                new BuildupResponse(
+                                        Message.SUCCESS.toString(),
+                                        sessionToken,
+                                        error == null ? snapshot.json() : null));
+    }
+
+    public CompletableFuture<BuildupResponse> buildup(String username, String apiKey) {
         if (!users.exists(username)) {
-            return new BuildupResponse(Message.AUTHENTICATION_FAILED.toString(), "", "");
+            return authenticationFailed();
         }
 
         User u = users.get(username);
         if (!u.getApiKey().equals(apiKey) && !u.getApiKey2().equals(apiKey)) {
-            return new BuildupResponse(Message.AUTHENTICATION_FAILED.toString(), "", "");
+            return authenticationFailed();
         }
 
-        String sessionToken = generateKey();
+        boolean primary = u.getApiKey().equals(apiKey);
+        String sessionToken =
+                newSessionToken(
+                        username,
+                        primary ? SessionTokens.Slot.PRIMARY : SessionTokens.Slot.SECONDARY);
         if (sessions.exists(username)) {
-            if (u.getApiKey().equals(apiKey)) {
+            if (primary) {
                 sessions.get(username).setSessionToken(sessionToken);
             } else {
                 sessions.get(username).setSessionToken2(sessionToken);
@@ -74,21 +105,24 @@ public class SessionService {
                 throw new RuntimeException(e);
             }
         }
-        return new BuildupResponse(
-                Message.SUCCESS.toString(), sessionToken, matchingEngine.serializeOrderBooks());
+        return withOrderBooks(sessionToken);
     }
 
-    public BuildupResponse botBuildup(String username, String apiKey) {
+    public CompletableFuture<BuildupResponse> botBuildup(String username, String apiKey) {
         if (!bots.exists(username)) {
-            return new BuildupResponse(Message.AUTHENTICATION_FAILED.toString(), "", "");
+            return authenticationFailed();
         }
 
         User u = bots.get(username);
         if (!u.getApiKey().equals(apiKey)) {
-            return new BuildupResponse(Message.AUTHENTICATION_FAILED.toString(), "", "");
+            return authenticationFailed();
         }
 
-        Session s = new Session(generateKey(), u.getUsername());
+        if (tokens.isEnabled()) {
+            // A bot login replaces the user's session, whichever key it was opened with.
+            tokens.revokeAll(username);
+        }
+        Session s = new Session(newSessionToken(username, SessionTokens.Slot.BOT), u.getUsername());
         if (botSessions.exists(s.getUsername())) {
             botSessions.delete(s.getUsername());
         }
@@ -105,16 +139,16 @@ public class SessionService {
         } catch (AlreadyExistsException e) {
             throw new RuntimeException(e);
         }
-        return new BuildupResponse(
-                Message.SUCCESS.toString(),
-                s.getSessionToken(),
-                matchingEngine.serializeOrderBooks());
+        return withOrderBooks(s.getSessionToken());
     }
 
     public TeardownResponse teardown(String username) {
         if (sessions.exists(username)) {
             sessions.delete(username);
         }
+        if (tokens.isEnabled()) {
+            tokens.revokeAll(username);
+        }
         return new TeardownResponse(Message.SUCCESS.toString());
     }
 }
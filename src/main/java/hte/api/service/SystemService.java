@@ -1,17 +1,67 @@
 package hte.api.service;
 
+import hte.api.MarketDataBroadcaster;
+import hte.api.dtos.responses.EngineLatencyResponse;
+import hte.api.dtos.responses.EngineStatsResponse;
+import hte.api.dtos.responses.SocketSessionsResponse;
+import hte.common.EngineSequencer;
+import hte.common.LatencyHistograms;
+import hte.common.Message;
+import hte.journal.EngineRecovery;
+import hte.journal.EngineSnapshotter;
 import hte.matchingengine.MatchingEngine;
 import org.springframework.stereotype.Service;
 
 @Service
 public class SystemService {
     private final MatchingEngine matchingEngine;
+    private final EngineSequencer sequencer;
+    private final EngineRecovery recovery;
+    private final EngineSnapshotter snapshotter;
+    private final LatencyHistograms latency;
+    private final MarketDataBroadcaster broadcaster;
 
-    public SystemService(MatchingEngine matchingEngine) {
+    public SystemService(
+            MatchingEngine matchingEngine,
+            EngineSequencer sequencer,
+            EngineRecovery recovery,
+            EngineSnapshotter snapshotter,
+            LatencyHistograms latency,
+            MarketDataBroadcaster broadcaster) {
         this.matchingEngine = matchingEngine;
+        this.sequencer = sequencer;
+        this.recovery = recovery;
+        this.snapshotter = snapshotter;
+        this.latency = latency;
+        this.broadcaster = broadcaster;
     }
 
     public String getUserDetails(String username) {
         return matchingEngine.getUserDetails(username);
     }
+
+    public EngineStatsResponse getEngineStats() {
+        return new EngineStatsResponse(
+                Message.SUCCESS.toString(),
+                sequencer.getQueueDepth(),
+                sequencer.getConsumerLagNanos(),
+                sequencer.getMaxConsumerLagNanos(),
+                sequencer.getProcessedCommands(),
+                sequencer.getBatches(),
+                sequencer.getMaxBatchSize(),
+                recovery.getRecoveryMillis(),
+                recovery.getReplayedRecords(),
+                snapshotter.getLastCaptureNanos());
+    }
+
+    public EngineLatencyResponse getEngineLatency() {
+        return new EngineLatencyResponse(Message.SUCCESS.toString(), latency.summarize());
+    }
+
+    public SocketSessionsResponse getSocketSessions() {
+        return new SocketSessionsResponse(
+                Message.SUCCESS.toString(),
+                broadcaster.getSessions(),
+                broadcaster.getDroppedSessions());
+    }
 }
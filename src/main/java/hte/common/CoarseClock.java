@@ -0,0 +1,50 @@
+package hte.common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Monotonic millisecond clock that request threads can read with one volatile load.
+ *
+ * <p>A daemon thread advances it about once per {@link #TICK_MILLIS}, so readings lag real time by
+ * up to a tick. Use it where millisecond accuracy is enough and the clock is read on every request.
+ */
+public final class CoarseClock {
+    static final long TICK_MILLIS = 1;
+
+    private static volatile CoarseClock instance;
+
+    private final long originNanos = System.nanoTime();
+    private volatile long millis;
+
+    private CoarseClock() {
+        Thread ticker = new Thread(this::tick, "coarse-clock");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    public static CoarseClock getInstance() {
+        if (instance == null) {
+            synchronized (CoarseClock.class) {
+                if (instance == null) {
+                    instance = new CoarseClock();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * @return milliseconds since this clock started; never decreases.
+     */
+    public long millis() {
+        return millis;
+    }
+
+    private void tick() {
+        while (true) {
+            millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - originNanos);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS));
+        }
+    }
+}
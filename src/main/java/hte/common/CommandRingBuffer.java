@@ -0,0 +1,134 @@
+package hte.common;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-size ring of preallocated {@link EngineCommand} slots shared by request threads (producers)
+ * and the single engine thread (consumer).
+ *
+ * <p>A producer claims the next sequence with {@link #next()}, fills {@link #get(long)} in place
+ * and then calls {@link #publish(long)}. In {@link ProducerType#MULTI} mode the claim is a CAS on
+ * one counter, and every slot carries the "round" it was last published in, so the consumer can
+ * tell which claimed slots are actually ready even when producers finish out of order. {@link
+ * ProducerType#SINGLE} skips the CAS and is only safe when exactly one thread ever publishes.
+ *
+ * <p>The consumer asks for everything published after its cursor with {@link
+ * #availableSequence(long)}, processes that batch, and hands the slots back with {@link
+ * #release(long)}. Producers that get a full lap ahead of the consumer wait for it.
+ */
+final class CommandRingBuffer {
+    enum ProducerType {
+        SINGLE,
+        MULTI
+    }
+
+    private final EngineCommand[] slots;
+    private final int mask;
+    private final int indexShift;
+    // Round (sequence / capacity) each slot was last published in; -1 before first use.
+    private final AtomicIntegerArray publishedRound;
+    private final ProducerType producerType;
+
+    // Highest sequence handed out to a producer.
+    private final AtomicLong claimed = new AtomicLong(-1);
+    // Highest sequence the consumer has finished with.
+    private final AtomicLong consumed = new AtomicLong(-1);
+
+    CommandRingBuffer(int capacity, ProducerType producerType) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException(
+                    "Ring buffer capacity must be a power of two: " + capacity);
+        }
+        this.slots = new EngineCommand[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new EngineCommand();
+        }
+        this.mask = capacity - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(capacity);
+        this.publishedRound = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            publishedRound.set(i, -1);
+        }
+        this.producerType = producerType;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /** Claims the next slot, waiting while the ring is full. */
+    long next() {
+        if (producerType == ProducerType.SINGLE) {
+            long sequence = claimed.get() + 1;
+            awaitCapacity(sequence);
+            claimed.lazySet(sequence);
+            return sequence;
+        }
+        while (true) {
+            long current = claimed.get();
+            long sequence = current + 1;
+            if (sequence - slots.length > consumed.get()) {
+                // Full lap ahead of the engine; back off until it frees a slot.
+                awaitCapacity(sequence);
+                continue;
+            }
+            if (claimed.compareAndSet(current, sequence)) {
+                return sequence;
+            }
+        }
+    }
+
+    private void awaitCapacity(long sequence) {
+        int spins = 0;
+        while (sequence - slots.length > consumed.get()) {
+            if (++spins < 100) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    EngineCommand get(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+
+    /** Makes a filled slot visible to the consumer. */
+    void publish(long sequence) {
+        get(sequence).publishedNanos = System.nanoTime();
+        publishedRound.set((int) sequence & mask, (int) (sequence >>> indexShift));
+    }
+
+    private boolean isPublished(long sequence) {
+        return publishedRound.get((int) sequence & mask) == (int) (sequence >>> indexShift);
+    }
+
+    /**
+     * @return the highest sequence {@code >= from - 1} such that every slot in {@code [from,
+     *     result]} is published; {@code from - 1} if {@code from} itself is not ready yet.
+     */
+    long availableSequence(long from) {
+        long upTo = claimed.get();
+        for (long sequence = from; sequence <= upTo; sequence++) {
+            if (!isPublished(sequence)) {
+                return sequence - 1;
+            }
+        }
+        return upTo;
+    }
+
+    /** Hands every slot up to and including {@code sequence} back to producers. */
+    void release(long sequence) {
+        consumed.lazySet(sequence);
+    }
+
+    long consumedSequence() {
+        return consumed.get();
+    }
+
+    /** Claimed but not yet released slots (includes slots a producer is still filling). */
+    long depth() {
+        return claimed.get() - consumed.get();
+    }
+}
@@ -0,0 +1,14 @@
+package hte.common;
+
+/** Kinds of work the engine thread accepts through {@link EngineSequencer}. */
+public enum CommandType {
+    LIMIT_ORDER,
+    MARKET_ORDER,
+    CANCEL,
+    CANCEL_ALL,
+    AMEND,
+    // One user's operations, run back to back (see EngineBatch).
+    BATCH,
+    // Anything else that must run on the engine thread (admin resets, auctions, user setup, ...).
+    ADMIN
+}
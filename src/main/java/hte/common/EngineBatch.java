@@ -0,0 +1,103 @@
+package hte.common;
+
+import hte.matchingengine.OrderFilter;
+import hte.matchingengine.TimeInForce;
+
+/**
+ * One user's operations, submitted to the engine as a single command.
+ *
+ * <p>The request thread fills the batch and hands it to {@link EngineSequencer#submitBatch}; the
+ * engine thread runs the operations back to back in one turn, with no other command in between, and
+ * writes each one's result before completing the batch's one future. Operations are kept in {@link
+ * EngineCommand} slots of their own, so the engine applies and journals them exactly as it would
+ * the same commands sent one by one.
+ *
+ * <p>An atomic batch is checked in full before any operation is applied: if one would be rejected,
+ * none run, that operation's result is its rejection and every other result is {@link
+ * Message#BATCH_ABORTED}. Besides bad inputs, unknown tickers and missing orders, each operation is
+ * checked against the room left by the ones before it (position limit, inventory and cash), and
+ * post-only and fill-or-kill orders against the book those may have left, with {@link
+ * hte.matchingengine.BatchCheck}. Fills are not predicted, so the check errs on the safe side: it
+ * may refuse a batch that would have gone through, but a batch it passes is not rejected partway.
+ */
+public final class EngineBatch {
+    final String username;
+    final boolean atomic;
+    final EngineCommand[] operations;
+    // Written by the engine thread; published by completing the batch's future.
+    final String[] results;
+    int size;
+    boolean rejected;
+
+    public EngineBatch(String username, int capacity, boolean atomic) {
+        this.username = username;
+        this.atomic = atomic;
+        this.operations = new EngineCommand[capacity];
+        this.results = new String[capacity];
+    }
+
+    public EngineBatch limitOrder(String ticker, int price, int volume, boolean bid) {
+        return limitOrder(ticker, price, volume, bid, TimeInForce.GTC);
+    }
+
+    public EngineBatch limitOrder(
+            String ticker, int price, int volume, boolean bid, TimeInForce timeInForce) {
+        next().limitOrder(username, ticker, price, volume, bid, timeInForce, null);
+        return this;
+    }
+
+    public EngineBatch marketOrder(String ticker, int volume, boolean bid) {
+        next().marketOrder(username, ticker, volume, bid, null);
+        return this;
+    }
+
+    public EngineBatch cancel(long orderId) {
+        next().cancel(username, orderId, null);
+        return this;
+    }
+
+    public EngineBatch amend(long orderId, int price, int volume) {
+        next().amend(username, orderId, price, volume, null);
+        return this;
+    }
+
+    public EngineBatch cancelAll() {
+        return cancelAll(OrderFilter.ALL);
+    }
+
+    public EngineBatch cancelAll(OrderFilter filter) {
+        next().cancelAll(username, filter, null);
+        return this;
+    }
+
+    private EngineCommand next() {
+        if (size == operations.length) {
+            throw new IllegalStateException("Batch is full: " + size + " operations");
+        }
+        EngineCommand command = new EngineCommand();
+        operations[size++] = command;
+        return command;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isAtomic() {
+        return atomic;
+    }
+
+    /**
+     * @return the engine's response to operation {@code i}, or {@code null} if it never ran.
+     */
+    public String getResult(int i) {
+        return results[i];
+    }
+
+    /**
+     * @return true if the batch was atomic and none of it ran.
+     */
+    public boolean isRejected() {
+        return rejected;
+    }
+}
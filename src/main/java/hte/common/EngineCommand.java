@@ -0,0 +1,110 @@
+package hte.common;
+
+import hte.matchingengine.OrderFilter;
+import hte.matchingengine.TimeInForce;
+
+/**
+ * One preallocated, reusable slot of the {@link CommandRingBuffer}.
+ *
+ * <p>Producers fill a claimed slot in place instead of allocating a task per request; the engine
+ * thread reads it, runs it and clears the object references so the slot does not pin request data
+ * until it is reused.
+ */
+final class EngineCommand {
+    CommandType type;
+    String username;
+    String ticker;
+    int price;
+    int volume;
+    boolean bid;
+    TimeInForce timeInForce;
+    long orderId;
+    // Only set for CANCEL_ALL commands.
+    OrderFilter filter;
+    // Only set for ADMIN commands.
+    Runnable task;
+    // Only set for BATCH commands.
+    EngineBatch batch;
+    // Completed by the engine thread once the command has run; null for fire-and-forget commands.
+    TaskFuture<String> future;
+    // System.nanoTime() when the producer published the slot (used for consumer lag).
+    long publishedNanos;
+
+    void limitOrder(
+            String username,
+            String ticker,
+            int price,
+            int volume,
+            boolean bid,
+            TimeInForce timeInForce,
+            TaskFuture<String> future) {
+        this.type = CommandType.LIMIT_ORDER;
+        this.username = username;
+        this.ticker = ticker;
+        this.price = price;
+        this.volume = volume;
+        this.bid = bid;
+        this.timeInForce = timeInForce;
+        this.future = future;
+    }
+
+    void marketOrder(
+            String username, String ticker, int volume, boolean bid, TaskFuture<String> future) {
+        this.type = CommandType.MARKET_ORDER;
+        this.username = username;
+        this.ticker = ticker;
+        this.volume = volume;
+        this.bid = bid;
+        this.future = future;
+    }
+
+    void cancel(String username, long orderId, TaskFuture<String> future) {
+        this.type = CommandType.CANCEL;
+        this.username = username;
+        this.orderId = orderId;
+        this.future = future;
+    }
+
+    void amend(String username, long orderId, int price, int volume, TaskFuture<String> future) {
+        this.type = CommandType.AMEND;
+        this.username = username;
+        this.orderId = orderId;
+        this.price = price;
+        this.volume = volume;
+        this.future = future;
+    }
+
+    void cancelAll(String username, OrderFilter filter, TaskFuture<String> future) {
+        this.type = CommandType.CANCEL_ALL;
+        this.username = username;
+        this.filter = filter;
+        this.future = future;
+    }
+
+    void batch(EngineBatch batch, TaskFuture<String> future) {
+        this.type = CommandType.BATCH;
+        this.username = batch.username;
+        this.batch = batch;
+        this.future = future;
+    }
+
+    void admin(Runnable task) {
+        this.type = CommandType.ADMIN;
+        this.task = task;
+    }
+
+    void clear() {
+        type = null;
+        username = null;
+        ticker = null;
+        price = 0;
+        volume = 0;
+        bid = false;
+        timeInForce = null;
+        orderId = 0;
+        filter = null;
+        task = null;
+        batch = null;
+        future = null;
+    }
+}
@@ -0,0 +1,355 @@
+package hte.common;
+
+import hte.journal.CommandJournal;
+import hte.matchingengine.BatchCheck;
+import hte.matchingengine.MatchingEngine;
+import hte.matchingengine.Order;
+import hte.matchingengine.OrderFilter;
+import hte.matchingengine.Side;
+import hte.matchingengine.Status;
+import hte.matchingengine.TimeInForce;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single entry point for work that must run on the engine thread.
+ *
+ * <p>Request threads publish commands into a {@link CommandRingBuffer} of preallocated slots, so
+ * submitting an order does not allocate a task. The engine thread runs {@link #run()}: it drains
+ * everything published since its last pass as one batch, applies each command to the {@link
+ * MatchingEngine} in sequence order (appending each typed command to the {@link CommandJournal}
+ * first), and falls back to the configured {@link WaitStrategy} when the ring is empty. Price
+ * levels the batch touched are handed to the market data publisher once it completes, right after
+ * the new best bid/ask of every ticker it touched.
+ *
+ * <p>Queue depth, consumer lag and batch counters are readable from any thread. Each command's
+ * queue wait and processing time go to {@link LatencyHistograms}, and its enqueue and completion
+ * times are stamped on its {@link TaskFuture} for the request side to finish the breakdown.
+ */
+@Component
+public class EngineSequencer {
+    private static final Logger logger = LoggerFactory.getLogger(EngineSequencer.class);
+
+    private final MatchingEngine matchingEngine;
+    private final CommandJournal journal;
+    private final CommandRingBuffer ring;
+    private final WaitStrategy waitStrategy;
+    private final LatencyHistograms latency;
+
+    private volatile boolean running;
+
+    // Engine thread only: collects each batched operation's response in turn.
+    private final TaskFuture<String> scratch = new TaskFuture<>();
+
+    // Written only by the engine thread; volatile so stats readers see recent values.
+    private volatile long processedCommands;
+    private volatile long batches;
+    private volatile int maxBatchSize;
+    private volatile long consumerLagNanos;
+    private volatile long maxConsumerLagNanos;
+
+    public EngineSequencer(
+            MatchingEngine matchingEngine,
+            CommandJournal journal,
+            LatencyHistograms latency,
+            @Value("${hte.engine.ring-size:65536}") int ringSize,
+            @Value("${hte.engine.wait-strategy:PARK}") WaitStrategy waitStrategy) {
+        this.matchingEngine = matchingEngine;
+        this.journal = journal;
+        this.latency = latency;
+        this.ring = new CommandRingBuffer(ringSize, CommandRingBuffer.ProducerType.MULTI);
+        this.waitStrategy = waitStrategy;
+    }
+
+    public void submitLimitOrder(
+            String username,
+            String ticker,
+            int price,
+            int volume,
+            boolean bid,
+            TaskFuture<String> future) {
+        submitLimitOrder(username, ticker, price, volume, bid, TimeInForce.GTC, future);
+    }
+
+    public void submitLimitOrder(
+            String username,
+            String ticker,
+            int price,
+            int volume,
+            boolean bid,
+            TimeInForce timeInForce,
+            TaskFuture<String> future) {
+        long sequence = ring.next();
+        ring.get(sequence).limitOrder(username, ticker, price, volume, bid, timeInForce, future);
+        ring.publish(sequence);
+    }
+
+    public void submitMarketOrder(
+            String username, String ticker, int volume, boolean bid, TaskFuture<String> future) {
+        long sequence = ring.next();
+        ring.get(sequence).marketOrder(username, ticker, volume, bid, future);
+        ring.publish(sequence);
+    }
+
+    public void submitCancel(String username, long orderId, TaskFuture<String> future) {
+        long sequence = ring.next();
+        ring.get(sequence).cancel(username, orderId, future);
+        ring.publish(sequence);
+    }
+
+    public void submitAmend(
+            String username, long orderId, int price, int volume, TaskFuture<String> future) {
+        long sequence = ring.next();
+        ring.get(sequence).amend(username, orderId, price, volume, future);
+        ring.publish(sequence);
+    }
+
+    public void submitCancelAll(String username, TaskFuture<String> future) {
+        submitCancelAll(username, OrderFilter.ALL, future);
+    }
+
+    /** Cancels only the user's resting orders that {@code filter} matches. */
+    public void submitCancelAll(String username, OrderFilter filter, TaskFuture<String> future) {
+        long sequence = ring.next();
+        ring.get(sequence).cancelAll(username, filter, future);
+        ring.publish(sequence);
+    }
+
+    /**
+     * Runs every operation of {@code batch} in one engine turn, then completes {@code future}; the
+     * per-operation results are left in the batch.
+     */
+    public void submitBatch(EngineBatch batch, TaskFuture<String> future) {
+        long sequence = ring.next();
+        ring.get(sequence).batch(batch, future);
+        ring.publish(sequence);
+    }
+
+    /**
+     * Runs {@code task} on the engine thread, in order with every other command.
+     *
+     * <p>Tasks are not journaled; a task that changes engine state must append its own record to
+     * the {@link CommandJournal} before applying the change.
+     */
+    public void submit(Runnable task) {
+        long sequence = ring.next();
+        ring.get(sequence).admin(task);
+        ring.publish(sequence);
+    }
+
+    /**
+     * Consumer loop; runs on the calling thread until {@link #halt()}.
+     *
+     * <p>Must only ever be called from one thread.
+     */
+    public void run() {
+        running = true;
+        logger.info(
+                "Engine sequencer started: ringSize={} waitStrategy={}",
+                ring.capacity(),
+                waitStrategy);
+        long next = ring.consumedSequence() + 1;
+        int idleCount = 0;
+        while (running) {
+            long available = ring.availableSequence(next);
+            if (available < next) {
+                // Retry hand-offs the publishers were not ready for, and pick up books changed
+                // outside a batch (recovery).
+                matchingEngine.publishTopOfBook();
+                matchingEngine.getDirtyLevels().publish();
+                matchingEngine.getExecutions().publish();
+                waitStrategy.idle(idleCount++);
+                continue;
+            }
+            idleCount = 0;
+            recordBatch(next, available);
+            for (long sequence = next; sequence <= available; sequence++) {
+                EngineCommand command = ring.get(sequence);
+                process(command);
+                command.clear();
+            }
+            ring.release(available);
+            next = available + 1;
+            matchingEngine.publishTopOfBook();
+            matchingEngine.getDirtyLevels().publish();
+            matchingEngine.getExecutions().publish();
+        }
+        logger.info("Engine sequencer stopped");
+    }
+
+    /** Asks {@link #run()} to return after the batch in progress. */
+    public void halt() {
+        running = false;
+    }
+
+    private void recordBatch(long first, long last) {
+        long lag = System.nanoTime() - ring.get(first).publishedNanos;
+        int size = (int) (last - first + 1);
+        consumerLagNanos = lag;
+        if (lag > maxConsumerLagNanos) {
+            maxConsumerLagNanos = lag;
+        }
+        if (size > maxBatchSize) {
+            maxBatchSize = size;
+        }
+        batches++;
+        processedCommands += size;
+    }
+
+    private void process(EngineCommand command) {
+        TaskFuture<String> future = command.future;
+        long dequeued = System.nanoTime();
+        try {
+            switch (command.type) {
+                case BATCH -> processBatch(command.batch);
+                case ADMIN -> command.task.run();
+                default -> apply(command, future);
+            }
+        } catch (Exception e) {
+            // Never let one bad command take the engine thread down.
+            logger.error(
+                    "Engine command failed: type={} user={}", command.type, command.username, e);
+            if (future != null && future.getData() == null) {
+                future.setData(Message.INTERNAL_ERROR.toString());
+            }
+        } finally {
+            long completed = System.nanoTime();
+            latency.recordEngine(
+                    command.type, dequeued - command.publishedNanos, completed - dequeued);
+            if (future != null) {
+                future.stamp(command.publishedNanos, completed);
+                future.markAsComplete();
+            }
+        }
+    }
+
+    /** Journals and applies one order command; the engine writes its response to {@code future}. */
+    private void apply(EngineCommand command, TaskFuture<String> future) {
+        switch (command.type) {
+            case LIMIT_ORDER -> {
+                journal.limitOrder(
+                        command.username,
+                        command.ticker,
+                        command.price,
+                        command.volume,
+                        command.bid,
+                        command.timeInForce);
+                Order order =
+                        new Order(
+                                command.username,
+                                command.ticker,
+                                command.price,
+                                command.volume,
+                                command.bid ? Side.BID : Side.ASK,
+                                Status.ACTIVE,
+                                command.timeInForce);
+                if (command.bid) {
+                    matchingEngine.bidLimitOrder(command.username, order, future);
+                } else {
+                    matchingEngine.askLimitOrder(command.username, order, future);
+                }
+            }
+            case MARKET_ORDER -> {
+                journal.marketOrder(command.username, command.ticker, command.volume, command.bid);
+                if (command.bid) {
+                    matchingEngine.bidMarketOrder(
+                            command.username, command.ticker, command.volume, future);
+                } else {
+                    matchingEngine.askMarketOrder(
+                            command.username, command.ticker, command.volume, future);
+                }
+            }
+            case CANCEL -> {
+                journal.cancel(command.username, command.orderId);
+                matchingEngine.removeOrder(command.username, command.orderId, future);
+            }
+            case CANCEL_ALL -> {
+                journal.cancelAll(command.username, command.filter);
+                matchingEngine.removeAll(command.username, command.filter, future);
+            }
+            case AMEND -> {
+                journal.amend(command.username, command.orderId, command.price, command.volume);
+                matchingEngine.amendOrder(
+                        command.username, command.orderId, command.price, command.volume, future);
+            }
+            default -> throw new IllegalArgumentException("Not an order command: " + command.type);
+        }
+    }
+
+    private void processBatch(EngineBatch batch) {
+        if (batch.atomic) {
+            int rejected = firstRejected(batch);
+            if (rejected >= 0) {
+                for (int i = 0; i < batch.size; i++) {
+                    if (i != rejected) {
+                        batch.results[i] = Message.BATCH_ABORTED.toString();
+                    }
+                }
+                batch.rejected = true;
+                return;
+            }
+        }
+        for (int i = 0; i < batch.size; i++) {
+            scratch.setData(null);
+            apply(batch.operations[i], scratch);
+            batch.results[i] = scratch.getData();
+        }
+    }
+
+    /**
+     * Checks an atomic batch against the engine as it stands, with what the operations earlier in
+     * the batch may do taken into account; writes the rejection of the first operation that fails.
+     *
+     * @return the index of that operation, or -1 if every operation passes.
+     */
+    private int firstRejected(EngineBatch batch) {
+        BatchCheck check = matchingEngine.checkBatch(batch.username);
+        for (int i = 0; i < batch.size; i++) {
+            EngineCommand op = batch.operations[i];
+            Message result =
+                    switch (op.type) {
+                        case LIMIT_ORDER ->
+                                check.limitOrder(
+                                        op.ticker, op.price, op.volume, op.bid, op.timeInForce);
+                        case MARKET_ORDER -> check.marketOrder(op.ticker, op.volume, op.bid);
+                        case CANCEL -> check.cancel(op.orderId);
+                        case AMEND -> check.amend(op.orderId, op.price, op.volume);
+                        case CANCEL_ALL -> check.cancelAll(op.filter);
+                        default -> Message.BAD_INPUT;
+                    };
+            if (result != Message.SUCCESS) {
+                batch.results[i] = result.toString();
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Commands claimed by producers but not yet processed. */
+    public long getQueueDepth() {
+        return ring.depth();
+    }
+
+    /** Time the oldest command of the most recent batch waited before the engine picked it up. */
+    public long getConsumerLagNanos() {
+        return consumerLagNanos;
+    }
+
+    public long getMaxConsumerLagNanos() {
+        return maxConsumerLagNanos;
+    }
+
+    public long getProcessedCommands() {
+        return processedCommands;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+}
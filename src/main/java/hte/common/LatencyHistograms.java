@@ -0,0 +1,141 @@
+package hte.common;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.HdrHistogram.SingleWriterRecorder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Latency histograms per {@link RequestKind} and {@link LatencyStage}.
+ *
+ * <p>Recording is wait-free and allocation-free: every histogram is sized up front (1 ns to ten
+ * seconds at 1% precision; longer samples are clamped) so a record is a few array increments.
+ * {@link LatencyStage#QUEUE} and {@link LatencyStage#ENGINE} are only written by the engine thread
+ * and use single-writer recorders; the request stages are written by servlet threads and use
+ * multi-writer recorders. A batch is one engine command, so its engine stages are recorded under
+ * {@link RequestKind#BATCH} as a whole.
+ *
+ * <p>Readers swap out the recorders' interval histograms and fold them into running totals, so the
+ * only lock is taken by readers.
+ */
+@Component
+public class LatencyHistograms {
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private static final RequestKind[] KINDS = RequestKind.values();
+    private static final LatencyStage[] STAGES = LatencyStage.values();
+
+    private final SingleWriterRecorder[] queue = new SingleWriterRecorder[KINDS.length];
+    private final SingleWriterRecorder[] engine = new SingleWriterRecorder[KINDS.length];
+    private final Recorder[] ingress = new Recorder[KINDS.length];
+    private final Recorder[] egress = new Recorder[KINDS.length];
+    private final Recorder[] total = new Recorder[KINDS.length];
+
+    // Reader side: running totals per [kind][stage], and a scratch interval histogram.
+    private final Histogram[][] totals = new Histogram[KINDS.length][STAGES.length];
+    private final Histogram interval = newHistogram();
+
+    public LatencyHistograms() {
+        for (RequestKind kind : KINDS) {
+            int k = kind.ordinal();
+            queue[k] = new SingleWriterRecorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+            engine[k] = new SingleWriterRecorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+            ingress[k] = new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+            egress[k] = new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+            total[k] = new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+            for (LatencyStage stage : STAGES) {
+                totals[k][stage.ordinal()] = newHistogram();
+            }
+        }
+    }
+
+    /** Engine thread only: records the queue wait and processing time of one command. */
+    public void recordEngine(CommandType type, long queueNanos, long engineNanos) {
+        RequestKind kind = RequestKind.of(type);
+        if (kind == null) {
+            return;
+        }
+        queue[kind.ordinal()].recordValue(clamp(queueNanos));
+        engine[kind.ordinal()].recordValue(clamp(engineNanos));
+    }
+
+    /** Records the request-side stages of one completed request; safe from any thread. */
+    public void recordRequest(
+            RequestKind kind, long ingressNanos, long egressNanos, long totalNanos) {
+        ingress[kind.ordinal()].recordValue(clamp(ingressNanos));
+        egress[kind.ordinal()].recordValue(clamp(egressNanos));
+        total[kind.ordinal()].recordValue(clamp(totalNanos));
+    }
+
+    /**
+     * @return request kind -> stage -> percentiles since startup, for every stage that has samples.
+     */
+    public synchronized Map<String, Map<String, LatencySummary>> summarize() {
+        Map<String, Map<String, LatencySummary>> summary = new LinkedHashMap<>();
+        for (RequestKind kind : KINDS) {
+            int k = kind.ordinal();
+            Map<LatencyStage, Histogram> stages = new EnumMap<>(LatencyStage.class);
+            stages.put(LatencyStage.INGRESS, drain(ingress[k], k, LatencyStage.INGRESS));
+            stages.put(LatencyStage.QUEUE, drain(queue[k], k, LatencyStage.QUEUE));
+            stages.put(LatencyStage.ENGINE, drain(engine[k], k, LatencyStage.ENGINE));
+            stages.put(LatencyStage.EGRESS, drain(egress[k], k, LatencyStage.EGRESS));
+            stages.put(LatencyStage.TOTAL, drain(total[k], k, LatencyStage.TOTAL));
+
+            Map<String, LatencySummary> byStage = new LinkedHashMap<>();
+            for (Map.Entry<LatencyStage, Histogram> entry : stages.entrySet()) {
+                Histogram histogram = entry.getValue();
+                if (histogram.getTotalCount() > 0) {
+                    byStage.put(name(entry.getKey()), summarize(histogram));
+                }
+            }
+            if (!byStage.isEmpty()) {
+                summary.put(name(kind), byStage);
+            }
+        }
+        return summary;
+    }
+
+    private Histogram drain(Recorder recorder, int kind, LatencyStage stage) {
+        recorder.getIntervalHistogramInto(interval);
+        return fold(kind, stage);
+    }
+
+    private Histogram drain(SingleWriterRecorder recorder, int kind, LatencyStage stage) {
+        recorder.getIntervalHistogramInto(interval);
+        return fold(kind, stage);
+    }
+
+    private Histogram fold(int kind, LatencyStage stage) {
+        Histogram running = totals[kind][stage.ordinal()];
+        running.add(interval);
+        return running;
+    }
+
+    private static LatencySummary summarize(Histogram histogram) {
+        return new LatencySummary(
+                histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(90),
+                histogram.getValueAtPercentile(99),
+                histogram.getValueAtPercentile(99.9),
+                histogram.getMaxValue());
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+    }
+
+    private static long clamp(long nanos) {
+        return Math.max(0, Math.min(nanos, HIGHEST_TRACKABLE_NANOS));
+    }
+
+    private static String name(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,20 @@
+package hte.common;
+
+/**
+ * Segments of an order-entry request's life, as recorded by {@link LatencyHistograms}.
+ *
+ * <p>Timestamps are taken at controller entry, at enqueue onto the engine ring, at engine dequeue,
+ * when the engine finishes the command, and after the response has been written.
+ */
+public enum LatencyStage {
+    /** Controller entry to enqueue: body parsing, authentication, rate limiting, validation. */
+    INGRESS,
+    /** Enqueue to engine dequeue: time spent waiting in the command ring. */
+    QUEUE,
+    /** Engine dequeue to completion: journaling, matching and building the result. */
+    ENGINE,
+    /** Engine completion to response written: async dispatch and HTTP serialization. */
+    EGRESS,
+    /** Controller entry to response written. */
+    TOTAL
+}
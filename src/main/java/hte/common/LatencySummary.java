@@ -0,0 +1,4 @@
+package hte.common;
+
+/** Percentiles of one latency histogram, in nanoseconds. */
+public record LatencySummary(long count, long p50, long p90, long p99, long p999, long max) {}
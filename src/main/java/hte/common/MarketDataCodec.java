@@ -0,0 +1,204 @@
+package hte.common;
+
+import hte.matchingengine.PriceChange;
+import hte.matchingengine.Side;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compact binary encoding of orderbook updates and snapshots, for clients that opt in.
+ *
+ * <p>All integers are big-endian. A message is:
+ *
+ * <pre>
+ * u8   version (1)
+ * u8   type (0 = update, 1 = snapshot)
+ * i64  seq
+ * u16  dictionary size, then per entry: u16 ticker id, u8 name length, UTF-8 name
+ * u16  section count, then per section:
+ *      u16 ticker id, u32 bid count, u32 ask count,
+ *      bid entries then ask entries: zigzag varint price delta, varint volume
+ * </pre>
+ *
+ * <p>Ticker ids are assigned on first use and never reused. A snapshot's dictionary lists every
+ * ticker; an update's lists only ids first assigned while encoding it, so it is normally empty.
+ * Price deltas are taken from the previous entry of the same side in the section (the first from
+ * 0). Volumes are absolute resting volume at the level; 0 means the level is gone.
+ */
+@Component
+public class MarketDataCodec {
+    public static final byte VERSION = 1;
+    public static final byte TYPE_UPDATE = 0;
+    public static final byte TYPE_SNAPSHOT = 1;
+
+    private final ConcurrentHashMap<String, Integer> tickerIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextTickerId = new AtomicInteger();
+
+    /** Encodes the levels published under {@code seq}. */
+    public byte[] encodeUpdate(long seq, List<PriceChange> changes) {
+        return encode(TYPE_UPDATE, seq, List.of(), changes);
+    }
+
+    /** Encodes every resting level of {@code tickers} as of {@code seq}. */
+    public byte[] encodeSnapshot(long seq, Collection<String> tickers, List<PriceChange> levels) {
+        return encode(TYPE_SNAPSHOT, seq, tickers, levels);
+    }
+
+    private byte[] encode(
+            byte type, long seq, Collection<String> dictionary, List<PriceChange> levels) {
+        Writer out = new Writer(16 + levels.size() * 4);
+        out.u8(VERSION);
+        out.u8(type);
+        out.i64(seq);
+
+        // Resolve ids first so ids new to this message can go into its dictionary.
+        int[] ids = new int[levels.size()];
+        String[] added = new String[dictionary.size() + levels.size()];
+        int addedCount = 0;
+        for (String ticker : dictionary) {
+            idOf(ticker);
+            added[addedCount++] = ticker;
+        }
+        boolean snapshot = type == TYPE_SNAPSHOT;
+        for (int i = 0; i < levels.size(); i++) {
+            String ticker = levels.get(i).getTicker();
+            Integer id = tickerIds.get(ticker);
+            if (id == null) {
+                id = idOf(ticker);
+                if (!snapshot) {
+                    added[addedCount++] = ticker;
+                }
+            }
+            ids[i] = id;
+        }
+        out.u16(addedCount);
+        for (int i = 0; i < addedCount; i++) {
+            byte[] name = added[i].getBytes(StandardCharsets.UTF_8);
+            if (name.length > 255) {
+                throw new IllegalArgumentException("Ticker name too long: " + added[i]);
+            }
+            out.u16(tickerIds.get(added[i]));
+            out.u8(name.length);
+            out.bytes(name);
+        }
+
+        // Levels normally arrive grouped by ticker; each run of one ticker becomes a section.
+        int sectionsAt = out.position();
+        out.u16(0);
+        int sections = 0;
+        int start = 0;
+        while (start < levels.size()) {
+            int end = start + 1;
+            while (end < levels.size() && ids[end] == ids[start]) {
+                end++;
+            }
+            int bids = 0;
+            for (int i = start; i < end; i++) {
+                if (levels.get(i).getSide() == Side.BID) {
+                    bids++;
+                }
+            }
+            out.u16(ids[start]);
+            out.i32(bids);
+            out.i32(end - start - bids);
+            writeSide(out, levels, start, end, Side.BID);
+            writeSide(out, levels, start, end, Side.ASK);
+            sections++;
+            start = end;
+        }
+        out.u16At(sectionsAt, sections);
+        return out.toByteArray();
+    }
+
+    private static void writeSide(
+            Writer out, List<PriceChange> levels, int start, int end, Side side) {
+        int previous = 0;
+        for (int i = start; i < end; i++) {
+            PriceChange level = levels.get(i);
+            if (level.getSide() != side) {
+                continue;
+            }
+            out.varint(zigzag(level.getPrice() - previous));
+            out.varint(level.getVolume());
+            previous = level.getPrice();
+        }
+    }
+
+    private int idOf(String ticker) {
+        return tickerIds.computeIfAbsent(ticker, t -> nextTickerId.getAndIncrement());
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /** Growable big-endian byte buffer. */
+    private static final class Writer {
+        private byte[] buffer;
+        private int position;
+
+        Writer(int capacity) {
+            buffer = new byte[Math.max(capacity, 16)];
+        }
+
+        int position() {
+            return position;
+        }
+
+        void u8(int value) {
+            ensure(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void u16(int value) {
+            ensure(2);
+            u16At(position, value);
+            position += 2;
+        }
+
+        void u16At(int at, int value) {
+            buffer[at] = (byte) (value >>> 8);
+            buffer[at + 1] = (byte) value;
+        }
+
+        void i32(int value) {
+            u16(value >>> 16);
+            u16(value);
+        }
+
+        void i64(long value) {
+            i32((int) (value >>> 32));
+            i32((int) value);
+        }
+
+        void varint(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void bytes(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensure(int bytes) {
+            if (position + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+            }
+        }
+    }
+}
@@ -21,7 +21,10 @@ public enum Message {
     INSUFFICIENT_TICKER_BALANCE(15, "Insufficient ticker balance."),
     SERVER_MISCONFIGURED(16, "Server is misconfigured. Please contact an administrator."),
     INTERNAL_ERROR(17, "Internal server error."),
-    NO_LIQUIDITY(18, "No liquidity. No matching orders available.");
+    NO_LIQUIDITY(18, "No liquidity. No matching orders available."),
+    BATCH_ABORTED(19, "Not executed: another operation in the atomic batch was rejected."),
+    WOULD_CROSS(20, "Post-only order would cross the book."),
+    NOT_FILLABLE(21, "Fill-or-kill order cannot be filled in full.");
 
     public int getErrorCode() {
         return errorCode;
@@ -3,15 +3,30 @@ package hte.common;
 import hte.matchingengine.PriceChange;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 import org.springframework.stereotype.Component;
 
+/**
+ * Replay window of the most recent orderbook updates, in a fixed ring indexed by {@code seq %
+ * capacity}.
+ *
+ * <p>Updates are appended by the market data publisher; the append methods are synchronized only so
+ * a stray second writer stays safe, and readers never lock. A reader loads the slot for a seq and
+ * checks the update's own seq, so racing an overwrite yields either the requested update or
+ * nothing, never a different one. Appending a seq that has already fallen out of the window is
+ * ignored rather than evicting a newer update.
+ */
 @Component
 public class OrderbookSeqLog {
     private static final int DEFAULT_MAX_ENTRIES = 10_000;
 
     private final int maxEntries;
-    private final ConcurrentSkipListMap<Long, OrderbookUpdate> log;
+    private final AtomicReferenceArray<OrderbookUpdate> slots;
+
+    // Highest and lowest seq appended so far, -1 while empty. Written after the slot.
+    private volatile long maxSeq = -1;
+    private volatile long lowestSeq = -1;
 
     public OrderbookSeqLog() {
         this(DEFAULT_MAX_ENTRIES);
@@ -23,19 +38,29 @@ public class OrderbookSeqLog {
         }
 
         this.maxEntries = maxEntries;
-        this.log = new ConcurrentSkipListMap<>();
+        this.slots = new AtomicReferenceArray<>(maxEntries);
     }
 
     public synchronized void append(OrderbookUpdate update) {
         if (update == null) {
             throw new IllegalArgumentException("update cannot be null");
         }
+        long seq = update.getSeq();
+        if (seq < 0) {
+            throw new IllegalArgumentException("seq must be >= 0");
+        }
 
-        log.put(update.getSeq(), update);
-
-        // Keep only the latest N updates (by seq).
-        while (log.size() > maxEntries) {
-            log.pollFirstEntry();
+        long max = maxSeq;
+        if (max >= 0 && seq <= max - maxEntries) {
+            // Older than everything the ring still holds.
+            return;
+        }
+        slots.set(slotOf(seq), update);
+        if (lowestSeq < 0 || seq < lowestSeq) {
+            lowestSeq = seq;
+        }
+        if (seq > max) {
+            maxSeq = seq;
         }
     }
 
@@ -57,15 +82,47 @@ public class OrderbookSeqLog {
     }
 
     // Returns the update with the given seq if it exists in the retention window.
-    public synchronized Optional<OrderbookUpdate> getBySeq(long seq) {
-        return Optional.ofNullable(log.get(seq));
+    public Optional<OrderbookUpdate> getBySeq(long seq) {
+        if (seq < 0) {
+            return Optional.empty();
+        }
+        OrderbookUpdate update = slots.get(slotOf(seq));
+        return update != null && update.getSeq() == seq ? Optional.of(update) : Optional.empty();
     }
 
-    public synchronized Long getMinSeq() {
-        return log.isEmpty() ? null : log.firstKey();
+    /**
+     * Visits the updates {@code from..to} (inclusive) in order, stopping at the first seq the
+     * window does not hold.
+     *
+     * @return the last seq visited, or {@code from - 1} if none was.
+     */
+    public long replay(long from, long to, Consumer<? super OrderbookUpdate> consumer) {
+        long seq = from;
+        for (; seq <= to; seq++) {
+            Optional<OrderbookUpdate> update = getBySeq(seq);
+            if (update.isEmpty()) {
+                break;
+            }
+            consumer.accept(update.get());
+        }
+        return seq - 1;
+    }
+
+    public Long getMinSeq() {
+        long max = maxSeq;
+        return max < 0 ? null : Math.max(lowestSeq, max - maxEntries + 1);
+    }
+
+    public Long getMaxSeq() {
+        long max = maxSeq;
+        return max < 0 ? null : max;
     }
 
     public int getMaxEntries() {
         return maxEntries;
     }
+
+    private int slotOf(long seq) {
+        return (int) (seq % maxEntries);
+    }
 }
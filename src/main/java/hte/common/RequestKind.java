@@ -0,0 +1,26 @@
+package hte.common;
+
+/** Order-entry request types that latency is broken down by. */
+public enum RequestKind {
+    LIMIT,
+    MARKET,
+    REMOVE,
+    REMOVE_ALL,
+    AMEND,
+    BATCH;
+
+    /**
+     * @return the request kind an engine command belongs to, or {@code null} for admin tasks.
+     */
+    static RequestKind of(CommandType type) {
+        return switch (type) {
+            case LIMIT_ORDER -> LIMIT;
+            case MARKET_ORDER -> MARKET;
+            case CANCEL -> REMOVE;
+            case CANCEL_ALL -> REMOVE_ALL;
+            case AMEND -> AMEND;
+            case BATCH -> BATCH;
+            case ADMIN -> null;
+        };
+    }
+}
@@ -21,6 +21,13 @@ public class SeqGenerator {
         return currentSeq.get();
     }
 
+    /**
+     * Continues numbering after {@code seq}, e.g. from a snapshot, so clients never see it rewind.
+     */
+    public void restore(long seq) {
+        currentSeq.set(seq);
+    }
+
     public void reset() {
         currentSeq.set(0);
     }
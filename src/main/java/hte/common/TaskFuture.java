@@ -1,37 +1,28 @@
 package hte.common;
 
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.CompletableFuture;
 
-public class TaskFuture<T> {
-    private boolean completed;
-    private ReentrantLock mutex;
-    private Condition cv;
+/**
+ * Result slot for work handed to the engine thread.
+ *
+ * <p>The engine fills the result with {@link #setData} and publishes it with {@link
+ * #markAsComplete}, which completes this future without taking a lock. Request threads chain onto
+ * it (so no thread sits waiting for the engine) or, in tests and tooling, block with {@link
+ * #waitForCompletion}.
+ */
+public class TaskFuture<T> extends CompletableFuture<T> {
+    // Only touched by the engine thread until markAsComplete publishes it.
     private T data;
-
-    public TaskFuture() {
-        completed = false;
-        mutex = new ReentrantLock();
-        cv = mutex.newCondition();
-    }
+    // System.nanoTime() stamps of engine commands, published along with the result.
+    private long enqueuedNanos;
+    private long completedNanos;
 
     public void waitForCompletion() {
-        mutex.lock();
-        while (!completed) {
-            try {
-                cv.await();
-            } catch (InterruptedException e) {
-                throw new RuntimeException();
-            }
-        }
-        mutex.unlock();
+        join();
     }
 
     public void markAsComplete() {
-        mutex.lock();
-        completed = true;
-        cv.signalAll();
-        mutex.unlock();
+        complete(data);
     }
 
     public T getData() {
@@ -41,4 +32,24 @@ public class TaskFuture<T> {
     public void setData(T data) {
         this.data = data;
     }
+
+    /** Engine thread: records when the command was enqueued and when the engine finished it. */
+    void stamp(long enqueuedNanos, long completedNanos) {
+        this.enqueuedNanos = enqueuedNanos;
+        this.completedNanos = completedNanos;
+    }
+
+    /**
+     * @return when the command was published to the engine ring, or 0 if it never ran there.
+     */
+    public long getEnqueuedNanos() {
+        return enqueuedNanos;
+    }
+
+    /**
+     * @return when the engine finished the command, or 0 if it never ran there.
+     */
+    public long getCompletedNanos() {
+        return completedNanos;
+    }
 }
@@ -0,0 +1,48 @@
+package hte.common;
+
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-ticker market data streams: each ticker's orderbook updates are numbered in their own
+ * sequence space and kept in their own {@link OrderbookSeqLog}, next to the global stream.
+ *
+ * <p>A ticker's stream is created the first time an update or snapshot for it is numbered, and its
+ * seqs start at the global seq of that moment. Every per-ticker update is part of one global
+ * update, so a ticker never gets more seqs than the global stream and, like it, does not rewind
+ * after a restart.
+ */
+@Component
+public class TickerStreams {
+
+    /** One ticker's sequence space and replay log. */
+    public record Stream(SeqGenerator seqGenerator, OrderbookSeqLog log) {}
+
+    private final SeqGenerator globalSeq;
+    private final ConcurrentHashMap<String, Stream> streams = new ConcurrentHashMap<>();
+
+    public TickerStreams(SeqGenerator globalSeq) {
+        this.globalSeq = globalSeq;
+    }
+
+    /**
+     * @return the stream of {@code ticker}, creating it if needed. Only call this for tickers the
+     *     engine knows, so clients cannot create streams.
+     */
+    public Stream stream(String ticker) {
+        return streams.computeIfAbsent(
+                ticker,
+                t -> {
+                    SeqGenerator seq = new SeqGenerator();
+                    seq.restore(globalSeq.get());
+                    return new Stream(seq, new OrderbookSeqLog());
+                });
+    }
+
+    /**
+     * @return the stream of {@code ticker}, or null if nothing has been numbered for it yet.
+     */
+    public Stream find(String ticker) {
+        return streams.get(ticker);
+    }
+}
@@ -0,0 +1,58 @@
+package hte.common;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * What the engine thread does when the {@link CommandRingBuffer} has nothing to process.
+ *
+ * <p>Selected with {@code hte.engine.wait-strategy}. {@link #BUSY_SPIN} gives the lowest wake-up
+ * latency but keeps a core at 100%; {@link #PARK} backs off to (near) zero CPU when the exchange is
+ * idle at the cost of up to {@code MAX_PARK_NANOS} extra latency on the first command after a quiet
+ * period.
+ */
+public enum WaitStrategy {
+    /** Spin on the CPU. */
+    BUSY_SPIN {
+        @Override
+        public void idle(int idleCount) {
+            Thread.onSpinWait();
+        }
+    },
+    /** Spin briefly, then yield the CPU to other runnable threads. */
+    YIELD {
+        @Override
+        public void idle(int idleCount) {
+            if (idleCount < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    },
+    /** Spin, then yield, then park with exponential backoff. */
+    PARK {
+        @Override
+        public void idle(int idleCount) {
+            if (idleCount < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (idleCount < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                int shift = Math.min(20, idleCount - SPIN_TRIES - YIELD_TRIES);
+                LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, MIN_PARK_NANOS << shift));
+            }
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long MIN_PARK_NANOS = 1_000;
+    private static final long MAX_PARK_NANOS = 100_000;
+
+    /**
+     * Called each time the consumer polls and finds no work.
+     *
+     * @param idleCount consecutive empty polls so far (reset once work arrives).
+     */
+    public abstract void idle(int idleCount);
+}
@@ -0,0 +1,122 @@
+package hte.gateway;
+
+/**
+ * Reads fields out of the engine's order results without parsing them into a tree.
+ *
+ * <p>The engine answers every order command with a flat JSON object ({@code errorCode}, {@code
+ * errorMessage} and, for orders, {@code price}, {@code volumeFilled} and {@code orderId}) whose
+ * values are numbers or one escaped string. The gateway needs a few of those fields per response,
+ * so it finds each key and reads its value in place.
+ */
+final class EngineResults {
+    private EngineResults() {}
+
+    /**
+     * @return the integer value of {@code field}, or {@code missing} if absent or not a number.
+     */
+    static long getLong(String json, String field, long missing) {
+        int start = valueStart(json, field);
+        if (start < 0) {
+            return missing;
+        }
+        int end = numberEnd(json, start);
+        try {
+            return Long.parseLong(json, start, end, 10);
+        } catch (NumberFormatException e) {
+            return missing;
+        }
+    }
+
+    /**
+     * @return the numeric value of {@code field}, or {@code missing} if absent or not a number.
+     */
+    static double getDouble(String json, String field, double missing) {
+        int start = valueStart(json, field);
+        if (start < 0) {
+            return missing;
+        }
+        int end = numberEnd(json, start);
+        try {
+            return Double.parseDouble(json.substring(start, end));
+        } catch (NumberFormatException e) {
+            return missing;
+        }
+    }
+
+    /**
+     * @return the unescaped string value of {@code field}, or null if absent or not a string.
+     */
+    static String getString(String json, String field) {
+        int start = valueStart(json, field);
+        if (start < 0 || json.charAt(start) != '"') {
+            return null;
+        }
+        StringBuilder value = new StringBuilder();
+        for (int i = start + 1; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c == '\\' && i + 1 < json.length()) {
+                c = json.charAt(++i);
+                switch (c) {
+                    case 'n' -> c = '\n';
+                    case 'r' -> c = '\r';
+                    case 't' -> c = '\t';
+                    case 'b' -> c = '\b';
+                    case 'f' -> c = '\f';
+                    case 'u' -> {
+                        if (i + 4 >= json.length()) {
+                            return null;
+                        }
+                        try {
+                            c = (char) Integer.parseInt(json, i + 1, i + 5, 16);
+                        } catch (NumberFormatException e) {
+                            return null;
+                        }
+                        i += 4;
+                    }
+                    default -> {
+                        // \" \\ \/ stand for themselves.
+                    }
+                }
+            }
+            value.append(c);
+        }
+        return null;
+    }
+
+    /**
+     * @return index of the first character of {@code field}'s value, or -1 if it is absent.
+     */
+    private static int valueStart(String json, String field) {
+        if (json == null) {
+            return -1;
+        }
+        // Quotes inside string values are escaped, so a quoted key only matches a real key.
+        int key = json.indexOf('"' + field + '"');
+        if (key < 0) {
+            return -1;
+        }
+        int i = skipSpaces(json, key + field.length() + 2);
+        if (i >= json.length() || json.charAt(i) != ':') {
+            return -1;
+        }
+        i = skipSpaces(json, i + 1);
+        return i < json.length() ? i : -1;
+    }
+
+    private static int skipSpaces(String json, int i) {
+        while (i < json.length() && Character.isWhitespace(json.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int numberEnd(String json, int i) {
+        while (i < json.length() && "+-0123456789.eE".indexOf(json.charAt(i)) >= 0) {
+            i++;
+        }
+        return i;
+    }
+}
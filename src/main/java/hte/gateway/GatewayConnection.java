@@ -0,0 +1,89 @@
+package hte.gateway;
+
+import hte.api.auth.RateLimiter;
+import hte.common.Message;
+import hte.common.TaskFuture;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+
+/**
+ * One client connection; only touched by the gateway's selector thread, except for the session
+ * checks, which read the logon fields and set {@link #revoked}.
+ */
+final class GatewayConnection {
+    private static final int IN_BUFFER_SIZE = 64 * 1024;
+    private static final int OUT_BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * A request awaiting its response: either an engine command, or an answer known up front that
+     * must still go out in request order.
+     */
+    record Pending(int requestId, TaskFuture<String> future, Message message, long orderId) {}
+
+    final SocketChannel channel;
+    final SelectionKey key;
+    // Both kept in write mode between calls.
+    final ByteBuffer in = ByteBuffer.allocate(IN_BUFFER_SIZE);
+    private ByteBuffer out = ByteBuffer.allocate(OUT_BUFFER_SIZE);
+    final ArrayDeque<Pending> inFlight = new ArrayDeque<>();
+
+    // Set by a successful logon.
+    String username;
+    String token;
+    RateLimiter.Role role;
+    // Set by a session check that no longer accepts the token; the selector thread logs it off.
+    volatile boolean revoked;
+    // No more requests are read; closed once every response has been written.
+    boolean closing;
+
+    GatewayConnection(SocketChannel channel, SelectionKey key) {
+        this.channel = channel;
+        this.key = key;
+    }
+
+    /**
+     * @return the output buffer, grown to take at least {@code bytes} more.
+     */
+    ByteBuffer reserve(int bytes) {
+        if (out.remaining() < bytes) {
+            ByteBuffer grown =
+                    ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+            out.flip();
+            grown.put(out);
+            out = grown;
+        }
+        return out;
+    }
+
+    /**
+     * @return bytes written but not yet sent.
+     */
+    int unsent() {
+        return out.position();
+    }
+
+    /** Sends as much buffered output as the socket takes without blocking. */
+    void flush() throws IOException {
+        if (out.position() == 0) {
+            return;
+        }
+        out.flip();
+        try {
+            channel.write(out);
+        } finally {
+            out.compact();
+        }
+    }
+
+    void close() {
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Already gone.
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package hte.gateway;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire format of the binary order-entry gateway.
+ *
+ * <p>All integers are big-endian and strings are UTF-8. Every message, in both directions, is one
+ * frame:
+ *
+ * <pre>
+ * u16  length of the rest of the frame
+ * u8   type
+ * u32  request id, chosen by the client and echoed in the response
+ *      body
+ * </pre>
+ *
+ * <p>Client to gateway:
+ *
+ * <pre>
+ * LOGON         u8 username length, username, u8 token length, session token
+ * LIMIT_ORDER   u8 ticker length, ticker, i32 price, i32 volume, u8 side (1 = bid, 0 = ask)
+ * MARKET_ORDER  u8 ticker length, ticker, i32 volume, u8 side
+ * CANCEL        i64 order id
+ * CANCEL_ALL    (empty)
+ * </pre>
+ *
+ * <p>Gateway to client, one per request and in request order:
+ *
+ * <pre>
+ * ACK     i64 order id, i32 volume filled, f64 average fill price
+ * REJECT  u16 {@link hte.common.Message} error code, u16 text length, text
+ * </pre>
+ *
+ * <p>An ACK's order id is the id of the resting order for a limit order (0 if it filled
+ * completely), the cancelled id for a cancel, and 0 otherwise.
+ */
+public final class GatewayProtocol {
+    public static final byte LOGON = 1;
+    public static final byte LIMIT_ORDER = 2;
+    public static final byte MARKET_ORDER = 3;
+    public static final byte CANCEL = 4;
+    public static final byte CANCEL_ALL = 5;
+
+    public static final byte ACK = (byte) 0x81;
+    public static final byte REJECT = (byte) 0x82;
+
+    /** Bytes before the body: length, type and request id. */
+    public static final int HEADER_LENGTH = 2 + 1 + 4;
+
+    /** Longest frame the gateway accepts, counting from the type byte. */
+    public static final int MAX_FRAME_LENGTH = 1024;
+
+    static final int ACK_LENGTH = HEADER_LENGTH + 8 + 4 + 8;
+
+    // Longest reject text sent; engine messages can list every ticker.
+    private static final int MAX_TEXT_LENGTH = 512;
+
+    private GatewayProtocol() {}
+
+    static void writeAck(
+            ByteBuffer out, int requestId, long orderId, int volumeFilled, double price) {
+        out.putShort((short) (ACK_LENGTH - 2));
+        out.put(ACK);
+        out.putInt(requestId);
+        out.putLong(orderId);
+        out.putInt(volumeFilled);
+        out.putDouble(price);
+    }
+
+    static byte[] rejectText(String text) {
+        byte[] bytes = text == null ? new byte[0] : text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_TEXT_LENGTH) {
+            byte[] cut = new byte[MAX_TEXT_LENGTH];
+            System.arraycopy(bytes, 0, cut, 0, MAX_TEXT_LENGTH);
+            return cut;
+        }
+        return bytes;
+    }
+
+    static int rejectLength(byte[] text) {
+        return HEADER_LENGTH + 2 + 2 + text.length;
+    }
+
+    static void writeReject(ByteBuffer out, int requestId, int errorCode, byte[] text) {
+        out.putShort((short) (rejectLength(text) - 2));
+        out.put(REJECT);
+        out.putInt(requestId);
+        out.putShort((short) errorCode);
+        out.putShort((short) text.length);
+        out.put(text);
+    }
+
+    /** Reads a string prefixed with its u8 length. */
+    static String readString(ByteBuffer in) {
+        int length = in.get() & 0xFF;
+        if (length > in.remaining()) {
+            throw new IllegalArgumentException("String runs past the frame");
+        }
+        String s =
+                new String(
+                        in.array(),
+                        in.arrayOffset() + in.position(),
+                        length,
+                        StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return s;
+    }
+}
@@ -0,0 +1,537 @@
+package hte.gateway;
+
+import hte.api.ServerApplication;
+import hte.api.auth.BotAuthenticator;
+import hte.api.auth.PrivatePageAuthenticator;
+import hte.api.auth.RateLimiter;
+import hte.api.auth.RateLimiter.RequestClass;
+import hte.api.auth.RateLimiter.Role;
+import hte.api.dtos.requests.BasePrivateRequest;
+import hte.api.dtos.requests.Preprocessing;
+import hte.common.EngineSequencer;
+import hte.common.Message;
+import hte.common.TaskFuture;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Optional TCP order entry, for clients that want to skip HTTP and JSON.
+ *
+ * <p>One selector thread owns every connection. It reads {@link GatewayProtocol} frames, applies
+ * the same checks as {@code OrderController} (authentication at logon; then rate limiting, trading
+ * state and input clamping per order) and publishes orders straight into the {@link
+ * EngineSequencer}. Sessions are re-checked every {@code hte.gateway.session-check-ms} off the
+ * selector thread, so a connection whose session was torn down, replaced or has expired is logged
+ * off and closed. A client may pipeline up to {@code hte.gateway.max-in-flight} requests; their
+ * responses go back in request order. While commands are in flight the thread polls for their
+ * completion instead of sleeping, so a response leaves as soon as the engine is done with it.
+ */
+@Component
+public class OrderGateway {
+    private static final Logger logger = LoggerFactory.getLogger(OrderGateway.class);
+
+    // How long to poll for engine completions before falling back to a short select.
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    // Stop reading from a client that does not read its responses.
+    private static final int OUT_HIGH_WATER = 256 * 1024;
+
+    private final EngineSequencer sequencer;
+    private final ServerApplication app;
+    private final BotAuthenticator botAuthenticator;
+    private final PrivatePageAuthenticator privatePageAuthenticator;
+    private final RateLimiter rateLimiter;
+    private final boolean enabled;
+    private final int port;
+    private final int maxInFlight;
+
+    private final List<GatewayConnection> connections = new ArrayList<>();
+    // Logged-on connections, shared with the session checks.
+    private final Set<GatewayConnection> loggedOn = ConcurrentHashMap.newKeySet();
+    private volatile boolean running;
+    private Selector selector;
+    private ServerSocketChannel server;
+    private Thread thread;
+
+    public OrderGateway(
+            EngineSequencer sequencer,
+            ServerApplication app,
+            BotAuthenticator botAuthenticator,
+            PrivatePageAuthenticator privatePageAuthenticator,
+            RateLimiter rateLimiter,
+            @Value("${hte.gateway.enabled:false}") boolean enabled,
+            @Value("${hte.gateway.port:9001}") int port,
+            @Value("${hte.gateway.max-in-flight:1024}") int maxInFlight) {
+        this.sequencer = sequencer;
+        this.app = app;
+        this.botAuthenticator = botAuthenticator;
+        this.privatePageAuthenticator = privatePageAuthenticator;
+        this.rateLimiter = rateLimiter;
+        this.enabled = enabled;
+        this.port = port;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        thread = new Thread(this::selectLoop, "order-gateway");
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("Order gateway listening on port {}", getPort());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        thread.join(TimeUnit.SECONDS.toMillis(1));
+    }
+
+    /**
+     * @return the port the gateway is bound to, or -1 if it is not running.
+     */
+    public int getPort() {
+        if (server == null) {
+            return -1;
+        }
+        try {
+            return ((InetSocketAddress) server.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private void selectLoop() {
+        long spinStart = 0;
+        try {
+            while (running) {
+                int selected;
+                if (!awaitingEngine()) {
+                    selected = selector.select();
+                } else if (System.nanoTime() - spinStart < SPIN_NANOS) {
+                    selected = selector.selectNow();
+                    Thread.onSpinWait();
+                } else {
+                    selected = selector.select(1);
+                }
+                handleSelected();
+                boolean progress = selected > 0;
+                for (int i = connections.size() - 1; i >= 0; i--) {
+                    progress |= service(connections.get(i));
+                }
+                if (progress) {
+                    // Something happened: poll for the next completion again.
+                    spinStart = System.nanoTime();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Order gateway stopped", e);
+        } finally {
+            for (GatewayConnection connection : connections) {
+                connection.close();
+            }
+            connections.clear();
+            loggedOn.clear();
+            try {
+                server.close();
+                selector.close();
+            } catch (IOException ignored) {
+                // Shutting down anyway.
+            }
+        }
+    }
+
+    /**
+     * Re-authenticates every logged-on connection with the token it logged on with, and marks those
+     * whose session is no longer valid for the selector thread to close.
+     */
+    @Scheduled(fixedDelayString = "${hte.gateway.session-check-ms:1000}")
+    public void checkSessions() {
+        boolean revoked = false;
+        for (GatewayConnection connection : loggedOn) {
+            try {
+                if (!connection.revoked && !authenticate(connection)) {
+                    connection.revoked = true;
+                    revoked = true;
+                }
+            } catch (RuntimeException e) {
+                // Keep the connection; the next check tries again.
+                logger.warn("Could not check gateway session of {}", connection.username, e);
+            }
+        }
+        if (revoked) {
+            selector.wakeup();
+        }
+    }
+
+    private boolean authenticate(GatewayConnection connection) {
+        BasePrivateRequest request = new BasePrivateRequest(connection.username, connection.token);
+        return connection.role == Role.BOT
+                ? botAuthenticator.authenticate(request)
+                : privatePageAuthenticator.authenticate(request);
+    }
+
+    private boolean awaitingEngine() {
+        for (int i = 0; i < connections.size(); i++) {
+            if (!connections.get(i).inFlight.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void handleSelected() throws IOException {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                accept();
+            } else if (key.isReadable()) {
+                read((GatewayConnection) key.attachment());
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            GatewayConnection connection = new GatewayConnection(channel, key);
+            key.attach(connection);
+            connections.add(connection);
+        }
+    }
+
+    private void read(GatewayConnection connection) {
+        try {
+            if (connection.channel.read(connection.in) < 0) {
+                close(connection);
+                return;
+            }
+        } catch (IOException e) {
+            close(connection);
+            return;
+        }
+        parse(connection);
+    }
+
+    /**
+     * Writes finished responses, sends them and updates what the connection is selected for.
+     *
+     * @return true if any response was written.
+     */
+    private boolean service(GatewayConnection connection) {
+        if (connection.revoked && !connection.closing) {
+            // Answers to requests already taken still go out first.
+            respond(connection, 0, Message.AUTHENTICATION_FAILED);
+            connection.closing = true;
+        }
+        boolean wrote = drain(connection);
+        // Frames held back by the in-flight limit.
+        if (connection.in.position() > 0) {
+            parse(connection);
+            wrote |= drain(connection);
+        }
+        try {
+            connection.flush();
+        } catch (IOException e) {
+            close(connection);
+            return wrote;
+        }
+        if (connection.closing && connection.inFlight.isEmpty() && connection.unsent() == 0) {
+            close(connection);
+            return wrote;
+        }
+        int ops = 0;
+        if (!connection.closing
+                && connection.inFlight.size() < maxInFlight
+                && connection.unsent() < OUT_HIGH_WATER) {
+            ops |= SelectionKey.OP_READ;
+        }
+        if (connection.unsent() > 0) {
+            ops |= SelectionKey.OP_WRITE;
+        }
+        if (connection.key.isValid() && connection.key.interestOps() != ops) {
+            connection.key.interestOps(ops);
+        }
+        return wrote;
+    }
+
+    private void close(GatewayConnection connection) {
+        connection.close();
+        connections.remove(connection);
+        loggedOn.remove(connection);
+    }
+
+    /** Handles every complete frame in the input buffer, up to the in-flight limit. */
+    private void parse(GatewayConnection connection) {
+        ByteBuffer in = connection.in;
+        in.flip();
+        try {
+            while (!connection.closing
+                    && connection.inFlight.size() < maxInFlight
+                    && in.remaining() >= 2) {
+                int length = in.getShort(in.position()) & 0xFFFF;
+                if (length < GatewayProtocol.HEADER_LENGTH - 2
+                        || length > GatewayProtocol.MAX_FRAME_LENGTH) {
+                    // Framing is lost; nothing after this can be trusted.
+                    respond(connection, 0, Message.BAD_INPUT);
+                    connection.closing = true;
+                    in.position(in.limit());
+                    break;
+                }
+                if (in.remaining() < 2 + length) {
+                    break;
+                }
+                int end = in.position() + 2 + length;
+                int limit = in.limit();
+                in.position(in.position() + 2);
+                in.limit(end);
+                byte type = in.get();
+                int requestId = in.getInt();
+                try {
+                    handle(connection, type, requestId, in);
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    // Thrown while reading fields, before the request was answered.
+                    respond(connection, requestId, Message.BAD_INPUT);
+                }
+                in.limit(limit);
+                in.position(end);
+            }
+        } finally {
+            in.compact();
+        }
+    }
+
+    /** Reads one request's fields, then answers it or hands it to the engine. */
+    private void handle(GatewayConnection connection, byte type, int requestId, ByteBuffer in) {
+        if (type == GatewayProtocol.LOGON) {
+            String username = GatewayProtocol.readString(in);
+            String token = GatewayProtocol.readString(in);
+            requireEnd(in);
+            logon(connection, requestId, username, token);
+            return;
+        }
+        if (connection.username == null) {
+            respond(connection, requestId, Message.AUTHENTICATION_FAILED);
+            connection.closing = true;
+            return;
+        }
+        switch (type) {
+            case GatewayProtocol.LIMIT_ORDER -> {
+                String ticker = GatewayProtocol.readString(in);
+                int price = in.getInt();
+                int volume = in.getInt();
+                boolean bid = readSide(in);
+                requireEnd(in);
+                if (admit(connection, requestId, RequestClass.ORDER)) {
+                    TaskFuture<String> future = submit(connection, requestId, 0);
+                    sequencer.submitLimitOrder(
+                            connection.username,
+                            ticker,
+                            Preprocessing.preprocessPrice(price),
+                            clampVolume(connection, volume),
+                            bid,
+                            future);
+                }
+            }
+            case GatewayProtocol.MARKET_ORDER -> {
+                String ticker = GatewayProtocol.readString(in);
+                int volume = in.getInt();
+                boolean bid = readSide(in);
+                requireEnd(in);
+                if (admit(connection, requestId, RequestClass.ORDER)) {
+                    TaskFuture<String> future = submit(connection, requestId, 0);
+                    sequencer.submitMarketOrder(
+                            connection.username,
+                            ticker,
+                            clampVolume(connection, volume),
+                            bid,
+                            future);
+                }
+            }
+            case GatewayProtocol.CANCEL -> {
+                long orderId = in.getLong();
+                requireEnd(in);
+                if (admit(connection, requestId, RequestClass.CANCEL)) {
+                    TaskFuture<String> future = submit(connection, requestId, orderId);
+                    sequencer.submitCancel(connection.username, orderId, future);
+                }
+            }
+            case GatewayProtocol.CANCEL_ALL -> {
+                requireEnd(in);
+                if (admit(connection, requestId, RequestClass.CANCEL)) {
+                    TaskFuture<String> future = submit(connection, requestId, 0);
+                    sequencer.submitCancelAll(connection.username, future);
+                }
+            }
+            default -> {
+                in.position(in.limit());
+                respond(connection, requestId, Message.BAD_INPUT);
+            }
+        }
+    }
+
+    private void logon(GatewayConnection connection, int requestId, String username, String token) {
+        if (connection.username != null) {
+            respond(connection, requestId, Message.BAD_INPUT);
+            return;
+        }
+        BasePrivateRequest request = new BasePrivateRequest(username, token);
+        if (botAuthenticator.authenticate(request)) {
+            connection.role = Role.BOT;
+        } else if (privatePageAuthenticator.authenticate(request)) {
+            connection.role = Role.USER;
+        } else {
+            respond(connection, requestId, Message.AUTHENTICATION_FAILED);
+            connection.closing = true;
+            return;
+        }
+        connection.username = username;
+        connection.token = token;
+        loggedOn.add(connection);
+        respond(connection, requestId, Message.SUCCESS);
+    }
+
+    private static void requireEnd(ByteBuffer in) {
+        if (in.hasRemaining()) {
+            throw new IllegalArgumentException("Trailing bytes in frame");
+        }
+    }
+
+    private static boolean readSide(ByteBuffer in) {
+        byte side = in.get();
+        if (side != 0 && side != 1) {
+            throw new IllegalArgumentException("Bad side " + side);
+        }
+        return side == 1;
+    }
+
+    private static int clampVolume(GatewayConnection connection, int volume) {
+        return connection.role == Role.BOT
+                ? Preprocessing.botPreprocessVolume(volume)
+                : Preprocessing.preprocessVolume(volume);
+    }
+
+    /** The checks {@code OrderController} makes after authentication, in the same order. */
+    private boolean admit(GatewayConnection connection, int requestId, RequestClass requestClass) {
+        if (!rateLimiter.tryAcquire(connection.role, connection.username, requestClass)) {
+            respond(connection, requestId, Message.RATE_LIMITED);
+            return false;
+        }
+        if (!app.getState().isTradingAllowed()) {
+            respond(connection, requestId, Message.TRADE_LOCKED);
+            return false;
+        }
+        return true;
+    }
+
+    private static TaskFuture<String> submit(
+            GatewayConnection connection, int requestId, long orderId) {
+        TaskFuture<String> future = new TaskFuture<>();
+        connection.inFlight.add(new GatewayConnection.Pending(requestId, future, null, orderId));
+        return future;
+    }
+
+    private static void respond(GatewayConnection connection, int requestId, Message message) {
+        connection.inFlight.add(new GatewayConnection.Pending(requestId, null, message, 0));
+    }
+
+    /**
+     * Writes the responses at the head of the in-flight queue whose result is known.
+     *
+     * @return true if any was written.
+     */
+    private static boolean drain(GatewayConnection connection) {
+        boolean wrote = false;
+        GatewayConnection.Pending pending;
+        while ((pending = connection.inFlight.peek()) != null) {
+            if (pending.future() == null) {
+                write(connection, pending.requestId(), pending.message());
+            } else if (pending.future().isDone()) {
+                writeResult(connection, pending, pending.future().getNow(null));
+            } else {
+                break;
+            }
+            connection.inFlight.poll();
+            wrote = true;
+        }
+        return wrote;
+    }
+
+    /** Turns the engine's JSON result into an ack or a reject, reading only the fields sent. */
+    private static void writeResult(
+            GatewayConnection connection, GatewayConnection.Pending pending, String result) {
+        int errorCode = (int) EngineResults.getLong(result, "errorCode", -1);
+        if (errorCode < 0) {
+            write(connection, pending.requestId(), Message.INTERNAL_ERROR);
+            return;
+        }
+        if (errorCode != Message.SUCCESS.getErrorCode()) {
+            byte[] text =
+                    GatewayProtocol.rejectText(EngineResults.getString(result, "errorMessage"));
+            GatewayProtocol.writeReject(
+                    connection.reserve(GatewayProtocol.rejectLength(text)),
+                    pending.requestId(),
+                    errorCode,
+                    text);
+            return;
+        }
+        GatewayProtocol.writeAck(
+                connection.reserve(GatewayProtocol.ACK_LENGTH),
+                pending.requestId(),
+                EngineResults.getLong(result, "orderId", pending.orderId()),
+                (int) EngineResults.getLong(result, "volumeFilled", 0),
+                EngineResults.getDouble(result, "price", 0));
+    }
+
+    private static void write(GatewayConnection connection, int requestId, Message message) {
+        if (message == Message.SUCCESS) {
+            GatewayProtocol.writeAck(
+                    connection.reserve(GatewayProtocol.ACK_LENGTH), requestId, 0, 0, 0);
+            return;
+        }
+        byte[] text = GatewayProtocol.rejectText(message.getErrorMessage());
+        GatewayProtocol.writeReject(
+                connection.reserve(GatewayProtocol.rejectLength(text)),
+                requestId,
+                message.getErrorCode(),
+                text);
+    }
+}
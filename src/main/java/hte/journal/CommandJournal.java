@@ -0,0 +1,665 @@
+package hte.journal;
+
+import hte.matchingengine.OrderFilter;
+import hte.matchingengine.Side;
+import hte.matchingengine.TimeInForce;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32C;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Append-only, memory-mapped write-ahead log of every input that changes engine state.
+ *
+ * <p>The engine thread appends a record before applying the command it describes, so the journal is
+ * always a prefix of the engine's input history and {@link #recover} can rebuild the same books,
+ * orders and balances by replaying it. An append is a copy into a mapped window (no system call); a
+ * background flusher forces the window to disk every {@code flushIntervalMicros}, committing
+ * whatever was appended since the previous force as one group. A JVM crash loses nothing (mapped
+ * pages live in the OS page cache); losing the machine loses at most the last unforced group.
+ *
+ * <p>The journal is a directory of numbered segment files. {@link #startNewSegment} closes the
+ * current segment at a command boundary (snapshots use this to mark where their replay tail
+ * begins), and {@link #deleteSegmentsBefore} drops segments a snapshot has made redundant.
+ *
+ * <p>Record layout: {@code int length | int crc32c | byte type | payload}. The length is written
+ * last, so a torn record reads as the end of the journal. Each segment is mapped in fixed-size
+ * windows; a record never straddles two, and a length of {@code -1} pads to the next window.
+ *
+ * <p>Appends must come from the engine thread, and only after {@link #recover} has run. When the
+ * journal is disabled every method is a no-op.
+ */
+@Component
+public class CommandJournal implements JournalHandler, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(CommandJournal.class);
+
+    private static final int HEADER_BYTES = 8;
+    private static final int PADDING = -1;
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final boolean enabled;
+    private final Path dir;
+    private final int windowBytes;
+    private final long flushIntervalNanos;
+
+    // Engine-thread state: the record being encoded and its checksum.
+    private ByteBuffer scratch = ByteBuffer.allocate(1024);
+    private final CRC32C crc = new CRC32C();
+
+    // Engine-thread state: where the next record goes.
+    private FileChannel channel;
+    private long segment;
+    private long windowStart;
+    private int offset;
+    private volatile MappedByteBuffer window;
+
+    // Bytes appended since recovery, and how many of those the flusher has forced to disk.
+    private volatile long appended;
+    private volatile long flushed;
+    private volatile boolean open;
+    private Thread flusher;
+
+    public CommandJournal(
+            @Value("${hte.journal.enabled:false}") boolean enabled,
+            @Value("${hte.journal.dir:data/journal}") String dir,
+            @Value("${hte.journal.window-bytes:67108864}") int windowBytes,
+            @Value("${hte.journal.flush-interval-micros:1000}") long flushIntervalMicros) {
+        if (windowBytes < 1024) {
+            throw new IllegalArgumentException("Journal window must be at least 1024 bytes");
+        }
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+        this.windowBytes = windowBytes;
+        this.flushIntervalNanos = TimeUnit.MICROSECONDS.toNanos(flushIntervalMicros);
+    }
+
+    /** A journal that records nothing. */
+    public static CommandJournal disabled() {
+        return new CommandJournal(false, "", 1024, 0);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Replays the whole journal into {@code handler}; see {@link #recover(long, JournalHandler)}.
+     */
+    public long recover(JournalHandler handler) throws IOException {
+        return recover(0, handler);
+    }
+
+    /**
+     * Replays every intact record of segments {@code >= fromSegment} into {@code handler}, in
+     * order, then opens the journal for appends right after the last one.
+     *
+     * <p>Replay of the last segment stops at its first torn or corrupt record; everything after it
+     * is cleared, so new appends never sit in front of stale bytes.
+     *
+     * @return number of records replayed.
+     */
+    public long recover(long fromSegment, JournalHandler handler) throws IOException {
+        if (!enabled) {
+            return 0;
+        }
+        Files.createDirectories(dir);
+        List<Long> segments = new ArrayList<>();
+        for (long existing : listSegments()) {
+            if (existing >= fromSegment) {
+                segments.add(existing);
+            }
+        }
+
+        long replayed = 0;
+        if (segments.isEmpty()) {
+            openSegment(Math.max(fromSegment, 1));
+        } else {
+            for (int i = 0; i < segments.size(); i++) {
+                if (channel != null) {
+                    channel.close();
+                }
+                openSegment(segments.get(i));
+                replayed += replaySegment(handler);
+            }
+            clearTail();
+        }
+
+        appended = 0;
+        flushed = 0;
+        open = true;
+        flusher = new Thread(this::flushLoop, "journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info(
+                "Journal {} opened at segment {} offset {} after {} records",
+                dir,
+                segment,
+                getWrittenPosition(),
+                replayed);
+        return replayed;
+    }
+
+    /**
+     * Finishes the current segment and continues in a new one.
+     *
+     * <p>Engine thread only. Every record appended afterwards lives in the returned segment or a
+     * later one.
+     *
+     * @return number of the new segment.
+     */
+    public long startNewSegment() {
+        if (!open) {
+            throw new IllegalStateException("Journal is not open; recover() must run first");
+        }
+        try {
+            padWindow();
+            window.force();
+            channel.close();
+            openSegment(segment + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start journal segment " + (segment + 1), e);
+        }
+        return segment;
+    }
+
+    /** Deletes every segment numbered below {@code firstKept}. Safe to call from any thread. */
+    public void deleteSegmentsBefore(long firstKept) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        for (long existing : listSegments()) {
+            if (existing < firstKept) {
+                Files.deleteIfExists(segmentPath(existing));
+            }
+        }
+    }
+
+    @Override
+    public void limitOrder(
+            String username,
+            String ticker,
+            int price,
+            int volume,
+            boolean bid,
+            TimeInForce timeInForce) {
+        if (!enabled) {
+            return;
+        }
+        begin(RecordType.LIMIT_ORDER);
+        putString(username);
+        putString(ticker);
+        putInt(price);
+        putInt(volume);
+        putBoolean(bid);
+        // Omitted for GTC, so records written before time in force existed still read as GTC.
+        if (timeInForce != TimeInForce.GTC) {
+            ensure(Byte.BYTES);
+            scratch.put((byte) timeInForce.ordinal());
+        }
+        commit();
+    }
+
+    @Override
+    public void marketOrder(String username, String ticker, int volume, boolean bid) {
+        if (!enabled) {
+            return;
+        }
+        begin(RecordType.MARKET_ORDER);
+        putString(username);
+        putString(ticker);
+        putInt(volume);
+        putBoolean(bid);
+        commit();
+    }
+
+    @Override
+    public void cancel(String username, long orderId) {
+        if (!enabled) {
+            return;
+        }
+        begin(RecordType.CANCEL);
+        putString(username);
+        ensure(Long.BYTES);
+        scratch.putLong(orderId);
+        commit();
+    }
+
+    public void cancelAll(String username) {
+        cancelAll(username, OrderFilter.ALL);
+    }
+
+    @Override
+    public void cancelAll(String username, OrderFilter filter) {
+        if (!enabled) {
+            return;
+        }
+        begin(RecordType.CANCEL_ALL);
+        putString(username);
+        // Omitted for a plain cancel-all, so older records still read as one.
+        if (!filter.matchesAll()) {
+            putString(filter.ticker() == null ? "" : filter.ticker());
+            ensure(Byte.BYTES);
+            scratch.put(filter.side() == null ? -1 : (byte) filter.side().ordinal());
+            putInt(filter.minPrice());
+            putInt(filter.maxPrice());
+        }
+        commit();
+    }
+
+    @Override
+    public void amend(String username, long orderId, int price, int volume) {
+        if (!enabled) {
+            return;
+        }
+        begin(RecordType.AMEND);
+        putString(username);
+        ensure(Long.BYTES);
+        scratch.putLong(orderId);
+        putInt(price);
+        putInt(volume);
+        commit();
+    }
+
+    @Override
+    public void initUser(String username) {
+        if (!enabled) {
+            return;
+        }
+        begin(RecordType.INIT_USER);
+        putString(username);
+        commit();
+    }
+
+    @Override
+    public void initBot(String username) {
+        if (!enabled) {
+            return;
+        }
+        begin(RecordType.INIT_BOT);
+        putString(username);
+        commit();
+    }
+
+    @Override
+    public void setPrices(Map<String, Integer> prices) {
+        if (!enabled) {
+            return;
+        }
+        begin(RecordType.SET_PRICES);
+        putInt(prices.size());
+        for (Map.Entry<String, Integer> entry : prices.entrySet()) {
+            putString(entry.getKey());
+            putInt(entry.getValue());
+        }
+        commit();
+    }
+
+    @Override
+    public void setTickers(String[] tickers) {
+        if (!enabled) {
+            return;
+        }
+        begin(RecordType.SET_TICKERS);
+        putInt(tickers.length);
+        for (String ticker : tickers) {
+            putString(ticker);
+        }
+        commit();
+    }
+
+    @Override
+    public void auctionExecuted(String username, int amount) {
+        if (!enabled) {
+            return;
+        }
+        begin(RecordType.AUCTION_EXECUTED);
+        putString(username);
+        putInt(amount);
+        commit();
+    }
+
+    /**
+     * @return number of the segment currently appended to.
+     */
+    public long getSegment() {
+        return segment;
+    }
+
+    /**
+     * @return offset in the current segment file just past the last appended record.
+     */
+    public long getWrittenPosition() {
+        return windowStart + offset;
+    }
+
+    /**
+     * @return bytes appended since recovery that are not yet forced to disk.
+     */
+    public long getUnflushedBytes() {
+        return appended - flushed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        window.force();
+        flushed = appended;
+        channel.close();
+    }
+
+    Path segmentPath(long number) {
+        return dir.resolve(String.format("%020d%s", number, SEGMENT_SUFFIX));
+    }
+
+    private List<Long> listSegments() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.add(
+                            Long.parseLong(
+                                    name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    logger.warn("Ignoring unexpected file in journal directory: {}", file);
+                }
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private void openSegment(long number) throws IOException {
+        channel =
+                FileChannel.open(
+                        segmentPath(number),
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+        segment = number;
+        windowStart = 0;
+        offset = 0;
+        window = map(0);
+    }
+
+    /**
+     * Replays the open segment from its start, leaving the write position after its last record.
+     */
+    private long replaySegment(JournalHandler handler) throws IOException {
+        long fileSize = channel.size();
+        MappedByteBuffer current = window;
+        long replayed = 0;
+        while (true) {
+            if (offset + HEADER_BYTES > windowBytes) {
+                if (windowStart + windowBytes >= fileSize) {
+                    break;
+                }
+                windowStart += windowBytes;
+                current = map(windowStart);
+                window = current;
+                offset = 0;
+                continue;
+            }
+            int length = current.getInt(offset);
+            if (length == PADDING) {
+                offset = windowBytes;
+                continue;
+            }
+            if (length == 0) {
+                break;
+            }
+            long position = windowStart + offset;
+            if (length < 0 || offset + HEADER_BYTES + length > windowBytes) {
+                logger.warn("Journal segment {} has a bad length at {}", segment, position);
+                break;
+            }
+            ByteBuffer record = current.slice(offset + HEADER_BYTES, length);
+            crc.reset();
+            crc.update(record.duplicate());
+            if ((int) crc.getValue() != current.getInt(offset + 4)) {
+                logger.warn("Journal segment {} failed its checksum at {}", segment, position);
+                break;
+            }
+            RecordType type = RecordType.fromCode(record.get());
+            if (type == null) {
+                logger.warn(
+                        "Journal segment {} has an unknown record type at {}", segment, position);
+                break;
+            }
+            try {
+                dispatch(type, record, handler);
+            } catch (RuntimeException e) {
+                // The live engine survived this command too (the sequencer logs and moves on).
+                logger.error("Replaying {} record of segment {} failed", type, segment, e);
+            }
+            offset += HEADER_BYTES + length;
+            replayed++;
+        }
+        return replayed;
+    }
+
+    /**
+     * Clears everything after the write position (a torn tail or stale bytes) in the open segment.
+     */
+    private void clearTail() throws IOException {
+        if (offset >= windowBytes) {
+            windowStart += windowBytes;
+            window = map(windowStart);
+            offset = 0;
+        }
+        zeroFrom(window, offset);
+        if (channel.size() > windowStart + windowBytes) {
+            channel.truncate(windowStart + windowBytes);
+        }
+    }
+
+    private void flushLoop() {
+        while (open) {
+            long end = appended;
+            if (end > flushed) {
+                try {
+                    // A segment or window switch forces the previous window itself, so forcing
+                    // the current one covers everything up to end.
+                    window.force();
+                    flushed = end;
+                } catch (RuntimeException e) {
+                    logger.error("Journal flush failed", e);
+                }
+            }
+            LockSupport.parkNanos(flushIntervalNanos);
+        }
+    }
+
+    private void begin(RecordType type) {
+        if (!open) {
+            throw new IllegalStateException("Journal is not open; recover() must run first");
+        }
+        scratch.clear();
+        scratch.put(type.code);
+    }
+
+    private void commit() {
+        int length = scratch.position();
+        int size = HEADER_BYTES + length;
+        if (size > windowBytes) {
+            throw new IllegalArgumentException(
+                    "Journal record of " + length + " bytes exceeds the journal window");
+        }
+        if (offset + size > windowBytes) {
+            nextWindow();
+        }
+        crc.reset();
+        crc.update(scratch.array(), 0, length);
+        MappedByteBuffer current = window;
+        current.put(offset + HEADER_BYTES, scratch.array(), 0, length);
+        current.putInt(offset + 4, (int) crc.getValue());
+        // Length last: until it lands, readers see the end of the journal.
+        current.putInt(offset, length);
+        offset += size;
+        appended += size;
+    }
+
+    /** Pads out the current window, forces it and maps the next one. */
+    private void nextWindow() {
+        padWindow();
+        window.force();
+        try {
+            window = map(windowStart + windowBytes);
+            windowStart += windowBytes;
+            offset = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map next journal window", e);
+        }
+    }
+
+    private void padWindow() {
+        if (offset + Integer.BYTES <= windowBytes) {
+            window.putInt(offset, PADDING);
+        }
+    }
+
+    private MappedByteBuffer map(long start) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, start, windowBytes);
+    }
+
+    /** Zeroes {@code [offset, windowBytes)}, only writing to bytes that are not already zero. */
+    private void zeroFrom(MappedByteBuffer buffer, int offset) {
+        int i = offset;
+        for (; i < windowBytes && (i & 7) != 0; i++) {
+            buffer.put(i, (byte) 0);
+        }
+        for (; i + Long.BYTES <= windowBytes; i += Long.BYTES) {
+            if (buffer.getLong(i) != 0) {
+                buffer.putLong(i, 0);
+            }
+        }
+        for (; i < windowBytes; i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    private void ensure(int bytes) {
+        if (scratch.remaining() < bytes) {
+            int capacity = Math.max(scratch.capacity() * 2, scratch.position() + bytes);
+            ByteBuffer larger = ByteBuffer.allocate(capacity);
+            scratch.flip();
+            larger.put(scratch);
+            scratch = larger;
+        }
+    }
+
+    private void putInt(int value) {
+        ensure(Integer.BYTES);
+        scratch.putInt(value);
+    }
+
+    private void putBoolean(boolean value) {
+        ensure(1);
+        scratch.put((byte) (value ? 1 : 0));
+    }
+
+    private void putString(String value) {
+        int length = value.length();
+        boolean ascii = true;
+        for (int i = 0; i < length && ascii; i++) {
+            ascii = value.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            // Usernames and tickers are almost always ASCII: encode without allocating.
+            ensure(Short.BYTES + length);
+            scratch.putShort((short) length);
+            for (int i = 0; i < length; i++) {
+                scratch.put((byte) value.charAt(i));
+            }
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(Short.BYTES + bytes.length);
+            scratch.putShort((short) bytes.length);
+            scratch.put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[Short.toUnsignedInt(in.getShort())];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final TimeInForce[] TIME_IN_FORCE = TimeInForce.values();
+    private static final Side[] SIDES = Side.values();
+
+    private static OrderFilter getFilter(ByteBuffer in) {
+        String ticker = getString(in);
+        byte side = in.get();
+        return new OrderFilter(
+                ticker.isEmpty() ? null : ticker,
+                side < 0 ? null : SIDES[side],
+                in.getInt(),
+                in.getInt());
+    }
+
+    private static void dispatch(RecordType type, ByteBuffer in, JournalHandler handler) {
+        switch (type) {
+            case LIMIT_ORDER ->
+                    handler.limitOrder(
+                            getString(in),
+                            getString(in),
+                            in.getInt(),
+                            in.getInt(),
+                            in.get() != 0,
+                            in.hasRemaining() ? TIME_IN_FORCE[in.get()] : TimeInForce.GTC);
+            case MARKET_ORDER ->
+                    handler.marketOrder(getString(in), getString(in), in.getInt(), in.get() != 0);
+            case CANCEL -> handler.cancel(getString(in), in.getLong());
+            case CANCEL_ALL ->
+                    handler.cancelAll(
+                            getString(in), in.hasRemaining() ? getFilter(in) : OrderFilter.ALL);
+            case AMEND -> handler.amend(getString(in), in.getLong(), in.getInt(), in.getInt());
+            case INIT_USER -> handler.initUser(getString(in));
+            case INIT_BOT -> handler.initBot(getString(in));
+            case SET_PRICES -> {
+                int count = in.getInt();
+                Map<String, Integer> prices = new LinkedHashMap<>();
+                for (int i = 0; i < count; i++) {
+                    prices.put(getString(in), in.getInt());
+                }
+                handler.setPrices(prices);
+            }
+            case SET_TICKERS -> {
+                String[] tickers = new String[in.getInt()];
+                for (int i = 0; i < tickers.length; i++) {
+                    tickers[i] = getString(in);
+                }
+                handler.setTickers(tickers);
+            }
+            case AUCTION_EXECUTED -> handler.auctionExecuted(getString(in), in.getInt());
+        }
+    }
+}
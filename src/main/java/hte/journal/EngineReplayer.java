@@ -0,0 +1,98 @@
+package hte.journal;
+
+import hte.common.TaskFuture;
+import hte.matchingengine.MatchingEngine;
+import hte.matchingengine.Order;
+import hte.matchingengine.OrderFilter;
+import hte.matchingengine.Side;
+import hte.matchingengine.Status;
+import hte.matchingengine.TimeInForce;
+import java.util.Map;
+
+/**
+ * Applies replayed journal records to a {@link MatchingEngine}.
+ *
+ * <p>Each callback goes through the same engine entry point the live command used, minus the
+ * response serialization, so replaying a journal in order reproduces the engine's state (including
+ * order ids, which come from the engine's own counter).
+ */
+public final class EngineReplayer implements JournalHandler {
+    private final MatchingEngine matchingEngine;
+
+    public EngineReplayer(MatchingEngine matchingEngine) {
+        this.matchingEngine = matchingEngine;
+    }
+
+    @Override
+    public void limitOrder(
+            String username,
+            String ticker,
+            int price,
+            int volume,
+            boolean bid,
+            TimeInForce timeInForce) {
+        Order order =
+                new Order(
+                        username,
+                        ticker,
+                        price,
+                        volume,
+                        bid ? Side.BID : Side.ASK,
+                        Status.ACTIVE,
+                        timeInForce);
+        if (bid) {
+            matchingEngine.bidLimitOrderHandler(username, order);
+        } else {
+            matchingEngine.askLimitOrderHandler(username, order);
+        }
+    }
+
+    @Override
+    public void marketOrder(String username, String ticker, int volume, boolean bid) {
+        if (bid) {
+            matchingEngine.bidMarketOrderHandler(username, ticker, volume);
+        } else {
+            matchingEngine.askMarketOrderHandler(username, ticker, volume);
+        }
+    }
+
+    @Override
+    public void cancel(String username, long orderId) {
+        matchingEngine.removeOrder(username, orderId);
+    }
+
+    @Override
+    public void cancelAll(String username, OrderFilter filter) {
+        matchingEngine.removeAll(username, filter);
+    }
+
+    @Override
+    public void amend(String username, long orderId, int price, int volume) {
+        matchingEngine.amendOrderHandler(username, orderId, price, volume);
+    }
+
+    @Override
+    public void initUser(String username) {
+        matchingEngine.initializeUser(username);
+    }
+
+    @Override
+    public void initBot(String username) {
+        matchingEngine.initializeBot(username);
+    }
+
+    @Override
+    public void setPrices(Map<String, Integer> prices) {
+        matchingEngine.setPriceClearOrderBook(prices, new TaskFuture<>());
+    }
+
+    @Override
+    public void setTickers(String[] tickers) {
+        matchingEngine.replaceTickersClearOrderBooks(tickers, new TaskFuture<>());
+    }
+
+    @Override
+    public void auctionExecuted(String username, int amount) {
+        matchingEngine.executeAuction(username, amount);
+    }
+}
@@ -0,0 +1,144 @@
+package hte.journal;
+
+import hte.common.EngineSequencer;
+import hte.matchingengine.MatchingEngine;
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically snapshots the engine so restarts replay only the journal written since.
+ *
+ * <p>A capture is queued on the engine thread like any other command. There it starts a new journal
+ * segment and copies the engine state into a byte array, which is the only work done between two
+ * commands. That copy walks every order, book level and user, so its cost grows with the size of
+ * the books ({@link #getLastCaptureNanos()} reports it). Writing and syncing the file, pruning old
+ * snapshots and deleting the journal segments they covered all happen on a background writer while
+ * matching continues.
+ *
+ * <p>Snapshots are only taken when the journal is enabled, since without it there is nothing to
+ * replay after one.
+ */
+@Component
+public class EngineSnapshotter {
+    private static final Logger logger = LoggerFactory.getLogger(EngineSnapshotter.class);
+
+    private final MatchingEngine matchingEngine;
+    private final EngineSequencer sequencer;
+    private final CommandJournal journal;
+    private final SnapshotStore store;
+    private final boolean enabled;
+
+    private final ExecutorService writer =
+            Executors.newSingleThreadExecutor(
+                    task -> {
+                        Thread thread = new Thread(task, "snapshot-writer");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+    // Set from submission until the file is written, so slow disks never queue up captures.
+    private final AtomicBoolean inFlight = new AtomicBoolean();
+
+    private volatile long lastCaptureNanos;
+    private volatile long lastSnapshotBytes;
+    private volatile long snapshotsWritten;
+
+    public EngineSnapshotter(
+            MatchingEngine matchingEngine,
+            EngineSequencer sequencer,
+            CommandJournal journal,
+            SnapshotStore store,
+            @Value("${hte.snapshot.enabled:true}") boolean enabled) {
+        this.matchingEngine = matchingEngine;
+        this.sequencer = sequencer;
+        this.journal = journal;
+        this.store = store;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled && journal.isEnabled();
+    }
+
+    @Scheduled(
+            initialDelayString = "${hte.snapshot.interval-ms:60000}",
+            fixedDelayString = "${hte.snapshot.interval-ms:60000}")
+    public void snapshot() {
+        if (!isEnabled() || !inFlight.compareAndSet(false, true)) {
+            return;
+        }
+        sequencer.submit(this::capture);
+    }
+
+    /** Engine thread: cut the journal and copy the engine state, then hand off to the writer. */
+    void capture() {
+        long started = System.nanoTime();
+        long segment;
+        long seq;
+        byte[] body;
+        try {
+            segment = journal.startNewSegment();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                matchingEngine.writeSnapshot(out);
+            }
+            body = bytes.toByteArray();
+            // The market data seq of this state, counted on the engine thread: the publisher's
+            // generator may already be ahead of or behind what was captured.
+            seq = matchingEngine.getDirtyLevels().seqAfterMarked();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to capture engine snapshot", e);
+            inFlight.set(false);
+            return;
+        }
+        lastCaptureNanos = System.nanoTime() - started;
+        writer.execute(() -> persist(segment, seq, body));
+    }
+
+    private void persist(long segment, long seq, byte[] body) {
+        try {
+            store.write(segment, seq, body);
+            journal.deleteSegmentsBefore(store.prune());
+            lastSnapshotBytes = body.length;
+            snapshotsWritten++;
+            logger.info(
+                    "Wrote engine snapshot at journal segment {} ({} bytes, captured in {} us)",
+                    segment,
+                    body.length,
+                    lastCaptureNanos / 1_000);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to write engine snapshot at journal segment {}", segment, e);
+        } finally {
+            inFlight.set(false);
+        }
+    }
+
+    /**
+     * @return time the engine thread spent on the last capture.
+     */
+    public long getLastCaptureNanos() {
+        return lastCaptureNanos;
+    }
+
+    public long getLastSnapshotBytes() {
+        return lastSnapshotBytes;
+    }
+
+    public long getSnapshotsWritten() {
+        return snapshotsWritten;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+    }
+}
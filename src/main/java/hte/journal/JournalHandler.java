@@ -0,0 +1,44 @@
+package hte.journal;
+
+import hte.matchingengine.OrderFilter;
+import hte.matchingengine.TimeInForce;
+import java.util.Map;
+
+/**
+ * One callback per kind of engine input recorded in the {@link CommandJournal}.
+ *
+ * <p>{@link CommandJournal} implements this to append records; {@link EngineReplayer} implements it
+ * to apply replayed records to a {@code MatchingEngine}.
+ */
+public interface JournalHandler {
+    void limitOrder(
+            String username,
+            String ticker,
+            int price,
+            int volume,
+            boolean bid,
+            TimeInForce timeInForce);
+
+    void marketOrder(String username, String ticker, int volume, boolean bid);
+
+    void cancel(String username, long orderId);
+
+    /** Mass cancel of the user's resting orders that {@code filter} matches. */
+    void cancelAll(String username, OrderFilter filter);
+
+    /** Price and/or volume change of a resting order. */
+    void amend(String username, long orderId, int price, int volume);
+
+    void initUser(String username);
+
+    void initBot(String username);
+
+    /** {@code setPriceClearOrderBook}: marks prices and clears every book. */
+    void setPrices(Map<String, Integer> prices);
+
+    /** {@code replaceTickersClearOrderBooks}: replaces the ticker universe. */
+    void setTickers(String[] tickers);
+
+    /** Auction settlement: {@code amount} is charged to {@code username}. */
+    void auctionExecuted(String username, int amount);
+}
@@ -0,0 +1,36 @@
+package hte.journal;
+
+/** Type tag stored in the first payload byte of every journal record. */
+enum RecordType {
+    LIMIT_ORDER(1),
+    MARKET_ORDER(2),
+    CANCEL(3),
+    CANCEL_ALL(4),
+    INIT_USER(5),
+    INIT_BOT(6),
+    SET_PRICES(7),
+    SET_TICKERS(8),
+    AUCTION_EXECUTED(9),
+    AMEND(10);
+
+    private static final RecordType[] BY_CODE = new RecordType[16];
+
+    static {
+        for (RecordType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    final byte code;
+
+    RecordType(int code) {
+        this.code = (byte) code;
+    }
+
+    /**
+     * @return the type for {@code code}, or {@code null} if it is not a known tag.
+     */
+    static RecordType fromCode(byte code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
@@ -0,0 +1,177 @@
+package hte.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Directory of engine snapshot files, one per journal segment they were taken at.
+ *
+ * <p>File layout: {@code int magic | int version | long journalSegment | long seq | long
+ * createdMillis | int length | int crc32c | body}. A snapshot is written to a temporary file,
+ * forced, and atomically renamed into place, so a crash mid-write never leaves a half-written
+ * snapshot under a real name. Only the newest {@link #RETAINED} snapshots are kept.
+ */
+@Component
+public class SnapshotStore {
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotStore.class);
+
+    /** Snapshots kept on disk; older ones (and the journal they cover) are deleted. */
+    static final int RETAINED = 2;
+
+    private static final int MAGIC = 0x48544553; // "HTES"
+    // 2: engine state carries the trade id counter.
+    // 3: orders carry their time in force.
+    private static final int VERSION = 3;
+    private static final int HEADER_BYTES = 40;
+    private static final String SUFFIX = ".snapshot";
+
+    private final Path dir;
+
+    /** A loaded snapshot: engine state as of the start of {@code journalSegment}. */
+    public record Snapshot(long journalSegment, long seq, long createdMillis, byte[] body) {}
+
+    public SnapshotStore(@Value("${hte.snapshot.dir:data/snapshots}") String dir) {
+        this.dir = Path.of(dir);
+    }
+
+    /** Durably writes a snapshot of the engine state as of the start of {@code journalSegment}. */
+    public void write(long journalSegment, long seq, byte[] body) throws IOException {
+        Files.createDirectories(dir);
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(journalSegment)
+                .putLong(seq)
+                .putLong(System.currentTimeMillis())
+                .putInt(body.length)
+                .putInt((int) crc.getValue())
+                .flip();
+
+        Path target = snapshotPath(journalSegment);
+        Path temp = dir.resolve(target.getFileName() + ".tmp");
+        try (FileChannel channel =
+                FileChannel.open(
+                        temp,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE)) {
+            ByteBuffer content = ByteBuffer.wrap(body);
+            while (header.hasRemaining() || content.hasRemaining()) {
+                channel.write(new ByteBuffer[] {header, content});
+            }
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+    }
+
+    /**
+     * Loads the newest intact snapshot, falling back to older ones if it is unreadable.
+     *
+     * @return the snapshot, or empty if there is none.
+     */
+    public Optional<Snapshot> loadLatest() throws IOException {
+        List<Long> segments = listSnapshots();
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            Path file = snapshotPath(segments.get(i));
+            Snapshot snapshot = read(file);
+            if (snapshot != null) {
+                return Optional.of(snapshot);
+            }
+            logger.warn("Skipping unreadable snapshot {}", file);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Deletes all but the newest {@link #RETAINED} snapshots.
+     *
+     * @return journal segment of the oldest snapshot still on disk; journal segments before it are
+     *     no longer needed by any snapshot.
+     */
+    public long prune() throws IOException {
+        List<Long> segments = listSnapshots();
+        int firstKept = Math.max(0, segments.size() - RETAINED);
+        for (int i = 0; i < firstKept; i++) {
+            Files.deleteIfExists(snapshotPath(segments.get(i)));
+        }
+        return segments.isEmpty() ? 0 : segments.get(firstKept);
+    }
+
+    Path snapshotPath(long journalSegment) {
+        return dir.resolve(String.format("%020d%s", journalSegment, SUFFIX));
+    }
+
+    private Snapshot read(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length < HEADER_BYTES) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return null;
+        }
+        long journalSegment = buffer.getLong();
+        long seq = buffer.getLong();
+        long createdMillis = buffer.getLong();
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (length != buffer.remaining()) {
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, HEADER_BYTES, length);
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        byte[] body = new byte[length];
+        buffer.get(body);
+        return new Snapshot(journalSegment, seq, createdMillis, body);
+    }
+
+    private List<Long> listSnapshots() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.add(
+                            Long.parseLong(name.substring(0, name.length() - SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    logger.warn("Ignoring unexpected file in snapshot directory: {}", file);
+                }
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /** Makes the rename itself durable; not every platform can open a directory for this. */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            logger.debug("Could not sync snapshot directory {}", dir, e);
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package hte.matchingengine;
+
+import hte.common.Message;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks one user's atomic batch, operation by operation, before any of it is applied.
+ *
+ * <p>Each check sees the engine as it stands plus what the earlier operations of the batch may have
+ * done to it: the volume they reserve or fill on each side of a ticker (which counts against the
+ * position limit and inventory), the cash bids may spend, the resting volume they may take out of
+ * the book and the prices at which they may rest or trade. Fills are not predicted, so every
+ * estimate leans the safe way: an order may take its full volume, sales do not free room to buy,
+ * and liquidity or room the batch itself would add is not counted. A batch may therefore be refused
+ * when it would have gone through, but one that passes is not rejected partway through.
+ *
+ * <p>Created by {@link MatchingEngine#checkBatch(String)}; used on the engine thread only.
+ */
+public final class BatchCheck {
+    private static final int BID = Side.BID.ordinal();
+    private static final int ASK = Side.ASK.ordinal();
+
+    /** What the batch so far may have done to one ticker. */
+    private static final class Effect {
+        // Volume reserved or filled, per side, net of resting orders cancelled or amended down.
+        final int[] committed = new int[2];
+        // Resting volume that may have left the book, per side.
+        final int[] taken = new int[2];
+        // Best prices at which the batch's own orders may rest.
+        int bidRests = 0;
+        int askRests = Integer.MAX_VALUE;
+        // Furthest prices through which the batch's own orders may trade.
+        int bidReach = 0;
+        int askReach = Integer.MAX_VALUE;
+    }
+
+    private final MatchingEngine engine;
+    private final String user;
+    private final boolean bot;
+    private final Map<String, Effect> effects = new HashMap<>();
+    private final Set<Long> cancelled = new HashSet<>();
+    // Orders amended earlier in the batch, at their new price and volume.
+    private final Map<Long, Order> amended = new HashMap<>();
+    // Orders an earlier amend may have filled.
+    private final Set<Long> mayHaveTraded = new HashSet<>();
+    // Cash finite-mode bids so far may spend.
+    private long cash;
+
+    BatchCheck(MatchingEngine engine, String user) {
+        this.engine = engine;
+        this.user = user;
+        this.bot = engine.isBot(user);
+    }
+
+    /**
+     * @return {@link Message#SUCCESS}, or why the limit order would be rejected after the batch's
+     *     earlier operations.
+     */
+    public Message limitOrder(
+            String ticker, int price, int volume, boolean bid, TimeInForce timeInForce) {
+        Message check = engine.checkLimitOrder(user, ticker, price, volume, bid);
+        if (check != Message.SUCCESS) {
+            return check;
+        }
+        Effect effect = effect(ticker);
+        if (!bot) {
+            check = room(ticker, effect, price, volume, 0, bid);
+            if (check != Message.SUCCESS) {
+                return check;
+            }
+        }
+        BookSide opposite = engine.book(ticker).side(bid ? Side.ASK : Side.BID);
+        switch (timeInForce) {
+            case POST_ONLY -> {
+                if (crosses(effect, opposite, price, bid)) {
+                    return Message.WOULD_CROSS;
+                }
+            }
+            case FOK -> {
+                int taken = effect.taken[bid ? ASK : BID];
+                if (opposite.volumeThrough(price, saturatedSum(volume, taken)) - taken < volume) {
+                    return Message.NOT_FILLABLE;
+                }
+            }
+            case GTC, IOC -> {}
+        }
+        commit(effect, bid, volume, (long) price * volume);
+        boolean rests = timeInForce == TimeInForce.GTC || timeInForce == TimeInForce.POST_ONLY;
+        boolean trades = timeInForce != TimeInForce.POST_ONLY;
+        incoming(effect, bid, price, rests, trades);
+        return Message.SUCCESS;
+    }
+
+    /**
+     * @return {@link Message#SUCCESS}, or why the market order would be rejected after the batch's
+     *     earlier operations.
+     */
+    public Message marketOrder(String ticker, int volume, boolean bid) {
+        Message check = engine.checkMarketOrder(user, ticker, volume);
+        if (check != Message.SUCCESS) {
+            return check;
+        }
+        Effect effect = effect(ticker);
+        BookSide opposite = engine.book(ticker).side(bid ? Side.ASK : Side.BID);
+        int taken = effect.taken[bid ? ASK : BID];
+        long cost = 0;
+        if (bid) {
+            // What the next ask still left costs: the first unit must be affordable, and the
+            // order spends at most what the volume it wants costs.
+            long[] walk = walkAsks(opposite, taken, volume);
+            if (walk[0] < 0) {
+                return Message.NO_LIQUIDITY;
+            }
+            if (!bot) {
+                UserList users = engine.users();
+                if (users.getMode()) {
+                    if (users.getValidBidVolume(user, ticker, 0) - effect.committed[BID] <= 0) {
+                        return Message.INSUFFICIENT_BALANCE;
+                    }
+                } else {
+                    long left = users.getUserBalance(user) - cash;
+                    if (left < walk[0]) {
+                        return Message.INSUFFICIENT_BALANCE;
+                    }
+                    cost = Math.min(walk[1], left);
+                }
+            }
+        } else {
+            if (opposite.volumeThrough(0, saturatedSum(1, taken)) - taken < 1) {
+                return Message.NO_LIQUIDITY;
+            }
+            if (!bot
+                    && engine.users().getValidAskVolume(user, ticker) - effect.committed[ASK]
+                            < volume) {
+                return Message.INSUFFICIENT_TICKER_BALANCE;
+            }
+        }
+        commit(effect, bid, volume, cost);
+        incoming(effect, bid, bid ? Integer.MAX_VALUE : 0, false, true);
+        return Message.SUCCESS;
+    }
+
+    /**
+     * @return {@link Message#SUCCESS}, or why the cancel would be rejected after the batch's
+     *     earlier operations.
+     */
+    public Message cancel(long orderId) {
+        Message check = engine.checkRemoveOrder(user, orderId);
+        if (check != Message.SUCCESS) {
+            return check;
+        }
+        Order order = current(engine.getOrder(user, orderId));
+        if (!cancelled.add(orderId) || mayHaveTraded(order)) {
+            return Message.ORDER_NOT_FOUND;
+        }
+        release(order, true);
+        return Message.SUCCESS;
+    }
+
+    /**
+     * @return {@link Message#SUCCESS}, or why the amend would be rejected after the batch's earlier
+     *     operations.
+     */
+    public Message amend(long orderId, int price, int volume) {
+        Message check = engine.checkAmendOrder(user, orderId, price, volume);
+        if (check != Message.SUCCESS) {
+            return check;
+        }
+        Order order = current(engine.getOrder(user, orderId));
+        if (cancelled.contains(orderId) || mayHaveTraded(order)) {
+            return Message.ORDER_NOT_FOUND;
+        }
+        boolean bid = order.side == Side.BID;
+        Effect effect = effect(order.ticker);
+        Order next =
+                new Order(
+                        user,
+                        order.ticker,
+                        price,
+                        volume,
+                        order.side,
+                        Status.ACTIVE,
+                        order.timeInForce);
+        next.id = orderId;
+        if (price == order.price && volume <= order.volume) {
+            // Reduced in place.
+            effect.committed[order.side.ordinal()] += volume - order.volume;
+            amended.put(orderId, next);
+            return Message.SUCCESS;
+        }
+        // Cancel-replace: checked with the old order's reservation released.
+        if (!bot) {
+            check = room(order.ticker, effect, price, volume, order.volume, bid);
+            if (check != Message.SUCCESS) {
+                return check;
+            }
+        }
+        BookSide opposite = engine.book(order.ticker).side(bid ? Side.ASK : Side.BID);
+        boolean crosses = crosses(effect, opposite, price, bid);
+        if (order.timeInForce == TimeInForce.POST_ONLY && crosses) {
+            return Message.WOULD_CROSS;
+        }
+        release(order, true);
+        commit(effect, bid, volume, (long) price * volume);
+        incoming(effect, bid, price, true, order.timeInForce != TimeInForce.POST_ONLY);
+        amended.put(orderId, next);
+        if (crosses) {
+            mayHaveTraded.add(orderId);
+        }
+        return Message.SUCCESS;
+    }
+
+    /**
+     * @return {@link Message#SUCCESS}, or why the mass cancel would be rejected.
+     */
+    public Message cancelAll(OrderFilter filter) {
+        Message check = engine.checkRemoveAll(user, filter);
+        if (check != Message.SUCCESS) {
+            return check;
+        }
+        List<Order> resting = new ArrayList<>();
+        engine.selectLiveOrders(user, OrderFilter.ALL, resting);
+        for (Order live : resting) {
+            Order order = current(live);
+            if (cancelled.contains(order.id) || !filter.matches(order)) {
+                continue;
+            }
+            cancelled.add(order.id);
+            // An order that may have traded frees less than its volume, so count none of it.
+            release(order, !mayHaveTraded(order));
+        }
+        return Message.SUCCESS;
+    }
+
+    /**
+     * @return {@link Message#SUCCESS}, or why a bid or ask of {@code volume} at {@code price} does
+     *     not fit the user's room once the batch so far and {@code released} are accounted for.
+     */
+    private Message room(
+            String ticker, Effect effect, int price, int volume, int released, boolean bid) {
+        UserList users = engine.users();
+        if (bid) {
+            if (users.getMode()) {
+                return users.getValidBidVolume(user, ticker, price)
+                                        - effect.committed[BID]
+                                        + released
+                                >= volume
+                        ? Message.SUCCESS
+                        : Message.POSITION_LIMIT_EXCEEDED;
+            }
+            return users.getUserBalance(user) - cash >= (long) price * volume
+                    ? Message.SUCCESS
+                    : Message.INSUFFICIENT_BALANCE;
+        }
+        return users.getValidAskVolume(user, ticker) - effect.committed[ASK] + released >= volume
+                ? Message.SUCCESS
+                : Message.INSUFFICIENT_TICKER_BALANCE;
+    }
+
+    /** Whether an order at {@code price} would meet the book or an order the batch may rest. */
+    private static boolean crosses(Effect effect, BookSide opposite, int price, boolean bid) {
+        if (bid) {
+            return effect.askRests <= price
+                    || (!opposite.isEmpty() && opposite.bestPrice() <= price);
+        }
+        return effect.bidRests >= price || (!opposite.isEmpty() && opposite.bestPrice() >= price);
+    }
+
+    private void commit(Effect effect, boolean bid, int volume, long cost) {
+        effect.committed[bid ? BID : ASK] += volume;
+        effect.taken[bid ? ASK : BID] += volume;
+        if (bid && !bot && !engine.users().getMode()) {
+            cash += cost;
+        }
+    }
+
+    private static void incoming(
+            Effect effect, boolean bid, int price, boolean rests, boolean trades) {
+        if (bid) {
+            if (rests) {
+                effect.bidRests = Math.max(effect.bidRests, price);
+            }
+            if (trades) {
+                effect.bidReach = Math.max(effect.bidReach, price);
+            }
+        } else {
+            if (rests) {
+                effect.askRests = Math.min(effect.askRests, price);
+            }
+            if (trades) {
+                effect.askReach = Math.min(effect.askReach, price);
+            }
+        }
+    }
+
+    /** Takes a resting order out of the book, freeing its reservation if {@code credit}. */
+    private void release(Order order, boolean credit) {
+        Effect effect = effect(order.ticker);
+        if (credit) {
+            effect.committed[order.side.ordinal()] -= order.volume;
+        }
+        effect.taken[order.side.ordinal()] += order.volume;
+    }
+
+    /** Whether one of the batch's own orders may have filled part or all of a resting order. */
+    private boolean mayHaveTraded(Order order) {
+        if (mayHaveTraded.contains(order.id)) {
+            return true;
+        }
+        Effect effect = effects.get(order.ticker);
+        if (effect == null) {
+            return false;
+        }
+        return order.side == Side.BID
+                ? effect.askReach <= order.price
+                : effect.bidReach >= order.price;
+    }
+
+    private Order current(Order order) {
+        Order next = amended.get(order.id);
+        return next != null ? next : order;
+    }
+
+    private Effect effect(String ticker) {
+        return effects.computeIfAbsent(ticker, t -> new Effect());
+    }
+
+    /**
+     * Walks the asks in price order past the {@code skip} units the batch may already have taken.
+     *
+     * @return the price of the next unit (-1 if none is left) and what the next {@code volume}
+     *     units cost.
+     */
+    private static long[] walkAsks(BookSide asks, int skip, int volume) {
+        long[] walk = {-1, 0};
+        int[] left = {skip, volume};
+        asks.forEachVolume(
+                (price, levelVolume) -> {
+                    int available = levelVolume;
+                    int skipped = Math.min(left[0], available);
+                    left[0] -= skipped;
+                    available -= skipped;
+                    if (available == 0 || left[1] == 0) {
+                        return;
+                    }
+                    if (walk[0] < 0) {
+                        walk[0] = price;
+                    }
+                    int bought = Math.min(left[1], available);
+                    left[1] -= bought;
+                    walk[1] += (long) price * bought;
+                });
+        return walk;
+    }
+
+    private static int saturatedSum(int a, int b) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) a + b);
+    }
+}
@@ -0,0 +1,81 @@
+package hte.matchingengine;
+
+import java.util.Map;
+
+/**
+ * One side (bids or asks) of an {@link OrderBook}.
+ *
+ * <p>Holds per-price FIFO queues of resting {@link Order}s plus the aggregated volume per price
+ * level. "Best" is the highest price for bids and the lowest price for asks.
+ */
+interface BookSide {
+
+    /** Receives one (price, aggregated volume) pair per non-empty level, in ascending price. */
+    @FunctionalInterface
+    interface VolumeVisitor {
+        void visit(int price, int volume);
+    }
+
+    /**
+     * @return true when no level holds a queued order.
+     */
+    boolean isEmpty();
+
+    /**
+     * @return best price on this side; only valid when {@link #isEmpty()} is false.
+     */
+    int bestPrice();
+
+    /**
+     * @return FIFO queue at the best price; only valid when {@link #isEmpty()} is false.
+     */
+    OrderQueue bestLevel();
+
+    /** Drops the best level once its queue has been drained by matching. */
+    void removeBestLevel();
+
+    /**
+     * Returns the queue at {@code price}, creating the level if needed.
+     *
+     * @return the level queue, or {@code null} if this side cannot address {@code price}.
+     */
+    OrderQueue levelForInsert(int price);
+
+    /**
+     * Unlinks a resting order from its level in O(1), dropping the level if it empties.
+     *
+     * <p>No-op if the order is not currently resting.
+     */
+    void remove(Order order);
+
+    /**
+     * @return aggregated resting volume at {@code price} (0 if none).
+     */
+    int volumeAt(int price);
+
+    /**
+     * Adds {@code delta} to the aggregated volume at {@code price}.
+     *
+     * @return the new aggregated volume, floored at 0.
+     */
+    int addVolume(int price, int delta);
+
+    /**
+     * Sums aggregated volume from the best level through {@code limitPrice} (inclusive), i.e. what
+     * an incoming order at that limit could trade against.
+     *
+     * @return the volume found, stopping early once it reaches {@code wanted}.
+     */
+    int volumeThrough(int limitPrice, int wanted);
+
+    /** Visits every level with positive aggregated volume in ascending price order. */
+    void forEachVolume(VolumeVisitor visitor);
+
+    /**
+     * @return price -> level queue for every non-empty level, ascending by price.
+     */
+    Map<Integer, OrderQueue> levels();
+
+    /** Removes every level and volume. */
+    void clear();
+}
@@ -0,0 +1,229 @@
+package hte.matchingengine;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Price levels whose aggregated volume changed since the last market data publish.
+ *
+ * <p>The engine thread {@link #mark}s levels into an active buffer holding, per ticker and side,
+ * the touched prices and their latest volumes; marking a level twice just overwrites its volume, so
+ * a publish carries each touched level once, with its final volume. Buffers are reused: after the
+ * first few publishes marking allocates nothing.
+ *
+ * <p>Two buffers are swapped lock-free. The engine thread calls {@link #publish()} after each batch
+ * of commands; if the previous buffer has been drained it hands the active one over and keeps
+ * marking into the drained one. Otherwise it keeps accumulating, and the levels go out with the
+ * next publish. The publisher thread calls {@link #drain} to emit a handed-over buffer and give it
+ * back.
+ *
+ * <p>The publisher numbers each drained buffer with the next global market data seq, so the engine
+ * thread knows which seq its changes go out under by counting hand-overs: see {@link
+ * #seqAfterMarked()}.
+ */
+public final class DirtyLevels {
+
+    /** Receives one touched level with its final aggregated volume. */
+    @FunctionalInterface
+    public interface LevelVisitor {
+        void visit(String ticker, int price, int volume, Side side);
+    }
+
+    // Buffer handed over by the engine thread and not yet drained.
+    private final AtomicReference<Buffer> ready = new AtomicReference<>();
+    // Drained buffer waiting to become the engine's active buffer again.
+    private final AtomicReference<Buffer> recycled = new AtomicReference<>(new Buffer());
+    // Engine thread only.
+    private Buffer active = new Buffer();
+    // Engine thread only: the seq the next handed-over buffer is published under.
+    private long nextSeq;
+
+    /** Engine thread: records {@code volume} as the latest aggregated volume at a level. */
+    void mark(String ticker, int price, int volume, Side side) {
+        active.mark(ticker, price, volume, side);
+    }
+
+    /**
+     * Engine thread: hands the touched levels to the publisher if it is ready for more.
+     *
+     * @return true if a buffer was handed over.
+     */
+    public boolean publish() {
+        if (active.isEmpty() || ready.get() != null) {
+            return false;
+        }
+        Buffer next = recycled.getAndSet(null);
+        if (next == null) {
+            // The publisher is still draining the previous buffer.
+            return false;
+        }
+        ready.set(active);
+        active = next;
+        nextSeq++;
+        return true;
+    }
+
+    /**
+     * Engine thread: the first market data seq that carries none of the levels marked so far, i.e.
+     * every update up to it reflects the engine as it is now.
+     */
+    public long seqAfterMarked() {
+        return active.isEmpty() ? nextSeq : nextSeq + 1;
+    }
+
+    /**
+     * Numbers hand-overs on from {@code seq}, the next seq of the market data stream, e.g. after
+     * restoring a snapshot. Call before the engine thread starts.
+     */
+    public void continueFrom(long seq) {
+        nextSeq = seq;
+    }
+
+    /**
+     * Publisher thread: visits the levels of the last handed-over buffer, ticker by ticker, bids
+     * from the highest price down then asks from the lowest up.
+     *
+     * @return false if nothing was handed over since the last drain.
+     */
+    public boolean drain(LevelVisitor visitor) {
+        Buffer buffer = ready.getAndSet(null);
+        if (buffer == null) {
+            return false;
+        }
+        try {
+            buffer.drain(visitor);
+        } finally {
+            buffer.clear();
+            recycled.set(buffer);
+        }
+        return true;
+    }
+
+    private static final class Buffer {
+        private final Map<String, TickerLevels> tickers = new HashMap<>();
+        private boolean empty = true;
+
+        void mark(String ticker, int price, int volume, Side side) {
+            TickerLevels levels = tickers.get(ticker);
+            if (levels == null) {
+                levels = new TickerLevels();
+                tickers.put(ticker, levels);
+            }
+            (side == Side.BID ? levels.bids : levels.asks).mark(price, volume);
+            empty = false;
+        }
+
+        boolean isEmpty() {
+            return empty;
+        }
+
+        void drain(LevelVisitor visitor) {
+            for (Map.Entry<String, TickerLevels> entry : tickers.entrySet()) {
+                entry.getValue().bids.drain(entry.getKey(), Side.BID, visitor);
+                entry.getValue().asks.drain(entry.getKey(), Side.ASK, visitor);
+            }
+        }
+
+        void clear() {
+            for (TickerLevels levels : tickers.values()) {
+                levels.bids.clear();
+                levels.asks.clear();
+            }
+            empty = true;
+        }
+    }
+
+    private static final class TickerLevels {
+        final SideLevels bids = new SideLevels();
+        final SideLevels asks = new SideLevels();
+    }
+
+    /**
+     * Touched prices of one side, in first-touch order, with an open-addressing index from price to
+     * slot so a repeated touch is found in O(1).
+     */
+    private static final class SideLevels {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private int[] prices = new int[INITIAL_CAPACITY];
+        private int[] volumes = new int[INITIAL_CAPACITY];
+        // Slot -> index bucket, so clearing only touches used buckets.
+        private int[] buckets = new int[INITIAL_CAPACITY];
+        // Bucket -> slot + 1 (0 = empty); at most half full.
+        private int[] index = new int[INITIAL_CAPACITY * 2];
+        // Publisher scratch: (price, volume) packed for sorting.
+        private long[] sorted = new long[INITIAL_CAPACITY];
+        private int count;
+
+        void mark(int price, int volume) {
+            int mask = index.length - 1;
+            int bucket = bucketOf(price, mask);
+            int slot;
+            while ((slot = index[bucket]) != 0) {
+                if (prices[slot - 1] == price) {
+                    volumes[slot - 1] = volume;
+                    return;
+                }
+                bucket = (bucket + 1) & mask;
+            }
+            if (count == prices.length) {
+                grow();
+                mark(price, volume);
+                return;
+            }
+            prices[count] = price;
+            volumes[count] = volume;
+            buckets[count] = bucket;
+            index[bucket] = ++count;
+        }
+
+        void drain(String ticker, Side side, LevelVisitor visitor) {
+            for (int i = 0; i < count; i++) {
+                sorted[i] = ((long) prices[i] << 32) | (volumes[i] & 0xFFFFFFFFL);
+            }
+            Arrays.sort(sorted, 0, count);
+            if (side == Side.BID) {
+                for (int i = count - 1; i >= 0; i--) {
+                    visitor.visit(ticker, (int) (sorted[i] >> 32), (int) sorted[i], side);
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    visitor.visit(ticker, (int) (sorted[i] >> 32), (int) sorted[i], side);
+                }
+            }
+        }
+
+        void clear() {
+            for (int i = 0; i < count; i++) {
+                index[buckets[i]] = 0;
+            }
+            count = 0;
+        }
+
+        private void grow() {
+            int capacity = prices.length * 2;
+            prices = Arrays.copyOf(prices, capacity);
+            volumes = Arrays.copyOf(volumes, capacity);
+            buckets = Arrays.copyOf(buckets, capacity);
+            sorted = new long[capacity];
+            index = new int[capacity * 2];
+            int mask = index.length - 1;
+            for (int i = 0; i < count; i++) {
+                int bucket = bucketOf(prices[i], mask);
+                while (index[bucket] != 0) {
+                    bucket = (bucket + 1) & mask;
+                }
+                buckets[i] = bucket;
+                index[bucket] = i + 1;
+            }
+        }
+
+        private static int bucketOf(int price, int mask) {
+            // Adjacent prices are the common case; spread them across the table.
+            int h = price * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package hte.matchingengine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Fills executed since the last execution publish.
+ *
+ * <p>The engine thread {@link #record}s each fill into an active buffer of primitive columns plus
+ * references to the two orders; {@link Trade}s are only built by the publisher. Keeping the taker
+ * order rather than its id lets a limit order that rests after matching report the id it was given
+ * at the end of the same command.
+ *
+ * <p>Buffers are handed over exactly like {@link DirtyLevels}: the engine thread calls {@link
+ * #publish()} after each batch of commands, and fills keep accumulating while the publisher is
+ * still draining the previous buffer, so none are dropped. The publisher thread calls {@link
+ * #drain} to emit a handed-over buffer and give it back.
+ */
+public final class Executions {
+    // Buffer handed over by the engine thread and not yet drained.
+    private final AtomicReference<Buffer> ready = new AtomicReference<>();
+    // Drained buffer waiting to become the engine's active buffer again.
+    private final AtomicReference<Buffer> recycled = new AtomicReference<>(new Buffer());
+    // Engine thread only.
+    private Buffer active = new Buffer();
+    private boolean recording = true;
+
+    /** Engine thread: records one fill of {@code volume} at the maker's price. */
+    void record(long tradeId, Order maker, Order taker, int volume) {
+        if (recording) {
+            active.add(tradeId, maker, taker, maker.price, volume, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Stops or resumes recording; recovery turns it off so replayed fills are not published again.
+     */
+    public void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * Engine thread: hands the recorded fills to the publisher if it is ready for more.
+     *
+     * @return true if a buffer was handed over.
+     */
+    public boolean publish() {
+        if (active.count == 0 || ready.get() != null) {
+            return false;
+        }
+        Buffer next = recycled.getAndSet(null);
+        if (next == null) {
+            // The publisher is still draining the previous buffer.
+            return false;
+        }
+        ready.set(active);
+        active = next;
+        return true;
+    }
+
+    /**
+     * Publisher thread: emits the fills of the last handed-over buffer in execution order.
+     *
+     * @return false if nothing was handed over since the last drain.
+     */
+    public boolean drain(Consumer<Trade> consumer) {
+        Buffer buffer = ready.getAndSet(null);
+        if (buffer == null) {
+            return false;
+        }
+        try {
+            buffer.drain(consumer);
+        } finally {
+            buffer.clear();
+            recycled.set(buffer);
+        }
+        return true;
+    }
+
+    private static final class Buffer {
+        private static final int INITIAL_CAPACITY = 64;
+
+        private long[] tradeIds = new long[INITIAL_CAPACITY];
+        private long[] timestamps = new long[INITIAL_CAPACITY];
+        private int[] prices = new int[INITIAL_CAPACITY];
+        private int[] volumes = new int[INITIAL_CAPACITY];
+        private Order[] makers = new Order[INITIAL_CAPACITY];
+        private Order[] takers = new Order[INITIAL_CAPACITY];
+        private int count;
+
+        void add(long tradeId, Order maker, Order taker, int price, int volume, long timestamp) {
+            if (count == tradeIds.length) {
+                grow();
+            }
+            tradeIds[count] = tradeId;
+            timestamps[count] = timestamp;
+            prices[count] = price;
+            volumes[count] = volume;
+            makers[count] = maker;
+            takers[count] = taker;
+            count++;
+        }
+
+        void drain(Consumer<Trade> consumer) {
+            for (int i = 0; i < count; i++) {
+                Order maker = makers[i];
+                Order taker = takers[i];
+                consumer.accept(
+                        new Trade(
+                                tradeIds[i],
+                                maker.ticker,
+                                prices[i],
+                                volumes[i],
+                                taker.side,
+                                maker.name,
+                                taker.name,
+                                maker.id,
+                                taker.id,
+                                timestamps[i]));
+            }
+        }
+
+        void clear() {
+            // Drop the order references so filled orders can be collected.
+            Arrays.fill(makers, 0, count, null);
+            Arrays.fill(takers, 0, count, null);
+            count = 0;
+        }
+
+        private void grow() {
+            int capacity = tradeIds.length * 2;
+            tradeIds = Arrays.copyOf(tradeIds, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            volumes = Arrays.copyOf(volumes, capacity);
+            makers = Arrays.copyOf(makers, capacity);
+            takers = Arrays.copyOf(takers, capacity);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package hte.matchingengine;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Array-indexed {@link BookSide}: one slot per price tick in {@code [basePrice, basePrice +
+ * length)}.
+ *
+ * <p>Level queues and aggregated volumes live in flat arrays indexed by {@code price - basePrice},
+ * so the matching loop never walks a tree or boxes a price. The best level index is cached and is
+ * only re-scanned (through the occupancy bitmap) when that level drains. Level queues are kept
+ * after they drain so a price that is traded repeatedly does not reallocate its queue.
+ *
+ * <p>The ladder grows on demand to cover prices outside its window (e.g. after the admin raises the
+ * max order price) up to {@code maxLevels}; past that {@link #levelForInsert(int)} returns {@code
+ * null} and the owning {@link OrderBook} falls back to a {@link TreeBookSide}.
+ */
+final class LadderBookSide implements BookSide {
+    private final boolean bids;
+    private final int maxLevels;
+
+    // Price represented by index 0.
+    private int basePrice;
+    // Index -> FIFO queue of resting orders (null until the price is first used).
+    private OrderQueue[] levels;
+    // Index -> total resting volume at that price.
+    private int[] volumes;
+    // Bit i is set while levels[i] holds at least one queued order.
+    private BitSet occupied;
+    private int levelCount;
+    // Index of the best occupied level, or -1 when the side is empty.
+    private int best = -1;
+
+    LadderBookSide(boolean bids, int minPrice, int maxPrice, int maxLevels) {
+        this.bids = bids;
+        this.maxLevels = maxLevels;
+        allocate(minPrice, maxPrice - minPrice + 1);
+    }
+
+    private void allocate(int base, int length) {
+        this.basePrice = base;
+        this.levels = new OrderQueue[length];
+        this.volumes = new int[length];
+        this.occupied = new BitSet(length);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return levelCount == 0;
+    }
+
+    @Override
+    public int bestPrice() {
+        return basePrice + best;
+    }
+
+    @Override
+    public OrderQueue bestLevel() {
+        return levels[best];
+    }
+
+    @Override
+    public void removeBestLevel() {
+        vacate(best);
+    }
+
+    @Override
+    public void remove(Order order) {
+        OrderQueue level = order.level;
+        if (level == null || !level.remove(order)) {
+            return;
+        }
+        if (level.isEmpty()) {
+            vacate(order.price - basePrice);
+        }
+    }
+
+    private void vacate(int index) {
+        occupied.clear(index);
+        levelCount--;
+        if (levelCount == 0) {
+            best = -1;
+        } else if (index == best) {
+            best = bids ? occupied.previousSetBit(best - 1) : occupied.nextSetBit(best + 1);
+        }
+    }
+
+    @Override
+    public OrderQueue levelForInsert(int price) {
+        int index = price - basePrice;
+        if (index < 0 || index >= volumes.length) {
+            if (!growToCover(price)) {
+                return null;
+            }
+            index = price - basePrice;
+        }
+        OrderQueue level = levels[index];
+        if (level == null) {
+            level = new OrderQueue();
+            levels[index] = level;
+        }
+        if (!occupied.get(index)) {
+            occupied.set(index);
+            levelCount++;
+            if (best < 0 || (bids ? index > best : index < best)) {
+                best = index;
+            }
+        }
+        return level;
+    }
+
+    @Override
+    public int volumeAt(int price) {
+        int index = price - basePrice;
+        if (index < 0 || index >= volumes.length) {
+            return 0;
+        }
+        return volumes[index];
+    }
+
+    @Override
+    public int addVolume(int price, int delta) {
+        int index = price - basePrice;
+        if (index < 0 || index >= volumes.length) {
+            // Nothing can rest outside the window, so there is no volume to adjust.
+            return 0;
+        }
+        int volume = Math.max(0, volumes[index] + delta);
+        volumes[index] = volume;
+        return volume;
+    }
+
+    @Override
+    public int volumeThrough(int limitPrice, int wanted) {
+        int found = 0;
+        int i = best;
+        while (i >= 0 && found < wanted) {
+            int price = basePrice + i;
+            if (bids ? price < limitPrice : price > limitPrice) {
+                break;
+            }
+            found += volumes[i];
+            i = bids ? occupied.previousSetBit(i - 1) : occupied.nextSetBit(i + 1);
+        }
+        return found;
+    }
+
+    @Override
+    public void forEachVolume(VolumeVisitor visitor) {
+        // Volume can only be positive on a level that still has queued orders.
+        for (int i = occupied.nextSetBit(0); i >= 0; i = occupied.nextSetBit(i + 1)) {
+            if (volumes[i] > 0) {
+                visitor.visit(basePrice + i, volumes[i]);
+            }
+        }
+    }
+
+    @Override
+    public Map<Integer, OrderQueue> levels() {
+        Map<Integer, OrderQueue> view = new TreeMap<>();
+        for (int i = occupied.nextSetBit(0); i >= 0; i = occupied.nextSetBit(i + 1)) {
+            view.put(basePrice + i, levels[i]);
+        }
+        return view;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = occupied.nextSetBit(0); i >= 0; i = occupied.nextSetBit(i + 1)) {
+            levels[i].clear();
+        }
+        occupied.clear();
+        Arrays.fill(volumes, 0);
+        levelCount = 0;
+        best = -1;
+    }
+
+    /** Copies this side into a tree-backed side holding the same queues and volumes. */
+    TreeBookSide toTreeSide() {
+        TreeBookSide tree = new TreeBookSide(bids);
+        for (int i = occupied.nextSetBit(0); i >= 0; i = occupied.nextSetBit(i + 1)) {
+            tree.restoreLevel(basePrice + i, levels[i], volumes[i]);
+        }
+        return tree;
+    }
+
+    private boolean growToCover(int price) {
+        int low = Math.min(basePrice, price);
+        int high = Math.max(basePrice + volumes.length - 1, price);
+        long span = (long) high - low + 1;
+        if (span > maxLevels) {
+            return false;
+        }
+        // Leave headroom in the direction we grew so a drifting price does not resize every tick.
+        int length = (int) Math.min(maxLevels, Math.max(span, 2L * volumes.length));
+        int base = price < basePrice ? high - length + 1 : low;
+        resize(base, length);
+        return true;
+    }
+
+    private void resize(int base, int length) {
+        OrderQueue[] oldLevels = levels;
+        int[] oldVolumes = volumes;
+        BitSet oldOccupied = occupied;
+        int shift = basePrice - base;
+        allocate(base, length);
+        System.arraycopy(oldLevels, 0, levels, shift, oldLevels.length);
+        System.arraycopy(oldVolumes, 0, volumes, shift, oldVolumes.length);
+        for (int i = oldOccupied.nextSetBit(0); i >= 0; i = oldOccupied.nextSetBit(i + 1)) {
+            occupied.set(i + shift);
+        }
+        if (best >= 0) {
+            best += shift;
+        }
+    }
+}
@@ -2,29 +2,33 @@ package hte.matchingengine;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import hte.common.ChartTrackerSingleton;
 import hte.common.Message;
 import hte.common.TaskFuture;
 import java.io.BufferedReader;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,6 +52,7 @@ public class MatchingEngine {
     private static final Logger logger = LoggerFactory.getLogger(MatchingEngine.class);
 
     private static final String DEFAULT_CONFIG_LOCATION = "assets/config.infinite.json";
+    private static final ObjectMapper orderBookMapper = new ObjectMapper();
 
     /**
      * Config location for engine initialization JSON (filesystem path or {@code classpath:...}).
@@ -60,8 +65,12 @@ public class MatchingEngine {
     // Username -> (orderId -> Order). Tracks a user's active orders for cancellation/lookup.
     private Map<String, Map<Long, Order>> userOrders = new HashMap<>(); // UserName, OrderId, Order
 
+    // Username -> the user's resting orders by ticker and side (see OrderIndex).
+    private Map<String, OrderIndex> liveOrders = new HashMap<>();
+
     // Ticker -> last known traded/mark price (used for PnL/leaderboard and UI).
-    private Map<String, Integer> latestPrice = new HashMap<>(); // For PnL
+    // Written on the engine thread; concurrent so the user update publisher can read it.
+    private final Map<String, Integer> latestPrice = new ConcurrentHashMap<>();
 
     // Bot username -> placeholder (presence indicates bot).
     private Map<String, Integer> bots = new HashMap<>();
@@ -72,9 +81,30 @@ public class MatchingEngine {
     // In-memory user state (cash, positions, reservations).
     private UserList userList = new UserList();
 
+    // Levels changed since the last market data publish.
+    private final DirtyLevels dirtyLevels = new DirtyLevels();
+
+    // Fills executed since the last execution publish.
+    private final Executions executions = new Executions();
+
+    // Best bid/ask per ticker, refreshed after each batch.
+    private final TopOfBook topOfBook = new TopOfBook();
+
     // Monotonically increasing order id counter for new resting limit orders.
     private long orderID = 0;
 
+    // Monotonically increasing trade id counter; never reset, so ids stay unique across rounds.
+    private long tradeID = 0;
+
+    // Bumped whenever the set of books changes; level changes are covered by market data seqs.
+    private volatile long bookEpoch = 0;
+
+    // Price band used to size per-ticker price ladders (see OrderBook). Defaults match the
+    // order preprocessing defaults; narrow bands get array-indexed books, wide ones fall back to
+    // trees.
+    private int minBookPrice = 0;
+    private int maxBookPrice = 1000;
+
     public MatchingEngine() {
         this(false, DEFAULT_CONFIG_LOCATION);
     }
@@ -116,25 +146,76 @@ public class MatchingEngine {
         userList.setPositionLimit(positionLimit);
     }
 
+    /**
+     * Sets the price band used when creating order books for newly initialized tickers.
+     *
+     * <p>Books created afterwards use an array-indexed price ladder when the band is narrow enough;
+     * existing books are unaffected.
+     */
+    public void setPriceBand(int minPrice, int maxPrice) {
+        this.minBookPrice = minPrice;
+        this.maxBookPrice = maxPrice;
+    }
+
     /**
      * Serializes all order books to JSON.
      *
+     * <p>Engine thread only; other threads should serialize a {@link #captureOrderBooks()} image.
+     *
      * @return JSON representation of {@code orderBooks}, or {@code null} if serialization fails.
      */
     public String serializeOrderBooks() {
-        // Note: prints internal book state to logs before serializing.
-        ObjectMapper mapper = new ObjectMapper();
-        for (String key : orderBooks.keySet()) {
-            orderBooks.get(key).printOrderBook();
-        }
+        return serializeOrderBooks(captureOrderBooks());
+    }
+
+    /**
+     * @return JSON representation of {@code books}, or {@code null} if serialization fails.
+     */
+    public static String serializeOrderBooks(Map<String, OrderBookImage> books) {
         try {
-            return mapper.writeValueAsString(orderBooks);
+            return orderBookMapper.writeValueAsString(books);
         } catch (Exception e) {
             logger.error("Failed to serialize order books", e);
             return null;
         }
     }
 
+    /**
+     * Copies every book's aggregated volumes and mark price into immutable images that can be
+     * serialized on any thread.
+     *
+     * <p>Engine thread only.
+     */
+    public Map<String, OrderBookImage> captureOrderBooks() {
+        Map<String, OrderBookImage> books = new LinkedHashMap<>();
+        for (Map.Entry<String, OrderBook> entry : orderBooks.entrySet()) {
+            books.put(entry.getKey(), imageOf(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(books);
+    }
+
+    /**
+     * {@link #captureOrderBooks()} for one ticker.
+     *
+     * @return ticker -> image, or null if the ticker has no book.
+     */
+    public Map<String, OrderBookImage> captureOrderBook(String ticker) {
+        OrderBook book = orderBooks.get(ticker);
+        return book == null ? null : Map.of(ticker, imageOf(book));
+    }
+
+    private static OrderBookImage imageOf(OrderBook book) {
+        return new OrderBookImage(book.getBidVolumes(), book.getAskVolumes(), book.getPrice());
+    }
+
+    /**
+     * @return a counter that changes whenever tickers are added or replaced or a snapshot is
+     *     loaded.
+     */
+    public long getBookEpoch() {
+        return bookEpoch;
+    }
+
     private void initializeGameMode() {
         // Reads config JSON and sets finite vs infinite mode (+ limits in infinite mode).
         try {
@@ -224,13 +305,82 @@ public class MatchingEngine {
         return userList.getUnrealizedPnl(username, latestPrice);
     }
 
+    /**
+     * Levels touched since the last call, with their current volumes.
+     *
+     * <p>Engine thread only; the market data publisher drains {@link #getDirtyLevels()} instead.
+     */
     public ArrayList<PriceChange> getRecentTrades() {
-        ArrayList<PriceChange> recentTrades = RecentTrades.getRecentTrades();
-        // for (Trade trade : recentTrades)
-        /// System.out.println(trade);
+        ArrayList<PriceChange> recentTrades = new ArrayList<>();
+        DirtyLevels.LevelVisitor collect =
+                (ticker, price, volume, side) ->
+                        recentTrades.add(new PriceChange(ticker, price, volume, side));
+        // Anything handed over earlier goes first so later volumes win.
+        dirtyLevels.drain(collect);
+        dirtyLevels.publish();
+        dirtyLevels.drain(collect);
         return recentTrades;
     }
 
+    /**
+     * @return every ticker with an order book.
+     */
+    public List<String> getTickers() {
+        return new ArrayList<>(orderBooks.keySet());
+    }
+
+    /**
+     * Lists every resting level of {@code books}, bids then asks per ticker, in ascending price.
+     *
+     * <p>Works on captured images, so it can run on any thread.
+     */
+    public static List<PriceChange> levelsOf(Map<String, OrderBookImage> books) {
+        List<PriceChange> levels = new ArrayList<>();
+        for (Map.Entry<String, OrderBookImage> entry : books.entrySet()) {
+            String ticker = entry.getKey();
+            OrderBookImage book = entry.getValue();
+            book.bidVolumes()
+                    .forEach(
+                            (price, volume) ->
+                                    levels.add(new PriceChange(ticker, price, volume, Side.BID)));
+            book.askVolumes()
+                    .forEach(
+                            (price, volume) ->
+                                    levels.add(new PriceChange(ticker, price, volume, Side.ASK)));
+        }
+        return levels;
+    }
+
+    /**
+     * @return the tracker of levels changed since the last market data publish.
+     */
+    public DirtyLevels getDirtyLevels() {
+        return dirtyLevels;
+    }
+
+    /**
+     * @return the fills executed since the last execution publish.
+     */
+    public Executions getExecutions() {
+        return executions;
+    }
+
+    /**
+     * @return best bid/ask per ticker; see {@link #publishTopOfBook()}.
+     */
+    public TopOfBook getTopOfBook() {
+        return topOfBook;
+    }
+
+    /**
+     * Engine thread: refreshes the top of book of every ticker touched since the last call.
+     *
+     * @return true if any ticker's best bid/ask or their sizes changed.
+     */
+    public boolean publishTopOfBook() {
+        return topOfBook.publish(orderBooks);
+    }
+
     /**
      * @return the user's inventory for {@code ticker}.
      */
@@ -247,7 +397,9 @@ public class MatchingEngine {
         if (orderBooks.containsKey(ticker)) {
             return false;
         }
-        orderBooks.put(ticker, new OrderBook());
+        orderBooks.put(ticker, new OrderBook(minBookPrice, maxBookPrice));
+        bookEpoch++;
+        topOfBook.touchAll(orderBooks.keySet());
         return true;
     }
 
@@ -355,9 +507,10 @@ public class MatchingEngine {
     }
 
     /**
-     * Sets prices for multiple tickers and clears all order books and users' active orders.
+     * Sets prices for multiple tickers and clears their order books and users' orders in them.
      *
-     * <p>Used as an administrative reset.
+     * <p>Used as an administrative reset. Active orders in the cleared books are cancelled and
+     * their reservations released; orders in other tickers are left as they are.
      */
     public void setPriceClearOrderBook(
             Map<String, Integer> updatedPrices, TaskFuture<String> future) {
@@ -368,13 +521,26 @@ public class MatchingEngine {
                 return;
             }
         }
+        Set<String> cleared = updatedPrices.keySet();
+        for (Map<Long, Order> orders : userOrders.values()) {
+            orders.values()
+                    .removeIf(
+                            order -> {
+                                if (!cleared.contains(order.ticker)) {
+                                    return false;
+                                }
+                                if (order.status == Status.ACTIVE) {
+                                    order.status = Status.CANCELLED;
+                                    reserve(order.name, order, -order.volume);
+                                    unindex(order);
+                                }
+                                return true;
+                            });
+        }
         for (Map.Entry<String, Integer> entry : updatedPrices.entrySet()) {
             setPrice(entry.getKey(), entry.getValue());
             zeroVolume(orderBooks.get(entry.getKey()), entry.getKey());
         }
-        for (String user : userOrders.keySet()) {
-            userOrders.get(user).clear();
-        }
         future.setData("SUCCESS ALL CLEARED");
     }
 
@@ -406,10 +572,11 @@ public class MatchingEngine {
         orderBooks = new HashMap<>();
 
         // Reset per-ticker prices to match the new universe.
-        latestPrice = new HashMap<>();
+        latestPrice.clear();
 
         // Clear all active orders (they are tied to old books/tickers).
         userOrders = new HashMap<>();
+        liveOrders = new HashMap<>();
         orderID = 0;
 
         // Remove all old chart history so stale tickers don't persist in chart responses.
@@ -434,11 +601,11 @@ public class MatchingEngine {
      */
     public int getHighestBid(String ticker) {
         if (!orderBooks.containsKey(ticker)) return 0;
-        TreeMap<Integer, Deque<Order>> bids = orderBooks.get(ticker).bids;
+        BookSide bids = orderBooks.get(ticker).bids;
         if (bids.isEmpty()) {
             return 0;
         }
-        return bids.lastKey();
+        return bids.bestPrice();
     }
 
     /**
@@ -446,32 +613,28 @@ public class MatchingEngine {
      */
     public int getLowestAsk(String ticker) {
         if (!orderBooks.containsKey(ticker)) return 0;
-        TreeMap<Integer, Deque<Order>> asks = orderBooks.get(ticker).asks;
+        BookSide asks = orderBooks.get(ticker).asks;
         if (asks.isEmpty()) {
             return Integer.MAX_VALUE;
         }
-        return asks.firstKey();
+        return asks.bestPrice();
     }
 
-    protected void updateVolume(
-            Map<Integer, Integer> volumeMap, int price, int delta, String ticker, Side side) {
-        // Maintain aggregated depth per price and publish updates via RecentTrades.
-        volumeMap.put(price, volumeMap.getOrDefault(price, 0) + delta);
-        if (volumeMap.get(price) <= 0) {
-            volumeMap.remove(price);
-        }
-        int newQuantity = volumeMap.getOrDefault(price, 0);
-        // System.out.printf("Price: %d Quantity: %d\n", price, newQuantity);
-        RecentTrades.addTrade(ticker, price, newQuantity, side);
+    protected void updateVolume(BookSide bookSide, int price, int delta, String ticker, Side side) {
+        // Maintain aggregated depth per price and mark the level for the next market data publish.
+        int newQuantity = bookSide.addVolume(price, delta);
+        dirtyLevels.mark(ticker, price, newQuantity, side);
+        topOfBook.touch(ticker);
     }
 
     private void zeroVolume(OrderBook orderBook, String ticker) {
         // Emit zero-size updates for all levels, then clear the in-memory book.
-        for (int price : orderBook.bidVolumes.keySet())
-            RecentTrades.addTrade(ticker, price, 0, Side.BID);
-        for (int price : orderBook.askVolumes.keySet())
-            RecentTrades.addTrade(ticker, price, 0, Side.ASK);
+        orderBook.bids.forEachVolume(
+                (price, volume) -> dirtyLevels.mark(ticker, price, 0, Side.BID));
+        orderBook.asks.forEachVolume(
+                (price, volume) -> dirtyLevels.mark(ticker, price, 0, Side.ASK));
         orderBook.clearOrderBook();
+        topOfBook.touch(ticker);
     }
 
     private static final class ValidationResult {
@@ -635,18 +798,19 @@ public class MatchingEngine {
         return response;
     }
 
-    private OrderData processBid(
-            Deque<Order> orders, Map<Integer, Integer> askVolumes, Order aggressor) {
+    private void recordExecution(Order maker, Order taker, int volume) {
+        executions.record(++tradeID, maker, taker, volume);
+    }
+
+    private OrderData processBid(OrderQueue orders, BookSide askSide, Order aggressor) {
         // Matches a BUY aggressor against resting ASKs at one price level.
         OrderData orderData = new OrderData();
         while (aggressor.volume > 0 && !orders.isEmpty()) {
             Order order = orders.peek();
-            if (order.status == Status.CANCELLED) {
-                orders.poll();
-            } else if (order.volume > aggressor.volume) {
+            if (order.volume > aggressor.volume) {
                 // Resting order is larger: aggressor fully fills, resting remains ACTIVE.
                 int volumeTraded = aggressor.volume;
-                updateVolume(askVolumes, order.price, -volumeTraded, order.ticker, Side.ASK);
+                updateVolume(askSide, order.price, -volumeTraded, order.ticker, Side.ASK);
                 userList.adjustUserAskBalance(order.name, order.ticker, -volumeTraded);
 
                 userList.adjustUserBalance(order.name, volumeTraded * order.price);
@@ -661,11 +825,12 @@ public class MatchingEngine {
                 order.volume = order.volume - aggressor.volume;
                 aggressor.volume = 0;
                 aggressor.status = Status.FILLED;
+                recordExecution(order, aggressor, volumeTraded);
                 orderData.linearCombination(order.price, volumeTraded);
             } else {
                 // Resting order is smaller/equal: resting fully fills and is removed from queue.
                 int volumeTraded = order.volume;
-                updateVolume(askVolumes, order.price, -volumeTraded, order.ticker, Side.ASK);
+                updateVolume(askSide, order.price, -volumeTraded, order.ticker, Side.ASK);
                 userList.adjustUserAskBalance(order.name, order.ticker, -volumeTraded);
 
                 userList.adjustUserBalance(order.name, volumeTraded * order.price);
@@ -681,24 +846,23 @@ public class MatchingEngine {
                 order.volume = 0;
                 order.status = Status.FILLED;
                 orders.poll();
+                unindex(order);
+                recordExecution(order, aggressor, volumeTraded);
                 orderData.linearCombination(order.price, volumeTraded);
             }
         }
         return orderData;
     }
 
-    public OrderData processAsk(
-            Deque<Order> orders, Map<Integer, Integer> bidVolumes, Order aggressor) {
+    private OrderData processAsk(OrderQueue orders, BookSide bidSide, Order aggressor) {
         // Matches a SELL aggressor against resting BIDs at one price level.
         OrderData orderData = new OrderData();
         while (aggressor.volume > 0 && !orders.isEmpty()) {
             Order order = orders.peek();
-            if (order.status == Status.CANCELLED) {
-                orders.poll();
-            } else if (order.volume > aggressor.volume) {
+            if (order.volume > aggressor.volume) {
                 // Resting order is larger: aggressor fully fills, resting remains ACTIVE.
                 int volumeTraded = aggressor.volume;
-                updateVolume(bidVolumes, order.price, -volumeTraded, order.ticker, Side.BID);
+                updateVolume(bidSide, order.price, -volumeTraded, order.ticker, Side.BID);
                 userList.adjustUserBidBalance(order.name, order.ticker, -volumeTraded);
 
                 userList.adjustUserBalance(aggressor.name, volumeTraded * order.price);
@@ -709,16 +873,15 @@ public class MatchingEngine {
                 userList.adjustUserTickerBalance(
                         order.name, order.ticker, volumeTraded, order.price);
                 setPrice(order.ticker, order.price);
-                // RecentTrades.addTrade(order.name, aggressor.name, order.ticker, order.price,
-                // volumeTraded);
                 order.volume = order.volume - aggressor.volume;
                 aggressor.volume = 0;
                 aggressor.status = Status.FILLED;
+                recordExecution(order, aggressor, volumeTraded);
                 orderData.linearCombination(order.price, volumeTraded);
             } else {
                 // Resting order is smaller/equal: resting fully fills and is removed from queue.
                 int volumeTraded = order.volume;
-                updateVolume(bidVolumes, order.price, -volumeTraded, order.ticker, Side.BID);
+                updateVolume(bidSide, order.price, -volumeTraded, order.ticker, Side.BID);
                 userList.adjustUserBidBalance(order.name, order.ticker, -volumeTraded);
 
                 userList.adjustUserBalance(aggressor.name, volumeTraded * order.price);
@@ -733,12 +896,57 @@ public class MatchingEngine {
                 order.volume = 0;
                 order.status = Status.FILLED;
                 orders.poll();
+                unindex(order);
+                recordExecution(order, aggressor, volumeTraded);
                 orderData.linearCombination(order.price, volumeTraded);
             }
         }
         return orderData;
     }
 
+    private static boolean crosses(Order order, BookSide opposite) {
+        return !opposite.isEmpty()
+                && (order.side == Side.BID
+                        ? opposite.bestPrice() <= order.price
+                        : opposite.bestPrice() >= order.price);
+    }
+
+    /**
+     * Checks the conditions of a POST_ONLY or FOK order against the book before anything trades.
+     *
+     * @return {@link Message#SUCCESS}, or why the order is rejected.
+     */
+    private static Message checkTimeInForce(Order order, BookSide opposite) {
+        return switch (order.timeInForce) {
+            case POST_ONLY -> crosses(order, opposite) ? Message.WOULD_CROSS : Message.SUCCESS;
+            case FOK ->
+                    opposite.volumeThrough(order.price, order.volume) < order.volume
+                            ? Message.NOT_FILLABLE
+                            : Message.SUCCESS;
+            case GTC, IOC -> Message.SUCCESS;
+        };
+    }
+
+    /** Drops what an IOC order could not match instead of resting it. */
+    private Map<String, Object> cancelRemainder(
+            String name, Order order, int requestedVolume, OrderData orderData) {
+        order.status = Status.CANCELLED;
+        logger.info(
+                "IOC order done: user={} side={} ticker={} limitPrice={} requestedVolume={}"
+                        + " filledVolume={} cancelledVolume={} vwapPrice={}",
+                name,
+                order.side,
+                order.ticker,
+                order.price,
+                requestedVolume,
+                (int) orderData.volume,
+                order.volume,
+                orderData.price);
+        Message result = orderData.volume > 0 ? Message.PARTIAL_FILL : Message.NO_LIQUIDITY;
+        return createLimitOrderResponse(
+                orderData.price, (int) orderData.volume, result, result.getErrorMessage(), 0);
+    }
+
     /**
      * Places a bid (buy) limit order.
      *
@@ -760,18 +968,20 @@ public class MatchingEngine {
                     order);
             return createLimitOrderResponse(0.0, 0, validation.code, validation.detail, -1);
         }
-        TreeMap<Integer, Deque<Order>> asks = orderBooks.get(order.ticker).asks;
-        Map<Integer, Integer> askVolumes = orderBooks.get(order.ticker).askVolumes;
-        TreeMap<Integer, Deque<Order>> bids = orderBooks.get(order.ticker).bids;
-        Map<Integer, Integer> bidVolumes = orderBooks.get(order.ticker).bidVolumes;
+        OrderBook book = orderBooks.get(order.ticker);
+        BookSide asks = book.asks;
+        Message timeInForce = checkTimeInForce(order, asks);
+        if (timeInForce != Message.SUCCESS) {
+            return createLimitOrderResponse(0.0, 0, timeInForce, timeInForce.getErrorMessage(), -1);
+        }
         OrderData orderData = new OrderData();
         // validate order ensures that there is sufficient balance
-        while (order.volume > 0 && !asks.isEmpty() && asks.firstKey() <= order.price) {
+        while (order.volume > 0 && !asks.isEmpty() && asks.bestPrice() <= order.price) {
             // Match against current best ask price level.
-            Deque<Order> orderList = asks.get(asks.firstKey());
-            orderData.add(processBid(orderList, askVolumes, order));
+            OrderQueue orderList = asks.bestLevel();
+            orderData.add(processBid(orderList, asks, order));
             if (orderList.isEmpty()) {
-                asks.pollFirstEntry();
+                asks.removeBestLevel();
             }
         }
         // System.out.printf("BID LIMIT ORDER Remaining Volume to be placed on the
@@ -786,20 +996,24 @@ public class MatchingEngine {
             // Convert accumulated price*volume into VWAP.
             orderData.price /= orderData.volume;
         }
+        if (order.volume > 0 && order.timeInForce == TimeInForce.IOC) {
+            return cancelRemainder(name, order, requestedVolume, orderData);
+        }
         if (order.volume > 0) {
             // Remaining volume becomes a resting order on the bid side.
             order.status = Status.ACTIVE;
-            bids.computeIfAbsent(order.price, k -> new LinkedList<>()).add(order);
-            updateVolume(bidVolumes, order.price, order.volume, order.ticker, Side.BID);
+            book.levelForInsert(Side.BID, order.price).addLast(order);
+            updateVolume(book.bids, order.price, order.volume, order.ticker, Side.BID);
             // userList.adjustUserBalance(name, -order.price * order.volume);
             userList.adjustUserBidBalance(name, order.ticker, order.volume);
-            orderID++;
+            order.id = ++orderID;
             if (userOrders.containsKey(order.name)) {
                 userOrders.get(order.name).put(orderID, order);
             } else {
                 userOrders.put(order.name, new HashMap<>());
                 userOrders.get(order.name).put(orderID, order);
             }
+            index(order);
             logger.info(
                     "Order placed successfully: actorType={} user={} side=BID type=LIMIT ticker={}"
                             + " limitPrice={} requestedVolume={} filledVolume={} remainingVolume={}"
@@ -879,17 +1093,19 @@ public class MatchingEngine {
         if (validation.code != Message.SUCCESS) {
             return createLimitOrderResponse(0, 0, validation.code, validation.detail, -1);
         }
-        TreeMap<Integer, Deque<Order>> asks = orderBooks.get(order.ticker).asks;
-        Map<Integer, Integer> askVolumes = orderBooks.get(order.ticker).askVolumes;
-        TreeMap<Integer, Deque<Order>> bids = orderBooks.get(order.ticker).bids;
-        Map<Integer, Integer> bidVolumes = orderBooks.get(order.ticker).bidVolumes;
+        OrderBook book = orderBooks.get(order.ticker);
+        BookSide bids = book.bids;
+        Message timeInForce = checkTimeInForce(order, bids);
+        if (timeInForce != Message.SUCCESS) {
+            return createLimitOrderResponse(0, 0, timeInForce, timeInForce.getErrorMessage(), -1);
+        }
         OrderData orderData = new OrderData();
-        while (order.volume > 0 && !bids.isEmpty() && bids.lastKey() >= order.price) {
+        while (order.volume > 0 && !bids.isEmpty() && bids.bestPrice() >= order.price) {
             // Match against current best bid price level.
-            Deque<Order> orderList = bids.get(bids.lastKey());
-            orderData.add(processAsk(orderList, bidVolumes, order));
+            OrderQueue orderList = bids.bestLevel();
+            orderData.add(processAsk(orderList, bids, order));
             if (orderList.isEmpty()) {
-                bids.pollLastEntry();
+                bids.removeBestLevel();
             }
         }
         // System.out.printf("ASK LIMIT ORDER Remaining Volume to be placed on the
@@ -904,12 +1120,15 @@ public class MatchingEngine {
             // Convert accumulated price*volume into VWAP.
             orderData.price /= orderData.volume;
         }
+        if (order.volume > 0 && order.timeInForce == TimeInForce.IOC) {
+            return cancelRemainder(name, order, requestedVolume, orderData);
+        }
         if (order.volume > 0) {
             // Remaining volume becomes a resting order on the ask side.
             order.status = Status.ACTIVE;
-            asks.computeIfAbsent(order.price, k -> new LinkedList<>()).add(order);
-            orderID++;
-            updateVolume(askVolumes, order.price, order.volume, order.ticker, Side.ASK);
+            book.levelForInsert(Side.ASK, order.price).addLast(order);
+            order.id = ++orderID;
+            updateVolume(book.asks, order.price, order.volume, order.ticker, Side.ASK);
             // userList.adjustUserTickerBalance(order.name, order.ticker, -order.volume);
             userList.adjustUserAskBalance(order.name, order.ticker, order.volume);
             if (userOrders.containsKey(order.name)) {
@@ -918,6 +1137,7 @@ public class MatchingEngine {
                 userOrders.put(order.name, new HashMap<>());
                 userOrders.get(order.name).put(orderID, order);
             }
+            index(order);
             logger.info(
                     "Order placed successfully: actorType={} user={} side=ASK type=LIMIT ticker={}"
                             + " limitPrice={} requestedVolume={} filledVolume={} remainingVolume={}"
@@ -986,12 +1206,22 @@ public class MatchingEngine {
 
     protected Map<Integer, Deque<Order>> getBids(String ticker) {
         // Internal helper for tests/controllers.
-        return orderBooks.get(ticker).bids;
+        return copyLevels(orderBooks.get(ticker).bids);
     }
 
     protected Map<Integer, Deque<Order>> getAsks(String ticker) {
         // Internal helper for tests/controllers.
-        return orderBooks.get(ticker).asks;
+        return copyLevels(orderBooks.get(ticker).asks);
+    }
+
+    private static Map<Integer, Deque<Order>> copyLevels(BookSide side) {
+        Map<Integer, Deque<Order>> copy = new TreeMap<>();
+        for (Map.Entry<Integer, OrderQueue> entry : side.levels().entrySet()) {
+            Deque<Order> orders = new ArrayDeque<>(entry.getValue().size());
+            entry.getValue().forEach(orders::add);
+            copy.put(entry.getKey(), orders);
+        }
+        return copy;
     }
 
     /**
@@ -1000,11 +1230,11 @@ public class MatchingEngine {
      * <p>Used for building order book depth views.
      */
     public List<PriceLevel> getBidPriceLevels(String ticker) {
-        Map<Integer, Integer> bidVolumes = orderBooks.get(ticker).bidVolumes;
         List<PriceLevel> priceLevels = new ArrayList<>();
-        for (Map.Entry<Integer, Integer> entry : bidVolumes.entrySet()) {
-            priceLevels.add(new PriceLevel(entry.getKey(), entry.getValue()));
-        }
+        orderBooks
+                .get(ticker)
+                .bids
+                .forEachVolume((price, volume) -> priceLevels.add(new PriceLevel(price, volume)));
         return priceLevels;
     }
 
@@ -1014,14 +1244,90 @@ public class MatchingEngine {
      * <p>Used for building order book depth views.
      */
     public List<PriceLevel> getAskPriceLevels(String ticker) {
-        Map<Integer, Integer> askVolumes = orderBooks.get(ticker).askVolumes;
         List<PriceLevel> priceLevels = new ArrayList<>();
-        for (Map.Entry<Integer, Integer> entry : askVolumes.entrySet()) {
-            priceLevels.add(new PriceLevel(entry.getKey(), entry.getValue()));
-        }
+        orderBooks
+                .get(ticker)
+                .asks
+                .forEachVolume((price, volume) -> priceLevels.add(new PriceLevel(price, volume)));
         return priceLevels;
     }
 
+    /**
+     * Checks a limit order the way {@link #bidLimitOrder} and {@link #askLimitOrder} would, without
+     * placing it.
+     *
+     * @return {@link Message#SUCCESS}, or why the order would be rejected.
+     */
+    public Message checkLimitOrder(String user, String ticker, int price, int volume, boolean bid) {
+        Order order =
+                new Order(user, ticker, price, volume, bid ? Side.BID : Side.ASK, Status.ACTIVE);
+        return (bid ? validateBidOrder(user, order) : validateAskOrder(user, order)).code;
+    }
+
+    /**
+     * Checks the inputs of a market order; whether it would fill depends on the book it meets.
+     *
+     * @return {@link Message#SUCCESS}, or why the order would be rejected.
+     */
+    public Message checkMarketOrder(String user, String ticker, int volume) {
+        if (!userList.validUser(user) && !bots.containsKey(user)) {
+            return Message.AUTHENTICATION_FAILED;
+        }
+        if (volume <= 0) {
+            return Message.INVALID_VOLUME;
+        }
+        if (!orderBooks.containsKey(ticker)) {
+            return Message.UNKNOWN_TICKER;
+        }
+        return Message.SUCCESS;
+    }
+
+    /**
+     * Checks a cancel the way {@link #removeOrder(String, long, TaskFuture)} would, without
+     * cancelling.
+     *
+     * @return {@link Message#SUCCESS}, or why the cancel would be rejected.
+     */
+    public Message checkRemoveOrder(String user, long orderId) {
+        if (!userList.validUser(user)) {
+            return Message.USER_NOT_INITIALIZED;
+        }
+        if (orderId <= 0) {
+            return Message.INVALID_ORDER_ID;
+        }
+        Map<Long, Order> orders = userOrders.get(user);
+        Order order = orders == null ? null : orders.get(orderId);
+        if (order == null || order.status != Status.ACTIVE) {
+            return Message.ORDER_NOT_FOUND;
+        }
+        return Message.SUCCESS;
+    }
+
+    /**
+     * @return {@link Message#SUCCESS}, or why {@link #removeAll(String, TaskFuture)} would be
+     *     rejected.
+     */
+    public Message checkRemoveAll(String user) {
+        return checkRemoveAll(user, OrderFilter.ALL);
+    }
+
+    /**
+     * @return {@link Message#SUCCESS}, or why {@link #removeAll(String, OrderFilter, TaskFuture)}
+     *     would be rejected.
+     */
+    public Message checkRemoveAll(String user, OrderFilter filter) {
+        if (!userList.validUser(user)) {
+            return Message.USER_NOT_INITIALIZED;
+        }
+        if (filter.ticker() != null && !orderBooks.containsKey(filter.ticker())) {
+            return Message.UNKNOWN_TICKER;
+        }
+        if (filter.minPrice() > filter.maxPrice()) {
+            return Message.BAD_INPUT;
+        }
+        return Message.SUCCESS;
+    }
+
     /**
      * Fetches a user's order by order id.
      *
@@ -1047,16 +1353,27 @@ public class MatchingEngine {
             if (orders.containsKey(orderId) && orders.get(orderId).status == Status.ACTIVE) {
                 Order order = orders.get(orderId);
                 orders.get(orderId).status = Status.CANCELLED;
+                // Unlink right away so matching never has to skip over a dead order.
+                orderBooks.get(order.ticker).side(order.side).remove(order);
+                unindex(order);
                 if (order.side == Side.BID) {
                     // userList.adjustUserBalance(userId, order.price * order.volume);
                     userList.adjustUserBidBalance(userId, order.ticker, -order.volume);
-                    Map<Integer, Integer> bidVolumes = orderBooks.get(order.ticker).bidVolumes;
-                    updateVolume(bidVolumes, order.price, -order.volume, order.ticker, Side.BID);
+                    updateVolume(
+                            orderBooks.get(order.ticker).bids,
+                            order.price,
+                            -order.volume,
+                            order.ticker,
+                            Side.BID);
                 } else {
                     // userList.adjustUserTickerBalance(userId, order.ticker, order.volume);
                     userList.adjustUserAskBalance(userId, order.ticker, -order.volume);
-                    Map<Integer, Integer> askVolumes = orderBooks.get(order.ticker).askVolumes;
-                    updateVolume(askVolumes, order.price, -order.volume, order.ticker, Side.ASK);
+                    updateVolume(
+                            orderBooks.get(order.ticker).asks,
+                            order.price,
+                            -order.volume,
+                            order.ticker,
+                            Side.ASK);
                 }
                 orders.remove(orderId);
                 return true;
@@ -1083,16 +1400,27 @@ public class MatchingEngine {
             if (orders.containsKey(orderId) && orders.get(orderId).status == Status.ACTIVE) {
                 Order order = orders.get(orderId);
                 orders.get(orderId).status = Status.CANCELLED;
+                // Unlink right away so matching never has to skip over a dead order.
+                orderBooks.get(order.ticker).side(order.side).remove(order);
+                unindex(order);
                 if (order.side == Side.BID) {
                     // userList.adjustUserBalance(userId, order.price * order.volume);
                     userList.adjustUserBidBalance(userId, order.ticker, -order.volume);
-                    Map<Integer, Integer> bidVolumes = orderBooks.get(order.ticker).bidVolumes;
-                    updateVolume(bidVolumes, order.price, -order.volume, order.ticker, Side.BID);
+                    updateVolume(
+                            orderBooks.get(order.ticker).bids,
+                            order.price,
+                            -order.volume,
+                            order.ticker,
+                            Side.BID);
                 } else {
                     // userList.adjustUserTickerBalance(userId, order.ticker, order.volume);
                     userList.adjustUserAskBalance(userId, order.ticker, -order.volume);
-                    Map<Integer, Integer> askVolumes = orderBooks.get(order.ticker).askVolumes;
-                    updateVolume(askVolumes, order.price, -order.volume, order.ticker, Side.ASK);
+                    updateVolume(
+                            orderBooks.get(order.ticker).asks,
+                            order.price,
+                            -order.volume,
+                            order.ticker,
+                            Side.ASK);
                 }
                 future.setData(
                         String.format(
@@ -1109,53 +1437,225 @@ public class MatchingEngine {
         return false;
     }
 
+    /**
+     * Changes the price and/or volume of a resting order in one step.
+     *
+     * <p>Reducing the volume at the same price updates the order in place and keeps its place in
+     * the queue. Any other change is a cancel-replace: the same order is unlinked, checked like a
+     * new limit order at its new price and volume, matched if it crosses and re-queued at the back
+     * of its new level. The order keeps its id either way. If the new price or volume is rejected,
+     * or a post-only order would cross at its new price ({@link Message#WOULD_CROSS}), the order is
+     * left untouched.
+     *
+     * @return response map in the shape of a limit order response
+     */
+    public Map<String, Object> amendOrderHandler(String user, long orderId, int price, int volume) {
+        Message check = checkRemoveOrder(user, orderId);
+        if (check != Message.SUCCESS) {
+            return createLimitOrderResponse(0.0, 0, check, check.getErrorMessage(), -1);
+        }
+        Order order = userOrders.get(user).get(orderId);
+        OrderBook book = orderBooks.get(order.ticker);
+        boolean bid = order.side == Side.BID;
+
+        if (price == order.price && volume > 0 && volume <= order.volume) {
+            int delta = volume - order.volume;
+            order.volume = volume;
+            updateVolume(book.side(order.side), price, delta, order.ticker, order.side);
+            reserve(user, order, delta);
+            return createLimitOrderResponse(
+                    0.0, 0, Message.SUCCESS, "Order amended in place", orderId);
+        }
+
+        // Check the replacement with the old order's reservation released, as if it were gone.
+        int oldPrice = order.price;
+        int oldVolume = order.volume;
+        reserve(user, order, -oldVolume);
+        order.price = price;
+        order.volume = volume;
+        ValidationResult validation =
+                bid ? validateBidOrder(user, order) : validateAskOrder(user, order);
+        // A post-only order must not become a taker by moving through the book.
+        Message timeInForce =
+                validation.code == Message.SUCCESS
+                        ? checkTimeInForce(order, book.side(bid ? Side.ASK : Side.BID))
+                        : Message.SUCCESS;
+        order.price = oldPrice;
+        order.volume = oldVolume;
+        if (validation.code != Message.SUCCESS) {
+            reserve(user, order, oldVolume);
+            return createLimitOrderResponse(0.0, 0, validation.code, validation.detail, -1);
+        }
+        if (timeInForce != Message.SUCCESS) {
+            reserve(user, order, oldVolume);
+            return createLimitOrderResponse(0.0, 0, timeInForce, timeInForce.getErrorMessage(), -1);
+        }
+
+        book.side(order.side).remove(order);
+        updateVolume(book.side(order.side), oldPrice, -oldVolume, order.ticker, order.side);
+        order.price = price;
+        order.volume = volume;
+
+        OrderData orderData = new OrderData();
+        BookSide opposite = book.side(bid ? Side.ASK : Side.BID);
+        while (order.volume > 0
+                && !opposite.isEmpty()
+                && (bid ? opposite.bestPrice() <= price : opposite.bestPrice() >= price)) {
+            OrderQueue level = opposite.bestLevel();
+            orderData.add(
+                    bid ? processBid(level, opposite, order) : processAsk(level, opposite, order));
+            if (level.isEmpty()) {
+                opposite.removeBestLevel();
+            }
+        }
+        if (orderData.volume > 0) {
+            orderData.price /= orderData.volume;
+        }
+        if (order.volume > 0) {
+            book.levelForInsert(order.side, price).addLast(order);
+            updateVolume(book.side(order.side), price, order.volume, order.ticker, order.side);
+            reserve(user, order, order.volume);
+        } else {
+            order.status = Status.FILLED;
+            unindex(order);
+        }
+        logger.info(
+                "Order amended: user={} side={} ticker={} orderId={} oldPrice={} oldVolume={}"
+                        + " newPrice={} newVolume={} filledVolume={} remainingVolume={}",
+                user,
+                order.side,
+                order.ticker,
+                orderId,
+                oldPrice,
+                oldVolume,
+                price,
+                volume,
+                (int) orderData.volume,
+                order.volume);
+        return createLimitOrderResponse(
+                orderData.price,
+                (int) orderData.volume,
+                Message.SUCCESS,
+                "Order replaced",
+                order.volume > 0 ? orderId : 0);
+    }
+
+    public void amendOrder(
+            String user, long orderId, int price, int volume, TaskFuture<String> future) {
+        try {
+            future.setData(
+                    orderBookMapper.writeValueAsString(
+                            amendOrderHandler(user, orderId, price, volume)));
+        } catch (Exception e) {
+            logger.error("Failed to amend order: user={} orderId={}", user, orderId, e);
+            future.setData(Message.INTERNAL_ERROR.toString());
+        }
+    }
+
+    /**
+     * @return {@link Message#SUCCESS}, or why {@link #amendOrderHandler} would reject the amend
+     *     (ignoring balances, which depend on the state when it runs).
+     */
+    public Message checkAmendOrder(String user, long orderId, int price, int volume) {
+        Message check = checkRemoveOrder(user, orderId);
+        if (check != Message.SUCCESS) {
+            return check;
+        }
+        if (volume <= 0) {
+            return Message.INVALID_VOLUME;
+        }
+        if (price <= 0) {
+            return Message.INVALID_PRICE;
+        }
+        return Message.SUCCESS;
+    }
+
+    /**
+     * Starts checking an atomic batch of {@code user}'s operations; see {@link BatchCheck}.
+     *
+     * @return a check to feed the batch's operations to, in order.
+     */
+    public BatchCheck checkBatch(String user) {
+        return new BatchCheck(this, user);
+    }
+
+    boolean isBot(String user) {
+        return bots.containsKey(user);
+    }
+
+    UserList users() {
+        return userList;
+    }
+
+    OrderBook book(String ticker) {
+        return orderBooks.get(ticker);
+    }
+
+    /** Appends the user's resting orders {@code filter} matches to {@code into}. */
+    void selectLiveOrders(String user, OrderFilter filter, List<Order> into) {
+        OrderIndex index = liveOrders.get(user);
+        if (index != null) {
+            index.select(filter, into);
+        }
+    }
+
+    private void reserve(String user, Order order, int delta) {
+        if (order.side == Side.BID) {
+            userList.adjustUserBidBalance(user, order.ticker, delta);
+        } else {
+            userList.adjustUserAskBalance(user, order.ticker, delta);
+        }
+    }
+
+    private void index(Order order) {
+        liveOrders.computeIfAbsent(order.name, name -> new OrderIndex()).add(order);
+    }
+
+    private void unindex(Order order) {
+        OrderIndex index = liveOrders.get(order.name);
+        if (index != null) {
+            index.remove(order);
+        }
+    }
+
     /**
      * Cancels all of a user's active orders.
      *
      * <p>Silent no-op if the user is invalid or has no orders.
      */
     public void removeAll(String userId) {
-        // Cancel all ACTIVE orders for this user.
-        if (!userList.validUser(userId)) {
-            return;
-        }
-        // Retrieve user's orders
-        Map<Long, Order> orders = userOrders.get(userId);
-        if (orders == null || orders.isEmpty()) {
-            return; // No orders to remove
-        }
+        removeAll(userId, OrderFilter.ALL);
+    }
 
-        // Iterate through all orders and remove each
-        for (Long orderId : new ArrayList<>(orders.keySet())) {
-            removeOrder(userId, orderId);
+    /**
+     * Cancels the user's active orders that {@code filter} matches.
+     *
+     * <p>Silent no-op if the request would be rejected or nothing matches.
+     */
+    public void removeAll(String userId, OrderFilter filter) {
+        if (checkRemoveAll(userId, filter) == Message.SUCCESS) {
+            removeMatching(userId, filter);
         }
     }
 
     public void removeAll(String userId, TaskFuture<String> future) {
-        if (!userList.validUser(userId)) {
-            future.setData(Message.USER_NOT_INITIALIZED.toString());
+        removeAll(userId, OrderFilter.ALL, future);
+    }
+
+    public void removeAll(String userId, OrderFilter filter, TaskFuture<String> future) {
+        Message check = checkRemoveAll(userId, filter);
+        if (check != Message.SUCCESS) {
+            future.setData(check.toString());
             return;
         }
 
-        // Retrieve user's orders
-        Map<Long, Order> orders = userOrders.get(userId);
-        if (orders == null || orders.isEmpty()) {
+        int volumeRemoved = removeMatching(userId, filter);
+        if (volumeRemoved < 0) {
             future.setData(
                     String.format(
                             "{\"errorCode\": %d, \"errorMessage\": \"%s\"}",
                             Message.SUCCESS.getErrorCode(), "No active orders to remove"));
-            return; // No orders to remove
-        }
-
-        int volumeRemoved = 0;
-
-        // Iterate through all orders and remove each
-        for (Long orderId : new ArrayList<>(orders.keySet())) {
-            int vol = orders.get(orderId).volume;
-            boolean removed = removeOrder(userId, orderId);
-            if (removed) {
-                volumeRemoved += vol;
-            }
+            return;
         }
 
         future.setData(
@@ -1165,6 +1665,32 @@ public class MatchingEngine {
                         String.format("Removed total volume of %d", volumeRemoved)));
     }
 
+    /**
+     * Cancels the orders {@code filter} selects from the user's {@link OrderIndex}.
+     *
+     * @return the total volume cancelled, or -1 if no order matched.
+     */
+    private int removeMatching(String userId, OrderFilter filter) {
+        OrderIndex index = liveOrders.get(userId);
+        if (index == null || index.isEmpty()) {
+            return -1;
+        }
+        // Copied out first: each cancel removes its order from the index.
+        List<Order> matched = new ArrayList<>();
+        index.select(filter, matched);
+        if (matched.isEmpty()) {
+            return -1;
+        }
+        int volumeRemoved = 0;
+        for (Order order : matched) {
+            int volume = order.volume;
+            if (removeOrder(userId, order.id)) {
+                volumeRemoved += volume;
+            }
+        }
+        return volumeRemoved;
+    }
+
     /**
      * Matches a market order against the opposite side of the book.
      *
@@ -1174,16 +1700,12 @@ public class MatchingEngine {
      *
      * @return aggregated execution data (total volume + linear-combination price accumulator).
      */
-    public OrderData processMarketOrder(
-            Deque<Order> orders, Map<Integer, Integer> volumeMap, Order aggressor, Side side) {
+    private OrderData processMarketOrder(
+            OrderQueue orders, BookSide bookSide, Order aggressor, Side side) {
         // Matches a market aggressor against resting orders at one price level.
         OrderData orderData = new OrderData();
         while (aggressor.volume > 0 && !orders.isEmpty()) {
             Order order = orders.peek();
-            if (order.status == Status.CANCELLED) {
-                orders.poll();
-                continue;
-            }
             // 2 Cases:
             // First Case: Finite Stack - only sell what you can own
             int aggressorVolume = aggressor.volume;
@@ -1223,7 +1745,7 @@ public class MatchingEngine {
                     userList.adjustUserTickerBalance(
                             order.name, order.ticker, -volumeTraded, order.price);
                     // Update the ask volume map and the ask if it is a bid order
-                    updateVolume(volumeMap, tradePrice, -volumeTraded, order.ticker, Side.ASK);
+                    updateVolume(bookSide, tradePrice, -volumeTraded, order.ticker, Side.ASK);
                 } else {
                     userList.adjustUserBidBalance(order.name, order.ticker, -volumeTraded);
 
@@ -1236,10 +1758,11 @@ public class MatchingEngine {
                     userList.adjustUserTickerBalance(
                             order.name, order.ticker, volumeTraded, order.price);
                     // Update the bid volume map and the bid if it is a bid order
-                    updateVolume(volumeMap, tradePrice, -volumeTraded, order.ticker, Side.BID);
+                    updateVolume(bookSide, tradePrice, -volumeTraded, order.ticker, Side.BID);
                 }
                 setPrice(order.ticker, tradePrice);
                 order.volume -= aggressorVolume;
+                recordExecution(order, aggressor, volumeTraded);
                 orderData.linearCombination(tradePrice, volumeTraded);
                 aggressor.volume = 0;
                 aggressor.status = Status.FILLED;
@@ -1255,7 +1778,7 @@ public class MatchingEngine {
                             aggressor.name, order.ticker, volumeTraded, order.price);
                     userList.adjustUserTickerBalance(
                             order.name, order.ticker, -volumeTraded, order.price);
-                    updateVolume(volumeMap, tradePrice, -volumeTraded, order.ticker, Side.ASK);
+                    updateVolume(bookSide, tradePrice, -volumeTraded, order.ticker, Side.ASK);
                 } else {
                     userList.adjustUserBidBalance(order.name, order.ticker, -volumeTraded);
 
@@ -1265,14 +1788,16 @@ public class MatchingEngine {
                             aggressor.name, order.ticker, -volumeTraded, order.price);
                     userList.adjustUserTickerBalance(
                             order.name, order.ticker, volumeTraded, order.price);
-                    updateVolume(volumeMap, tradePrice, -volumeTraded, order.ticker, Side.BID);
+                    updateVolume(bookSide, tradePrice, -volumeTraded, order.ticker, Side.BID);
                 }
                 setPrice(order.ticker, tradePrice);
+                recordExecution(order, aggressor, volumeTraded);
                 orderData.linearCombination(tradePrice, volumeTraded);
                 aggressor.volume -= order.volume;
                 order.volume = 0;
                 order.status = Status.FILLED;
                 orders.poll();
+                unindex(order);
             }
         }
         return orderData;
@@ -1310,28 +1835,27 @@ public class MatchingEngine {
                         Side.BID,
                         Status.ACTIVE); // Price is 0 for market orders
         // int volumeFilled = 0;
-        TreeMap<Integer, Deque<Order>> asks = orderBooks.get(ticker).asks;
-        Map<Integer, Integer> askVolumes = orderBooks.get(ticker).askVolumes;
+        BookSide asks = orderBooks.get(ticker).asks;
 
         if (asks.isEmpty()) {
             return createMarketOrderResponse(0.0, 0, Message.NO_LIQUIDITY);
         }
         if (!bots.containsKey(name)
-                && userList.getValidBidVolume(name, ticker, asks.firstKey()) <= 0) {
+                && userList.getValidBidVolume(name, ticker, asks.bestPrice()) <= 0) {
             return createMarketOrderResponse(0.0, 0, Message.INSUFFICIENT_BALANCE);
         }
 
         while (marketOrder.volume > 0 && !asks.isEmpty()) {
             // Match at current best ask price level.
-            Deque<Order> orderList = asks.get(asks.firstKey());
-            orderData.add(processMarketOrder(orderList, askVolumes, marketOrder, Side.BID));
+            OrderQueue orderList = asks.bestLevel();
+            orderData.add(processMarketOrder(orderList, asks, marketOrder, Side.BID));
             if (orderList.isEmpty()) {
-                asks.pollFirstEntry();
+                asks.removeBestLevel();
             }
             if (!bots.containsKey(name)
                     && marketOrder.volume > 0
                     && !asks.isEmpty()
-                    && userList.getValidBidVolume(name, ticker, asks.firstKey()) <= 0) {
+                    && userList.getValidBidVolume(name, ticker, asks.bestPrice()) <= 0) {
                 // Cannot afford even 1 unit at the next best ask price.
                 break;
             }
@@ -1353,7 +1877,7 @@ public class MatchingEngine {
                 return createMarketOrderResponse(0.0, 0, Message.NO_LIQUIDITY);
             }
             if (!bots.containsKey(name)
-                    && userList.getValidBidVolume(name, ticker, asks.firstKey()) <= 0) {
+                    && userList.getValidBidVolume(name, ticker, asks.bestPrice()) <= 0) {
                 return createMarketOrderResponse(0.0, 0, Message.INSUFFICIENT_BALANCE);
             }
             return createMarketOrderResponse(0.0, 0, Message.BAD_INPUT);
@@ -1438,8 +1962,7 @@ public class MatchingEngine {
                         Side.ASK,
                         Status.ACTIVE); // Price is 0 for market orders
         // int volumeFilled = 0;
-        TreeMap<Integer, Deque<Order>> bids = orderBooks.get(ticker).bids;
-        Map<Integer, Integer> bidVolumes = orderBooks.get(ticker).bidVolumes;
+        BookSide bids = orderBooks.get(ticker).bids;
 
         if (bids.isEmpty()) {
             return createMarketOrderResponse(0.0, 0, Message.NO_LIQUIDITY);
@@ -1447,10 +1970,10 @@ public class MatchingEngine {
 
         while (marketOrder.volume > 0 && !bids.isEmpty()) {
             // Match at current best bid price level.
-            Deque<Order> orderList = bids.get(bids.lastKey());
-            orderData.add(processMarketOrder(orderList, bidVolumes, marketOrder, Side.ASK));
+            OrderQueue orderList = bids.bestLevel();
+            orderData.add(processMarketOrder(orderList, bids, marketOrder, Side.ASK));
             if (orderList.isEmpty()) {
-                bids.pollLastEntry();
+                bids.removeBestLevel();
             }
             if (!bots.containsKey(name)
                     && marketOrder.volume > 0
@@ -1536,38 +2059,81 @@ public class MatchingEngine {
      * grouped by ticker.
      */
     public String getUserDetails(String username) {
-        // Combines UserList details with ACTIVE orders grouped by ticker.
-        ObjectNode userListDetails = userList.getUserDetailsAsJson(username, latestPrice);
-
-        // Organize active orders by ticker
-        ObjectNode ordersByTicker = JsonNodeFactory.instance.objectNode();
-
-        if (userOrders.containsKey(username)) {
-            Map<Long, Order> orders = userOrders.get(username);
-
-            for (Map.Entry<Long, Order> entry : orders.entrySet()) {
-                Order order = entry.getValue();
+        UserState state = captureUserState(username);
+        if (state == null) {
+            return "{\"error\":\"User not found\",\"Orders\":{}}";
+        }
+        return state.toJson(latestPrice);
+    }
 
-                if (order.status == Status.ACTIVE) {
-                    ObjectNode orderDetails = JsonNodeFactory.instance.objectNode();
-                    orderDetails.put("orderId", entry.getKey());
-                    orderDetails.put("price", order.price);
-                    orderDetails.put("volume", order.volume);
-                    orderDetails.put("side", order.side.toString());
-
-                    ArrayNode tickerOrders = (ArrayNode) ordersByTicker.get(order.ticker);
-                    if (tickerOrders == null) {
-                        tickerOrders = JsonNodeFactory.instance.arrayNode();
-                        ordersByTicker.set(order.ticker, tickerOrders);
+    /**
+     * Copies a user's balance, positions and ACTIVE orders grouped by ticker.
+     *
+     * @return the state, or {@code null} if the user does not exist.
+     */
+    public UserState captureUserState(String username) {
+        if (!userList.validUser(username)) {
+            return null;
+        }
+        Map<String, List<UserState.RestingOrder>> ordersByTicker = new LinkedHashMap<>();
+        OrderIndex index = liveOrders.get(username);
+        if (index != null) {
+            for (String ticker : index.tickers()) {
+                List<UserState.RestingOrder> resting = new ArrayList<>();
+                for (Side side : Side.values()) {
+                    for (Order order : index.orders(ticker, side)) {
+                        resting.add(
+                                new UserState.RestingOrder(
+                                        order.id, order.price, order.volume, order.side));
                     }
-                    tickerOrders.add(orderDetails);
                 }
+                ordersByTicker.put(ticker, resting);
+            }
+        }
+        return new UserState(
+                username,
+                userList.getUserBalance(username),
+                userList.positionsOf(username),
+                ordersByTicker);
+    }
+
+    /**
+     * Captures the state of every subscriber that changed since the last call, plus every user in
+     * {@code include}. Changes of users outside {@code subscribers} are dropped.
+     *
+     * <p>Engine thread only.
+     */
+    public List<UserState> captureUserStates(Set<String> subscribers, Set<String> include) {
+        Set<String> capture = new LinkedHashSet<>(include);
+        userList.drainDirtyUsers(
+                username -> {
+                    if (subscribers.contains(username)) {
+                        capture.add(username);
+                    }
+                });
+        List<UserState> states = new ArrayList<>(capture.size());
+        for (String username : capture) {
+            UserState state = captureUserState(username);
+            if (state != null) {
+                states.add(state);
             }
         }
+        return states;
+    }
 
-        // Ensure ordersByTicker is added even if empty
-        userListDetails.set("Orders", ordersByTicker);
-        return userListDetails.toString();
+    /**
+     * @return a copy of the last traded price per ticker, as used for PnL; safe from any thread.
+     */
+    public Map<String, Integer> getLatestPrices() {
+        return new HashMap<>(latestPrice);
+    }
+
+    /**
+     * @return true if a user's balance, positions or orders changed since the last {@link
+     *     #captureUserStates}; safe from any thread.
+     */
+    public boolean hasChangedUsers() {
+        return userList.hasDirtyUsers();
     }
 
     /** Asynchronously computes leaderboard entries using current {@code latestPrice} marks. */
@@ -1576,6 +2142,161 @@ public class MatchingEngine {
         future.markAsComplete();
     }
 
+    /**
+     * @return true if {@code username} has been initialized as a user or bot.
+     */
+    public boolean hasUser(String username) {
+        return userList.validUser(username);
+    }
+
+    /**
+     * Writes the complete engine state: order and trade id counters, tickers with their books
+     * (every level's orders in queue order), all tracked orders, last prices, bots and {@link
+     * UserList} state.
+     *
+     * <p>Must run on the engine thread. {@link #readSnapshot} on a fresh engine with the same mode
+     * and price band restores an engine that matches identically.
+     */
+    public void writeSnapshot(DataOutput out) throws IOException {
+        out.writeLong(orderID);
+        out.writeLong(tradeID);
+
+        // Orders are written once, keyed by id; book levels refer to them by id.
+        Map<Order, Long> orderIds = new IdentityHashMap<>();
+        out.writeInt(userOrders.size());
+        for (Map.Entry<String, Map<Long, Order>> user : userOrders.entrySet()) {
+            out.writeUTF(user.getKey());
+            out.writeInt(user.getValue().size());
+            for (Map.Entry<Long, Order> entry : user.getValue().entrySet()) {
+                Order order = entry.getValue();
+                orderIds.put(order, entry.getKey());
+                out.writeLong(entry.getKey());
+                out.writeUTF(order.ticker);
+                out.writeInt(order.price);
+                out.writeInt(order.volume);
+                out.writeByte(order.side.ordinal());
+                out.writeByte(order.status.ordinal());
+                out.writeByte(order.timeInForce.ordinal());
+            }
+        }
+
+        out.writeInt(orderBooks.size());
+        for (Map.Entry<String, OrderBook> entry : orderBooks.entrySet()) {
+            OrderBook book = entry.getValue();
+            out.writeUTF(entry.getKey());
+            out.writeInt(book.getPrice());
+            for (Side side : Side.values()) {
+                BookSide bookSide = book.side(side);
+                Map<Integer, OrderQueue> levels = bookSide.levels();
+                out.writeInt(levels.size());
+                for (Map.Entry<Integer, OrderQueue> level : levels.entrySet()) {
+                    out.writeInt(level.getKey());
+                    out.writeInt(level.getValue().size());
+                    for (Order order : level.getValue()) {
+                        Long id = orderIds.get(order);
+                        if (id == null) {
+                            throw new IllegalStateException(
+                                    "Resting order is not tracked by its user: " + order);
+                        }
+                        out.writeLong(id);
+                    }
+                }
+                Map<Integer, Integer> volumes =
+                        side == Side.BID ? book.getBidVolumes() : book.getAskVolumes();
+                out.writeInt(volumes.size());
+                for (Map.Entry<Integer, Integer> volume : volumes.entrySet()) {
+                    out.writeInt(volume.getKey());
+                    out.writeInt(volume.getValue());
+                }
+            }
+        }
+
+        out.writeInt(latestPrice.size());
+        for (Map.Entry<String, Integer> entry : latestPrice.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+        out.writeInt(bots.size());
+        for (String bot : bots.keySet()) {
+            out.writeUTF(bot);
+        }
+        userList.writeSnapshot(out);
+    }
+
+    /**
+     * Replaces the engine state with a snapshot written by {@link #writeSnapshot}.
+     *
+     * <p>Books are rebuilt with this engine's price band.
+     */
+    public void readSnapshot(DataInput in) throws IOException {
+        orderID = in.readLong();
+        tradeID = in.readLong();
+
+        userOrders = new HashMap<>();
+        liveOrders = new HashMap<>();
+        Map<Long, Order> ordersById = new HashMap<>();
+        for (int users = in.readInt(); users > 0; users--) {
+            String username = in.readUTF();
+            Map<Long, Order> orders = new HashMap<>();
+            userOrders.put(username, orders);
+            for (int i = in.readInt(); i > 0; i--) {
+                long id = in.readLong();
+                String ticker = in.readUTF();
+                int price = in.readInt();
+                int volume = in.readInt();
+                Side side = Side.values()[in.readByte()];
+                Status status = Status.values()[in.readByte()];
+                TimeInForce timeInForce = TimeInForce.values()[in.readByte()];
+                Order order = new Order(username, ticker, price, volume, side, status, timeInForce);
+                order.id = id;
+                orders.put(id, order);
+                ordersById.put(id, order);
+                if (status == Status.ACTIVE) {
+                    index(order);
+                }
+            }
+        }
+
+        orderBooks = new HashMap<>();
+        for (int tickers = in.readInt(); tickers > 0; tickers--) {
+            String ticker = in.readUTF();
+            OrderBook book = new OrderBook(minBookPrice, maxBookPrice);
+            orderBooks.put(ticker, book);
+            int bookPrice = in.readInt();
+            if (bookPrice != 0) {
+                book.updatePrice(bookPrice);
+            }
+            for (Side side : Side.values()) {
+                for (int levels = in.readInt(); levels > 0; levels--) {
+                    int price = in.readInt();
+                    for (int i = in.readInt(); i > 0; i--) {
+                        long id = in.readLong();
+                        Order order = ordersById.get(id);
+                        if (order == null) {
+                            throw new IOException("Snapshot book refers to unknown order " + id);
+                        }
+                        book.levelForInsert(side, price).addLast(order);
+                    }
+                }
+                for (int levels = in.readInt(); levels > 0; levels--) {
+                    book.side(side).addVolume(in.readInt(), in.readInt());
+                }
+            }
+        }
+
+        latestPrice.clear();
+        for (int i = in.readInt(); i > 0; i--) {
+            latestPrice.put(in.readUTF(), in.readInt());
+        }
+        bots = new HashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            bots.put(in.readUTF(), 0);
+        }
+        userList.readSnapshot(in);
+        bookEpoch++;
+        topOfBook.touchAll(orderBooks.keySet());
+    }
+
     /** Applies an auction bid by subtracting {@code bid} from the user's cash balance. */
     public void executeAuction(String user, int bid) {
         // Auction bids are represented as a direct cash balance adjustment.
@@ -14,14 +14,34 @@ public class Order {
     protected int volume;
     protected Side side;
     protected Status status;
+    protected TimeInForce timeInForce;
+    // Id under which the order rests; 0 while it has never rested (e.g. market orders).
+    protected long id;
+
+    // Intrusive links into the price level's FIFO (see OrderQueue); null while not resting.
+    protected Order prev;
+    protected Order next;
+    protected OrderQueue level;
 
     public Order(String username, String ticker, int price, int volume, Side side, Status status) {
+        this(username, ticker, price, volume, side, status, TimeInForce.GTC);
+    }
+
+    public Order(
+            String username,
+            String ticker,
+            int price,
+            int volume,
+            Side side,
+            Status status,
+            TimeInForce timeInForce) {
         this.name = username;
         this.ticker = ticker;
         this.price = price;
         this.volume = volume;
         this.side = side;
         this.status = status;
+        this.timeInForce = timeInForce;
     }
 
     public int getPrice() {
@@ -36,6 +56,10 @@ public class Order {
         return status;
     }
 
+    public TimeInForce getTimeInForce() {
+        return timeInForce;
+    }
+
     @Override
     public String toString() {
         return String.format(
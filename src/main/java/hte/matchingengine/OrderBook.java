@@ -1,6 +1,5 @@
 package hte.matchingengine;
 
-import java.util.Deque;
 import java.util.Map;
 import java.util.TreeMap;
 import org.slf4j.Logger;
@@ -14,39 +13,97 @@ import org.slf4j.LoggerFactory;
  * <p>Per-price FIFO queues of {@link Order} objects for bids and asks. Aggregated volume per price
  * level (used for depth + recent-trades updates). An optional {@code currentPrice} mark (last
  * trade/mark).
+ *
+ * <p>When the configured price band fits in {@link #MAX_LADDER_LEVELS} ticks, both sides are
+ * array-indexed price ladders ({@link LadderBookSide}); otherwise, or once an order arrives at a
+ * price the ladder cannot reach, the book falls back to tree-backed sides ({@link TreeBookSide}).
  */
 public class OrderBook {
     private static final Logger logger = LoggerFactory.getLogger(OrderBook.class);
-    // Price -> FIFO queue of resting bid orders.
-    protected TreeMap<Integer, Deque<Order>> bids = new TreeMap<>();
-    // Price -> FIFO queue of resting ask orders.
-    protected TreeMap<Integer, Deque<Order>> asks = new TreeMap<>();
-    // Price -> total resting bid volume at that price.
-    protected Map<Integer, Integer> bidVolumes = new TreeMap<>();
-    // Price -> total resting ask volume at that price.
-    protected Map<Integer, Integer> askVolumes = new TreeMap<>();
+
+    /** Widest price band (in ticks) that is stored as an array-indexed ladder. */
+    static final int MAX_LADDER_LEVELS = 1 << 16;
+
+    // Resting bid orders + aggregated bid volume per price.
+    protected BookSide bids;
+    // Resting ask orders + aggregated ask volume per price.
+    protected BookSide asks;
 
     // Nullable last-known mark price.
     private Integer currentPrice = null;
 
+    /** Creates a tree-backed book that accepts any price. */
+    public OrderBook() {
+        this.bids = new TreeBookSide(true);
+        this.asks = new TreeBookSide(false);
+    }
+
+    /**
+     * Creates a book for prices in {@code [minPrice, maxPrice]}, using price ladders when the band
+     * is narrow enough.
+     */
+    public OrderBook(int minPrice, int maxPrice) {
+        long levels = (long) maxPrice - minPrice + 1;
+        if (levels > 0 && levels <= MAX_LADDER_LEVELS) {
+            this.bids = new LadderBookSide(true, minPrice, maxPrice, MAX_LADDER_LEVELS);
+            this.asks = new LadderBookSide(false, minPrice, maxPrice, MAX_LADDER_LEVELS);
+        } else {
+            this.bids = new TreeBookSide(true);
+            this.asks = new TreeBookSide(false);
+        }
+    }
+
+    BookSide side(Side side) {
+        return side == Side.BID ? bids : asks;
+    }
+
+    /**
+     * @return true while both sides are array-indexed price ladders.
+     */
+    boolean usesPriceLadder() {
+        return bids instanceof LadderBookSide && asks instanceof LadderBookSide;
+    }
+
+    /**
+     * Returns the FIFO queue for a new resting order at {@code price}, creating the level if
+     * needed.
+     *
+     * <p>If the ladder cannot address {@code price}, both sides are converted to trees first.
+     */
+    OrderQueue levelForInsert(Side side, int price) {
+        OrderQueue level = side(side).levelForInsert(price);
+        if (level == null) {
+            logger.info("Price {} outside ladder range, falling back to tree order book", price);
+            bids = ((LadderBookSide) bids).toTreeSide();
+            asks = ((LadderBookSide) asks).toTreeSide();
+            level = side(side).levelForInsert(price);
+        }
+        return level;
+    }
+
     public Map<Integer, Integer> getBidVolumes() {
-        return bidVolumes;
+        return volumesOf(bids);
     }
 
     public Map<Integer, Integer> getAskVolumes() {
-        return askVolumes;
+        return volumesOf(asks);
+    }
+
+    private static Map<Integer, Integer> volumesOf(BookSide side) {
+        Map<Integer, Integer> volumes = new TreeMap<>();
+        side.forEachVolume(volumes::put);
+        return volumes;
     }
 
     public void printOrderBook() {
-        logger.debug("Bid Volumes:");
-        for (Map.Entry<Integer, Integer> entry : bidVolumes.entrySet()) {
-            logger.debug("Price: {} Volume: {}", entry.getKey(), entry.getValue());
+        if (!logger.isDebugEnabled()) {
+            return;
         }
+        logger.debug("Bid Volumes:");
+        bids.forEachVolume((price, volume) -> logger.debug("Price: {} Volume: {}", price, volume));
 
         logger.debug("Ask Volumes:");
-        for (Map.Entry<Integer, Integer> entry : askVolumes.entrySet()) {
-            logger.debug("Price: {} Volume: {}", entry.getKey(), entry.getValue());
-        }
+        asks.forEachVolume((price, volume) -> logger.debug("Price: {} Volume: {}", price, volume));
     }
 
     public void updatePrice(int newPrice) {
@@ -61,9 +118,7 @@ public class OrderBook {
     }
 
     public void clearOrderBook() {
-        this.bidVolumes.clear();
-        this.askVolumes.clear();
-        this.asks.clear();
         this.bids.clear();
+        this.asks.clear();
     }
 }
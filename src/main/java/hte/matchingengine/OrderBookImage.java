@@ -0,0 +1,17 @@
+package hte.matchingengine;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Immutable copy of one {@link OrderBook}'s aggregated volumes and mark price.
+ *
+ * <p>Serializes to the same JSON as the book itself.
+ */
+public record OrderBookImage(
+        Map<Integer, Integer> bidVolumes, Map<Integer, Integer> askVolumes, int price) {
+    public OrderBookImage {
+        bidVolumes = Collections.unmodifiableMap(bidVolumes);
+        askVolumes = Collections.unmodifiableMap(askVolumes);
+    }
+}
@@ -0,0 +1,34 @@
+package hte.matchingengine;
+
+/**
+ * Selects which of a user's resting orders a mass cancel applies to.
+ *
+ * <p>A {@code null} ticker or side matches any; the price range is inclusive. {@link #ALL} matches
+ * every order.
+ */
+public record OrderFilter(String ticker, Side side, int minPrice, int maxPrice) {
+    public static final OrderFilter ALL = new OrderFilter(null, null, 0, Integer.MAX_VALUE);
+
+    /** Builds a filter from optional request fields; absent price bounds leave the range open. */
+    public static OrderFilter of(String ticker, Side side, Integer minPrice, Integer maxPrice) {
+        return new OrderFilter(
+                ticker,
+                side,
+                minPrice == null ? 0 : minPrice,
+                maxPrice == null ? Integer.MAX_VALUE : maxPrice);
+    }
+
+    public boolean matches(Order order) {
+        return (ticker == null || ticker.equals(order.ticker))
+                && (side == null || side == order.side)
+                && order.price >= minPrice
+                && order.price <= maxPrice;
+    }
+
+    /**
+     * @return true if the filter matches every order, i.e. is a plain cancel-all.
+     */
+    public boolean matchesAll() {
+        return ticker == null && side == null && minPrice <= 0 && maxPrice == Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,99 @@
+package hte.matchingengine;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * One user's resting orders, grouped by ticker and side.
+ *
+ * <p>Maintained by {@link MatchingEngine} next to its id -> order map, which also keeps filled
+ * orders: an order is added when it rests and removed once it is filled, cancelled or cleared. Mass
+ * cancels and the user details read only the part of the index they need instead of every order the
+ * user ever placed. Orders iterate by ticker, then side, then id, so the same set of orders always
+ * lists the same way however it was built (live or from a snapshot).
+ */
+final class OrderIndex {
+    private final TreeMap<String, TickerOrders> tickers = new TreeMap<>();
+
+    void add(Order order) {
+        tickers.computeIfAbsent(order.ticker, ticker -> new TickerOrders())
+                .side(order.side)
+                .put(order.id, order);
+    }
+
+    void remove(Order order) {
+        TickerOrders orders = tickers.get(order.ticker);
+        if (orders != null
+                && orders.side(order.side).remove(order.id) != null
+                && orders.isEmpty()) {
+            tickers.remove(order.ticker);
+        }
+    }
+
+    boolean isEmpty() {
+        return tickers.isEmpty();
+    }
+
+    /**
+     * @return the tickers the user has resting orders in.
+     */
+    Set<String> tickers() {
+        return tickers.keySet();
+    }
+
+    /**
+     * @return the user's resting orders on one side of {@code ticker}, by id.
+     */
+    Collection<Order> orders(String ticker, Side side) {
+        TickerOrders orders = tickers.get(ticker);
+        return orders == null ? List.of() : orders.side(side).values();
+    }
+
+    /** Appends every resting order {@code filter} matches to {@code into}. */
+    void select(OrderFilter filter, List<Order> into) {
+        if (filter.ticker() != null) {
+            TickerOrders orders = tickers.get(filter.ticker());
+            if (orders != null) {
+                orders.select(filter, into);
+            }
+            return;
+        }
+        for (TickerOrders orders : tickers.values()) {
+            orders.select(filter, into);
+        }
+    }
+
+    private static final class TickerOrders {
+        // Order id -> order.
+        private final TreeMap<Long, Order> bids = new TreeMap<>();
+        private final TreeMap<Long, Order> asks = new TreeMap<>();
+
+        TreeMap<Long, Order> side(Side side) {
+            return side == Side.BID ? bids : asks;
+        }
+
+        boolean isEmpty() {
+            return bids.isEmpty() && asks.isEmpty();
+        }
+
+        void select(OrderFilter filter, List<Order> into) {
+            if (filter.side() != Side.ASK) {
+                select(bids, filter, into);
+            }
+            if (filter.side() != Side.BID) {
+                select(asks, filter, into);
+            }
+        }
+
+        private static void select(Map<Long, Order> orders, OrderFilter filter, List<Order> into) {
+            for (Order order : orders.values()) {
+                if (filter.matches(order)) {
+                    into.add(order);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package hte.matchingengine;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * FIFO queue of resting orders at a single price level.
+ *
+ * <p>The queue is intrusive: its links live in {@link Order#prev}/{@link Order#next} and each
+ * queued order points back at its level through {@link Order#level}. Appending, polling the head
+ * and unlinking an arbitrary order (a cancel) are therefore O(1) and allocation-free, and a
+ * cancelled order leaves the queue immediately instead of lingering until matching walks past it.
+ */
+final class OrderQueue implements Iterable<Order> {
+    private Order head;
+    private Order tail;
+    private int size;
+
+    void addLast(Order order) {
+        order.level = this;
+        order.prev = tail;
+        order.next = null;
+        if (tail == null) {
+            head = order;
+        } else {
+            tail.next = order;
+        }
+        tail = order;
+        size++;
+    }
+
+    /**
+     * @return the oldest order at this level, or {@code null} if empty.
+     */
+    Order peek() {
+        return head;
+    }
+
+    /** Removes and returns the oldest order at this level, or {@code null} if empty. */
+    Order poll() {
+        Order order = head;
+        if (order != null) {
+            unlink(order);
+        }
+        return order;
+    }
+
+    /**
+     * Unlinks {@code order} from this level.
+     *
+     * @return false if the order is not queued here.
+     */
+    boolean remove(Order order) {
+        if (order.level != this) {
+            return false;
+        }
+        unlink(order);
+        return true;
+    }
+
+    boolean isEmpty() {
+        return head == null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Unlinks every order so none of them still points at this level. */
+    void clear() {
+        while (head != null) {
+            unlink(head);
+        }
+    }
+
+    private void unlink(Order order) {
+        Order prev = order.prev;
+        Order next = order.next;
+        if (prev == null) {
+            head = next;
+        } else {
+            prev.next = next;
+        }
+        if (next == null) {
+            tail = prev;
+        } else {
+            next.prev = prev;
+        }
+        order.prev = null;
+        order.next = null;
+        order.level = null;
+        size--;
+    }
+
+    @Override
+    public Iterator<Order> iterator() {
+        return new Iterator<>() {
+            private Order cursor = head;
+
+            @Override
+            public boolean hasNext() {
+                return cursor != null;
+            }
+
+            @Override
+            public Order next() {
+                if (cursor == null) {
+                    throw new NoSuchElementException();
+                }
+                Order order = cursor;
+                cursor = cursor.next;
+                return order;
+            }
+        };
+    }
+}
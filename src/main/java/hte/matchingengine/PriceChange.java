@@ -3,7 +3,7 @@ package hte.matchingengine;
 /**
  * A (ticker, price, side) change annotated with current aggregated volume.
  *
- * <p>Produced by {@link RecentTrades#getRecentTrades()} for UI/chart updates.
+ * <p>Produced from {@link DirtyLevels} for UI/chart updates.
  */
 public class PriceChange extends TradeKey {
     private final int volume;
@@ -0,0 +1,18 @@
+package hte.matchingengine;
+
+/**
+ * How long a limit order stays eligible to trade.
+ *
+ * <p>Only {@link #GTC} and {@link #POST_ONLY} orders can rest on the book; the other two trade on
+ * arrival or not at all.
+ */
+public enum TimeInForce {
+    /** Good till cancelled: matches what it can, and the remainder rests. */
+    GTC,
+    /** Immediate or cancel: matches what it can, and the remainder is cancelled. */
+    IOC,
+    /** Fill or kill: fills in full on arrival, or is rejected without trading. */
+    FOK,
+    /** Rests without trading, or is rejected if it would cross the book. */
+    POST_ONLY;
+}
@@ -0,0 +1,212 @@
+package hte.matchingengine;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Best bid and ask, with their sizes, of every ticker, as of the last engine batch.
+ *
+ * <p>The engine thread {@link #touch}es a ticker whenever one of its levels changes and calls
+ * {@link #publish} after each batch of commands. Publishing recomputes the top of each touched book
+ * and, only if it differs from the stored quote, rewrites that ticker's {@link Slot} and wakes the
+ * publisher. Nothing is allocated once a ticker has its slot.
+ *
+ * <p>Each slot is a seqlock: the engine thread makes its version odd, writes the four fields and
+ * makes it even again, and readers retry until they see the same even version before and after
+ * reading. Readers never block the engine, and always get a quote that was current at the end of
+ * some batch.
+ */
+public final class TopOfBook {
+
+    /**
+     * One ticker's top of book. An empty side has price and volume 0; {@code version} counts the
+     * changes published for the ticker.
+     */
+    public record Quote(
+            String ticker,
+            long version,
+            int bidPrice,
+            int bidVolume,
+            int askPrice,
+            int askVolume) {}
+
+    private final ConcurrentHashMap<String, Slot> slots = new ConcurrentHashMap<>();
+    // Set by the engine thread when a slot changed, cleared by the waiting reader.
+    private final AtomicBoolean changed = new AtomicBoolean();
+    private volatile Thread waiter;
+
+    // Engine thread only.
+    private final List<Slot> touched = new ArrayList<>();
+
+    /** Engine thread: notes that a level of {@code ticker} changed in the current batch. */
+    void touch(String ticker) {
+        Slot slot = slots.get(ticker);
+        if (slot == null) {
+            slot = new Slot(ticker);
+            slots.put(ticker, slot);
+        }
+        if (!slot.touched) {
+            slot.touched = true;
+            touched.add(slot);
+        }
+    }
+
+    /** Engine thread: touches every known ticker, for when the set of books is replaced. */
+    void touchAll(Collection<String> tickers) {
+        for (String ticker : tickers) {
+            touch(ticker);
+        }
+        for (Slot slot : slots.values()) {
+            touch(slot.ticker);
+        }
+    }
+
+    /**
+     * Engine thread: rewrites the quote of every touched ticker whose top of book changed. A ticker
+     * without a book gets an empty quote.
+     *
+     * @return true if any quote changed.
+     */
+    boolean publish(Map<String, OrderBook> books) {
+        if (touched.isEmpty()) {
+            return false;
+        }
+        boolean any = false;
+        for (int i = 0; i < touched.size(); i++) {
+            Slot slot = touched.get(i);
+            slot.touched = false;
+            OrderBook book = books.get(slot.ticker);
+            any |= book == null ? slot.write(0, 0, 0, 0) : slot.write(book.bids, book.asks);
+        }
+        touched.clear();
+        if (any) {
+            changed.set(true);
+            Thread thread = waiter;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+        return any;
+    }
+
+    /**
+     * Reader: waits up to {@code timeout} for a quote to change since the last call returned. Only
+     * one thread may wait at a time.
+     *
+     * @return true if a quote changed.
+     */
+    public boolean await(long timeout, TimeUnit unit) {
+        if (changed.getAndSet(false)) {
+            return true;
+        }
+        waiter = Thread.currentThread();
+        try {
+            if (!changed.get()) {
+                LockSupport.parkNanos(this, unit.toNanos(timeout));
+            }
+        } finally {
+            waiter = null;
+        }
+        return changed.getAndSet(false);
+    }
+
+    /**
+     * @return every ticker's slot; a ticker gets one when its book is created or first changes.
+     */
+    public Collection<Slot> slots() {
+        return slots.values();
+    }
+
+    /**
+     * @return the current quote of {@code ticker}, or null if the engine never had its book.
+     */
+    public Quote get(String ticker) {
+        Slot slot = slots.get(ticker);
+        return slot == null ? null : slot.read();
+    }
+
+    /** Seqlocked quote of one ticker. */
+    public static final class Slot {
+        private final String ticker;
+        // Odd while the engine thread is writing.
+        private final AtomicLong version = new AtomicLong();
+        private int bidPrice;
+        private int bidVolume;
+        private int askPrice;
+        private int askVolume;
+        // Engine thread only.
+        private boolean touched;
+
+        private Slot(String ticker) {
+            this.ticker = ticker;
+        }
+
+        public String ticker() {
+            return ticker;
+        }
+
+        /**
+         * @return number of changes published so far; cheap enough to poll.
+         */
+        public long version() {
+            return version.getAcquire() >>> 1;
+        }
+
+        /** Reads a consistent quote, retrying while the engine thread is writing it. */
+        public Quote read() {
+            while (true) {
+                long before = version.getAcquire();
+                if ((before & 1) == 0) {
+                    int bp = bidPrice;
+                    int bv = bidVolume;
+                    int ap = askPrice;
+                    int av = askVolume;
+                    VarHandle.loadLoadFence();
+                    if (version.getPlain() == before) {
+                        return new Quote(ticker, before >>> 1, bp, bv, ap, av);
+                    }
+                }
+                Thread.onSpinWait();
+            }
+        }
+
+        private boolean write(BookSide bids, BookSide asks) {
+            int bp = 0;
+            int bv = 0;
+            int ap = 0;
+            int av = 0;
+            if (!bids.isEmpty()) {
+                bp = bids.bestPrice();
+                bv = bids.volumeAt(bp);
+            }
+            if (!asks.isEmpty()) {
+                ap = asks.bestPrice();
+                av = asks.volumeAt(ap);
+            }
+            return write(bp, bv, ap, av);
+        }
+
+        private boolean write(int bp, int bv, int ap, int av) {
+            if (bp == bidPrice && bv == bidVolume && ap == askPrice && av == askVolume) {
+                return false;
+            }
+            long v = version.getPlain();
+            version.setPlain(v + 1);
+            VarHandle.storeStoreFence();
+            bidPrice = bp;
+            bidVolume = bv;
+            askPrice = ap;
+            askVolume = av;
+            version.setRelease(v + 2);
+            return true;
+        }
+    }
+}
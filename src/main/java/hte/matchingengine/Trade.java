@@ -1,30 +1,46 @@
 package hte.matchingengine;
 
-import java.time.LocalDateTime;
-
 /**
  * Executed trade record.
  *
- * <p>This is a point-in-time immutable record capturing who traded, what traded, and when.
+ * <p>One fill between a resting (maker) order and the incoming (taker) order, at the maker's price.
+ * {@link #getSide()} is the taker's side. Order ids are the ids returned when the orders were
+ * placed; a taker that never rested (a market order, or a limit order filled on arrival) has id 0.
+ * {@link #getTimestamp()} is the engine's wall clock in epoch milliseconds.
  */
 public class Trade {
     private final long tradeId;
-    private final String buyer;
-    private final String seller;
     private final String ticker;
-    private final double price;
-    private final double volume;
-    private final LocalDateTime timestamp;
+    private final int price;
+    private final int volume;
+    private final Side side;
+    private final String maker;
+    private final String taker;
+    private final long makerOrderId;
+    private final long takerOrderId;
+    private final long timestamp;
 
     public Trade(
-            long tradeId, String buyer, String seller, String ticker, double price, double volume) {
+            long tradeId,
+            String ticker,
+            int price,
+            int volume,
+            Side side,
+            String maker,
+            String taker,
+            long makerOrderId,
+            long takerOrderId,
+            long timestamp) {
         this.tradeId = tradeId;
-        this.buyer = buyer;
-        this.seller = seller;
         this.ticker = ticker;
         this.price = price;
         this.volume = volume;
-        this.timestamp = LocalDateTime.now();
+        this.side = side;
+        this.maker = maker;
+        this.taker = taker;
+        this.makerOrderId = makerOrderId;
+        this.takerOrderId = takerOrderId;
+        this.timestamp = timestamp;
     }
 
     // Getters
@@ -32,41 +48,55 @@ public class Trade {
         return tradeId;
     }
 
-    public String getBuyer() {
-        return buyer;
-    }
-
-    public String getSeller() {
-        return seller;
-    }
-
     public String getTicker() {
         return ticker;
     }
 
-    public double getPrice() {
+    public int getPrice() {
         return price;
     }
 
-    public double getVolume() {
+    public int getVolume() {
         return volume;
     }
 
-    public LocalDateTime getTimestamp() {
+    public Side getSide() {
+        return side;
+    }
+
+    public String getMaker() {
+        return maker;
+    }
+
+    public String getTaker() {
+        return taker;
+    }
+
+    public long getMakerOrderId() {
+        return makerOrderId;
+    }
+
+    public long getTakerOrderId() {
+        return takerOrderId;
+    }
+
+    public long getTimestamp() {
         return timestamp;
     }
 
+    public String getBuyer() {
+        return side == Side.BID ? taker : maker;
+    }
+
+    public String getSeller() {
+        return side == Side.BID ? maker : taker;
+    }
+
     @Override
     public String toString() {
         return "Trade{"
                 + "tradeId="
                 + tradeId
-                + ", buyer='"
-                + buyer
-                + '\''
-                + ", seller='"
-                + seller
-                + '\''
                 + ", ticker='"
                 + ticker
                 + '\''
@@ -74,6 +104,18 @@ public class Trade {
                 + price
                 + ", volume="
                 + volume
+                + ", side="
+                + side
+                + ", maker='"
+                + maker
+                + '\''
+                + ", taker='"
+                + taker
+                + '\''
+                + ", makerOrderId="
+                + makerOrderId
+                + ", takerOrderId="
+                + takerOrderId
                 + ", timestamp="
                 + timestamp
                 + '}';
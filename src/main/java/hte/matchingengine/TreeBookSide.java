@@ -0,0 +1,123 @@
+package hte.matchingengine;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@link BookSide} backed by {@link TreeMap}s.
+ *
+ * <p>Used when a ticker's price range is too wide for a {@link LadderBookSide}; any price can be
+ * addressed at the cost of tree lookups and boxed keys.
+ */
+final class TreeBookSide implements BookSide {
+    private final boolean bids;
+    // Price -> FIFO queue of resting orders.
+    private final TreeMap<Integer, OrderQueue> levels = new TreeMap<>();
+    // Price -> total resting volume at that price.
+    private final TreeMap<Integer, Integer> volumes = new TreeMap<>();
+
+    TreeBookSide(boolean bids) {
+        this.bids = bids;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return levels.isEmpty();
+    }
+
+    @Override
+    public int bestPrice() {
+        return bids ? levels.lastKey() : levels.firstKey();
+    }
+
+    @Override
+    public OrderQueue bestLevel() {
+        return bids ? levels.lastEntry().getValue() : levels.firstEntry().getValue();
+    }
+
+    @Override
+    public void removeBestLevel() {
+        if (bids) {
+            levels.pollLastEntry();
+        } else {
+            levels.pollFirstEntry();
+        }
+    }
+
+    @Override
+    public OrderQueue levelForInsert(int price) {
+        return levels.computeIfAbsent(price, k -> new OrderQueue());
+    }
+
+    @Override
+    public void remove(Order order) {
+        OrderQueue level = order.level;
+        if (level == null || !level.remove(order)) {
+            return;
+        }
+        if (level.isEmpty()) {
+            levels.remove(order.price);
+        }
+    }
+
+    @Override
+    public int volumeAt(int price) {
+        return volumes.getOrDefault(price, 0);
+    }
+
+    @Override
+    public int addVolume(int price, int delta) {
+        int volume = volumes.getOrDefault(price, 0) + delta;
+        if (volume <= 0) {
+            volumes.remove(price);
+            return 0;
+        }
+        volumes.put(price, volume);
+        return volume;
+    }
+
+    @Override
+    public int volumeThrough(int limitPrice, int wanted) {
+        Map<Integer, Integer> reachable =
+                bids
+                        ? volumes.tailMap(limitPrice, true).descendingMap()
+                        : volumes.headMap(limitPrice, true);
+        int found = 0;
+        for (int volume : reachable.values()) {
+            if (found >= wanted) {
+                break;
+            }
+            found += volume;
+        }
+        return found;
+    }
+
+    @Override
+    public void forEachVolume(VolumeVisitor visitor) {
+        for (Map.Entry<Integer, Integer> entry : volumes.entrySet()) {
+            visitor.visit(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public Map<Integer, OrderQueue> levels() {
+        return levels;
+    }
+
+    @Override
+    public void clear() {
+        for (OrderQueue level : levels.values()) {
+            level.clear();
+        }
+        levels.clear();
+        volumes.clear();
+    }
+
+    /** Copies one level over from another side representation (used on ladder fallback). */
+    void restoreLevel(int price, OrderQueue level, int volume) {
+        levels.put(price, level);
+        if (volume > 0) {
+            volumes.put(price, volume);
+        }
+    }
+}
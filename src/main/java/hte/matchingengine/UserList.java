@@ -1,13 +1,16 @@
 package hte.matchingengine;
 
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +46,11 @@ public class UserList {
     // Used to model bots with unlimited money to lose.
     private final Set<String> negativeBalanceAllowed = new HashSet<>();
 
+    // Users changed since the last drainDirtyUsers, for private update pushes.
+    private final Set<String> dirtyUsers = new HashSet<>();
+    // Whether dirtyUsers is non-empty, readable from any thread.
+    private volatile boolean hasDirtyUsers;
+
     public void setInfinite(boolean infinite) {
         this.infinite = infinite;
     }
@@ -76,6 +84,7 @@ public class UserList {
         sumPrices.putIfAbsent(username, new HashMap<>());
         askSize.putIfAbsent(username, new HashMap<>());
         bidSize.putIfAbsent(username, new HashMap<>());
+        markDirty(username);
         return true;
     }
 
@@ -90,6 +99,7 @@ public class UserList {
         sumPrices.putIfAbsent(username, new HashMap<>());
         askSize.putIfAbsent(username, new HashMap<>());
         bidSize.putIfAbsent(username, new HashMap<>());
+        markDirty(username);
         return true;
     }
 
@@ -104,6 +114,7 @@ public class UserList {
         sumPrices.get(username).put(ticker, 0.0);
         askSize.get(username).put(ticker, 0);
         bidSize.get(username).put(ticker, 0);
+        markDirty(username);
         return true;
     }
 
@@ -160,6 +171,7 @@ public class UserList {
             return false;
         }
         userBalances.put(username, newBalance);
+        markDirty(username);
         return true;
     }
 
@@ -212,6 +224,7 @@ public class UserList {
             sumPrices.get(username).put(ticker, currSum);
         }
         quantities.get(username).put(ticker, newBalance);
+        markDirty(username);
         return true;
     }
 
@@ -221,6 +234,7 @@ public class UserList {
         }
         if (!askSize.get(username).containsKey(ticker)) return false;
         askSize.get(username).compute(ticker, (k, currentBalance) -> currentBalance + delta);
+        markDirty(username);
         return true;
     }
 
@@ -232,6 +246,7 @@ public class UserList {
             return false;
         }
         bidSize.get(username).compute(ticker, (k, currentBalance) -> currentBalance + delta);
+        markDirty(username);
         return true;
     }
 
@@ -258,6 +273,7 @@ public class UserList {
             return;
         }
 
+        markAllDirty();
         for (String username : userBalances.keySet()) {
             // zero out the balance
             userBalances.put(username, 0L);
@@ -284,38 +300,131 @@ public class UserList {
         }
     }
 
-    public ObjectNode getUserDetailsAsJson(String username, Map<String, Integer> prices) {
-        ObjectNode userJson = JsonNodeFactory.instance.objectNode();
+    /**
+     * Writes balances, positions, cost bases, reservations and negative-balance overrides.
+     *
+     * <p>The mode and position limit are configuration and are not part of the snapshot.
+     */
+    void writeSnapshot(DataOutput out) throws IOException {
+        out.writeInt(userBalances.size());
+        for (Map.Entry<String, Long> entry : userBalances.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+        writeIntMaps(out, quantities);
+        out.writeInt(sumPrices.size());
+        for (Map.Entry<String, Map<String, Double>> user : sumPrices.entrySet()) {
+            out.writeUTF(user.getKey());
+            out.writeInt(user.getValue().size());
+            for (Map.Entry<String, Double> entry : user.getValue().entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeDouble(entry.getValue());
+            }
+        }
+        writeIntMaps(out, bidSize);
+        writeIntMaps(out, askSize);
+        out.writeInt(negativeBalanceAllowed.size());
+        for (String username : negativeBalanceAllowed) {
+            out.writeUTF(username);
+        }
+    }
 
-        // Check if the user exists
-        if (!validUser(username)) {
-            userJson.put("error", "User not found");
-            return userJson;
+    /** Replaces all user state with a snapshot written by {@link #writeSnapshot}. */
+    void readSnapshot(DataInput in) throws IOException {
+        userBalances = new HashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            userBalances.put(in.readUTF(), in.readLong());
         }
+        quantities = readIntMaps(in);
+        sumPrices = new HashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            Map<String, Double> tickers = new HashMap<>();
+            sumPrices.put(in.readUTF(), tickers);
+            for (int j = in.readInt(); j > 0; j--) {
+                tickers.put(in.readUTF(), in.readDouble());
+            }
+        }
+        bidSize = readIntMaps(in);
+        askSize = readIntMaps(in);
+        negativeBalanceAllowed.clear();
+        for (int i = in.readInt(); i > 0; i--) {
+            negativeBalanceAllowed.add(in.readUTF());
+        }
+        markAllDirty();
+    }
 
-        // Add balance to JSON
-        long balance = getUserBalance(username);
-        userJson.put("username", username);
-        userJson.put("balance", balance);
-        userJson.put("pnl", getUnrealizedPnl(username, prices));
-
-        // Add positions to JSON
-        ObjectNode positionsJson = JsonNodeFactory.instance.objectNode();
-        for (String ticker : quantities.getOrDefault(username, new HashMap<>()).keySet()) {
-            int quantity = quantities.get(username).getOrDefault(ticker, 0);
-            double sumPrice =
-                    sumPrices.getOrDefault(username, new HashMap<>()).getOrDefault(ticker, 0.0);
-            double avgPrice = quantity != 0.0 ? (double) sumPrice / (double) quantity : 0.0;
-
-            ObjectNode tickerDetails = JsonNodeFactory.instance.objectNode();
-            tickerDetails.put("quantity", quantity);
-            tickerDetails.put("averagePrice", avgPrice);
-
-            positionsJson.set(ticker, tickerDetails);
+    private static void writeIntMaps(DataOutput out, Map<String, Map<String, Integer>> maps)
+            throws IOException {
+        out.writeInt(maps.size());
+        for (Map.Entry<String, Map<String, Integer>> user : maps.entrySet()) {
+            out.writeUTF(user.getKey());
+            out.writeInt(user.getValue().size());
+            for (Map.Entry<String, Integer> entry : user.getValue().entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue());
+            }
         }
-        userJson.set("positions", positionsJson);
+    }
+
+    private static Map<String, Map<String, Integer>> readIntMaps(DataInput in) throws IOException {
+        Map<String, Map<String, Integer>> maps = new HashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            Map<String, Integer> tickers = new HashMap<>();
+            maps.put(in.readUTF(), tickers);
+            for (int j = in.readInt(); j > 0; j--) {
+                tickers.put(in.readUTF(), in.readInt());
+            }
+        }
+        return maps;
+    }
 
-        return userJson;
+    /**
+     * @return quantity and average price per ticker the user holds a position entry for.
+     */
+    Map<String, UserState.Position> positionsOf(String username) {
+        Map<String, UserState.Position> positions = new LinkedHashMap<>();
+        Map<String, Integer> userQuantities = quantities.getOrDefault(username, Map.of());
+        Map<String, Double> userSums = sumPrices.getOrDefault(username, Map.of());
+        for (Map.Entry<String, Integer> entry : userQuantities.entrySet()) {
+            int quantity = entry.getValue();
+            double sumPrice = userSums.getOrDefault(entry.getKey(), 0.0);
+            double avgPrice = quantity != 0.0 ? sumPrice / (double) quantity : 0.0;
+            positions.put(entry.getKey(), new UserState.Position(quantity, avgPrice));
+        }
+        return positions;
+    }
+
+    /**
+     * Hands {@code consumer} every user whose balance, positions or reservations changed since the
+     * last call, and forgets them.
+     */
+    void drainDirtyUsers(Consumer<String> consumer) {
+        for (String username : dirtyUsers) {
+            consumer.accept(username);
+        }
+        dirtyUsers.clear();
+        hasDirtyUsers = false;
+    }
+
+    /**
+     * @return true if a user changed since the last {@link #drainDirtyUsers}; safe from any thread.
+     */
+    boolean hasDirtyUsers() {
+        return hasDirtyUsers;
+    }
+
+    private void markDirty(String username) {
+        dirtyUsers.add(username);
+        if (!hasDirtyUsers) {
+            hasDirtyUsers = true;
+        }
+    }
+
+    private void markAllDirty() {
+        dirtyUsers.addAll(userBalances.keySet());
+        if (!dirtyUsers.isEmpty()) {
+            hasDirtyUsers = true;
+        }
     }
 
     public long getUnrealizedPnl(String username, Map<String, Integer> prices) {
@@ -0,0 +1,69 @@
+package hte.matchingengine;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable copy of one user's balance, positions and resting orders.
+ *
+ * <p>Captured on the engine thread so it can be rendered anywhere. {@link #toJson} produces the
+ * same document as {@link MatchingEngine#getUserDetails(String)}.
+ */
+public record UserState(
+        String username,
+        long balance,
+        Map<String, Position> positions,
+        Map<String, List<RestingOrder>> orders) {
+
+    public record Position(int quantity, double averagePrice) {}
+
+    public record RestingOrder(long orderId, int price, int volume, Side side) {}
+
+    /**
+     * @return balance plus every position marked at {@code prices}.
+     */
+    public long pnl(Map<String, Integer> prices) {
+        long pnl = balance;
+        for (Map.Entry<String, Integer> entry : prices.entrySet()) {
+            Position position = positions.get(entry.getKey());
+            if (position != null) {
+                pnl += position.quantity() * entry.getValue();
+            }
+        }
+        return pnl;
+    }
+
+    /** Renders the user details document, marking positions at {@code prices}. */
+    public String toJson(Map<String, Integer> prices) {
+        ObjectNode userJson = JsonNodeFactory.instance.objectNode();
+        userJson.put("username", username);
+        userJson.put("balance", balance);
+        userJson.put("pnl", pnl(prices));
+
+        ObjectNode positionsJson = JsonNodeFactory.instance.objectNode();
+        for (Map.Entry<String, Position> entry : positions.entrySet()) {
+            ObjectNode tickerDetails = JsonNodeFactory.instance.objectNode();
+            tickerDetails.put("quantity", entry.getValue().quantity());
+            tickerDetails.put("averagePrice", entry.getValue().averagePrice());
+            positionsJson.set(entry.getKey(), tickerDetails);
+        }
+        userJson.set("positions", positionsJson);
+
+        ObjectNode ordersByTicker = JsonNodeFactory.instance.objectNode();
+        for (Map.Entry<String, List<RestingOrder>> entry : orders.entrySet()) {
+            ArrayNode tickerOrders = ordersByTicker.putArray(entry.getKey());
+            for (RestingOrder order : entry.getValue()) {
+                ObjectNode orderDetails = tickerOrders.addObject();
+                orderDetails.put("orderId", order.orderId());
+                orderDetails.put("price", order.price());
+                orderDetails.put("volume", order.volume());
+                orderDetails.put("side", order.side().toString());
+            }
+        }
+        userJson.set("Orders", ordersByTicker);
+        return userJson.toString();
+    }
+}
@@ -1,20 +1,15 @@
 package runner;
 
 import hte.api.ServerApplication;
-import hte.common.TaskQueue;
+import hte.common.EngineSequencer;
 import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 
 public class Main {
     public static void main(String[] args) {
-        SpringApplication.run(ServerApplication.class, args);
-        while (true) {
-            if (!TaskQueue.isEmpty()) {
-                Runnable action = TaskQueue.getNextTask();
-                if (action != null) {
-                    action.run();
-                    // System.out.println("Processing");
-                }
-            }
-        }
+        ConfigurableApplicationContext context =
+                SpringApplication.run(ServerApplication.class, args);
+        // The main thread becomes the engine thread once startup (incl. user init) is done.
+        context.getBean(EngineSequencer.class).run();
     }
 }
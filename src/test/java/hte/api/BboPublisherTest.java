@@ -0,0 +1,91 @@
+package hte.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import hte.api.dtos.responses.BboResponse;
+import hte.matchingengine.MatchingEngine;
+import hte.matchingengine.Order;
+import hte.matchingengine.Side;
+import hte.matchingengine.Status;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class BboPublisherTest {
+    private static final long INTERVAL_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+
+    private MatchingEngine engine;
+    private MarketDataBroadcaster broadcaster;
+    private BboPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        engine = new MatchingEngine();
+        engine.initializeTicker("A");
+        engine.initializeBot("maker");
+        broadcaster = mock(MarketDataBroadcaster.class);
+        publisher = new BboPublisher(engine, broadcaster, 500);
+    }
+
+    private void ask(int price, int volume) {
+        engine.askLimitOrder(
+                "maker", new Order("maker", "A", price, volume, Side.ASK, Status.ACTIVE));
+        engine.publishTopOfBook();
+    }
+
+    @Test
+    void sendsEachChangedTicker_thenNothingUntilItChangesAgain() {
+        ask(105, 3);
+        assertEquals(0, publisher.publishDue(0));
+
+        ArgumentCaptor<BboResponse> bbo = ArgumentCaptor.forClass(BboResponse.class);
+        verify(broadcaster).publish(eq("/topic/bbo"), bbo.capture(), eq("A"));
+        assertEquals("A", bbo.getValue().getTicker());
+        assertEquals(1, bbo.getValue().getSeq());
+        assertEquals(105, bbo.getValue().getAskPrice());
+        assertEquals(3, bbo.getValue().getAskVolume());
+        assertEquals(0, bbo.getValue().getBidVolume());
+
+        publisher.publishDue(INTERVAL_NANOS * 10);
+        verify(broadcaster, times(1)).publish(eq("/topic/bbo"), any(BboResponse.class), any());
+    }
+
+    @Test
+    void changesInsideTheInterval_areCoalescedIntoTheLatestQuote() {
+        ask(105, 3);
+        publisher.publishDue(0);
+        ask(104, 1);
+        ask(103, 2);
+
+        assertEquals(INTERVAL_NANOS - 100, publisher.publishDue(100));
+        verify(broadcaster, times(1)).publish(eq("/topic/bbo"), any(BboResponse.class), any());
+
+        assertEquals(0, publisher.publishDue(INTERVAL_NANOS));
+        ArgumentCaptor<BboResponse> bbo = ArgumentCaptor.forClass(BboResponse.class);
+        verify(broadcaster, times(2)).publish(eq("/topic/bbo"), bbo.capture(), eq("A"));
+        assertEquals(3, bbo.getValue().getSeq());
+        assertEquals(103, bbo.getValue().getAskPrice());
+        assertEquals(2, bbo.getValue().getAskVolume());
+    }
+
+    @Test
+    void publisherThread_isWokenByTheEngine() throws InterruptedException {
+        publisher.start();
+        try {
+            verify(broadcaster, never()).publish(eq("/topic/bbo"), any(BboResponse.class), any());
+            ask(105, 3);
+            verify(broadcaster, timeout(1_000))
+                    .publish(eq("/topic/bbo"), any(BboResponse.class), eq("A"));
+        } finally {
+            publisher.stop();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package hte.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import hte.api.dtos.responses.FillsResponse;
+import hte.api.dtos.responses.TradesResponse;
+import hte.matchingengine.MatchingEngine;
+import hte.matchingengine.Order;
+import hte.matchingengine.Side;
+import hte.matchingengine.Status;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+
+class ExecutionPublisherTest {
+    private MatchingEngine engine;
+    private SimpMessagingTemplate template;
+    private MarketDataBroadcaster broadcaster;
+    private ExecutionPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        engine = new MatchingEngine();
+        engine.initializeTicker("A");
+        engine.initializeBot("alice");
+        engine.initializeBot("bob");
+
+        SimpUserRegistry registry = mock(SimpUserRegistry.class);
+        when(registry.getUser("alice")).thenReturn(mock(SimpUser.class));
+        template = mock(SimpMessagingTemplate.class);
+        broadcaster = mock(MarketDataBroadcaster.class);
+        publisher = new ExecutionPublisher(engine, registry, template, broadcaster);
+    }
+
+    @Test
+    void batchesOneCycleOfFills_perUserAndOnTheTape() {
+        long ask =
+                engine.askLimitOrder("bob", new Order("bob", "A", 100, 5, Side.ASK, Status.ACTIVE));
+        engine.bidLimitOrder("alice", new Order("alice", "A", 100, 2, Side.BID, Status.ACTIVE));
+        engine.bidLimitOrder("alice", new Order("alice", "A", 100, 1, Side.BID, Status.ACTIVE));
+        engine.getExecutions().publish();
+        publisher.poll();
+
+        ArgumentCaptor<TradesResponse> tape = ArgumentCaptor.forClass(TradesResponse.class);
+        verify(broadcaster).publish(eq("/topic/trades"), tape.capture());
+        assertEquals(1, tape.getValue().getSeq());
+        assertEquals(
+                List.of(
+                        new TradesResponse.TapeTrade(
+                                1,
+                                "A",
+                                100,
+                                2,
+                                "BID",
+                                tape.getValue().getTrades().get(0).timestamp()),
+                        new TradesResponse.TapeTrade(
+                                2,
+                                "A",
+                                100,
+                                1,
+                                "BID",
+                                tape.getValue().getTrades().get(1).timestamp())),
+                tape.getValue().getTrades());
+
+        ArgumentCaptor<FillsResponse> fills = ArgumentCaptor.forClass(FillsResponse.class);
+        verify(template).convertAndSendToUser(eq("alice"), eq("/queue/fills"), fills.capture());
+        assertEquals(1, fills.getValue().getSeq());
+        assertEquals(2, fills.getValue().getFills().size());
+        FillsResponse.Fill fill = fills.getValue().getFills().get(0);
+        assertEquals("BID", fill.side());
+        assertEquals("TAKER", fill.liquidity());
+        assertEquals(ask, fill.makerOrderId());
+        assertEquals(0, fill.takerOrderId());
+        // Bob is not connected.
+        verify(template, never()).convertAndSendToUser(eq("bob"), anyString(), any());
+
+        // Nothing new: no messages.
+        publisher.poll();
+        verify(broadcaster, times(1)).publish(anyString(), any(Object.class));
+    }
+
+    @Test
+    void userSeq_advancesWhileDisconnected() {
+        engine.askLimitOrder("alice", new Order("alice", "A", 100, 5, Side.ASK, Status.ACTIVE));
+        for (int i = 0; i < 2; i++) {
+            engine.bidLimitOrder("bob", new Order("bob", "A", 100, 1, Side.BID, Status.ACTIVE));
+            engine.getExecutions().publish();
+            publisher.poll();
+        }
+
+        ArgumentCaptor<FillsResponse> fills = ArgumentCaptor.forClass(FillsResponse.class);
+        verify(template, times(2))
+                .convertAndSendToUser(eq("alice"), eq("/queue/fills"), fills.capture());
+        assertEquals(
+                List.of(1L, 2L), fills.getAllValues().stream().map(FillsResponse::getSeq).toList());
+        assertEquals("MAKER", fills.getValue().getFills().get(0).liquidity());
+        assertEquals("ASK", fills.getValue().getFills().get(0).side());
+    }
+}
@@ -0,0 +1,168 @@
+package hte.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import hte.api.dtos.responses.SocketResponse;
+import hte.api.dtos.responses.SocketSessionsResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+class MarketDataBroadcasterTest {
+    // Sender tasks run only when a test drains them, so queues can be built up.
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private MarketDataBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new MarketDataBroadcaster(3, tasks::add);
+    }
+
+    private WebSocketSession connect(String id) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        broadcaster.connected(session);
+        return session;
+    }
+
+    private void runSenders() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private static List<String> sentFrames(WebSocketSession session, int count) throws Exception {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(session, times(count)).sendMessage(sent.capture());
+        return sent.getAllValues().stream()
+                .map(
+                        m ->
+                                m instanceof TextMessage text
+                                        ? text.getPayload()
+                                        : new String(
+                                                ((BinaryMessage) m).getPayload().array(),
+                                                StandardCharsets.UTF_8))
+                .toList();
+    }
+
+    @Test
+    void publish_sendsAStompFramePerSubscription() throws Exception {
+        WebSocketSession first = connect("s1");
+        WebSocketSession second = connect("s2");
+        broadcaster.subscribe("s1", "sub-0", "/topic/orderbook");
+        broadcaster.subscribe("s2", "sub-7", "/topic/orderbook");
+        broadcaster.subscribe("s2", "sub-8", "/topic/chart");
+
+        assertEquals(2, broadcaster.publish("/topic/orderbook", new SocketResponse("[]", 4L)));
+        assertEquals(0, broadcaster.publish("/topic/trades", "ignored"));
+        runSenders();
+
+        String frame = sentFrames(first, 1).get(0);
+        assertTrue(frame.startsWith("MESSAGE\ndestination:/topic/orderbook\nsubscription:sub-0\n"));
+        assertTrue(frame.contains("\ncontent-type:application/json\n"));
+        String body = "{\"content\":\"[]\",\"seq\":4}";
+        assertTrue(frame.endsWith("\ncontent-length:" + body.length() + "\n\n" + body + "\0"));
+        assertTrue(sentFrames(second, 1).get(0).contains("\nsubscription:sub-7\n"));
+    }
+
+    @Test
+    void bytes_goOutAsBinaryFrames() throws Exception {
+        WebSocketSession session = connect("s1");
+        broadcaster.subscribe("s1", "0", "/topic/orderbook.bin");
+
+        broadcaster.publish("/topic/orderbook.bin", new byte[] {1, 2});
+        runSenders();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(session).sendMessage(sent.capture());
+        assertInstanceOf(BinaryMessage.class, sent.getValue());
+        assertTrue(sentFrames(session, 1).get(0).contains("content-type:application/octet-stream"));
+    }
+
+    @Test
+    void conflatedMessages_replaceTheQueuedOneForTheirKey() throws Exception {
+        WebSocketSession session = connect("s1");
+        broadcaster.subscribe("s1", "0", "/topic/bbo");
+
+        broadcaster.publish("/topic/bbo", "A1", "A");
+        broadcaster.publish("/topic/bbo", "B1", "B");
+        broadcaster.publish("/topic/bbo", "A2", "A");
+        broadcaster.publish("/topic/bbo", "A3", "A");
+        SocketSessionsResponse.Session stats = broadcaster.getSessions().get(0);
+        assertEquals(2, stats.queued());
+        assertEquals(2, stats.conflated());
+        assertTrue(stats.lagNanos() > 0);
+        runSenders();
+
+        List<String> frames = sentFrames(session, 2);
+        assertTrue(frames.get(0).endsWith("\n\nA3\0"));
+        assertTrue(frames.get(1).endsWith("\n\nB1\0"));
+        assertEquals(0, broadcaster.getSessions().get(0).queued());
+        assertEquals(2, broadcaster.getSessions().get(0).sent());
+    }
+
+    @Test
+    void sessionThatFallsBehindOnDeltas_isClosedWithAResyncHint() throws Exception {
+        WebSocketSession slow = connect("slow");
+        WebSocketSession fast = connect("fast");
+        broadcaster.subscribe("slow", "0", "/topic/orderbook");
+        broadcaster.subscribe("fast", "0", "/topic/orderbook");
+
+        broadcaster.publish("/topic/orderbook", "update 0");
+        // The slow session's sender never gets to run; it stays the one draining the queue.
+        Runnable slowSender = tasks.poll();
+        runSenders();
+        broadcaster.publish("/topic/orderbook", "update 1");
+        broadcaster.publish("/topic/orderbook", "update 2");
+        runSenders();
+        assertEquals(1, broadcaster.publish("/topic/orderbook", "update 3"));
+        runSenders();
+        slowSender.run();
+
+        verify(slow).close(MarketDataBroadcaster.SLOW_CONSUMER);
+        verify(slow, never()).sendMessage(any());
+        verify(fast, times(4)).sendMessage(any());
+        assertEquals(1, broadcaster.getDroppedSessions());
+    }
+
+    @Test
+    void unsubscribeAndDisconnect_stopDelivery() throws Exception {
+        WebSocketSession session = connect("s1");
+        broadcaster.subscribe("s1", "0", "/topic/orderbook");
+        broadcaster.subscribe("s1", "1", "/topic/chart");
+
+        broadcaster.unsubscribe("s1", "0");
+        assertEquals(0, broadcaster.publish("/topic/orderbook", "x"));
+        broadcaster.disconnected("s1");
+        assertEquals(0, broadcaster.publish("/topic/chart", "x"));
+        assertEquals(List.of(), broadcaster.getSessions());
+        runSenders();
+        verify(session, never()).sendMessage(any());
+    }
+
+    @Test
+    void userQueues_areLeftToTheSimpleBroker() {
+        connect("s1");
+        broadcaster.subscribe("s1", "0", "/user/queue/fills");
+        assertEquals(0, broadcaster.publish("/user/queue/fills", "x"));
+    }
+}
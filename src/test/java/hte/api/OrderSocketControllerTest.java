@@ -0,0 +1,204 @@
+package hte.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import hte.api.auth.BotAuthenticator;
+import hte.api.auth.PrivatePageAuthenticator;
+import hte.api.auth.RateLimiter;
+import hte.api.auth.RateLimiter.Limit;
+import hte.api.auth.RateLimiter.RequestClass;
+import hte.api.auth.RateLimiter.Role;
+import hte.api.auth.SessionTokens;
+import hte.api.dtos.requests.SocketOrderRequest;
+import hte.api.dtos.responses.SocketOrderResponse;
+import hte.api.repository.BotSessionsRepository;
+import hte.api.repository.SessionsRepository;
+import hte.api.service.OrderService;
+import hte.common.Message;
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+
+class OrderSocketControllerTest {
+    private OrderService orderService;
+    private ServerApplication app;
+    private OrderSocketController controller;
+    private SessionTokens tokens;
+    private String token;
+    private final Principal bot = () -> "bot";
+
+    @BeforeEach
+    void setUp() {
+        orderService = mock(OrderService.class);
+        app = mock(ServerApplication.class);
+        when(app.getState()).thenReturn(State.TRADE);
+        RateLimiter rateLimiter =
+                new RateLimiter(
+                        Map.of(
+                                Role.USER, new Limit(1, 1),
+                                Role.BOT, new Limit(1, 2),
+                                Role.ADMIN, new Limit(0, 0)),
+                        Map.of(
+                                RequestClass.ORDER, 1.0,
+                                RequestClass.CANCEL, 1.0,
+                                RequestClass.READ, 1.0),
+                        () -> 0);
+        tokens = new SessionTokens("test-signing-key", 3600);
+        token = tokens.issue("bot", SessionTokens.Slot.BOT);
+        controller =
+                new OrderSocketController(
+                        orderService,
+                        app,
+                        rateLimiter,
+                        new PrivatePageAuthenticator(mock(SessionsRepository.class), tokens),
+                        new BotAuthenticator(mock(BotSessionsRepository.class), tokens));
+    }
+
+    @AfterEach
+    void tearDown() {
+        controller.stop();
+    }
+
+    private SimpMessageHeaderAccessor session(Role role) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create();
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(SocketInterceptor.ROLE_ATTRIBUTE, role);
+        attributes.put(SocketInterceptor.TOKEN_ATTRIBUTE, token);
+        headers.setSessionAttributes(attributes);
+        return headers;
+    }
+
+    private static SocketOrderRequest limit(String id, int volume) {
+        return new SocketOrderRequest(id, "A", 100, volume, true, 0);
+    }
+
+    private static void assertResponse(
+            String id, String type, String message, CompletableFuture<SocketOrderResponse> f) {
+        SocketOrderResponse response = f.join();
+        assertEquals(id, response.getId());
+        assertEquals(type, response.getType());
+        assertEquals(message, response.getMessage());
+    }
+
+    @Test
+    void limitOrder_usesThePrincipalAndEchoesTheId() {
+        when(orderService.placeLimitOrder("bot", "A", 100, 5_000, true))
+                .thenReturn(CompletableFuture.completedFuture("{\"orderId\": 1}"));
+
+        // Bots are not held to the user volume cap, as over HTTP.
+        assertResponse(
+                "c1",
+                "limit_order",
+                "{\"orderId\": 1}",
+                controller.limitOrder(limit("c1", 5_000), bot, session(Role.BOT)));
+    }
+
+    @Test
+    void commandsAreRateLimitedByTheSessionRole() {
+        when(orderService.removeOrder("bot", 7))
+                .thenReturn(CompletableFuture.completedFuture("removed"));
+        when(orderService.removeAll("bot"))
+                .thenReturn(CompletableFuture.completedFuture("removed all"));
+
+        SocketOrderRequest remove = new SocketOrderRequest("r1", null, 0, 0, false, 7);
+        assertResponse(
+                "r1", "remove", "removed", controller.remove(remove, bot, session(Role.BOT)));
+        assertResponse(
+                "r2",
+                "remove_all",
+                "removed all",
+                controller.removeAll(
+                        new SocketOrderRequest("r2", null, 0, 0, false, 0),
+                        bot,
+                        session(Role.BOT)));
+        assertResponse(
+                "r3",
+                "remove",
+                Message.RATE_LIMITED.toString(),
+                controller.remove(
+                        new SocketOrderRequest("r3", null, 0, 0, false, 7),
+                        bot,
+                        session(Role.BOT)));
+
+        // A user session of the same name has its own, smaller bucket.
+        assertResponse(
+                "r4",
+                "market_order",
+                Message.BAD_INPUT.toString(),
+                controller.marketOrder(
+                        new SocketOrderRequest("r4", null, 0, 1, true, 0),
+                        bot,
+                        session(Role.USER)));
+        when(orderService.placeMarketOrder("bot", "A", 1, true))
+                .thenReturn(CompletableFuture.completedFuture("filled"));
+        assertResponse(
+                "r5",
+                "market_order",
+                "filled",
+                controller.marketOrder(
+                        new SocketOrderRequest("r5", "A", 0, 1, true, 0), bot, session(Role.USER)));
+        assertResponse(
+                "r6",
+                "market_order",
+                Message.RATE_LIMITED.toString(),
+                controller.marketOrder(
+                        new SocketOrderRequest("r6", "A", 0, 1, true, 0), bot, session(Role.USER)));
+    }
+
+    @Test
+    void rejectsBeforeTheEngine_whenTradingIsLocked() {
+        when(app.getState()).thenReturn(State.STOP);
+        assertResponse(
+                "c1",
+                "limit_order",
+                Message.TRADE_LOCKED.toString(),
+                controller.limitOrder(limit("c1", 1), bot, session(Role.BOT)));
+        assertResponse(
+                "c2",
+                "limit_order",
+                Message.AUTHENTICATION_FAILED.toString(),
+                controller.limitOrder(limit("c2", 1), null, session(Role.BOT)));
+        verify(orderService, never())
+                .placeLimitOrder(anyString(), anyString(), anyInt(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    void commandsAfterTeardown_areRefused() {
+        when(orderService.placeLimitOrder("bot", "A", 100, 1, true))
+                .thenReturn(CompletableFuture.completedFuture("{\"orderId\": 1}"));
+        assertResponse(
+                "c1",
+                "limit_order",
+                "{\"orderId\": 1}",
+                controller.limitOrder(limit("c1", 1), bot, session(Role.BOT)));
+
+        // What /teardown does with signed tokens; the socket stays open.
+        tokens.revokeAll("bot");
+        assertResponse(
+                "c2",
+                "limit_order",
+                Message.AUTHENTICATION_FAILED.toString(),
+                controller.limitOrder(limit("c2", 1), bot, session(Role.BOT)));
+        assertResponse(
+                "c3",
+                "remove_all",
+                Message.AUTHENTICATION_FAILED.toString(),
+                controller.removeAll(
+                        new SocketOrderRequest("c3", null, 0, 0, false, 0),
+                        bot,
+                        session(Role.USER)));
+        verify(orderService, never()).removeAll(anyString());
+    }
+}
@@ -0,0 +1,144 @@
+package hte.api;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hte.common.EngineSequencer;
+import hte.common.MarketDataCodec;
+import hte.common.SeqGenerator;
+import hte.common.TickerStreams;
+import hte.matchingengine.MatchingEngine;
+import hte.matchingengine.Order;
+import hte.matchingengine.Side;
+import hte.matchingengine.Status;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OrderbookSnapshotCacheTest {
+    private MatchingEngine engine;
+    private SeqGenerator seqGenerator;
+    private List<Runnable> engineTasks;
+    private TickerStreams tickerStreams;
+    private MarketDataCodec codec;
+    private OrderbookSnapshotCache cache;
+
+    @BeforeEach
+    void setUp() {
+        engine = new MatchingEngine();
+        engine.initializeTicker("A");
+        engine.initializeBot("bob");
+        seqGenerator = new SeqGenerator();
+        seqGenerator.restore(5);
+
+        // Engine tasks run only when the test says so.
+        engineTasks = new ArrayList<>();
+        EngineSequencer sequencer = mock(EngineSequencer.class);
+        doAnswer(
+                        invocation -> {
+                            engineTasks.add(invocation.getArgument(0, Runnable.class));
+                            return null;
+                        })
+                .when(sequencer)
+                .submit(any());
+        tickerStreams = new TickerStreams(seqGenerator);
+        codec = new MarketDataCodec();
+        cache = new OrderbookSnapshotCache(engine, sequencer, seqGenerator, tickerStreams, codec);
+    }
+
+    private void runEngine() {
+        engineTasks.forEach(Runnable::run);
+        engineTasks.clear();
+    }
+
+    @Test
+    void concurrentCallers_shareOneCapture_servedUntilTheNextSeq() throws Exception {
+        engine.bidLimitOrder("bob", new Order("bob", "A", 100, 3, Side.BID, Status.ACTIVE));
+        var first = cache.get();
+        assertSame(first, cache.get());
+        assertEquals(1, engineTasks.size());
+        runEngine();
+
+        OrderbookSnapshotCache.Snapshot snapshot = first.get();
+        assertEquals(5, snapshot.seq());
+        assertEquals(engine.serializeOrderBooks(), snapshot.json());
+        JsonNode response = new ObjectMapper().readTree(snapshot.response());
+        assertEquals(5, response.get("latestSeq").asLong());
+        assertEquals(3, response.get("snapshot").get("A").get("bidVolumes").get("100").asInt());
+        // The binary form is the same capture, under the same seq.
+        ByteBuffer binary = ByteBuffer.wrap(snapshot.binary());
+        assertEquals(MarketDataCodec.VERSION, binary.get());
+        assertEquals(MarketDataCodec.TYPE_SNAPSHOT, binary.get());
+        assertEquals(5, binary.getLong());
+        assertArrayEquals(
+                codec.encodeSnapshot(
+                        5, List.of("A"), MatchingEngine.levelsOf(engine.captureOrderBooks())),
+                snapshot.binary());
+
+        assertSame(first, cache.get());
+        assertEquals(1, cache.getCaptures());
+
+        // A numbered market data update makes the snapshot stale.
+        seqGenerator.getAndIncrement();
+        var second = cache.get();
+        assertNotSame(first, second);
+        runEngine();
+        assertEquals(6, second.get().seq());
+        assertArrayEquals(second.get().response(), cache.get().get().response());
+        assertEquals(2, cache.getCaptures());
+    }
+
+    @Test
+    void newTicker_invalidatesSnapshot_withoutASeq() throws Exception {
+        var first = cache.get();
+        runEngine();
+        first.get();
+
+        engine.initializeTicker("B");
+        var second = cache.get();
+        assertNotSame(first, second);
+        runEngine();
+        assertTrue(new ObjectMapper().readTree(second.get().json()).has("B"));
+    }
+
+    @Test
+    void tickerSnapshot_isStampedWithTheTickersOwnSeq_andUnknownTickersLeaveNoEntry()
+            throws Exception {
+        engine.initializeTicker("B");
+        engine.bidLimitOrder("bob", new Order("bob", "B", 100, 3, Side.BID, Status.ACTIVE));
+        var b = cache.get("B");
+        var unknown = cache.get("nope");
+        runEngine();
+
+        // The ticker's stream starts at the global seq when first used.
+        assertEquals(5, b.get().seq());
+        JsonNode books = new ObjectMapper().readTree(b.get().json());
+        assertEquals(List.of("B"), iterable(books.fieldNames()));
+        assertNull(unknown.get());
+        assertNull(tickerStreams.find("nope"));
+
+        // Global updates do not make the ticker's snapshot stale; the ticker's own do.
+        seqGenerator.getAndIncrement();
+        assertSame(b, cache.get("B"));
+        tickerStreams.stream("B").seqGenerator().getAndIncrement();
+        assertNotSame(b, cache.get("B"));
+    }
+
+    private static <T> List<T> iterable(Iterator<T> it) {
+        List<T> out = new ArrayList<>();
+        it.forEachRemaining(out::add);
+        return out;
+    }
+}
@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import hte.api.auth.BotAuthenticator;
 import hte.api.auth.PrivatePageAuthenticator;
+import hte.api.auth.SessionTokens;
 import hte.api.dtos.requests.BasePrivateRequest;
 import hte.api.entities.Session;
 import hte.api.repository.BotSessionsRepository;
@@ -25,13 +26,15 @@ public class PrivateAndBotAuthenticatorTest {
     private PrivatePageAuthenticator privatePageAuthenticator;
     private BotAuthenticator botAuthenticator;
 
+    private final SessionTokens unsigned = new SessionTokens("", 60);
+
     @BeforeEach
     void setup() {
         sessions = new LocalDBTable<>("sessions");
         sessionsRepository = new LocalSessionsRepository(sessions);
         botSessionsRepository = new LocalBotSessionsRepository(sessions);
-        privatePageAuthenticator = new PrivatePageAuthenticator(sessionsRepository);
-        botAuthenticator = new BotAuthenticator(botSessionsRepository);
+        privatePageAuthenticator = new PrivatePageAuthenticator(sessionsRepository, unsigned);
+        botAuthenticator = new BotAuthenticator(botSessionsRepository, unsigned);
     }
 
     @Test
@@ -68,4 +71,21 @@ public class PrivateAndBotAuthenticatorTest {
         assertFalse(privatePageAuthenticator.authenticate(req));
         assertFalse(botAuthenticator.authenticate(req));
     }
+
+    @Test
+    void signedTokens_needNoSession() {
+        SessionTokens signed = new SessionTokens("secret", 60);
+        PrivatePageAuthenticator privateAuth =
+                new PrivatePageAuthenticator(sessionsRepository, signed);
+        BotAuthenticator botAuth = new BotAuthenticator(botSessionsRepository, signed);
+
+        String user = signed.issue("alice", SessionTokens.Slot.PRIMARY);
+        String bot = signed.issue("bot1", SessionTokens.Slot.BOT);
+
+        assertTrue(privateAuth.authenticate(new BasePrivateRequest("alice", user)));
+        assertFalse(botAuth.authenticate(new BasePrivateRequest("alice", user)));
+        assertTrue(privateAuth.authenticate(new BasePrivateRequest("bot1", bot)));
+        assertTrue(botAuth.authenticate(new BasePrivateRequest("bot1", bot)));
+        assertFalse(privateAuth.authenticate(new BasePrivateRequest("bob", user)));
+    }
 }
@@ -1,10 +1,16 @@
 package hte.api;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import hte.api.auth.RateLimiter;
+import hte.api.auth.RateLimiter.Limit;
+import hte.api.auth.RateLimiter.RequestClass;
+import hte.api.auth.RateLimiter.Role;
 import hte.api.dtos.requests.BasePrivateRequest;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
@@ -22,4 +28,79 @@ public class RateLimiterTest {
         // 16th within same second should be blocked
         assertFalse(limiter.processRequest(req));
     }
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    private RateLimiter limiter(Limit user, Limit bot, Limit admin) {
+        return new RateLimiter(
+                Map.of(Role.USER, user, Role.BOT, bot, Role.ADMIN, admin),
+                Map.of(RequestClass.ORDER, 1.0, RequestClass.CANCEL, 0.5, RequestClass.READ, 1.0),
+                now::get);
+    }
+
+    @Test
+    void refillsAtTheConfiguredRate() {
+        RateLimiter limiter = limiter(new Limit(10, 2), new Limit(10, 2), new Limit(0, 0));
+        assertTrue(limiter.tryAcquire(Role.USER, "alice", RequestClass.ORDER));
+        assertTrue(limiter.tryAcquire(Role.USER, "alice", RequestClass.ORDER));
+        assertFalse(limiter.tryAcquire(Role.USER, "alice", RequestClass.ORDER));
+
+        // 10 per second is one token every 100 ms.
+        now.addAndGet(99);
+        assertFalse(limiter.tryAcquire(Role.USER, "alice", RequestClass.ORDER));
+        now.addAndGet(1);
+        assertTrue(limiter.tryAcquire(Role.USER, "alice", RequestClass.ORDER));
+        assertFalse(limiter.tryAcquire(Role.USER, "alice", RequestClass.ORDER));
+
+        // A long idle period only refills up to the burst.
+        now.addAndGet(60_000);
+        assertTrue(limiter.tryAcquire(Role.USER, "alice", RequestClass.ORDER));
+        assertTrue(limiter.tryAcquire(Role.USER, "alice", RequestClass.ORDER));
+        assertFalse(limiter.tryAcquire(Role.USER, "alice", RequestClass.ORDER));
+    }
+
+    @Test
+    void cancelsCostLessThanOrders() {
+        RateLimiter limiter = limiter(new Limit(10, 2), new Limit(10, 2), new Limit(0, 0));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire(Role.USER, "alice", RequestClass.CANCEL), "cancel " + i);
+        }
+        assertFalse(limiter.tryAcquire(Role.USER, "alice", RequestClass.CANCEL));
+
+        // Half a token back is enough for a cancel but not an order.
+        now.addAndGet(50);
+        assertFalse(limiter.tryAcquire(Role.USER, "alice", RequestClass.ORDER));
+        assertTrue(limiter.tryAcquire(Role.USER, "alice", RequestClass.CANCEL));
+    }
+
+    @Test
+    void rolesAndUsersHaveSeparateBuckets() {
+        RateLimiter limiter = limiter(new Limit(1, 1), new Limit(100, 3), new Limit(0, 0));
+        assertTrue(limiter.tryAcquire(Role.USER, "alice", RequestClass.ORDER));
+        assertFalse(limiter.tryAcquire(Role.USER, "alice", RequestClass.ORDER));
+        assertTrue(limiter.tryAcquire(Role.USER, "bob", RequestClass.ORDER));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire(Role.BOT, "alice", RequestClass.ORDER), "bot " + i);
+        }
+        assertFalse(limiter.tryAcquire(Role.BOT, "alice", RequestClass.ORDER));
+    }
+
+    @Test
+    void nonPositiveRateIsUnlimited() {
+        RateLimiter limiter = limiter(new Limit(1, 1), new Limit(1, 1), new Limit(0, 0));
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(limiter.tryAcquire(Role.ADMIN, "root", RequestClass.READ));
+        }
+    }
+
+    @Test
+    void rejectsBurstThatDoesNotFit() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> limiter(new Limit(10, 20_000), new Limit(10, 2), new Limit(0, 0)));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> limiter(new Limit(10, 0), new Limit(10, 2), new Limit(0, 0)));
+    }
 }
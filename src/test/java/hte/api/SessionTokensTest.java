@@ -0,0 +1,85 @@
+package hte.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hte.api.auth.SessionTokens;
+import hte.api.auth.SessionTokens.Slot;
+import org.junit.jupiter.api.Test;
+
+public class SessionTokensTest {
+
+    private final SessionTokens tokens = new SessionTokens("secret", 60);
+
+    @Test
+    void acceptsOnlyUntamperedTokensForTheirUserAndSlot() {
+        String token = tokens.issue("alice", Slot.PRIMARY);
+        assertTrue(tokens.verify("alice", token, Slot.PRIMARY));
+        assertFalse(tokens.verify("alice", token, Slot.SECONDARY, Slot.BOT));
+        assertFalse(tokens.verify("bob", token, Slot.PRIMARY));
+
+        // Same payload signed with another key.
+        assertFalse(new SessionTokens("other", 60).verify("alice", token, Slot.PRIMARY));
+
+        String payload = token.substring(0, token.lastIndexOf('.'));
+        String mac = token.substring(token.lastIndexOf('.') + 1);
+        char flipped = mac.charAt(0) == 'A' ? 'B' : 'A';
+        assertFalse(
+                tokens.verify("alice", payload + '.' + flipped + mac.substring(1), Slot.PRIMARY));
+        String later = payload.substring(0, payload.lastIndexOf('.') + 1) + Long.MAX_VALUE;
+        assertFalse(tokens.verify("alice", later + '.' + mac, Slot.PRIMARY));
+
+        assertFalse(tokens.verify("alice", "", Slot.PRIMARY));
+        assertFalse(tokens.verify("alice", "a.b.c", Slot.PRIMARY));
+        assertFalse(tokens.verify("alice", "..1.", Slot.PRIMARY));
+        assertFalse(tokens.verify("alice", null, Slot.PRIMARY));
+    }
+
+    @Test
+    void reissueRevokesOnlyTheSameSlot() {
+        String first = tokens.issue("alice", Slot.PRIMARY);
+        String second = tokens.issue("alice", Slot.SECONDARY);
+        String replaced = tokens.issue("alice", Slot.PRIMARY);
+
+        assertFalse(tokens.verify("alice", first, Slot.PRIMARY));
+        assertTrue(tokens.verify("alice", replaced, Slot.PRIMARY));
+        assertTrue(tokens.verify("alice", second, Slot.SECONDARY));
+    }
+
+    @Test
+    void revokeAllEndsEverySlot() {
+        String primary = tokens.issue("alice", Slot.PRIMARY);
+        String secondary = tokens.issue("alice", Slot.SECONDARY);
+        String other = tokens.issue("bob", Slot.PRIMARY);
+
+        tokens.revokeAll("alice");
+
+        assertFalse(tokens.verify("alice", primary, Slot.PRIMARY));
+        assertFalse(tokens.verify("alice", secondary, Slot.SECONDARY));
+        assertTrue(tokens.verify("bob", other, Slot.PRIMARY));
+        assertEquals(2, tokens.revokedUsers());
+        assertTrue(tokens.verify("alice", tokens.issue("alice", Slot.PRIMARY), Slot.PRIMARY));
+    }
+
+    @Test
+    void expiredTokensAreRejectedAndTheirRevocationsDropped() {
+        SessionTokens expiring = new SessionTokens("secret", 0);
+        String token = expiring.issue("alice", Slot.PRIMARY);
+        assertFalse(expiring.verify("alice", token, Slot.PRIMARY));
+
+        expiring.revokeAll("alice");
+        expiring.revokeAll("bob");
+        // Revocations are pruned once no unexpired token can predate them.
+        assertEquals(0, expiring.revokedUsers());
+    }
+
+    @Test
+    void disabledWithoutAKey() {
+        SessionTokens disabled = new SessionTokens("", 60);
+        assertFalse(disabled.isEnabled());
+        assertTrue(tokens.isEnabled());
+        assertThrows(IllegalStateException.class, () -> disabled.issue("alice", Slot.PRIMARY));
+    }
+}
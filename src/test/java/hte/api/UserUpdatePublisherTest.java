@@ -0,0 +1,140 @@
+package hte.api;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import hte.common.EngineSequencer;
+import hte.matchingengine.MatchingEngine;
+import hte.matchingengine.Order;
+import hte.matchingengine.Side;
+import hte.matchingengine.Status;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+
+class UserUpdatePublisherTest {
+    private MatchingEngine engine;
+    private SimpMessagingTemplate template;
+    private UserUpdatePublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        engine = new MatchingEngine();
+        engine.initializeTicker("A");
+        engine.initializeBot("alice");
+        engine.initializeBot("bob");
+
+        template = mock(SimpMessagingTemplate.class);
+
+        publisher =
+                new UserUpdatePublisher(
+                        engine, mockInlineSequencer(), registryWith("alice"), template, 60_000, 0);
+    }
+
+    @Test
+    void pushesOnConnect_thenOnlyWhenChanged_atMostOncePerInterval() {
+        publisher.poll();
+        publisher.poll();
+        verify(template, times(1))
+                .convertAndSendToUser(eq("alice"), eq("/queue/private"), anyString());
+
+        // Idle polls and changes to other users send nothing.
+        engine.bidLimitOrder("bob", new Order("bob", "A", 100, 1, Side.BID, Status.ACTIVE));
+        publisher.poll();
+        publisher.poll();
+        verify(template, times(1)).convertAndSendToUser(anyString(), anyString(), anyString());
+
+        // Alice changed, but her last push was less than the interval ago.
+        engine.bidLimitOrder("alice", new Order("alice", "A", 99, 1, Side.BID, Status.ACTIVE));
+        publisher.poll();
+        publisher.poll();
+        verify(template, times(1)).convertAndSendToUser(anyString(), anyString(), anyString());
+        verify(template, never()).convertAndSendToUser(eq("bob"), anyString(), anyString());
+    }
+
+    @Test
+    void pushesEveryChange_whenUnthrottled() {
+        publisher =
+                new UserUpdatePublisher(
+                        engine, mockInlineSequencer(), registryWith("alice"), template, 0, 0);
+        publisher.poll();
+        publisher.poll();
+        engine.bidLimitOrder("alice", new Order("alice", "A", 99, 1, Side.BID, Status.ACTIVE));
+        publisher.poll();
+        publisher.poll();
+        verify(template, times(2))
+                .convertAndSendToUser(eq("alice"), eq("/queue/private"), anyString());
+    }
+
+    @Test
+    void idlePolls_doNotReachTheEngine() {
+        EngineSequencer sequencer = mockInlineSequencer();
+        publisher =
+                new UserUpdatePublisher(engine, sequencer, registryWith("alice"), template, 0, 0);
+        publisher.poll();
+        publisher.poll();
+        publisher.poll();
+        verify(sequencer, times(1)).submit(any());
+
+        engine.bidLimitOrder("alice", new Order("alice", "A", 99, 1, Side.BID, Status.ACTIVE));
+        publisher.poll();
+        publisher.poll();
+        verify(sequencer, times(2)).submit(any());
+    }
+
+    @Test
+    void priceMoves_rePriceHoldersFromTheirLastState_withoutACapture() throws Exception {
+        EngineSequencer sequencer = mockInlineSequencer();
+        publisher =
+                new UserUpdatePublisher(engine, sequencer, registryWith("alice"), template, 0, 1);
+        engine.askLimitOrder("bob", new Order("bob", "A", 100, 2, Side.ASK, Status.ACTIVE));
+        engine.bidLimitOrder("alice", new Order("alice", "A", 100, 2, Side.BID, Status.ACTIVE));
+        publisher.poll();
+        publisher.poll();
+        verify(template, times(1))
+                .convertAndSendToUser(eq("alice"), eq("/queue/private"), contains("\"pnl\":0"));
+
+        engine.setPrice("A", 120);
+        Thread.sleep(5);
+        publisher.poll();
+        verify(template, times(1))
+                .convertAndSendToUser(eq("alice"), eq("/queue/private"), contains("\"pnl\":40"));
+        verify(sequencer, times(1)).submit(any());
+
+        // Nothing moved since.
+        Thread.sleep(5);
+        publisher.poll();
+        verify(template, times(2)).convertAndSendToUser(anyString(), anyString(), anyString());
+    }
+
+    private static EngineSequencer mockInlineSequencer() {
+        EngineSequencer sequencer = mock(EngineSequencer.class);
+        doAnswer(
+                        invocation -> {
+                            invocation.getArgument(0, Runnable.class).run();
+                            return null;
+                        })
+                .when(sequencer)
+                .submit(any());
+        return sequencer;
+    }
+
+    private static SimpUserRegistry registryWith(String name) {
+        SimpUser user = mock(SimpUser.class);
+        when(user.getName()).thenReturn(name);
+        SimpUserRegistry registry = mock(SimpUserRegistry.class);
+        when(registry.getUsers()).thenReturn(Set.of(user));
+        return registry;
+    }
+}
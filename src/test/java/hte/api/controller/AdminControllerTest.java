@@ -8,11 +8,12 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import hte.api.MarketDataBroadcaster;
+import hte.api.OrderbookSnapshotCache;
 import hte.api.entities.User;
 import hte.api.service.AdminService;
 import hte.api.service.AuthService;
-import hte.common.SeqGenerator;
-import hte.matchingengine.MatchingEngine;
+import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
@@ -37,11 +38,11 @@ class AdminControllerTest {
 
     @MockBean private SimpMessagingTemplate messagingTemplate;
 
-    @MockBean private SimpUserRegistry simpUserRegistry;
+    @MockBean private MarketDataBroadcaster broadcaster;
 
-    @MockBean private SeqGenerator seqGenerator;
+    @MockBean private SimpUserRegistry simpUserRegistry;
 
-    @MockBean private MatchingEngine matchingEngine;
+    @MockBean private OrderbookSnapshotCache snapshotCache;
 
     @Test
     void addUser_success() throws Exception {
@@ -92,7 +93,8 @@ class AdminControllerTest {
     @Test
     void leaderboard_success() throws Exception {
         when(authService.authenticateAdmin(any())).thenReturn(true);
-        when(adminService.getLeaderboard()).thenReturn(new java.util.ArrayList<>());
+        when(adminService.getLeaderboard())
+                .thenReturn(CompletableFuture.completedFuture(new java.util.ArrayList<>()));
 
         String body =
                 """
@@ -101,7 +103,9 @@ class AdminControllerTest {
           "adminPassword": "pw"
         }
         """;
-        mockMvc.perform(post("/leaderboard").contentType(MediaType.APPLICATION_JSON).content(body))
+        AsyncMvc.perform(
+                        mockMvc,
+                        post("/leaderboard").contentType(MediaType.APPLICATION_JSON).content(body))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.message.errorCode").value(0));
     }
@@ -109,7 +113,8 @@ class AdminControllerTest {
     @Test
     void setPrice_success() throws Exception {
         when(authService.authenticateAdmin(any())).thenReturn(true);
-        when(adminService.setPrice(Mockito.anyMap())).thenReturn("OK");
+        when(adminService.setPrice(Mockito.anyMap()))
+                .thenReturn(CompletableFuture.completedFuture("OK"));
 
         String body =
                 """
@@ -119,7 +124,9 @@ class AdminControllerTest {
           "prices": { "AAPL": 100 }
         }
         """;
-        mockMvc.perform(post("/set_price").contentType(MediaType.APPLICATION_JSON).content(body))
+        AsyncMvc.perform(
+                        mockMvc,
+                        post("/set_price").contentType(MediaType.APPLICATION_JSON).content(body))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.message").value("OK"));
     }
@@ -127,7 +134,13 @@ class AdminControllerTest {
     @Test
     void setTickers_success() throws Exception {
         when(authService.authenticateAdmin(any())).thenReturn(true);
-        when(adminService.setTickers(Mockito.any())).thenReturn(new String[] {"AAPL", "GOOG"});
+        when(adminService.setTickers(Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(new String[] {"AAPL", "GOOG"}));
+        when(snapshotCache.get())
+                .thenReturn(
+                        CompletableFuture.completedFuture(
+                                new OrderbookSnapshotCache.Snapshot(
+                                        42, 1, "{}", new byte[0], new byte[0])));
 
         String body =
                 """
@@ -138,11 +151,45 @@ class AdminControllerTest {
         }
         """;
 
-        mockMvc.perform(post("/set_tickers").contentType(MediaType.APPLICATION_JSON).content(body))
+        AsyncMvc.perform(
+                        mockMvc,
+                        post("/set_tickers").contentType(MediaType.APPLICATION_JSON).content(body))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.message.errorCode").value(0))
                 .andExpect(jsonPath("$.tickers[0]").value("AAPL"))
                 .andExpect(jsonPath("$.tickers[1]").value("GOOG"));
+
+        ArgumentCaptor<Object> payloadCaptor = ArgumentCaptor.forClass(Object.class);
+        verify(broadcaster).publish(eq("/topic/orderbook"), payloadCaptor.capture());
+        java.util.Map<?, ?> payload = (java.util.Map<?, ?>) payloadCaptor.getValue();
+        org.junit.jupiter.api.Assertions.assertEquals("snapshot_reset", payload.get("type"));
+        org.junit.jupiter.api.Assertions.assertEquals("{}", payload.get("snapshot"));
+        org.junit.jupiter.api.Assertions.assertEquals(42L, payload.get("latestSeq"));
+    }
+
+    @Test
+    void setTickers_snapshotFailure_stillAnswersWithoutBroadcast() throws Exception {
+        when(authService.authenticateAdmin(any())).thenReturn(true);
+        when(adminService.setTickers(Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(new String[] {"AAPL"}));
+        when(snapshotCache.get())
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("boom")));
+
+        String body =
+                """
+        {
+          "adminUsername": "root",
+          "adminPassword": "pw",
+          "tickers": ["AAPL"]
+        }
+        """;
+
+        AsyncMvc.perform(
+                        mockMvc,
+                        post("/set_tickers").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message.errorCode").value(0));
+        Mockito.verifyNoInteractions(broadcaster);
     }
 
     @Test
@@ -158,7 +205,9 @@ class AdminControllerTest {
         }
         """;
 
-        mockMvc.perform(post("/set_tickers").contentType(MediaType.APPLICATION_JSON).content(body))
+        AsyncMvc.perform(
+                        mockMvc,
+                        post("/set_tickers").contentType(MediaType.APPLICATION_JSON).content(body))
                 .andExpect(status().isUnauthorized())
                 .andExpect(jsonPath("$.message.errorCode").value(1));
     }
@@ -0,0 +1,21 @@
+package hte.api.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+/** Runs a request against an endpoint that returns a {@code CompletableFuture}. */
+final class AsyncMvc {
+    private AsyncMvc() {}
+
+    /** Performs {@code builder} and then the async dispatch that writes the completed response. */
+    static ResultActions perform(MockMvc mockMvc, RequestBuilder builder) throws Exception {
+        MvcResult started =
+                mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+}
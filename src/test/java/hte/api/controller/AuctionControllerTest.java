@@ -11,6 +11,7 @@ import hte.api.auth.RateLimiter;
 import hte.api.dtos.responses.GetLeadingAuctionBidResponse;
 import hte.api.service.AuctionService;
 import hte.api.service.AuthService;
+import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -36,7 +37,9 @@ class AuctionControllerTest {
     void getLeadingAuctionBid_success() throws Exception {
         when(authService.authenticateAdmin(any())).thenReturn(true);
         when(auctionService.getLeadingAuctionBid())
-                .thenReturn(new GetLeadingAuctionBidResponse("SUCCESS"));
+                .thenReturn(
+                        CompletableFuture.completedFuture(
+                                new GetLeadingAuctionBidResponse("SUCCESS")));
 
         String body =
                 """
@@ -45,7 +48,8 @@ class AuctionControllerTest {
             "adminPassword": "pw"
         }
         """;
-        mockMvc.perform(
+        AsyncMvc.perform(
+                        mockMvc,
                         post("/get_leading_auction_bid")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(body))
@@ -64,7 +68,8 @@ class AuctionControllerTest {
             "adminPassword": "pw"
         }
         """;
-        mockMvc.perform(
+        AsyncMvc.perform(
+                        mockMvc,
                         post("/terminate_auction")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(body))
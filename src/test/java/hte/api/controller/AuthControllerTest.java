@@ -27,6 +27,7 @@ class AuthControllerTest {
     @Test
     void adminPage_success() throws Exception {
         when(authService.authenticateAdmin(any())).thenReturn(true);
+        when(rateLimiter.tryAcquire(any(), any(), any())).thenReturn(true);
 
         String body =
                 """
@@ -42,7 +43,7 @@ class AuthControllerTest {
     @Test
     void privatePage_rateLimited() throws Exception {
         when(authService.authenticatePrivate(any())).thenReturn(true);
-        when(rateLimiter.processRequest(any())).thenReturn(false);
+        when(rateLimiter.processRequest(any(), any(), any())).thenReturn(false);
 
         String body =
                 """
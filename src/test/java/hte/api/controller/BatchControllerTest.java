@@ -3,14 +3,17 @@ package hte.api.controller;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import hte.api.ServerApplication;
 import hte.api.State;
+import hte.api.dtos.responses.BatchResponse;
 import hte.api.dtos.responses.OperationResponse;
 import hte.api.service.AuthService;
 import hte.api.service.BatchService;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,8 +39,10 @@ class BatchControllerTest {
         when(authService.authenticateBot(any())).thenReturn(true);
         when(app.getState()).thenReturn(State.TRADE);
         when(batchService.getMaxOperations()).thenReturn(20);
-        when(batchService.processBatch(Mockito.eq("bot1"), Mockito.anyList()))
-                .thenReturn(new ArrayList<OperationResponse>());
+        when(batchService.processBatch(Mockito.eq("bot1"), Mockito.anyList(), Mockito.eq(false)))
+                .thenReturn(
+                        CompletableFuture.completedFuture(
+                                new BatchResponse("SUCCESS", new ArrayList<OperationResponse>())));
 
         String body =
                 """
@@ -47,7 +52,35 @@ class BatchControllerTest {
             "operations": []
         }
         """;
-        mockMvc.perform(post("/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+        AsyncMvc.perform(
+                        mockMvc,
+                        post("/batch").contentType(MediaType.APPLICATION_JSON).content(body))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    void batch_passesTheAtomicFlag_andReportsARejectedBatch() throws Exception {
+        when(authService.authenticateBot(any())).thenReturn(true);
+        when(app.getState()).thenReturn(State.TRADE);
+        when(batchService.getMaxOperations()).thenReturn(20);
+        when(batchService.processBatch(Mockito.eq("bot1"), Mockito.anyList(), Mockito.eq(true)))
+                .thenReturn(
+                        CompletableFuture.completedFuture(
+                                new BatchResponse("REJECTED", new ArrayList<OperationResponse>())));
+
+        String body =
+                """
+        {
+            "username": "bot1",
+            "sessionToken": "t",
+            "atomic": true,
+            "operations": [{"type": "remove_all"}]
+        }
+        """;
+        AsyncMvc.perform(
+                        mockMvc,
+                        post("/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("REJECTED"));
+    }
 }
@@ -11,6 +11,8 @@ import hte.api.auth.BotAuthenticator;
 import hte.api.auth.PrivatePageAuthenticator;
 import hte.api.auth.RateLimiter;
 import hte.api.service.OrderService;
+import hte.matchingengine.TimeInForce;
+import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,14 +41,15 @@ class OrderControllerTest {
     void limitOrder_success() throws Exception {
         when(app.getState()).thenReturn(State.TRADE);
         when(privatePageAuthenticator.authenticate(any())).thenReturn(true);
-        when(rateLimiter.processRequest(any())).thenReturn(true);
+        when(rateLimiter.processRequest(any(), any(), any())).thenReturn(true);
         when(orderService.placeLimitOrder(
                         Mockito.eq("trader"),
                         Mockito.eq("AAPL"),
                         Mockito.eq(100),
                         Mockito.eq(1),
-                        Mockito.eq(true)))
-                .thenReturn("OK");
+                        Mockito.eq(true),
+                        Mockito.eq(TimeInForce.GTC)))
+                .thenReturn(CompletableFuture.completedFuture("OK"));
 
         String body =
                 """
@@ -59,7 +62,34 @@ class OrderControllerTest {
             "bid": true
         }
         """;
-        mockMvc.perform(post("/limit_order").contentType(MediaType.APPLICATION_JSON).content(body))
+        AsyncMvc.perform(
+                        mockMvc,
+                        post("/limit_order").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void botAmend_passesTheNewPriceAndVolume() throws Exception {
+        when(app.getState()).thenReturn(State.TRADE);
+        when(botAuthenticator.authenticate(any())).thenReturn(true);
+        when(rateLimiter.processRequest(any(), any(), any())).thenReturn(true);
+        when(orderService.amendOrder(
+                        Mockito.eq("bot"), Mockito.eq(7L), Mockito.eq(101), Mockito.eq(3)))
+                .thenReturn(CompletableFuture.completedFuture("OK"));
+
+        String body =
+                """
+        {
+            "username": "bot",
+            "sessionToken": "tok",
+            "orderId": 7,
+            "price": 101,
+            "volume": 3
+        }
+        """;
+        AsyncMvc.perform(
+                        mockMvc,
+                        post("/bot_amend").contentType(MediaType.APPLICATION_JSON).content(body))
                 .andExpect(status().isOk());
     }
 }
@@ -1,24 +1,40 @@
 package hte.api.controller;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hte.api.OrderbookSnapshotCache;
 import hte.api.ServerApplication;
+import hte.api.dtos.responses.SnapshotResponse;
+import hte.common.EngineSequencer;
+import hte.common.MarketDataCodec;
+import hte.common.Message;
 import hte.common.OrderbookSeqLog;
 import hte.common.OrderbookUpdate;
 import hte.common.SeqGenerator;
+import hte.common.TickerStreams;
 import hte.matchingengine.MatchingEngine;
 import hte.matchingengine.PriceChange;
 import hte.matchingengine.Side;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 @WebMvcTest(controllers = SeqController.class)
@@ -32,6 +48,14 @@ class SeqControllerTest {
 
     @MockBean private OrderbookSeqLog orderbookSeqLog;
 
+    @MockBean private EngineSequencer sequencer;
+
+    @MockBean private MarketDataCodec marketDataCodec;
+
+    @MockBean private OrderbookSnapshotCache snapshotCache;
+
+    @MockBean private TickerStreams tickerStreams;
+
     // Present in other controller tests; included to satisfy any wiring
     // expectations.
     @MockBean private ServerApplication app;
@@ -78,16 +102,133 @@ class SeqControllerTest {
     }
 
     @Test
-    void snapshot_success_returnsRawSnapshotJsonAndLatestSeq() throws Exception {
-        when(seqGenerator.get()).thenReturn(777L);
-        when(matchingEngine.serializeOrderBooks())
-                .thenReturn("{\"ticker\":\"ABC\",\"bids\":[],\"asks\":[]}");
+    void tickerParam_readsTheTickersOwnStream() throws Exception {
+        SeqGenerator tickerSeq = new SeqGenerator();
+        tickerSeq.restore(4);
+        OrderbookSeqLog tickerLog = new OrderbookSeqLog();
+        tickerLog.append(
+                new OrderbookUpdate(3L, List.of(new PriceChange("ABC", 100, 7, Side.BID))));
+        when(tickerStreams.find("ABC")).thenReturn(new TickerStreams.Stream(tickerSeq, tickerLog));
+        when(seqGenerator.get()).thenReturn(900L);
+
+        mockMvc.perform(get("/latestSeq").param("ticker", "ABC"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.latestSeq").value(4));
+        mockMvc.perform(get("/updates").param("seq", "3").param("ticker", "ABC"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.update.priceChanges[0].ticker").value("ABC"));
+        AsyncMvc.perform(mockMvc, get("/updates").param("from", "3").param("ticker", "ABC"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.to").value(3));
+
+        mockMvc.perform(get("/latestSeq").param("ticker", "XYZ"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message.errorCode").value(10));
+        mockMvc.perform(get("/updates").param("seq", "3").param("ticker", "XYZ"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message.errorCode").value(8));
+    }
+
+    @Test
+    void getUpdatesRange_streamsContiguousUpdatesInOneResponse() throws Exception {
+        when(orderbookSeqLog.getBySeq(11L))
+                .thenReturn(Optional.of(new OrderbookUpdate(11L, List.of())));
+        doAnswer(
+                        invocation -> {
+                            Consumer<OrderbookUpdate> consumer = invocation.getArgument(2);
+                            consumer.accept(
+                                    new OrderbookUpdate(
+                                            11L,
+                                            List.of(new PriceChange("ABC", 100, 7, Side.BID))));
+                            consumer.accept(new OrderbookUpdate(12L, List.of()));
+                            return 12L;
+                        })
+                .when(orderbookSeqLog)
+                .replay(eq(11L), eq(20L), any());
+
+        AsyncMvc.perform(mockMvc, get("/updates").param("from", "11").param("to", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message.errorCode").value(0))
+                .andExpect(jsonPath("$.from").value(11))
+                .andExpect(jsonPath("$.to").value(12))
+                .andExpect(jsonPath("$.updates.length()").value(2))
+                .andExpect(jsonPath("$.updates[0].priceChanges[0].ticker").value("ABC"))
+                .andExpect(jsonPath("$.updates[1].seq").value(12));
+    }
+
+    @Test
+    void getUpdatesRange_capsTheRange_andRejectsEvictedStart() throws Exception {
+        when(orderbookSeqLog.getBySeq(0L))
+                .thenReturn(Optional.of(new OrderbookUpdate(0L, List.of())));
+        when(orderbookSeqLog.replay(eq(0L), eq(SeqController.MAX_RANGE - 1L), any()))
+                .thenReturn(-1L);
+        AsyncMvc.perform(mockMvc, get("/updates").param("from", "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.to").value(-1));
+
+        when(orderbookSeqLog.getBySeq(5L)).thenReturn(Optional.empty());
+        AsyncMvc.perform(mockMvc, get("/updates").param("from", "5"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message.errorCode").value(8));
+        AsyncMvc.perform(mockMvc, get("/updates").param("from", "5").param("to", "4"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message.errorCode").value(4));
+    }
 
-        mockMvc.perform(get("/snapshot"))
+    @Test
+    void snapshot_success_returnsRawSnapshotJsonAndLatestSeq() throws Exception {
+        String json = "{\"ticker\":\"ABC\",\"bids\":[],\"asks\":[]}";
+        byte[] response =
+                new ObjectMapper()
+                        .writeValueAsBytes(
+                                new SnapshotResponse(Message.SUCCESS.toString(), json, 777L));
+        when(snapshotCache.get())
+                .thenReturn(
+                        CompletableFuture.completedFuture(
+                                new OrderbookSnapshotCache.Snapshot(
+                                        777L, 0, json, response, new byte[] {1, 1})));
+
+        AsyncMvc.perform(mockMvc, get("/snapshot").accept(MediaType.ALL))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.latestSeq").value(777))
                 .andExpect(jsonPath("$.snapshot.ticker").value("ABC"))
                 .andExpect(jsonPath("$.snapshot.bids").isArray())
                 .andExpect(jsonPath("$.snapshot.asks").isArray());
     }
+
+    @Test
+    void snapshot_captureFailure_isAnInternalError() throws Exception {
+        when(snapshotCache.get())
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("boom")));
+
+        AsyncMvc.perform(mockMvc, get("/snapshot").accept(MediaType.ALL))
+                .andExpect(status().isInternalServerError())
+                .andExpect(
+                        jsonPath("$.message.errorCode")
+                                .value(Message.INTERNAL_ERROR.getErrorCode()));
+    }
+
+    @Test
+    void snapshot_acceptOctetStream_servesTheCachedBinarySnapshot() throws Exception {
+        byte[] binary = {1, 1, 2, 3};
+        when(snapshotCache.get())
+                .thenReturn(
+                        CompletableFuture.completedFuture(
+                                new OrderbookSnapshotCache.Snapshot(
+                                        777L, 0, "{}", new byte[0], binary)));
+
+        AsyncMvc.perform(mockMvc, get("/snapshot").accept(MediaType.APPLICATION_OCTET_STREAM))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+                .andExpect(content().bytes(binary));
+        verify(sequencer, never()).submit(any());
+
+        when(snapshotCache.get("nope")).thenReturn(CompletableFuture.completedFuture(null));
+        AsyncMvc.perform(
+                        mockMvc,
+                        get("/snapshot")
+                                .param("ticker", "nope")
+                                .accept(MediaType.APPLICATION_OCTET_STREAM))
+                .andExpect(status().isBadRequest());
+    }
 }
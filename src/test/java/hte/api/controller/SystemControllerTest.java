@@ -8,8 +8,15 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import hte.api.ServerApplication;
 import hte.api.auth.RateLimiter;
+import hte.api.dtos.responses.EngineLatencyResponse;
+import hte.api.dtos.responses.EngineStatsResponse;
+import hte.api.dtos.responses.SocketSessionsResponse;
 import hte.api.service.AuthService;
 import hte.api.service.SystemService;
+import hte.common.LatencySummary;
+import hte.common.Message;
+import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -31,10 +38,18 @@ class SystemControllerTest {
 
     @MockBean private ServerApplication app;
 
+    private static final String ADMIN =
+            """
+        {
+          "adminUsername": "admin",
+          "adminPassword": "secret"
+        }
+        """;
+
     @Test
     void getDetails_success() throws Exception {
         when(authService.authenticatePrivate(any())).thenReturn(true);
-        when(rateLimiter.processRequest(any())).thenReturn(true);
+        when(rateLimiter.processRequest(any(), any(), any())).thenReturn(true);
         when(systemService.getUserDetails("trader")).thenReturn("DETAILS");
 
         String body =
@@ -48,4 +63,96 @@ class SystemControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.userDetails").value("DETAILS"));
     }
+
+    @Test
+    void engineStats_returnsSequencerCounters() throws Exception {
+        when(authService.authenticateAdmin(any())).thenReturn(true);
+        when(systemService.getEngineStats())
+                .thenReturn(
+                        new EngineStatsResponse(
+                                Message.SUCCESS.toString(),
+                                3,
+                                1_500,
+                                9_000,
+                                42,
+                                7,
+                                11,
+                                250,
+                                1_200,
+                                80_000));
+
+        mockMvc.perform(
+                        post("/engine_stats")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(ADMIN))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.queueDepth").value(3))
+                .andExpect(jsonPath("$.processedCommands").value(42))
+                .andExpect(jsonPath("$.maxBatchSize").value(11))
+                .andExpect(jsonPath("$.recoveryMillis").value(250))
+                .andExpect(jsonPath("$.replayedJournalRecords").value(1_200));
+    }
+
+    @Test
+    void engineLatency_returnsPercentilesByKindAndStage() throws Exception {
+        when(authService.authenticateAdmin(any())).thenReturn(true);
+        when(systemService.getEngineLatency())
+                .thenReturn(
+                        new EngineLatencyResponse(
+                                Message.SUCCESS.toString(),
+                                Map.of(
+                                        "limit",
+                                        Map.of(
+                                                "engine",
+                                                new LatencySummary(
+                                                        10, 800, 900, 1_000, 1_000, 1_200)))));
+
+        mockMvc.perform(
+                        post("/engine_latency")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(ADMIN))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.latency.limit.engine.count").value(10))
+                .andExpect(jsonPath("$.latency.limit.engine.p99").value(1_000))
+                .andExpect(jsonPath("$.latency.limit.engine.max").value(1_200));
+    }
+
+    @Test
+    void socketSessions_requiresAdmin() throws Exception {
+        String body =
+                """
+        {
+          "adminUsername": "admin",
+          "adminPassword": "wrong"
+        }
+        """;
+        mockMvc.perform(post("/ws_sessions").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.sessions").isEmpty());
+
+        when(authService.authenticateAdmin(any())).thenReturn(true);
+        when(systemService.getSocketSessions())
+                .thenReturn(
+                        new SocketSessionsResponse(
+                                Message.SUCCESS.toString(),
+                                List.of(
+                                        new SocketSessionsResponse.Session(
+                                                "s1", "trader", 2, 5, 1_000, 40, 3)),
+                                1));
+        mockMvc.perform(post("/ws_sessions").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sessions[0].username").value("trader"))
+                .andExpect(jsonPath("$.droppedSessions").value(1));
+    }
+
+    @Test
+    void engineStatsAndLatency_requireAdmin() throws Exception {
+        for (String route : new String[] {"/engine_stats", "/engine_latency"}) {
+            mockMvc.perform(post(route).contentType(MediaType.APPLICATION_JSON).content(ADMIN))
+                    .andExpect(status().isUnauthorized())
+                    .andExpect(
+                            jsonPath("$.message.errorCode")
+                                    .value(Message.AUTHENTICATION_FAILED.getErrorCode()));
+        }
+    }
 }
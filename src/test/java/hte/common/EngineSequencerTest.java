@@ -0,0 +1,293 @@
+package hte.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hte.journal.CommandJournal;
+import hte.matchingengine.MatchingEngine;
+import hte.matchingengine.TimeInForce;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class EngineSequencerTest {
+    private Thread engineThread;
+    private EngineSequencer sequencer;
+
+    private EngineSequencer start(MatchingEngine engine, int ringSize) {
+        sequencer =
+                new EngineSequencer(
+                        engine,
+                        CommandJournal.disabled(),
+                        new LatencyHistograms(),
+                        ringSize,
+                        WaitStrategy.PARK);
+        engineThread = new Thread(sequencer::run, "engine-test");
+        engineThread.start();
+        return sequencer;
+    }
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        if (sequencer != null) {
+            sequencer.halt();
+            engineThread.join(5_000);
+        }
+    }
+
+    @Test
+    void ringCapacity_mustBePowerOfTwo() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new CommandRingBuffer(3, CommandRingBuffer.ProducerType.MULTI));
+    }
+
+    @Test
+    void limitOrder_completesFutureWithEngineResponse() {
+        MatchingEngine engine = new MatchingEngine();
+        engine.initializeTicker("A");
+        engine.initializeBot("bot");
+        start(engine, 8);
+
+        TaskFuture<String> future = new TaskFuture<>();
+        sequencer.submitLimitOrder("bot", "A", 100, 5, true, future);
+        future.waitForCompletion();
+
+        assertTrue(future.getData().contains("\"orderId\":1"), future.getData());
+        assertEquals(100, engine.getHighestBid("A"));
+        assertTrue(future.getEnqueuedNanos() != 0);
+        assertTrue(future.getCompletedNanos() - future.getEnqueuedNanos() >= 0);
+    }
+
+    @Test
+    void future_isCompletedByEngineThread_withoutAWaiter() throws Exception {
+        MatchingEngine engine = new MatchingEngine();
+        engine.initializeTicker("A");
+        engine.initializeBot("bot");
+        start(engine, 8);
+
+        CountDownLatch gate = new CountDownLatch(1);
+        sequencer.submit(
+                () -> {
+                    try {
+                        gate.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+        TaskFuture<String> future = new TaskFuture<>();
+        CompletableFuture<String> completedOn =
+                future.thenApply(data -> Thread.currentThread().getName());
+        sequencer.submitLimitOrder("bot", "A", 100, 5, true, future);
+
+        assertFalse(future.isDone());
+        gate.countDown();
+
+        assertEquals("engine-test", completedOn.get(5, TimeUnit.SECONDS));
+        assertTrue(future.getData().contains("\"orderId\":1"), future.getData());
+    }
+
+    @Test
+    void failingCommand_stillCompletesFuture() {
+        MatchingEngine engine = new MatchingEngine();
+        start(engine, 8);
+
+        // Unknown user: the engine rejects instead of throwing, but the future must complete.
+        TaskFuture<String> future = new TaskFuture<>();
+        sequencer.submitCancel("ghost", 1, future);
+        future.waitForCompletion();
+
+        assertEquals(Message.USER_NOT_INITIALIZED.toString(), future.getData());
+    }
+
+    @Test
+    void concurrentProducers_wrapTheRing_andKeepPerProducerOrder() throws Exception {
+        start(new MatchingEngine(), 16);
+        int producers = 4;
+        int perProducer = 1_000;
+        List<List<Integer>> seen = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            seen.add(new ArrayList<>());
+        }
+        CountDownLatch done = new CountDownLatch(producers * perProducer);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread =
+                    new Thread(
+                            () -> {
+                                for (int i = 0; i < perProducer; i++) {
+                                    int value = i;
+                                    // Only the engine thread touches `seen`.
+                                    sequencer.submit(
+                                            () -> {
+                                                seen.get(producer).add(value);
+                                                done.countDown();
+                                            });
+                                }
+                            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (List<Integer> values : seen) {
+            assertEquals(perProducer, values.size());
+            for (int i = 0; i < perProducer; i++) {
+                assertEquals(i, values.get(i));
+            }
+        }
+        assertEquals(producers * perProducer, sequencer.getProcessedCommands());
+        // The last task counts down before its batch is released back to producers.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (sequencer.getQueueDepth() != 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(0, sequencer.getQueueDepth());
+        assertTrue(sequencer.getMaxBatchSize() >= 1);
+    }
+
+    @Test
+    void batch_runsEveryOperationInOneCommand() {
+        MatchingEngine engine = new MatchingEngine();
+        engine.initializeTicker("A");
+        engine.initializeBot("bot");
+        start(engine, 8);
+
+        EngineBatch batch =
+                new EngineBatch("bot", 4, false)
+                        .limitOrder("A", 100, 5, false)
+                        .cancel(1)
+                        .cancel(1)
+                        .limitOrder("A", 90, 3, true);
+        TaskFuture<String> future = new TaskFuture<>();
+        sequencer.submitBatch(batch, future);
+        future.waitForCompletion();
+
+        assertFalse(batch.isRejected());
+        assertTrue(batch.getResult(0).contains("\"orderId\":1"), batch.getResult(0));
+        assertTrue(batch.getResult(1).contains("removed order"), batch.getResult(1));
+        assertEquals(Message.ORDER_NOT_FOUND.toString(), batch.getResult(2));
+        assertTrue(batch.getResult(3).contains("\"orderId\":2"), batch.getResult(3));
+        assertEquals(90, engine.getHighestBid("A"));
+        assertEquals(1, sequencer.getProcessedCommands());
+    }
+
+    @Test
+    void atomicBatch_appliesNothing_whenAnOperationWouldBeRejected() {
+        MatchingEngine engine = new MatchingEngine();
+        engine.initializeTicker("A");
+        engine.initializeBot("bot");
+        start(engine, 8);
+
+        TaskFuture<String> placed = new TaskFuture<>();
+        sequencer.submitLimitOrder("bot", "A", 100, 5, true, placed);
+        placed.waitForCompletion();
+
+        // The second cancel of order 1 would find nothing, so the new ask must not rest either.
+        EngineBatch batch =
+                new EngineBatch("bot", 3, true).cancel(1).limitOrder("A", 110, 5, false).cancel(1);
+        TaskFuture<String> future = new TaskFuture<>();
+        sequencer.submitBatch(batch, future);
+        future.waitForCompletion();
+
+        assertTrue(batch.isRejected());
+        assertEquals(Message.BATCH_ABORTED.toString(), batch.getResult(0));
+        assertEquals(Message.BATCH_ABORTED.toString(), batch.getResult(1));
+        assertEquals(Message.ORDER_NOT_FOUND.toString(), batch.getResult(2));
+        assertEquals(100, engine.getHighestBid("A"));
+        assertTrue(engine.getAskPriceLevels("A").isEmpty());
+
+        EngineBatch valid =
+                new EngineBatch("bot", 2, true).cancel(1).limitOrder("A", 110, 5, false);
+        TaskFuture<String> applied = new TaskFuture<>();
+        sequencer.submitBatch(valid, applied);
+        applied.waitForCompletion();
+
+        assertFalse(valid.isRejected());
+        assertTrue(engine.getBidPriceLevels("A").isEmpty());
+        assertEquals(1, engine.getAskPriceLevels("A").size());
+    }
+
+    @Test
+    void atomicBatch_checksEachOrderAgainstTheRoomTheEarlierOnesLeave() {
+        MatchingEngine engine = new MatchingEngine(10);
+        engine.initializeTicker("A");
+        engine.initializeUser("alice");
+        start(engine, 8);
+
+        // Each bid fits the position limit alone, but not both together.
+        EngineBatch batch =
+                new EngineBatch("alice", 2, true)
+                        .limitOrder("A", 100, 6, true)
+                        .limitOrder("A", 99, 6, true);
+        TaskFuture<String> future = new TaskFuture<>();
+        sequencer.submitBatch(batch, future);
+        future.waitForCompletion();
+
+        assertTrue(batch.isRejected());
+        assertEquals(Message.BATCH_ABORTED.toString(), batch.getResult(0));
+        assertEquals(Message.POSITION_LIMIT_EXCEEDED.toString(), batch.getResult(1));
+        assertTrue(engine.getBidPriceLevels("A").isEmpty());
+
+        EngineBatch fits =
+                new EngineBatch("alice", 2, true)
+                        .limitOrder("A", 100, 6, true)
+                        .limitOrder("A", 99, 4, true);
+        TaskFuture<String> applied = new TaskFuture<>();
+        sequencer.submitBatch(fits, applied);
+        applied.waitForCompletion();
+
+        assertFalse(fits.isRejected());
+        assertEquals(2, engine.getBidPriceLevels("A").size());
+    }
+
+    @Test
+    void atomicBatch_checksPostOnlyAndFillOrKillAgainstTheBookTheEarlierOnesLeave() {
+        MatchingEngine engine = new MatchingEngine(1000);
+        engine.initializeTicker("A");
+        engine.initializeBot("bot");
+        engine.initializeUser("alice");
+        start(engine, 8);
+
+        TaskFuture<String> placed = new TaskFuture<>();
+        sequencer.submitLimitOrder("bot", "A", 100, 5, false, placed);
+        placed.waitForCompletion();
+
+        EngineBatch crossing =
+                new EngineBatch("alice", 2, true)
+                        .limitOrder("A", 90, 1, true)
+                        .limitOrder("A", 100, 1, true, TimeInForce.POST_ONLY);
+        TaskFuture<String> first = new TaskFuture<>();
+        sequencer.submitBatch(crossing, first);
+        first.waitForCompletion();
+
+        assertTrue(crossing.isRejected());
+        assertEquals(Message.WOULD_CROSS.toString(), crossing.getResult(1));
+
+        // The first bid may take 3 of the 5 resting, leaving too little for the fill-or-kill.
+        EngineBatch unfillable =
+                new EngineBatch("alice", 2, true)
+                        .limitOrder("A", 100, 3, true)
+                        .limitOrder("A", 100, 3, true, TimeInForce.FOK);
+        TaskFuture<String> second = new TaskFuture<>();
+        sequencer.submitBatch(unfillable, second);
+        second.waitForCompletion();
+
+        assertTrue(unfillable.isRejected());
+        assertEquals(Message.BATCH_ABORTED.toString(), unfillable.getResult(0));
+        assertEquals(Message.NOT_FILLABLE.toString(), unfillable.getResult(1));
+        assertTrue(engine.getBidPriceLevels("A").isEmpty());
+        assertEquals(1, engine.getAskPriceLevels("A").size());
+    }
+}
@@ -0,0 +1,45 @@
+package hte.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramsTest {
+
+    @Test
+    void summarize_reportsPercentilesPerKindAndStage() {
+        LatencyHistograms histograms = new LatencyHistograms();
+        for (int i = 1; i <= 100; i++) {
+            histograms.recordEngine(CommandType.LIMIT_ORDER, 1_000, i * 1_000L);
+        }
+        histograms.recordEngine(CommandType.ADMIN, 5, 5);
+
+        Map<String, Map<String, LatencySummary>> summary = histograms.summarize();
+        assertEquals(1, summary.size());
+        LatencySummary engine = summary.get("limit").get("engine");
+        assertEquals(100, engine.count());
+        assertEquals(50_000, engine.p50(), 50_000 * 0.01);
+        assertEquals(99_000, engine.p99(), 99_000 * 0.01);
+        assertEquals(100_000, engine.max(), 100_000 * 0.01);
+        assertEquals(100, summary.get("limit").get("queue").count());
+        assertFalse(summary.get("limit").containsKey("total"));
+    }
+
+    @Test
+    void summarize_accumulatesAcrossCalls_andBatchHasOnlyRequestStages() {
+        LatencyHistograms histograms = new LatencyHistograms();
+        histograms.recordRequest(RequestKind.BATCH, 100, 200, 5_000);
+        histograms.summarize();
+        histograms.recordRequest(RequestKind.BATCH, 100, 200, -1);
+
+        Map<String, LatencySummary> batch = histograms.summarize().get("batch");
+        assertEquals(2, batch.get("total").count());
+        assertEquals(0, batch.get("total").p50());
+        assertTrue(batch.keySet().containsAll(List.of("ingress", "egress", "total")));
+        assertFalse(batch.containsKey("engine"));
+    }
+}
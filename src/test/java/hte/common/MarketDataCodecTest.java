@@ -0,0 +1,104 @@
+package hte.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import hte.matchingengine.PriceChange;
+import hte.matchingengine.Side;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MarketDataCodecTest {
+
+    private static int varint(ByteBuffer in) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static int zigzagVarint(ByteBuffer in) {
+        int raw = varint(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    private static String name(ByteBuffer in) {
+        byte[] name = new byte[in.get() & 0xFF];
+        in.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void snapshot_carriesDictionaryAndDeltaEncodedLevels() {
+        MarketDataCodec codec = new MarketDataCodec();
+        byte[] bytes =
+                codec.encodeSnapshot(
+                        42,
+                        List.of("A", "B"),
+                        List.of(
+                                new PriceChange("A", 100, 5, Side.BID),
+                                new PriceChange("A", 98, 300, Side.BID),
+                                new PriceChange("A", 101, 7, Side.ASK)));
+
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        assertEquals(MarketDataCodec.VERSION, in.get());
+        assertEquals(MarketDataCodec.TYPE_SNAPSHOT, in.get());
+        assertEquals(42, in.getLong());
+        assertEquals(2, in.getShort());
+        assertEquals(0, in.getShort());
+        assertEquals("A", name(in));
+        assertEquals(1, in.getShort());
+        assertEquals("B", name(in));
+
+        assertEquals(1, in.getShort());
+        assertEquals(0, in.getShort());
+        assertEquals(2, in.getInt());
+        assertEquals(1, in.getInt());
+        assertEquals(100, zigzagVarint(in));
+        assertEquals(5, varint(in));
+        assertEquals(-2, zigzagVarint(in));
+        assertEquals(300, varint(in));
+        assertEquals(101, zigzagVarint(in));
+        assertEquals(7, varint(in));
+        assertEquals(0, in.remaining());
+    }
+
+    @Test
+    void update_listsOnlyNewTickersAndSplitsSectionsPerTicker() {
+        MarketDataCodec codec = new MarketDataCodec();
+        codec.encodeSnapshot(1, List.of("A"), List.of());
+
+        ByteBuffer in =
+                ByteBuffer.wrap(
+                        codec.encodeUpdate(
+                                9,
+                                List.of(
+                                        new PriceChange("A", 100, 0, Side.ASK),
+                                        new PriceChange("C", 50, 1, Side.BID))));
+        assertEquals(MarketDataCodec.TYPE_UPDATE, in.get(1));
+        assertEquals(9, in.getLong(2));
+        in.position(10);
+        assertEquals(1, in.getShort());
+        assertEquals(1, in.getShort());
+        assertEquals("C", name(in));
+
+        assertEquals(2, in.getShort());
+        assertEquals(0, in.getShort());
+        assertEquals(0, in.getInt());
+        assertEquals(1, in.getInt());
+        assertEquals(100, zigzagVarint(in));
+        assertEquals(0, varint(in));
+        assertEquals(1, in.getShort());
+        assertEquals(1, in.getInt());
+        assertEquals(0, in.getInt());
+        assertEquals(50, zigzagVarint(in));
+        assertEquals(1, varint(in));
+        assertEquals(0, in.remaining());
+    }
+}
@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import hte.matchingengine.PriceChange;
 import hte.matchingengine.Side;
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 
@@ -63,6 +64,40 @@ class OrderbookSeqLogTest {
         assertTrue(log.getBySeq(3).isPresent());
     }
 
+    @Test
+    void ring_ignoresSeqsOlderThanTheWindow_insteadOfEvictingNewerOnes() {
+        OrderbookSeqLog log = new OrderbookSeqLog(4);
+        for (long seq = 0; seq < 10; seq++) {
+            log.append(new OrderbookUpdate(seq, List.of()));
+        }
+        log.append(new OrderbookUpdate(5, List.of()));
+
+        assertEquals(6L, log.getMinSeq());
+        assertEquals(9L, log.getMaxSeq());
+        assertTrue(log.getBySeq(5).isEmpty());
+        assertTrue(log.getBySeq(9).isPresent());
+        assertTrue(log.getBySeq(-1).isEmpty());
+    }
+
+    @Test
+    void replay_visitsContiguousRange_andStopsAtFirstMissingSeq() {
+        OrderbookSeqLog log = new OrderbookSeqLog(8);
+        for (long seq = 0; seq < 12; seq++) {
+            log.append(new OrderbookUpdate(seq, List.of()));
+        }
+
+        List<Long> seen = new ArrayList<>();
+        assertEquals(9L, log.replay(5, 9, update -> seen.add(update.getSeq())));
+        assertEquals(List.of(5L, 6L, 7L, 8L, 9L), seen);
+
+        seen.clear();
+        assertEquals(11L, log.replay(10, 100, update -> seen.add(update.getSeq())));
+        assertEquals(List.of(10L, 11L), seen);
+
+        // Seq 3 has been overwritten by seq 11.
+        assertEquals(2L, log.replay(3, 5, update -> seen.add(update.getSeq())));
+    }
+
     @Test
     void nextSeqAndAppend_allocatesSeqAndStoresUpdate() {
         SeqGenerator seqGenerator = new SeqGenerator();
@@ -0,0 +1,46 @@
+package hte.gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import hte.common.Message;
+import org.junit.jupiter.api.Test;
+
+class EngineResultsTest {
+
+    @Test
+    void readsTheFieldsOfAnOrderResult() {
+        String json =
+                "{\"price\":101.5,\"volumeFilled\":3,\"errorCode\":0,"
+                        + "\"errorMessage\":\"ok\",\"orderId\":42}";
+        assertEquals(0, EngineResults.getLong(json, "errorCode", -1));
+        assertEquals(42, EngineResults.getLong(json, "orderId", 0));
+        assertEquals(3, EngineResults.getLong(json, "volumeFilled", 0));
+        assertEquals(101.5, EngineResults.getDouble(json, "price", 0));
+        assertEquals("ok", EngineResults.getString(json, "errorMessage"));
+    }
+
+    @Test
+    void readsMessageJson_withSpacesAndEscapes() {
+        String json = Message.ORDER_NOT_FOUND.toString();
+        assertEquals(
+                Message.ORDER_NOT_FOUND.getErrorCode(),
+                EngineResults.getLong(json, "errorCode", -1));
+        assertEquals(
+                Message.ORDER_NOT_FOUND.getErrorMessage(),
+                EngineResults.getString(json, "errorMessage"));
+
+        String escaped =
+                "{\"errorCode\": 3, \"errorMessage\": \"say \\\"errorCode\\\"\\n\\u00e9\"}";
+        assertEquals(3, EngineResults.getLong(escaped, "errorCode", -1));
+        assertEquals("say \"errorCode\"\n\u00e9", EngineResults.getString(escaped, "errorMessage"));
+    }
+
+    @Test
+    void missingFields_fallBack() {
+        assertEquals(-1, EngineResults.getLong(null, "errorCode", -1));
+        assertEquals(-1, EngineResults.getLong("SUCCESS ALL CLEARED", "errorCode", -1));
+        assertEquals(7, EngineResults.getLong("{\"errorCode\":0}", "orderId", 7));
+        assertNull(EngineResults.getString("{\"errorCode\":0}", "errorMessage"));
+    }
+}
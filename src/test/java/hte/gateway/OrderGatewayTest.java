@@ -0,0 +1,313 @@
+package hte.gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import hte.api.ServerApplication;
+import hte.api.State;
+import hte.api.auth.BotAuthenticator;
+import hte.api.auth.PrivatePageAuthenticator;
+import hte.api.auth.RateLimiter;
+import hte.api.auth.RateLimiter.Limit;
+import hte.api.auth.RateLimiter.RequestClass;
+import hte.api.auth.RateLimiter.Role;
+import hte.common.EngineSequencer;
+import hte.common.LatencyHistograms;
+import hte.common.Message;
+import hte.common.WaitStrategy;
+import hte.journal.CommandJournal;
+import hte.matchingengine.MatchingEngine;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OrderGatewayTest {
+    private MatchingEngine engine;
+    private EngineSequencer sequencer;
+    private Thread engineThread;
+    private ServerApplication app;
+    private BotAuthenticator bots;
+    private OrderGateway gateway;
+
+    private record Response(byte type, int requestId, long orderId, int volume, int errorCode) {}
+
+    @BeforeEach
+    void setUp() throws IOException {
+        engine = new MatchingEngine();
+        engine.initializeTicker("A");
+        engine.initializeBot("bot");
+        engine.initializeBot("other");
+        sequencer =
+                new EngineSequencer(
+                        engine,
+                        CommandJournal.disabled(),
+                        new LatencyHistograms(),
+                        1024,
+                        WaitStrategy.PARK);
+        engineThread = new Thread(sequencer::run, "engine-test");
+        engineThread.start();
+
+        app = mock(ServerApplication.class);
+        when(app.getState()).thenReturn(State.TRADE);
+        bots = mock(BotAuthenticator.class);
+        when(bots.authenticate(argThat(r -> r != null && "tok".equals(r.getSessionToken()))))
+                .thenReturn(true);
+        PrivatePageAuthenticator users = mock(PrivatePageAuthenticator.class);
+        when(users.authenticate(any())).thenReturn(false);
+        RateLimiter rateLimiter =
+                new RateLimiter(
+                        Map.of(
+                                Role.USER, new Limit(1, 1),
+                                Role.BOT, new Limit(1, 3),
+                                Role.ADMIN, new Limit(0, 0)),
+                        Map.of(
+                                RequestClass.ORDER, 1.0,
+                                RequestClass.CANCEL, 0.0,
+                                RequestClass.READ, 1.0),
+                        () -> 0);
+        gateway = new OrderGateway(sequencer, app, bots, users, rateLimiter, true, 0, 4);
+        gateway.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        gateway.stop();
+        sequencer.halt();
+        engineThread.join(5_000);
+    }
+
+    private static void logon(DataOutputStream out, int requestId, String user, String token)
+            throws IOException {
+        byte[] u = user.getBytes(StandardCharsets.UTF_8);
+        byte[] t = token.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(5 + 1 + u.length + 1 + t.length);
+        out.writeByte(GatewayProtocol.LOGON);
+        out.writeInt(requestId);
+        out.writeByte(u.length);
+        out.write(u);
+        out.writeByte(t.length);
+        out.write(t);
+    }
+
+    private static void limit(
+            DataOutputStream out, int requestId, String ticker, int price, int volume, boolean bid)
+            throws IOException {
+        byte[] t = ticker.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(5 + 1 + t.length + 4 + 4 + 1);
+        out.writeByte(GatewayProtocol.LIMIT_ORDER);
+        out.writeInt(requestId);
+        out.writeByte(t.length);
+        out.write(t);
+        out.writeInt(price);
+        out.writeInt(volume);
+        out.writeByte(bid ? 1 : 0);
+    }
+
+    private static void market(
+            DataOutputStream out, int requestId, String ticker, int volume, boolean bid)
+            throws IOException {
+        byte[] t = ticker.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(5 + 1 + t.length + 4 + 1);
+        out.writeByte(GatewayProtocol.MARKET_ORDER);
+        out.writeInt(requestId);
+        out.writeByte(t.length);
+        out.write(t);
+        out.writeInt(volume);
+        out.writeByte(bid ? 1 : 0);
+    }
+
+    private static void cancel(DataOutputStream out, int requestId, long orderId)
+            throws IOException {
+        out.writeShort(5 + 8);
+        out.writeByte(GatewayProtocol.CANCEL);
+        out.writeInt(requestId);
+        out.writeLong(orderId);
+    }
+
+    private static void cancelAll(DataOutputStream out, int requestId) throws IOException {
+        out.writeShort(5);
+        out.writeByte(GatewayProtocol.CANCEL_ALL);
+        out.writeInt(requestId);
+    }
+
+    private static Response read(DataInputStream in) throws IOException {
+        int length = in.readUnsignedShort();
+        byte type = in.readByte();
+        int requestId = in.readInt();
+        if (type == GatewayProtocol.ACK) {
+            assertEquals(GatewayProtocol.ACK_LENGTH - 2, length);
+            long orderId = in.readLong();
+            int volume = in.readInt();
+            in.readDouble();
+            return new Response(type, requestId, orderId, volume, 0);
+        }
+        assertEquals(GatewayProtocol.REJECT, type);
+        int errorCode = in.readUnsignedShort();
+        in.skipNBytes(in.readUnsignedShort());
+        return new Response(type, requestId, 0, 0, errorCode);
+    }
+
+    private static Response ack(int requestId, long orderId, int volume) {
+        return new Response(GatewayProtocol.ACK, requestId, orderId, volume, 0);
+    }
+
+    private static Response reject(int requestId, Message message) {
+        return new Response(GatewayProtocol.REJECT, requestId, 0, 0, message.getErrorCode());
+    }
+
+    @Test
+    void pipelinedOrders_areAnsweredInRequestOrder() throws IOException {
+        try (Socket socket = new Socket("localhost", gateway.getPort())) {
+            DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+
+            // Everything is written before reading a single response.
+            logon(out, 1, "bot", "tok");
+            limit(out, 2, "A", 100, 5, false);
+            limit(out, 3, "B", 100, 5, false);
+            cancel(out, 4, 1);
+            cancel(out, 5, 1);
+            limit(out, 6, "A", 90, 3, false);
+            cancelAll(out, 7);
+            out.flush();
+
+            assertEquals(ack(1, 0, 0), read(in));
+            assertEquals(ack(2, 1, 0), read(in));
+            assertEquals(reject(3, Message.UNKNOWN_TICKER), read(in));
+            assertEquals(ack(4, 1, 0), read(in));
+            assertEquals(reject(5, Message.ORDER_NOT_FOUND), read(in));
+            assertEquals(ack(6, 2, 0), read(in));
+            assertEquals(ack(7, 0, 0), read(in));
+        }
+        assertTrue(engine.getAskPriceLevels("A").isEmpty());
+    }
+
+    @Test
+    void marketOrder_reportsItsFill() throws IOException {
+        try (Socket socket = new Socket("localhost", gateway.getPort())) {
+            DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            logon(out, 1, "bot", "tok");
+            limit(out, 2, "A", 100, 5, false);
+            market(out, 3, "A", 2, true);
+            out.flush();
+
+            assertEquals(ack(1, 0, 0), read(in));
+            assertEquals(ack(2, 1, 0), read(in));
+            assertEquals(ack(3, 0, 2), read(in));
+        }
+    }
+
+    @Test
+    void checksRateLimitAndTradingState_beforeTheEngine() throws IOException {
+        try (Socket socket = new Socket("localhost", gateway.getPort())) {
+            DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            logon(out, 1, "bot", "tok");
+            for (int i = 0; i < 4; i++) {
+                limit(out, 2 + i, "A", 100, 1, false);
+            }
+            out.flush();
+
+            assertEquals(ack(1, 0, 0), read(in));
+            assertEquals(ack(2, 1, 0), read(in));
+            assertEquals(ack(3, 2, 0), read(in));
+            assertEquals(ack(4, 3, 0), read(in));
+            assertEquals(reject(5, Message.RATE_LIMITED), read(in));
+
+            when(app.getState()).thenReturn(State.STOP);
+            cancel(out, 6, 1);
+            out.flush();
+            assertEquals(reject(6, Message.TRADE_LOCKED), read(in));
+        }
+    }
+
+    @Test
+    void malformedRequests_areRejectedWithoutDroppingTheConnection() throws IOException {
+        try (Socket socket = new Socket("localhost", gateway.getPort())) {
+            DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            logon(out, 1, "bot", "tok");
+            // Unknown type, then a cancel one byte short.
+            out.writeShort(5);
+            out.writeByte(99);
+            out.writeInt(2);
+            out.writeShort(5 + 7);
+            out.writeByte(GatewayProtocol.CANCEL);
+            out.writeInt(3);
+            out.write(new byte[7]);
+            cancelAll(out, 4);
+            out.flush();
+
+            assertEquals(ack(1, 0, 0), read(in));
+            assertEquals(reject(2, Message.BAD_INPUT), read(in));
+            assertEquals(reject(3, Message.BAD_INPUT), read(in));
+            assertEquals(ack(4, 0, 0), read(in));
+        }
+    }
+
+    @Test
+    void ordersBeforeLogon_orBadLogon_closeTheConnection() throws IOException {
+        try (Socket socket = new Socket("localhost", gateway.getPort())) {
+            DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            cancelAll(out, 1);
+            cancelAll(out, 2);
+            out.flush();
+            assertEquals(reject(1, Message.AUTHENTICATION_FAILED), read(in));
+            assertThrows(EOFException.class, () -> read(in));
+        }
+        try (Socket socket = new Socket("localhost", gateway.getPort())) {
+            DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            logon(out, 1, "bot", "wrong");
+            out.flush();
+            assertEquals(reject(1, Message.AUTHENTICATION_FAILED), read(in));
+            assertThrows(EOFException.class, () -> read(in));
+        }
+    }
+
+    @Test
+    void revokedSession_isLoggedOffAfterItsPendingResponses() throws IOException {
+        try (Socket socket = new Socket("localhost", gateway.getPort())) {
+            DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            logon(out, 1, "bot", "tok");
+            limit(out, 2, "A", 100, 5, false);
+            out.flush();
+            assertEquals(ack(1, 0, 0), read(in));
+            assertEquals(ack(2, 1, 0), read(in));
+
+            gateway.checkSessions();
+            cancelAll(out, 3);
+            out.flush();
+            assertEquals(ack(3, 0, 0), read(in));
+
+            // Torn down: the token no longer authenticates.
+            when(bots.authenticate(any())).thenReturn(false);
+            gateway.checkSessions();
+            assertEquals(reject(0, Message.AUTHENTICATION_FAILED), read(in));
+            assertThrows(EOFException.class, () -> read(in));
+        }
+    }
+}
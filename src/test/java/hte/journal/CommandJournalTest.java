@@ -0,0 +1,304 @@
+package hte.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hte.common.EngineSequencer;
+import hte.common.LatencyHistograms;
+import hte.common.TaskFuture;
+import hte.common.WaitStrategy;
+import hte.matchingengine.MatchingEngine;
+import hte.matchingengine.OrderFilter;
+import hte.matchingengine.Side;
+import hte.matchingengine.TimeInForce;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CommandJournalTest {
+    @TempDir Path dir;
+
+    private CommandJournal open(Path journalDir, int windowBytes, JournalHandler handler)
+            throws Exception {
+        CommandJournal journal = new CommandJournal(true, journalDir.toString(), windowBytes, 100);
+        journal.recover(handler);
+        return journal;
+    }
+
+    private static List<String> replay(Path journalDir, int windowBytes) throws Exception {
+        Recorder recorder = new Recorder();
+        new CommandJournal(true, journalDir.toString(), windowBytes, 100).recover(recorder);
+        return recorder.records;
+    }
+
+    @Test
+    void appendBeforeRecover_throws() {
+        CommandJournal journal = new CommandJournal(true, dir.resolve("j").toString(), 1024, 100);
+        assertThrows(IllegalStateException.class, () -> journal.cancelAll("u"));
+    }
+
+    @Test
+    void everyRecordType_roundTrips() throws Exception {
+        Path journalDir = dir.resolve("journal");
+        CommandJournal journal = open(journalDir, 4096, new Recorder());
+        Map<String, Integer> prices = new LinkedHashMap<>();
+        prices.put("A", 100);
+        prices.put("B", 250);
+
+        journal.initUser("alice");
+        journal.initBot("bot");
+        journal.limitOrder("alice", "A", 101, 5, true, TimeInForce.GTC);
+        journal.limitOrder("alice", "A", 102, 1, false, TimeInForce.FOK);
+        journal.marketOrder("bot", "A", 3, false);
+        journal.cancel("alice", 1L << 40);
+        journal.cancelAll("bot");
+        journal.cancelAll("bot", new OrderFilter(null, Side.ASK, 100, 105));
+        journal.cancelAll("bot", OrderFilter.of("A", null, null, null));
+        journal.amend("alice", 7, 99, 2);
+        journal.setPrices(prices);
+        journal.setTickers(new String[] {"A", "B", "Ç"});
+        journal.auctionExecuted("alice", 42);
+        journal.close();
+
+        assertEquals(
+                List.of(
+                        "initUser alice",
+                        "initBot bot",
+                        "limit alice A 101 5 true",
+                        "limit alice A 102 1 false FOK",
+                        "market bot A 3 false",
+                        "cancel alice " + (1L << 40),
+                        "cancelAll bot",
+                        "cancelAll bot OrderFilter[ticker=null, side=ASK, minPrice=100,"
+                                + " maxPrice=105]",
+                        "cancelAll bot OrderFilter[ticker=A, side=null, minPrice=0,"
+                                + " maxPrice=2147483647]",
+                        "amend alice 7 99 2",
+                        "setPrices {A=100, B=250}",
+                        "setTickers [A, B, Ç]",
+                        "auction alice 42"),
+                replay(journalDir, 4096));
+    }
+
+    @Test
+    void recordsSpanManyWindows() throws Exception {
+        Path journalDir = dir.resolve("journal");
+        CommandJournal journal = open(journalDir, 1024, new Recorder());
+        for (int i = 0; i < 500; i++) {
+            journal.limitOrder("user" + i, "TICKER", i, i + 1, i % 2 == 0, TimeInForce.GTC);
+        }
+        journal.close();
+
+        List<String> records = replay(journalDir, 1024);
+        assertEquals(500, records.size());
+        assertEquals("limit user0 TICKER 0 1 true", records.get(0));
+        assertEquals("limit user499 TICKER 499 500 false", records.get(499));
+    }
+
+    @Test
+    void tornTail_isDropped_andAppendsResumeAfterLastGoodRecord() throws Exception {
+        Path journalDir = dir.resolve("journal");
+        CommandJournal journal = open(journalDir, 4096, new Recorder());
+        journal.cancelAll("a");
+        journal.cancelAll("b");
+        long tornAt = journal.getWrittenPosition();
+        journal.cancelAll("c");
+        journal.close();
+
+        // Flip a payload byte of the last record so its checksum no longer matches.
+        try (RandomAccessFile raf = new RandomAccessFile(journal.segmentPath(1).toFile(), "rw")) {
+            raf.seek(tornAt + 10);
+            raf.write(raf.read() ^ 0xFF);
+        }
+
+        Recorder recorder = new Recorder();
+        journal = open(journalDir, 4096, recorder);
+        assertEquals(List.of("cancelAll a", "cancelAll b"), recorder.records);
+        assertEquals(tornAt, journal.getWrittenPosition());
+
+        journal.cancelAll("d");
+        journal.close();
+        assertEquals(
+                List.of("cancelAll a", "cancelAll b", "cancelAll d"), replay(journalDir, 4096));
+    }
+
+    @Test
+    void newSegment_recoveringFromItSkipsEarlierSegments() throws Exception {
+        Path journalDir = dir.resolve("journal");
+        CommandJournal journal = open(journalDir, 1024, new Recorder());
+        journal.cancelAll("a");
+        long second = journal.startNewSegment();
+        journal.cancelAll("b");
+        long third = journal.startNewSegment();
+        journal.cancelAll("c");
+        journal.close();
+
+        assertEquals(2, second);
+        assertEquals(3, third);
+        assertEquals(
+                List.of("cancelAll a", "cancelAll b", "cancelAll c"), replay(journalDir, 1024));
+
+        Recorder recorder = new Recorder();
+        journal = new CommandJournal(true, journalDir.toString(), 1024, 100);
+        assertEquals(2, journal.recover(second, recorder));
+        assertEquals(List.of("cancelAll b", "cancelAll c"), recorder.records);
+        assertEquals(third, journal.getSegment());
+        journal.close();
+    }
+
+    @Test
+    void deleteSegmentsBefore_keepsLaterSegments() throws Exception {
+        Path journalDir = dir.resolve("journal");
+        CommandJournal journal = open(journalDir, 1024, new Recorder());
+        journal.cancelAll("a");
+        long second = journal.startNewSegment();
+        journal.cancelAll("b");
+        journal.deleteSegmentsBefore(second);
+        journal.close();
+
+        assertFalse(Files.exists(journal.segmentPath(1)));
+        assertEquals(List.of("cancelAll b"), replay(journalDir, 1024));
+    }
+
+    @Test
+    void recoverFromMissingSegment_startsThere() throws Exception {
+        Path journalDir = dir.resolve("journal");
+        CommandJournal journal = new CommandJournal(true, journalDir.toString(), 1024, 100);
+        assertEquals(0, journal.recover(7, new Recorder()));
+        assertEquals(7, journal.getSegment());
+        journal.cancelAll("a");
+        journal.close();
+
+        assertTrue(Files.exists(journal.segmentPath(7)));
+        assertEquals(List.of("cancelAll a"), replay(journalDir, 1024));
+    }
+
+    @Test
+    void replay_rebuildsEngineState() throws Exception {
+        Path journalDir = dir.resolve("journal");
+        MatchingEngine live = new MatchingEngine();
+        live.initializeTicker("A");
+        CommandJournal journal = open(journalDir, 1 << 16, new Recorder());
+        EngineSequencer sequencer =
+                new EngineSequencer(live, journal, new LatencyHistograms(), 64, WaitStrategy.PARK);
+        Thread engineThread = new Thread(sequencer::run);
+        engineThread.start();
+
+        for (String bot : new String[] {"maker", "taker"}) {
+            sequencer.submit(
+                    () -> {
+                        journal.initBot(bot);
+                        live.initializeBot(bot);
+                    });
+        }
+        List<TaskFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            TaskFuture<String> future = new TaskFuture<>();
+            sequencer.submitLimitOrder("maker", "A", 100 + i, 10, false, future);
+            futures.add(future);
+        }
+        TaskFuture<String> cancel = new TaskFuture<>();
+        sequencer.submitCancel("maker", 3, cancel);
+        TaskFuture<String> market = new TaskFuture<>();
+        sequencer.submitMarketOrder("taker", "A", 25, true, market);
+        TaskFuture<String> bid = new TaskFuture<>();
+        sequencer.submitLimitOrder("taker", "A", 99, 4, true, bid);
+        futures.addAll(List.of(cancel, market, bid));
+        for (TaskFuture<String> future : futures) {
+            future.waitForCompletion();
+        }
+        sequencer.halt();
+        engineThread.join();
+        journal.close();
+
+        MatchingEngine restored = new MatchingEngine();
+        restored.initializeTicker("A");
+        new CommandJournal(true, journalDir.toString(), 1 << 16, 100)
+                .recover(new EngineReplayer(restored));
+
+        assertEquals(live.serializeOrderBooks(), restored.serializeOrderBooks());
+        assertEquals(live.getUserDetails("maker"), restored.getUserDetails("maker"));
+        assertEquals(live.getUserDetails("taker"), restored.getUserDetails("taker"));
+        assertEquals(25, restored.getTickerBalance("taker", "A"));
+    }
+
+    /** Renders every replayed record as one line so tests can compare plain strings. */
+    private static final class Recorder implements JournalHandler {
+        final List<String> records = new ArrayList<>();
+
+        @Override
+        public void limitOrder(
+                String username,
+                String ticker,
+                int price,
+                int volume,
+                boolean bid,
+                TimeInForce timeInForce) {
+            records.add(
+                    "limit "
+                            + username
+                            + " "
+                            + ticker
+                            + " "
+                            + price
+                            + " "
+                            + volume
+                            + " "
+                            + bid
+                            + (timeInForce == TimeInForce.GTC ? "" : " " + timeInForce));
+        }
+
+        @Override
+        public void marketOrder(String username, String ticker, int volume, boolean bid) {
+            records.add("market " + username + " " + ticker + " " + volume + " " + bid);
+        }
+
+        @Override
+        public void cancel(String username, long orderId) {
+            records.add("cancel " + username + " " + orderId);
+        }
+
+        @Override
+        public void cancelAll(String username, OrderFilter filter) {
+            records.add("cancelAll " + username + (filter.matchesAll() ? "" : " " + filter));
+        }
+
+        @Override
+        public void amend(String username, long orderId, int price, int volume) {
+            records.add("amend " + username + " " + orderId + " " + price + " " + volume);
+        }
+
+        @Override
+        public void initUser(String username) {
+            records.add("initUser " + username);
+        }
+
+        @Override
+        public void initBot(String username) {
+            records.add("initBot " + username);
+        }
+
+        @Override
+        public void setPrices(Map<String, Integer> prices) {
+            records.add("setPrices " + prices);
+        }
+
+        @Override
+        public void setTickers(String[] tickers) {
+            records.add("setTickers " + List.of(tickers));
+        }
+
+        @Override
+        public void auctionExecuted(String username, int amount) {
+            records.add("auction " + username + " " + amount);
+        }
+    }
+}
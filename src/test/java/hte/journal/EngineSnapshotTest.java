@@ -0,0 +1,123 @@
+package hte.journal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hte.common.EngineSequencer;
+import hte.common.LatencyHistograms;
+import hte.common.SeqGenerator;
+import hte.common.TaskFuture;
+import hte.common.WaitStrategy;
+import hte.matchingengine.MatchingEngine;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class EngineSnapshotTest {
+    @TempDir Path dir;
+
+    @Test
+    void store_fallsBackToOlderSnapshot_whenNewestIsCorrupt() throws Exception {
+        SnapshotStore store = new SnapshotStore(dir.toString());
+        store.write(3, 10, new byte[] {1, 2, 3});
+        store.write(5, 20, new byte[] {4, 5, 6});
+
+        try (RandomAccessFile raf = new RandomAccessFile(store.snapshotPath(5).toFile(), "rw")) {
+            raf.seek(raf.length() - 1);
+            raf.write(0x7F);
+        }
+
+        SnapshotStore.Snapshot latest = store.loadLatest().orElseThrow();
+        assertEquals(3, latest.journalSegment());
+        assertEquals(10, latest.seq());
+        assertArrayEquals(new byte[] {1, 2, 3}, latest.body());
+    }
+
+    @Test
+    void store_prune_keepsNewestAndReportsOldestRetainedSegment() throws Exception {
+        SnapshotStore store = new SnapshotStore(dir.toString());
+        assertTrue(store.loadLatest().isEmpty());
+        store.write(2, 0, new byte[0]);
+        store.write(4, 0, new byte[0]);
+        store.write(9, 0, new byte[0]);
+
+        assertEquals(4, store.prune());
+        assertFalse(Files.exists(store.snapshotPath(2)));
+        assertEquals(9, store.loadLatest().orElseThrow().journalSegment());
+    }
+
+    @Test
+    void recovery_loadsSnapshotAndReplaysOnlyTheJournalTail() throws Exception {
+        Path journalDir = dir.resolve("journal");
+        SnapshotStore store = new SnapshotStore(dir.resolve("snapshots").toString());
+        MatchingEngine live = new MatchingEngine();
+        live.initializeTicker("A");
+        CommandJournal journal = new CommandJournal(true, journalDir.toString(), 1 << 16, 100);
+        SeqGenerator seq = new SeqGenerator();
+        // Market data numbering continues from an earlier run.
+        seq.restore(77);
+        new EngineRecovery(live, journal, store, seq, true).recover(List.of(), List.of("maker"));
+
+        EngineSequencer sequencer =
+                new EngineSequencer(live, journal, new LatencyHistograms(), 64, WaitStrategy.PARK);
+        EngineSnapshotter snapshotter =
+                new EngineSnapshotter(live, sequencer, journal, store, true);
+        Thread engineThread = new Thread(sequencer::run);
+        engineThread.start();
+
+        sequencer.submit(
+                () -> {
+                    journal.initBot("taker");
+                    live.initializeBot("taker");
+                });
+        for (int i = 0; i < 10; i++) {
+            submitLimit(sequencer, "maker", 100 + i, 5, false);
+        }
+        // Nothing drains the levels here, so the publisher's generator stays at 77 while the
+        // engine has handed over one update and holds the rest for the next.
+        snapshotter.snapshot();
+        while (snapshotter.getSnapshotsWritten() == 0) {
+            Thread.onSpinWait();
+        }
+        submitLimit(sequencer, "taker", 102, 12, true);
+        submitLimit(sequencer, "maker", 90, 3, true);
+        sequencer.halt();
+        engineThread.join();
+        journal.close();
+        snapshotter.shutdown();
+
+        assertTrue(snapshotter.getLastCaptureNanos() > 0);
+        assertFalse(Files.exists(journal.segmentPath(1)));
+
+        MatchingEngine restored = new MatchingEngine();
+        SeqGenerator restoredSeq = new SeqGenerator();
+        EngineRecovery recovery =
+                new EngineRecovery(
+                        restored,
+                        new CommandJournal(true, journalDir.toString(), 1 << 16, 100),
+                        store,
+                        restoredSeq,
+                        true);
+        recovery.recover(List.of(), List.of("maker"));
+
+        assertEquals(2, recovery.getSnapshotSegment());
+        assertEquals(2, recovery.getReplayedRecords());
+        assertEquals(79, restoredSeq.get());
+        assertEquals(live.serializeOrderBooks(), restored.serializeOrderBooks());
+        assertEquals(live.getUserDetails("maker"), restored.getUserDetails("maker"));
+        assertEquals(live.getUserDetails("taker"), restored.getUserDetails("taker"));
+        assertEquals(12, restored.getTickerBalance("taker", "A"));
+    }
+
+    private static void submitLimit(
+            EngineSequencer sequencer, String user, int price, int volume, boolean bid) {
+        TaskFuture<String> future = new TaskFuture<>();
+        sequencer.submitLimitOrder(user, "A", price, volume, bid, future);
+        future.waitForCompletion();
+    }
+}
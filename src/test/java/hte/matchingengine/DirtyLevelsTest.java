@@ -0,0 +1,86 @@
+package hte.matchingengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class DirtyLevelsTest {
+
+    private static List<String> drain(DirtyLevels levels) {
+        List<String> out = new ArrayList<>();
+        levels.drain(
+                (ticker, price, volume, side) -> out.add(ticker + side + price + "=" + volume));
+        return out;
+    }
+
+    @Test
+    void repeatedMarks_emitOnceWithFinalVolume_bidsDescendingThenAsksAscending() {
+        DirtyLevels levels = new DirtyLevels();
+        levels.mark("A", 100, 5, Side.BID);
+        levels.mark("A", 102, 1, Side.BID);
+        levels.mark("A", 105, 3, Side.ASK);
+        levels.mark("A", 100, 0, Side.BID);
+        levels.mark("A", 104, 7, Side.ASK);
+
+        assertTrue(levels.publish());
+        assertEquals(List.of("ABID102=1", "ABID100=0", "AASK104=7", "AASK105=3"), drain(levels));
+        assertFalse(levels.publish());
+        assertEquals(List.of(), drain(levels));
+    }
+
+    @Test
+    void publish_keepsAccumulating_untilPreviousBufferIsDrained() {
+        DirtyLevels levels = new DirtyLevels();
+        levels.mark("A", 100, 1, Side.BID);
+        assertTrue(levels.publish());
+
+        levels.mark("A", 100, 2, Side.BID);
+        assertFalse(levels.publish());
+        levels.mark("A", 100, 3, Side.BID);
+
+        assertEquals(List.of("ABID100=1"), drain(levels));
+        assertTrue(levels.publish());
+        assertEquals(List.of("ABID100=3"), drain(levels));
+    }
+
+    @Test
+    void seqAfterMarked_countsHandOversAndPendingLevels() {
+        DirtyLevels levels = new DirtyLevels();
+        levels.continueFrom(10);
+        assertEquals(10, levels.seqAfterMarked());
+
+        levels.mark("A", 100, 1, Side.BID);
+        assertEquals(11, levels.seqAfterMarked());
+        assertTrue(levels.publish());
+        assertEquals(11, levels.seqAfterMarked());
+
+        // Held back until the publisher drains: still only one more update.
+        levels.mark("A", 100, 2, Side.BID);
+        assertFalse(levels.publish());
+        levels.mark("A", 101, 2, Side.BID);
+        assertEquals(12, levels.seqAfterMarked());
+        drain(levels);
+        assertTrue(levels.publish());
+        assertEquals(12, levels.seqAfterMarked());
+    }
+
+    @Test
+    void manyLevels_growAndReuseBuffers() {
+        DirtyLevels levels = new DirtyLevels();
+        for (int round = 0; round < 3; round++) {
+            for (int price = 0; price < 1_000; price++) {
+                levels.mark("A", price * 7, price, Side.ASK);
+                levels.mark("A", price * 7, price + round, Side.ASK);
+            }
+            assertTrue(levels.publish());
+            List<String> out = drain(levels);
+            assertEquals(1_000, out.size());
+            assertEquals("AASK0=" + round, out.get(0));
+            assertEquals("AASK" + 999 * 7 + "=" + (999 + round), out.get(999));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package hte.matchingengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ExecutionsTest {
+    private MatchingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new MatchingEngine();
+        engine.initializeTicker("A");
+        engine.initializeBot("maker");
+        engine.initializeBot("taker");
+    }
+
+    private static List<Trade> drain(MatchingEngine engine) {
+        List<Trade> trades = new ArrayList<>();
+        engine.getExecutions().publish();
+        engine.getExecutions().drain(trades::add);
+        return trades;
+    }
+
+    @Test
+    void limitFills_reportMakerAndTakerOrderIds_takerIdOnlyOnceItRests() {
+        long first =
+                engine.askLimitOrder(
+                        "maker", new Order("maker", "A", 100, 2, Side.ASK, Status.ACTIVE));
+        long second =
+                engine.askLimitOrder(
+                        "maker", new Order("maker", "A", 101, 5, Side.ASK, Status.ACTIVE));
+        engine.bidLimitOrder("taker", new Order("taker", "A", 100, 1, Side.BID, Status.ACTIVE));
+        long resting =
+                engine.bidLimitOrder(
+                        "taker", new Order("taker", "A", 101, 8, Side.BID, Status.ACTIVE));
+
+        List<Trade> trades = drain(engine);
+        assertEquals(3, trades.size());
+
+        Trade filledOnArrival = trades.get(0);
+        assertEquals(1, filledOnArrival.getTradeId());
+        assertEquals(first, filledOnArrival.getMakerOrderId());
+        assertEquals(0, filledOnArrival.getTakerOrderId());
+        assertEquals(100, filledOnArrival.getPrice());
+        assertEquals(1, filledOnArrival.getVolume());
+        assertEquals(Side.BID, filledOnArrival.getSide());
+        assertEquals("maker", filledOnArrival.getSeller());
+        assertEquals("taker", filledOnArrival.getBuyer());
+        assertTrue(filledOnArrival.getTimestamp() > 0);
+
+        assertEquals(first, trades.get(1).getMakerOrderId());
+        assertEquals(second, trades.get(2).getMakerOrderId());
+        assertEquals(resting, trades.get(1).getTakerOrderId());
+        assertEquals(resting, trades.get(2).getTakerOrderId());
+        assertEquals(
+                List.of(2L, 3L), List.of(trades.get(1).getTradeId(), trades.get(2).getTradeId()));
+        assertEquals(List.of(1, 5), List.of(trades.get(1).getVolume(), trades.get(2).getVolume()));
+    }
+
+    @Test
+    void marketFills_haveNoTakerOrderId() {
+        long bid =
+                engine.bidLimitOrder(
+                        "maker", new Order("maker", "A", 99, 3, Side.BID, Status.ACTIVE));
+        engine.askMarketOrder("taker", "A", 2);
+
+        List<Trade> trades = drain(engine);
+        assertEquals(1, trades.size());
+        assertEquals(bid, trades.get(0).getMakerOrderId());
+        assertEquals(0, trades.get(0).getTakerOrderId());
+        assertEquals(Side.ASK, trades.get(0).getSide());
+        assertEquals("maker", trades.get(0).getBuyer());
+    }
+
+    @Test
+    void publish_keepsAccumulating_untilPreviousBufferIsDrained() {
+        engine.askLimitOrder("maker", new Order("maker", "A", 100, 10, Side.ASK, Status.ACTIVE));
+        engine.bidLimitOrder("taker", new Order("taker", "A", 100, 1, Side.BID, Status.ACTIVE));
+        assertTrue(engine.getExecutions().publish());
+        engine.bidLimitOrder("taker", new Order("taker", "A", 100, 1, Side.BID, Status.ACTIVE));
+        assertFalse(engine.getExecutions().publish());
+        engine.bidLimitOrder("taker", new Order("taker", "A", 100, 1, Side.BID, Status.ACTIVE));
+
+        List<Long> ids = new ArrayList<>();
+        engine.getExecutions().drain(trade -> ids.add(trade.getTradeId()));
+        assertEquals(List.of(1L), ids);
+        drain(engine).forEach(trade -> ids.add(trade.getTradeId()));
+        assertEquals(List.of(1L, 2L, 3L), ids);
+        assertFalse(engine.getExecutions().drain(trade -> ids.add(trade.getTradeId())));
+    }
+
+    @Test
+    void notRecording_skipsFills_butTradeIdsKeepCountingAcrossSnapshots() throws Exception {
+        engine.askLimitOrder("maker", new Order("maker", "A", 100, 10, Side.ASK, Status.ACTIVE));
+        engine.getExecutions().setRecording(false);
+        engine.bidLimitOrder("taker", new Order("taker", "A", 100, 1, Side.BID, Status.ACTIVE));
+        engine.getExecutions().setRecording(true);
+        assertEquals(List.of(), drain(engine));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            engine.writeSnapshot(out);
+        }
+        MatchingEngine restored = new MatchingEngine();
+        try (DataInputStream in =
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored.readSnapshot(in);
+        }
+        restored.bidLimitOrder("taker", new Order("taker", "A", 100, 1, Side.BID, Status.ACTIVE));
+
+        List<Trade> trades = drain(restored);
+        assertEquals(1, trades.size());
+        assertEquals(2, trades.get(0).getTradeId());
+        assertEquals(1, trades.get(0).getMakerOrderId());
+    }
+}
@@ -0,0 +1,135 @@
+package hte.matchingengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hte.common.Message;
+import hte.common.TaskFuture;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class MatchingEngineSnapshotTest {
+
+    private static MatchingEngine restore(MatchingEngine engine) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            engine.writeSnapshot(out);
+        }
+        MatchingEngine restored = new MatchingEngine();
+        try (DataInputStream in =
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored.readSnapshot(in);
+        }
+        return restored;
+    }
+
+    private static MatchingEngine tradedEngine() {
+        MatchingEngine engine = TestEngines.finiteSingleTicker("A");
+        engine.initializeTicker("B");
+        TestEngines.initUser(engine, "alice", 10_000, "A", 20);
+        TestEngines.initBot(engine, "maker1", "A", 0);
+        TestEngines.initBot(engine, "maker2", "A", 0);
+        engine.setPrice("A", 100);
+
+        TestEngines.seedAsk(engine, "maker1", "A", 101, 5);
+        TestEngines.seedAsk(engine, "maker2", "A", 101, 5);
+        TestEngines.seedAsk(engine, "maker1", "A", 103, 2);
+        long cancelled = TestEngines.seedBid(engine, "maker2", "A", 95, 4);
+        TestEngines.seedBid(engine, "maker1", "A", 96, 3);
+        TestEngines.seedBid(engine, "alice", "A", 101, 2);
+        TestEngines.seedAsk(engine, "alice", "A", 110, 7);
+        engine.removeOrder("maker2", cancelled);
+        return engine;
+    }
+
+    @Test
+    void snapshot_restoresBooksUsersAndPrices() throws Exception {
+        MatchingEngine engine = tradedEngine();
+        MatchingEngine restored = restore(engine);
+
+        assertEquals(engine.serializeOrderBooks(), restored.serializeOrderBooks());
+        for (String user : new String[] {"alice", "maker1", "maker2"}) {
+            assertEquals(engine.getUserDetails(user), restored.getUserDetails(user));
+        }
+        assertEquals(engine.getPrice("A"), restored.getPrice("A"));
+        assertEquals(engine.getBids("A").keySet(), restored.getBids("A").keySet());
+        assertTrue(restored.hasUser("maker2"));
+        assertFalse(restored.hasUser("nobody"));
+    }
+
+    @Test
+    void restoredEngine_matchesIdentically_includingQueuePriorityAndOrderIds() throws Exception {
+        MatchingEngine engine = tradedEngine();
+        MatchingEngine restored = restore(engine);
+
+        for (MatchingEngine e : new MatchingEngine[] {engine, restored}) {
+            // 3 of maker1's remaining lots at 101 trade first, then 2 of maker2's.
+            e.bidMarketOrder("alice", "A", 5);
+        }
+        assertEquals(engine.getUserDetails("maker1"), restored.getUserDetails("maker1"));
+        assertEquals(engine.getUserDetails("maker2"), restored.getUserDetails("maker2"));
+        assertEquals(-5, restored.getTickerBalance("maker1", "A"));
+        assertEquals(-2, restored.getTickerBalance("maker2", "A"));
+
+        long next = TestEngines.seedBid(engine, "maker1", "A", 90, 1);
+        assertEquals(next, TestEngines.seedBid(restored, "maker1", "A", 90, 1));
+        assertTrue(restored.removeOrder("maker1", next));
+    }
+
+    @Test
+    void snapshot_keepsEachOrdersTimeInForce() throws Exception {
+        MatchingEngine engine = tradedEngine();
+        long postOnly =
+                engine.bidLimitOrder(
+                        "maker1",
+                        new Order(
+                                "maker1",
+                                "A",
+                                97,
+                                1,
+                                Side.BID,
+                                Status.ACTIVE,
+                                TimeInForce.POST_ONLY));
+        MatchingEngine restored = restore(engine);
+
+        assertEquals(TimeInForce.POST_ONLY, restored.getOrder("maker1", postOnly).getTimeInForce());
+        // Still post-only after the restore: moving it through the 101 asks is refused.
+        assertEquals(
+                Message.WOULD_CROSS.getErrorCode(),
+                restored.amendOrderHandler("maker1", postOnly, 101, 1).get("errorCode"));
+    }
+
+    @Test
+    void partialSetPrice_clearsOnlyThoseTickers_andSnapshotsStillWork() throws Exception {
+        MatchingEngine engine = tradedEngine();
+        MatchingEngine cancelled = tradedEngine();
+        for (MatchingEngine e : new MatchingEngine[] {engine, cancelled}) {
+            TestEngines.initBot(e, "maker3", "B", 0);
+            TestEngines.seedAsk(e, "maker3", "B", 120, 3);
+        }
+        long kept = TestEngines.seedAsk(engine, "maker3", "B", 121, 1);
+        TestEngines.seedAsk(cancelled, "maker3", "B", 121, 1);
+
+        engine.setPriceClearOrderBook(Map.of("A", 100), new TaskFuture<>());
+        cancelled.setPrice("A", 100);
+        for (String user : new String[] {"alice", "maker1", "maker2"}) {
+            cancelled.removeAll(user, new OrderFilter("A", null, 0, Integer.MAX_VALUE));
+        }
+
+        // Same as cancelling every A order: reservations are released, B is untouched.
+        assertTrue(engine.getBids("A").isEmpty());
+        for (String user : new String[] {"alice", "maker1", "maker2", "maker3"}) {
+            assertEquals(cancelled.getUserDetails(user), engine.getUserDetails(user));
+        }
+
+        MatchingEngine restored = restore(engine);
+        assertEquals(engine.serializeOrderBooks(), restored.serializeOrderBooks());
+        assertEquals(engine.getUserDetails("maker3"), restored.getUserDetails("maker3"));
+        assertTrue(restored.removeOrder("maker3", kept));
+    }
+}
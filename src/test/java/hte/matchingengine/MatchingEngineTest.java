@@ -9,11 +9,12 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import hte.common.Message;
 import hte.common.TaskFuture;
 import java.util.Deque;
 import java.util.List;
 import java.util.Map;
-import org.junit.jupiter.api.BeforeEach;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 
 public class MatchingEngineTest {
@@ -43,12 +44,6 @@ public class MatchingEngineTest {
         return engine;
     }
 
-    @BeforeEach
-    void resetRecentTrades() {
-        // clear any trades left from previous tests
-        RecentTrades.clearRecentTrades();
-    }
-
     @Test
     void replaceTickers_prunesDeletedTickersFromUserPositions() throws Exception {
         MatchingEngine engine = new MatchingEngine();
@@ -74,6 +69,32 @@ public class MatchingEngineTest {
         assertFalse(after.get("positions").has("OLD"));
     }
 
+    @Test
+    void captureUserStates_returnsOnlyChangedSubscribersOnce() throws Exception {
+        MatchingEngine engine = new MatchingEngine();
+        engine.initializeTicker("AAPL");
+        engine.initializeBot("maker");
+        engine.initializeBot("taker");
+        engine.initializeBot("idle");
+        engine.captureUserStates(Set.of(), Set.of());
+
+        engine.bidLimitOrder("maker", new Order("maker", "AAPL", 100, 5, Side.BID, Status.ACTIVE));
+        List<UserState> states = engine.captureUserStates(Set.of("maker", "idle"), Set.of());
+        assertEquals(1, states.size());
+        assertEquals("maker", states.get(0).username());
+        assertEquals(
+                engine.getUserDetails("maker"), states.get(0).toJson(engine.getLatestPrices()));
+        JsonNode orders = new ObjectMapper().readTree(engine.getUserDetails("maker")).get("Orders");
+        assertEquals(100, orders.get("AAPL").get(0).get("price").asInt());
+
+        assertTrue(engine.captureUserStates(Set.of("maker", "idle"), Set.of()).isEmpty());
+        assertEquals(
+                List.of("idle"),
+                engine.captureUserStates(Set.of("idle"), Set.of("idle")).stream()
+                        .map(UserState::username)
+                        .toList());
+    }
+
     @Test
     void replaceTickers_initializesNewTickersInUserPositionsToZero() throws Exception {
         MatchingEngine engine = new MatchingEngine();
@@ -1568,4 +1589,260 @@ public class MatchingEngineTest {
                 engine.getTickerBalance(users[0], ticker),
                 "Ticker balance should be restored after removing all orders");
     }
+
+    @Test
+    void amend_reducingVolumeAtSamePrice_keepsQueuePriority() {
+        String ticker = "AAPL";
+        MatchingEngine engine = newEngine(1000, ticker, "first", "second", "seller");
+
+        long first =
+                engine.bidLimitOrder(
+                        "first", new Order("first", ticker, 100, 10, Side.BID, Status.ACTIVE));
+        long second =
+                engine.bidLimitOrder(
+                        "second", new Order("second", ticker, 100, 5, Side.BID, Status.ACTIVE));
+
+        Map<String, Object> response = engine.amendOrderHandler("first", first, 100, 4);
+        assertEquals(0, response.get("errorCode"));
+        assertEquals(first, response.get("orderId"));
+        assertEquals(9.0, engine.getBidPriceLevels(ticker).get(0).volume);
+
+        // Still ahead of "second": a sell of 4 fills only the amended order.
+        engine.askLimitOrder(
+                "seller", new Order("seller", ticker, 100, 4, Side.ASK, Status.ACTIVE));
+        assertEquals(Status.FILLED, engine.getOrder("first", first).getStatus());
+        assertEquals(Status.ACTIVE, engine.getOrder("second", second).getStatus());
+        assertEquals(5.0, engine.getBidPriceLevels(ticker).get(0).volume);
+    }
+
+    @Test
+    void amend_priceChange_isCancelReplaceUnderTheSameId() {
+        String ticker = "AAPL";
+        MatchingEngine engine = newEngine(1000, ticker, "buyer", "seller");
+
+        long bid =
+                engine.bidLimitOrder(
+                        "buyer", new Order("buyer", ticker, 100, 5, Side.BID, Status.ACTIVE));
+        engine.askLimitOrder(
+                "seller", new Order("seller", ticker, 110, 3, Side.ASK, Status.ACTIVE));
+
+        // Moving the bid up through the ask fills 3 and rests the other 2 at the new price.
+        Map<String, Object> response = engine.amendOrderHandler("buyer", bid, 110, 5);
+        assertEquals(0, response.get("errorCode"));
+        assertEquals(3, response.get("volumeFilled"));
+        assertEquals(bid, response.get("orderId"));
+        assertEquals(110, engine.getHighestBid(ticker));
+        assertEquals(1, engine.getBidPriceLevels(ticker).size());
+        assertEquals(2.0, engine.getBidPriceLevels(ticker).get(0).volume);
+        assertEquals(110, engine.getOrder("buyer", bid).getPrice());
+        assertTrue(engine.getAskPriceLevels(ticker).isEmpty());
+    }
+
+    @Test
+    void amend_rejected_leavesTheOrderUntouched() {
+        String ticker = "AAPL";
+        MatchingEngine engine = newEngine(10, ticker, "buyer");
+
+        long bid =
+                engine.bidLimitOrder(
+                        "buyer", new Order("buyer", ticker, 100, 5, Side.BID, Status.ACTIVE));
+
+        assertEquals(
+                Message.INVALID_VOLUME.getErrorCode(),
+                engine.amendOrderHandler("buyer", bid, 100, 0).get("errorCode"));
+        assertEquals(
+                Message.POSITION_LIMIT_EXCEEDED.getErrorCode(),
+                engine.amendOrderHandler("buyer", bid, 101, 11).get("errorCode"));
+        assertEquals(
+                Message.ORDER_NOT_FOUND.getErrorCode(),
+                engine.amendOrderHandler("buyer", bid + 1, 100, 1).get("errorCode"));
+        assertEquals(100, engine.getHighestBid(ticker));
+        assertEquals(5.0, engine.getBidPriceLevels(ticker).get(0).volume);
+
+        // The reservation was restored: the full position limit is still 5 plus 5.
+        assertEquals(0, engine.amendOrderHandler("buyer", bid, 101, 10).get("errorCode"));
+        assertEquals(101, engine.getHighestBid(ticker));
+    }
+
+    @Test
+    void immediateOrCancel_fillsWhatItCanAndNeverRests() {
+        String ticker = "AAPL";
+        MatchingEngine engine = newEngine(1000, ticker, "buyer", "seller");
+
+        engine.askLimitOrder(
+                "seller", new Order("seller", ticker, 100, 3, Side.ASK, Status.ACTIVE));
+        Map<String, Object> response =
+                engine.bidLimitOrderHandler(
+                        "buyer",
+                        new Order(
+                                "buyer", ticker, 101, 5, Side.BID, Status.ACTIVE, TimeInForce.IOC));
+        assertEquals(Message.PARTIAL_FILL.getErrorMessage(), response.get("errorMessage"));
+        assertEquals(3, response.get("volumeFilled"));
+        assertEquals(0L, response.get("orderId"));
+        assertTrue(engine.getBidPriceLevels(ticker).isEmpty());
+        assertTrue(engine.getAskPriceLevels(ticker).isEmpty());
+
+        response =
+                engine.askLimitOrderHandler(
+                        "seller",
+                        new Order(
+                                "seller",
+                                ticker,
+                                100,
+                                2,
+                                Side.ASK,
+                                Status.ACTIVE,
+                                TimeInForce.IOC));
+        assertEquals(Message.NO_LIQUIDITY.getErrorCode(), response.get("errorCode"));
+        assertTrue(engine.getAskPriceLevels(ticker).isEmpty());
+    }
+
+    @Test
+    void fillOrKill_isRejectedUntouchedUnlessTheWholeVolumeIsReachable() {
+        String ticker = "AAPL";
+        MatchingEngine engine = newEngine(1000, ticker, "buyer", "seller");
+
+        engine.askLimitOrder(
+                "seller", new Order("seller", ticker, 100, 3, Side.ASK, Status.ACTIVE));
+        engine.askLimitOrder(
+                "seller", new Order("seller", ticker, 102, 3, Side.ASK, Status.ACTIVE));
+
+        // Six are resting, but only three at or below 101.
+        Map<String, Object> response =
+                engine.bidLimitOrderHandler(
+                        "buyer",
+                        new Order(
+                                "buyer", ticker, 101, 4, Side.BID, Status.ACTIVE, TimeInForce.FOK));
+        assertEquals(Message.NOT_FILLABLE.getErrorCode(), response.get("errorCode"));
+        assertEquals(2, engine.getAskPriceLevels(ticker).size());
+        assertEquals(0, engine.getTickerBalance("buyer", ticker));
+
+        response =
+                engine.bidLimitOrderHandler(
+                        "buyer",
+                        new Order(
+                                "buyer", ticker, 102, 4, Side.BID, Status.ACTIVE, TimeInForce.FOK));
+        assertEquals(0, response.get("errorCode"));
+        assertEquals(4, response.get("volumeFilled"));
+        assertEquals(4, engine.getTickerBalance("buyer", ticker));
+        assertEquals(2.0, engine.getAskPriceLevels(ticker).get(0).volume);
+    }
+
+    @Test
+    void postOnly_isRejectedWhenItWouldTakeLiquidity() {
+        String ticker = "AAPL";
+        MatchingEngine engine = newEngine(1000, ticker, "buyer", "seller");
+
+        engine.askLimitOrder(
+                "seller", new Order("seller", ticker, 100, 3, Side.ASK, Status.ACTIVE));
+        Map<String, Object> response =
+                engine.bidLimitOrderHandler(
+                        "buyer",
+                        new Order(
+                                "buyer",
+                                ticker,
+                                100,
+                                1,
+                                Side.BID,
+                                Status.ACTIVE,
+                                TimeInForce.POST_ONLY));
+        assertEquals(Message.WOULD_CROSS.getErrorCode(), response.get("errorCode"));
+        assertEquals(3.0, engine.getAskPriceLevels(ticker).get(0).volume);
+
+        long bid =
+                engine.bidLimitOrder(
+                        "buyer",
+                        new Order(
+                                "buyer",
+                                ticker,
+                                99,
+                                1,
+                                Side.BID,
+                                Status.ACTIVE,
+                                TimeInForce.POST_ONLY));
+        assertTrue(bid > 0);
+        assertEquals(99, engine.getHighestBid(ticker));
+    }
+
+    @Test
+    void removeAll_withFilter_cancelsOnlyMatchingOrders() throws Exception {
+        MatchingEngine engine = new MatchingEngine();
+        engine.initializeTicker("A");
+        engine.initializeTicker("B");
+        engine.initializeBot("bot");
+        long bidA =
+                engine.bidLimitOrder("bot", new Order("bot", "A", 90, 1, Side.BID, Status.ACTIVE));
+        long askA =
+                engine.askLimitOrder("bot", new Order("bot", "A", 110, 2, Side.ASK, Status.ACTIVE));
+        long highAskA =
+                engine.askLimitOrder("bot", new Order("bot", "A", 120, 3, Side.ASK, Status.ACTIVE));
+        long bidB =
+                engine.bidLimitOrder("bot", new Order("bot", "B", 95, 4, Side.BID, Status.ACTIVE));
+
+        TaskFuture<String> future = new TaskFuture<>();
+        engine.removeAll("bot", new OrderFilter("A", Side.ASK, 0, 115), future);
+        assertTrue(future.getData().contains("Removed total volume of 2"));
+        assertNull(engine.getOrder("bot", askA));
+        assertEquals(Status.ACTIVE, engine.getOrder("bot", highAskA).getStatus());
+        assertEquals(Status.ACTIVE, engine.getOrder("bot", bidA).getStatus());
+
+        engine.removeAll("bot", OrderFilter.of(null, Side.BID, null, null));
+        assertNull(engine.getOrder("bot", bidA));
+        assertNull(engine.getOrder("bot", bidB));
+
+        JsonNode orders = new ObjectMapper().readTree(engine.getUserDetails("bot")).get("Orders");
+        assertEquals(1, orders.size());
+        assertEquals(120, orders.get("A").get(0).get("price").asInt());
+
+        future = new TaskFuture<>();
+        engine.removeAll("bot", OrderFilter.of("C", null, null, null), future);
+        assertEquals(Message.UNKNOWN_TICKER.toString(), future.getData());
+    }
+
+    @Test
+    void filledOrders_leaveTheIndex() throws Exception {
+        String ticker = "AAPL";
+        MatchingEngine engine = newEngine(1000, ticker, "buyer", "seller");
+
+        engine.bidLimitOrder("buyer", new Order("buyer", ticker, 100, 2, Side.BID, Status.ACTIVE));
+        engine.askLimitOrder(
+                "seller", new Order("seller", ticker, 100, 2, Side.ASK, Status.ACTIVE));
+
+        JsonNode orders = new ObjectMapper().readTree(engine.getUserDetails("buyer")).get("Orders");
+        assertEquals(0, orders.size());
+        TaskFuture<String> future = new TaskFuture<>();
+        engine.removeAll("buyer", future);
+        assertTrue(future.getData().contains("No active orders to remove"));
+    }
+
+    @Test
+    void amend_postOnlyOrderThatWouldCross_isRejectedInPlace() {
+        String ticker = "AAPL";
+        MatchingEngine engine = newEngine(1000, ticker, "buyer", "seller");
+
+        engine.askLimitOrder(
+                "seller", new Order("seller", ticker, 105, 3, Side.ASK, Status.ACTIVE));
+        long bid =
+                engine.bidLimitOrder(
+                        "buyer",
+                        new Order(
+                                "buyer",
+                                ticker,
+                                100,
+                                2,
+                                Side.BID,
+                                Status.ACTIVE,
+                                TimeInForce.POST_ONLY));
+
+        assertEquals(
+                Message.WOULD_CROSS.getErrorCode(),
+                engine.amendOrderHandler("buyer", bid, 105, 2).get("errorCode"));
+        assertEquals(100, engine.getOrder("buyer", bid).getPrice());
+        assertEquals(Status.ACTIVE, engine.getOrder("buyer", bid).getStatus());
+        assertEquals(3.0, engine.getAskPriceLevels(ticker).get(0).volume);
+
+        // Moving it without crossing is still allowed.
+        assertEquals(0, engine.amendOrderHandler("buyer", bid, 104, 2).get("errorCode"));
+        assertEquals(104, engine.getHighestBid(ticker));
+    }
 }
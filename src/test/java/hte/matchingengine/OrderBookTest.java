@@ -0,0 +1,141 @@
+package hte.matchingengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class OrderBookTest {
+
+    private static Order bid(int price, int volume) {
+        return new Order("u", "A", price, volume, Side.BID, Status.ACTIVE);
+    }
+
+    private static Order ask(int price, int volume) {
+        return new Order("u", "A", price, volume, Side.ASK, Status.ACTIVE);
+    }
+
+    private static void rest(OrderBook book, Order order) {
+        book.levelForInsert(order.side, order.price).addLast(order);
+        book.side(order.side).addVolume(order.price, order.volume);
+    }
+
+    @Test
+    void narrowBand_usesLadder_wideBandUsesTree() {
+        assertTrue(new OrderBook(0, 1000).usesPriceLadder());
+        assertFalse(new OrderBook(0, OrderBook.MAX_LADDER_LEVELS * 2).usesPriceLadder());
+        assertFalse(new OrderBook().usesPriceLadder());
+    }
+
+    @Test
+    void ladder_tracksBestLevelsAsTheyDrain() {
+        OrderBook book = new OrderBook(0, 1000);
+        rest(book, bid(10, 1));
+        rest(book, bid(30, 2));
+        rest(book, bid(20, 3));
+        rest(book, ask(50, 1));
+        rest(book, ask(40, 2));
+
+        assertEquals(30, book.bids.bestPrice());
+        assertEquals(40, book.asks.bestPrice());
+
+        book.bids.bestLevel().poll();
+        book.bids.removeBestLevel();
+        assertEquals(20, book.bids.bestPrice());
+
+        book.asks.bestLevel().poll();
+        book.asks.removeBestLevel();
+        assertEquals(50, book.asks.bestPrice());
+        book.asks.bestLevel().poll();
+        book.asks.removeBestLevel();
+        assertTrue(book.asks.isEmpty());
+    }
+
+    @Test
+    void ladder_growsToCoverPricesOutsideInitialBand() {
+        OrderBook book = new OrderBook(0, 100);
+        rest(book, bid(90, 1));
+        rest(book, bid(5_000, 4));
+
+        assertTrue(book.usesPriceLadder());
+        assertEquals(5_000, book.bids.bestPrice());
+        assertEquals(Map.of(90, 1, 5_000, 4), book.getBidVolumes());
+    }
+
+    @Test
+    void ladder_fallsBackToTree_whenPriceOutOfReach_keepingRestingOrders() {
+        OrderBook book = new OrderBook(0, 100);
+        rest(book, bid(50, 2));
+        rest(book, ask(60, 3));
+        rest(book, ask(OrderBook.MAX_LADDER_LEVELS * 4, 1));
+
+        assertFalse(book.usesPriceLadder());
+        assertEquals(50, book.bids.bestPrice());
+        assertEquals(60, book.asks.bestPrice());
+        assertEquals(Map.of(60, 3, OrderBook.MAX_LADDER_LEVELS * 4, 1), book.getAskVolumes());
+    }
+
+    @Test
+    void engine_matchesIdenticallyOnTreeFallback() {
+        MatchingEngine engine = new MatchingEngine();
+        engine.setPriceBand(0, OrderBook.MAX_LADDER_LEVELS * 2);
+        engine.initializeTicker("A");
+        TestEngines.initBot(engine, "maker", "A", 0);
+        TestEngines.initBot(engine, "taker", "A", 0);
+
+        TestEngines.seedAsk(engine, "maker", "A", 101, 5);
+        TestEngines.seedAsk(engine, "maker", "A", 100, 5);
+        TestEngines.seedBid(engine, "taker", "A", 101, 7);
+
+        assertEquals(101, engine.getLowestAsk("A"));
+        assertEquals(3, engine.getAskPriceLevels("A").get(0).volume);
+        assertEquals(7, engine.getTickerBalance("taker", "A"));
+    }
+
+    @Test
+    void removingQueuedOrder_unlinksInPlaceAndKeepsFifoOrder() {
+        OrderBook book = new OrderBook(0, 1000);
+        Order first = bid(10, 1);
+        Order middle = bid(10, 2);
+        Order last = bid(10, 3);
+        rest(book, first);
+        rest(book, middle);
+        rest(book, last);
+
+        book.bids.remove(middle);
+
+        OrderQueue level = book.bids.bestLevel();
+        assertEquals(2, level.size());
+        assertEquals(first, level.poll());
+        assertEquals(last, level.poll());
+        assertTrue(level.isEmpty());
+    }
+
+    @Test
+    void removingLastOrderAtBest_promotesNextLevel() {
+        OrderBook book = new OrderBook(0, 1000);
+        Order best = ask(40, 1);
+        rest(book, best);
+        rest(book, ask(45, 1));
+
+        book.asks.remove(best);
+
+        assertEquals(45, book.asks.bestPrice());
+        assertFalse(book.asks.levels().containsKey(40));
+    }
+
+    @Test
+    void engine_cancelRemovesOrderFromBookImmediately() {
+        MatchingEngine engine = TestEngines.finiteSingleTicker("A");
+        TestEngines.initBot(engine, "maker", "A", 0);
+
+        long cancelled = TestEngines.seedAsk(engine, "maker", "A", 100, 5);
+        TestEngines.seedAsk(engine, "maker", "A", 105, 5);
+        assertTrue(engine.removeOrder("maker", cancelled));
+
+        assertEquals(105, engine.getLowestAsk("A"));
+        assertFalse(engine.getAsks("A").containsKey(100));
+    }
+}
@@ -0,0 +1,149 @@
+package hte.matchingengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hte.common.TaskFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TopOfBookTest {
+    private MatchingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new MatchingEngine();
+        engine.initializeTicker("A");
+        engine.initializeTicker("B");
+        engine.initializeBot("maker");
+        engine.initializeBot("taker");
+        engine.publishTopOfBook();
+    }
+
+    private long ask(int price, int volume) {
+        return engine.askLimitOrder(
+                "maker", new Order("maker", "A", price, volume, Side.ASK, Status.ACTIVE));
+    }
+
+    private long bid(int price, int volume) {
+        return engine.bidLimitOrder(
+                "maker", new Order("maker", "A", price, volume, Side.BID, Status.ACTIVE));
+    }
+
+    @Test
+    void emptyBooks_haveAnEmptyUnpublishedQuote() {
+        assertFalse(engine.publishTopOfBook());
+        assertEquals(new TopOfBook.Quote("A", 0, 0, 0, 0, 0), engine.getTopOfBook().get("A"));
+        assertNull(engine.getTopOfBook().get("Z"));
+    }
+
+    @Test
+    void publish_tracksBestPricesAndSizes() {
+        ask(105, 3);
+        ask(106, 9);
+        bid(100, 2);
+        bid(100, 4);
+        assertTrue(engine.publishTopOfBook());
+
+        TopOfBook.Quote quote = engine.getTopOfBook().get("A");
+        assertEquals(100, quote.bidPrice());
+        assertEquals(6, quote.bidVolume());
+        assertEquals(105, quote.askPrice());
+        assertEquals(3, quote.askVolume());
+        assertEquals(1, quote.version());
+
+        engine.bidMarketOrder("taker", "A", 3);
+        assertTrue(engine.publishTopOfBook());
+        quote = engine.getTopOfBook().get("A");
+        assertEquals(106, quote.askPrice());
+        assertEquals(9, quote.askVolume());
+        assertEquals(2, quote.version());
+    }
+
+    @Test
+    void changesBehindTheTop_doNotPublish() {
+        ask(105, 3);
+        engine.publishTopOfBook();
+
+        ask(110, 1);
+        assertFalse(engine.publishTopOfBook());
+        assertEquals(1, engine.getTopOfBook().get("A").version());
+    }
+
+    @Test
+    void cancelEmptyingASide_publishesZeroPriceAndVolume() {
+        long id = bid(100, 2);
+        engine.publishTopOfBook();
+
+        engine.removeOrder("maker", id);
+        assertTrue(engine.publishTopOfBook());
+        TopOfBook.Quote quote = engine.getTopOfBook().get("A");
+        assertEquals(0, quote.bidPrice());
+        assertEquals(0, quote.bidVolume());
+    }
+
+    @Test
+    void replacingTickers_emptiesQuotesOfRemovedBooks() {
+        ask(105, 3);
+        engine.publishTopOfBook();
+
+        engine.replaceTickersClearOrderBooks(new String[] {"C"}, new TaskFuture<>());
+        assertTrue(engine.publishTopOfBook());
+        TopOfBook.Quote quote = engine.getTopOfBook().get("A");
+        assertEquals(0, quote.askPrice());
+        assertEquals(0, quote.askVolume());
+    }
+
+    @Test
+    void await_returnsOnceAQuoteChanged() {
+        TopOfBook topOfBook = engine.getTopOfBook();
+        assertFalse(topOfBook.await(1, TimeUnit.MILLISECONDS));
+
+        ask(105, 3);
+        engine.publishTopOfBook();
+        assertTrue(topOfBook.await(1, TimeUnit.SECONDS));
+        assertFalse(topOfBook.await(1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void readers_alwaysSeeAQuoteThatWasPublished() throws InterruptedException {
+        // Bid and ask sizes are always written equal; a torn read would show them apart.
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader =
+                new Thread(
+                        () -> {
+                            try {
+                                TopOfBook.Slot slot = null;
+                                while (slot == null) {
+                                    slot =
+                                            engine.getTopOfBook().slots().stream()
+                                                    .filter(s -> s.ticker().equals("A"))
+                                                    .findFirst()
+                                                    .orElse(null);
+                                }
+                                long version = 0;
+                                while (version < 2_000) {
+                                    TopOfBook.Quote quote = slot.read();
+                                    assertEquals(quote.bidVolume(), quote.askVolume());
+                                    version = quote.version();
+                                }
+                            } catch (Throwable t) {
+                                failure.set(t);
+                            }
+                        });
+        reader.start();
+        for (int i = 1; i <= 2_000; i++) {
+            bid(10, 1);
+            ask(20, 1);
+            engine.publishTopOfBook();
+        }
+        reader.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(reader.isAlive());
+        assertNull(failure.get());
+        assertEquals(2_000, engine.getTopOfBook().get("A").version());
+    }
+}